@@ -19,6 +19,8 @@ import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -105,6 +107,7 @@ public class DefaultUpnpServiceConfiguration implements UpnpServiceConfiguration
     private final int multicastResponsePort;
 
     private final ExecutorService defaultExecutorService;
+    private final ScheduledExecutorService scheduledExecutorService;
 
     private final DatagramProcessor datagramProcessor;
     private final SOAPActionProcessor soapActionProcessor;
@@ -148,6 +151,7 @@ public class DefaultUpnpServiceConfiguration implements UpnpServiceConfiguration
         this.multicastResponsePort = multicastResponsePort;
 
         defaultExecutorService = createDefaultExecutorService();
+        scheduledExecutorService = createScheduledExecutorService();
 
         datagramProcessor = createDatagramProcessor();
         soapActionProcessor = createSOAPActionProcessor();
@@ -289,6 +293,11 @@ public class DefaultUpnpServiceConfiguration implements UpnpServiceConfiguration
         return getDefaultExecutorService();
     }
 
+    @Override
+    public ScheduledExecutorService getScheduledExecutorService() {
+        return scheduledExecutorService;
+    }
+
     @Override
     public Executor getRegistryListenerExecutor() {
         return getDefaultExecutorService();
@@ -308,6 +317,7 @@ public class DefaultUpnpServiceConfiguration implements UpnpServiceConfiguration
     public void shutdown() {
         logger.trace("Shutting down default executor service");
         getDefaultExecutorService().shutdownNow();
+        getScheduledExecutorService().shutdownNow();
     }
 
     protected NetworkAddressFactory createNetworkAddressFactory(int streamListenPort, int multicastResponsePort) {
@@ -346,6 +356,10 @@ public class DefaultUpnpServiceConfiguration implements UpnpServiceConfiguration
         return new JUPnPExecutor();
     }
 
+    protected ScheduledExecutorService createScheduledExecutorService() {
+        return new JUPnPScheduledExecutor();
+    }
+
     public static class JUPnPExecutor extends ThreadPoolExecutor {
 
         public JUPnPExecutor() {
@@ -386,6 +400,28 @@ public class DefaultUpnpServiceConfiguration implements UpnpServiceConfiguration
         }
     }
 
+    public static class JUPnPScheduledExecutor extends ScheduledThreadPoolExecutor {
+
+        public JUPnPScheduledExecutor() {
+            this(new JUPnPThreadFactory());
+        }
+
+        public JUPnPScheduledExecutor(ThreadFactory threadFactory) {
+            // Scheduled tasks only trigger work on other executors, one thread is enough
+            super(1, threadFactory, new ThreadPoolExecutor.DiscardPolicy() {
+                // Rejections will happen during shutdown
+                @Override
+                public void rejectedExecution(Runnable runnable, ThreadPoolExecutor threadPoolExecutor) {
+                    LoggerFactory.getLogger(DefaultUpnpServiceConfiguration.class)
+                            .debug("Scheduler rejected execution of {}", runnable.getClass());
+                    super.rejectedExecution(runnable, threadPoolExecutor);
+                }
+            });
+            setRemoveOnCancelPolicy(true);
+            setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        }
+    }
+
     // Executors.DefaultThreadFactory is package visibility (...no touching, you unworthy JDK user!)
     public static class JUPnPThreadFactory implements ThreadFactory {
 
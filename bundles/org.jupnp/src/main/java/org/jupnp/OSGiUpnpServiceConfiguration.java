@@ -15,10 +15,13 @@
  */
 package org.jupnp;
 
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.util.Map;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import org.jupnp.binding.xml.DeviceDescriptorBinder;
@@ -109,10 +112,13 @@ public class OSGiUpnpServiceConfiguration implements UpnpServiceConfiguration {
     protected boolean mainThreadPool = true;
     protected boolean remoteThreadPool = true;
     protected Namespace callbackURI = new Namespace("http://localhost/upnpcallback");
+    protected Path remoteDescriptorStoreDirectory;
+    protected int remoteDescriptorStoreMaxAgeSeconds = 86400;
 
     protected ExecutorService mainExecutorService;
     protected ExecutorService asyncExecutorService;
     protected ExecutorService remoteExecutorService;
+    protected ScheduledExecutorService scheduledExecutorService;
 
     protected DatagramProcessor datagramProcessor;
     protected SOAPActionProcessor soapActionProcessor;
@@ -297,6 +303,16 @@ public class OSGiUpnpServiceConfiguration implements UpnpServiceConfiguration {
         return null;
     }
 
+    @Override
+    public Path getRemoteDescriptorStoreDirectory() {
+        return remoteDescriptorStoreDirectory;
+    }
+
+    @Override
+    public int getRemoteDescriptorStoreMaxAgeSeconds() {
+        return remoteDescriptorStoreMaxAgeSeconds;
+    }
+
     @Override
     public UpnpHeaders getEventSubscriptionHeaders(RemoteService service) {
         return null;
@@ -347,6 +363,11 @@ public class OSGiUpnpServiceConfiguration implements UpnpServiceConfiguration {
         return getMainExecutorService();
     }
 
+    @Override
+    public ScheduledExecutorService getScheduledExecutorService() {
+        return scheduledExecutorService;
+    }
+
     @Override
     public Executor getRegistryListenerExecutor() {
         return getMainExecutorService();
@@ -381,6 +402,9 @@ public class OSGiUpnpServiceConfiguration implements UpnpServiceConfiguration {
         if (remoteExecutorService != null) {
             remoteExecutorService.shutdownNow();
         }
+        if (scheduledExecutorService != null) {
+            scheduledExecutorService.shutdownNow();
+        }
     }
 
     protected NetworkAddressFactory createNetworkAddressFactory(int streamListenPort, int multicastResponsePort) {
@@ -448,6 +472,8 @@ public class OSGiUpnpServiceConfiguration implements UpnpServiceConfiguration {
         } else {
             logger.debug("Skipping remoteThreadPool creation.");
         }
+
+        scheduledExecutorService = createScheduledExecutorService();
     }
 
     protected ExecutorService createMainExecutorService() {
@@ -462,6 +488,11 @@ public class OSGiUpnpServiceConfiguration implements UpnpServiceConfiguration {
         return QueueingThreadPoolExecutor.createInstance("upnp-remote", remoteThreadPoolSize);
     }
 
+    protected ScheduledExecutorService createScheduledExecutorService() {
+        // Discards tasks scheduled during shutdown, like the default configuration
+        return new DefaultUpnpServiceConfiguration.JUPnPScheduledExecutor();
+    }
+
     protected void setConfigValues(Map<String, Object> properties) {
         if (properties == null) {
             return;
@@ -585,6 +616,31 @@ public class OSGiUpnpServiceConfiguration implements UpnpServiceConfiguration {
         }
         logger.info("OSGiUpnpServiceConfiguration timeoutSeconds = {}", timeoutSeconds);
 
+        prop = properties.get("remoteDescriptorStoreDirectory");
+        if (prop instanceof String) {
+            try {
+                remoteDescriptorStoreDirectory = Path.of((String) prop);
+            } catch (InvalidPathException e) {
+                logger.error("Invalid value '{}' for remoteDescriptorStoreDirectory - not storing descriptors", prop);
+            }
+        }
+        logger.info("OSGiUpnpServiceConfiguration remoteDescriptorStoreDirectory = {}",
+                remoteDescriptorStoreDirectory);
+
+        prop = properties.get("remoteDescriptorStoreMaxAgeSeconds");
+        if (prop instanceof String) {
+            try {
+                remoteDescriptorStoreMaxAgeSeconds = Integer.parseInt((String) prop);
+            } catch (NumberFormatException e) {
+                logger.error("Invalid value '{}' for remoteDescriptorStoreMaxAgeSeconds - using default value '{}'",
+                        prop, remoteDescriptorStoreMaxAgeSeconds);
+            }
+        } else if (prop instanceof Integer) {
+            remoteDescriptorStoreMaxAgeSeconds = (Integer) prop;
+        }
+        logger.info("OSGiUpnpServiceConfiguration remoteDescriptorStoreMaxAgeSeconds = {}",
+                remoteDescriptorStoreMaxAgeSeconds);
+
         // let's automatically determine the size for the remoteThreadPool
         if (!mainThreadPool || !asyncThreadPool) {
             remoteThreadPool = false;
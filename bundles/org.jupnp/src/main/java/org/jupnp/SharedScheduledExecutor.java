@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2011-2026 4th Line GmbH, Switzerland and others
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License Version 1 or later
+ * ("CDDL") (collectively, the "License"). You may not use this file
+ * except in compliance with the License. See LICENSE.txt for more
+ * information.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * SPDX-License-Identifier: CDDL-1.0
+ */
+package org.jupnp;
+
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * The scheduler of configurations which don't provide their own, see
+ * {@link UpnpServiceConfiguration#getScheduledExecutorService()}.
+ * <p>
+ * It's created on first use, shared by all these configurations and never shut down, its thread is a daemon.
+ * </p>
+ */
+class SharedScheduledExecutor {
+
+    private static final ScheduledExecutorService INSTANCE = new DefaultUpnpServiceConfiguration.JUPnPScheduledExecutor(
+            runnable -> {
+                Thread thread = new Thread(runnable, "jupnp-scheduler");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private SharedScheduledExecutor() {
+    }
+
+    static ScheduledExecutorService getInstance() {
+        return INSTANCE;
+    }
+}
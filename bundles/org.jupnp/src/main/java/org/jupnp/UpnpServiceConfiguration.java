@@ -15,8 +15,10 @@
  */
 package org.jupnp;
 
+import java.nio.file.Path;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
 
 import org.jupnp.binding.xml.DeviceDescriptorBinder;
 import org.jupnp.binding.xml.ServiceDescriptorBinder;
@@ -179,6 +181,26 @@ public interface UpnpServiceConfiguration {
      */
     boolean isReceivedSubscriptionTimeoutIgnored();
 
+    /**
+     * @return The maximum number of event messages sent to subscribers of local services at the same time,
+     *         <code>0</code> for no limit. Events of the same subscription are always sent one after another.
+     *         Defaults to <code>16</code>.
+     */
+    default int getMaxConcurrentEventDeliveries() {
+        return 16;
+    }
+
+    /**
+     * UDA expects events to be sent until the subscription expires, even if the subscriber doesn't respond. Removing
+     * subscriptions of failing subscribers earlier is optional.
+     *
+     * @return The number of consecutive failed event deliveries after which a subscription to a local service
+     *         is removed, <code>0</code> (the default) to never remove it.
+     */
+    default int getMaxFailedEventDeliveries() {
+        return 0;
+    }
+
     /**
      * Returns the time in seconds a remote device will be registered until it is expired.
      * <p>
@@ -213,6 +235,29 @@ public interface UpnpServiceConfiguration {
      */
     UpnpHeaders getDescriptorRetrievalHeaders(RemoteDeviceIdentity identity);
 
+    /**
+     * Optional directory where the retrieved descriptors of remote devices are stored.
+     * <p>
+     * Stored descriptors are used instead of retrieving them again from the device, also after a restart.
+     * They are valid as long as the device announces the same <code>CONFIGID.UPNP.ORG</code>. Descriptors of
+     * devices without configuration number are valid until the device reboots with a new
+     * <code>BOOTID.UPNP.ORG</code> or for {@link #getRemoteDescriptorStoreMaxAgeSeconds()}.
+     * </p>
+     *
+     * @return <code>null</code> (the default) to always retrieve descriptors from the devices.
+     */
+    default Path getRemoteDescriptorStoreDirectory() {
+        return null;
+    }
+
+    /**
+     * @return The number of seconds stored descriptors of a remote device without configuration number are used,
+     *         <code>0</code> for no limit. Defaults to <code>86400</code> (one day).
+     */
+    default int getRemoteDescriptorStoreMaxAgeSeconds() {
+        return 86400;
+    }
+
     /**
      * Optional extra headers for event subscription (almost HTTP) messages.
      * <p>
@@ -242,10 +287,20 @@ public interface UpnpServiceConfiguration {
     Namespace getNamespace();
 
     /**
-     * @return The executor which runs the background thread for maintaining the registry.
+     * @return The executor which runs the periodic maintenance passes of the registry.
      */
     Executor getRegistryMaintainerExecutor();
 
+    /**
+     * @return The scheduler which triggers delayed and periodic tasks of the UPnP stack, e.g. registry maintenance,
+     *         delayed search responses, and repeated discovery messages. Scheduled tasks are expected to be short or
+     *         to hand off their work to an executor. Defaults to a scheduler with one daemon thread, shared by all
+     *         configurations which don't provide their own and never shut down.
+     */
+    default ScheduledExecutorService getScheduledExecutorService() {
+        return SharedScheduledExecutor.getInstance();
+    }
+
     /**
      * @return The executor which runs the notification threads of registry listeners.
      */
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2011-2026 4th Line GmbH, Switzerland and others
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License Version 1 or later
+ * ("CDDL") (collectively, the "License"). You may not use this file
+ * except in compliance with the License. See LICENSE.txt for more
+ * information.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * SPDX-License-Identifier: CDDL-1.0
+ */
+package org.jupnp.binding.xml;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.jupnp.model.meta.Action;
+import org.jupnp.model.meta.Service;
+import org.jupnp.model.meta.StateVariable;
+import org.jupnp.util.io.HexBin;
+
+/**
+ * Actions and state variables parsed from service descriptors, by hash of the descriptor content.
+ * <p>
+ * Devices of the same model usually have byte-identical service descriptors. A descriptor is parsed once, services
+ * described again by the same descriptor get copies of the parsed actions and state variables. Actions, arguments
+ * and state variables reference their service, so each service has its own instances. The immutable definitions
+ * they hold are shared: names, argument directions and related state variables, datatypes, default and allowed
+ * values, allowed value ranges, and eventing details.
+ * </p>
+ */
+public class ServiceModelCache {
+
+    /**
+     * The number of distinct service descriptors kept, the least recently used are dropped.
+     */
+    public static final int MODELS_MAX_SIZE = 64;
+
+    private final Map<String, ServiceModel> models = Collections
+            .synchronizedMap(new LinkedHashMap<>(MODELS_MAX_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, ServiceModel> eldest) {
+                    return size() > MODELS_MAX_SIZE;
+                }
+            });
+
+    /**
+     * @return The key of a service descriptor, a hash of its content.
+     */
+    public String getKey(String descriptorXml) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(descriptorXml.getBytes(StandardCharsets.UTF_8));
+            return HexBin.bytesToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return The key of a service descriptor read from bytes, a hash of the bytes.
+     */
+    public String getKey(byte[] descriptor) {
+        try {
+            return HexBin.bytesToString(MessageDigest.getInstance("SHA-256").digest(descriptor));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return The model parsed from the service descriptor with the given key, or <code>null</code>.
+     */
+    public ServiceModel get(String key) {
+        return models.get(key);
+    }
+
+    /**
+     * @param key The key of the service descriptor.
+     * @param service The service described by the descriptor.
+     */
+    public void put(String key, Service service) {
+        models.put(key, new ServiceModel(service.getActions(), service.getStateVariables()));
+    }
+
+    public int size() {
+        return models.size();
+    }
+
+    public void clear() {
+        models.clear();
+    }
+
+    /**
+     * Detached copies of the actions and state variables of a described service.
+     */
+    public static class ServiceModel {
+
+        private final Action[] actions;
+        private final StateVariable[] stateVariables;
+
+        ServiceModel(Action[] actions, StateVariable[] stateVariables) {
+            this.actions = copy(actions);
+            this.stateVariables = copy(stateVariables);
+        }
+
+        /**
+         * @return New actions and arguments, sharing their definitions with all services of this model.
+         */
+        public Action[] createActions() {
+            return copy(actions);
+        }
+
+        /**
+         * @return New state variables, sharing their definitions with all services of this model.
+         */
+        public StateVariable[] createStateVariables() {
+            return copy(stateVariables);
+        }
+
+        private static Action[] copy(Action[] actions) {
+            Action[] copies = new Action[actions.length];
+            for (int i = 0; i < actions.length; i++) {
+                copies[i] = actions[i].deepCopy();
+            }
+            return copies;
+        }
+
+        private static StateVariable[] copy(StateVariable[] stateVariables) {
+            StateVariable[] copies = new StateVariable[stateVariables.length];
+            for (int i = 0; i < stateVariables.length; i++) {
+                copies[i] = stateVariables[i].deepCopy();
+            }
+            return copies;
+        }
+    }
+}
@@ -0,0 +1,372 @@
+/*
+ * Copyright (C) 2011-2026 4th Line GmbH, Switzerland and others
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License Version 1 or later
+ * ("CDDL") (collectively, the "License"). You may not use this file
+ * except in compliance with the License. See LICENSE.txt for more
+ * information.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * SPDX-License-Identifier: CDDL-1.0
+ */
+package org.jupnp.binding.xml;
+
+import static org.jupnp.xml.StAXParser.close;
+import static org.jupnp.xml.StAXParser.nextChildElement;
+import static org.jupnp.xml.StAXParser.readDocumentEnd;
+import static org.jupnp.xml.StAXParser.readText;
+import static org.jupnp.xml.StAXParser.skipElement;
+
+import java.net.URL;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.jupnp.binding.staging.MutableDevice;
+import org.jupnp.binding.staging.MutableIcon;
+import org.jupnp.binding.staging.MutableService;
+import org.jupnp.binding.xml.Descriptor.Device.ELEMENT;
+import org.jupnp.model.ValidationException;
+import org.jupnp.model.meta.Device;
+import org.jupnp.model.types.DLNACaps;
+import org.jupnp.model.types.DLNADoc;
+import org.jupnp.model.types.InvalidValueException;
+import org.jupnp.model.types.ServiceId;
+import org.jupnp.model.types.ServiceType;
+import org.jupnp.model.types.UDN;
+import org.jupnp.util.MimeType;
+import org.jupnp.util.SpecificationViolationReporter;
+import org.jupnp.xml.StAXParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Implementation based on the <em>StAX</em> streaming XML API.
+ * <p>
+ * Descriptors are read in a single pass into a {@link MutableDevice}, without building a DOM, and can be read
+ * directly from the received bytes. The parser factory is created once and shared by all calls. Descriptors are
+ * generated with DOM, like {@link UDA10DeviceDescriptorBinderImpl} does.
+ * </p>
+ */
+public class UDA10DeviceDescriptorBinderStAXImpl extends UDA10DeviceDescriptorBinderImpl {
+
+    private final Logger logger = LoggerFactory.getLogger(DeviceDescriptorBinder.class);
+
+    private final StAXParser parser = new StAXParser();
+
+    @Override
+    public <D extends Device> D describe(D undescribedDevice, String descriptorXml)
+            throws DescriptorBindingException, ValidationException {
+
+        if (descriptorXml == null || descriptorXml.isEmpty()) {
+            throw new DescriptorBindingException("Null or empty descriptor");
+        }
+
+        try {
+            logger.trace("Populating device from XML descriptor: {}", undescribedDevice);
+            // Some devices send whitespace after the root element
+            return describe(undescribedDevice, parser.createReader(descriptorXml.trim()));
+        } catch (XMLStreamException e) {
+            throw new DescriptorBindingException("Could not parse device descriptor", e);
+        }
+    }
+
+    /**
+     * Reads the descriptor directly from the received bytes, the encoding is detected from the byte order mark or
+     * XML declaration.
+     */
+    public <D extends Device> D describe(D undescribedDevice, byte[] descriptor)
+            throws DescriptorBindingException, ValidationException {
+
+        if (descriptor == null || descriptor.length == 0) {
+            throw new DescriptorBindingException("Null or empty descriptor");
+        }
+
+        try {
+            logger.trace("Populating device from XML descriptor bytes: {}", undescribedDevice);
+            return describe(undescribedDevice, parser.createReader(descriptor));
+        } catch (XMLStreamException e) {
+            throw new DescriptorBindingException("Could not parse device descriptor", e);
+        }
+    }
+
+    protected <D extends Device> D describe(D undescribedDevice, XMLStreamReader reader)
+            throws DescriptorBindingException, ValidationException {
+        try {
+            // Read the XML into a mutable descriptor graph
+            MutableDevice descriptor = new MutableDevice();
+            readRoot(descriptor, reader);
+            readDocumentEnd(reader);
+
+            // Build the immutable descriptor graph
+            return buildInstance(undescribedDevice, descriptor);
+
+        } catch (ValidationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DescriptorBindingException("Could not parse device descriptor", e);
+        } finally {
+            close(reader);
+        }
+    }
+
+    protected void readRoot(MutableDevice descriptor, XMLStreamReader reader)
+            throws XMLStreamException, DescriptorBindingException {
+
+        if (!nextChildElement(reader)) {
+            throw new DescriptorBindingException("No root element in descriptor");
+        }
+
+        if (reader.getNamespaceURI() == null || !reader.getNamespaceURI().equals(Descriptor.Device.NAMESPACE_URI)) {
+            SpecificationViolationReporter.report("Wrong XML namespace declared on root element: {}",
+                    reader.getNamespaceURI());
+        }
+
+        String rootName = reader.getPrefix() == null || reader.getPrefix().isEmpty() ? reader.getLocalName()
+                : reader.getPrefix() + ":" + reader.getLocalName();
+        if (!rootName.equals(ELEMENT.root.name())) {
+            throw new DescriptorBindingException("Root element name is not <root>: " + rootName);
+        }
+
+        boolean deviceFound = false;
+
+        while (nextChildElement(reader)) {
+            ELEMENT element = ELEMENT.valueOrNullOf(reader.getLocalName());
+
+            if (element == ELEMENT.specVersion) {
+                readSpecVersion(descriptor, reader);
+            } else if (element == ELEMENT.URLBase) {
+                String urlString = readText(reader);
+                try {
+                    if (!urlString.isEmpty()) {
+                        // We hope it's RFC 2396 and RFC 2732 compliant
+                        descriptor.baseURL = new URL(urlString);
+                    }
+                } catch (Exception e) {
+                    throw new DescriptorBindingException("Invalid URLBase: " + e.getMessage());
+                }
+            } else if (element == ELEMENT.device) {
+                // Just sanity check here...
+                if (deviceFound) {
+                    throw new DescriptorBindingException("Found multiple <device> elements in <root>");
+                }
+                deviceFound = true;
+                readDevice(descriptor, reader);
+            } else {
+                logger.trace("Ignoring unknown element: {}", reader.getLocalName());
+                skipElement(reader);
+            }
+        }
+
+        if (!deviceFound) {
+            throw new DescriptorBindingException("No <device> element in <root>");
+        }
+    }
+
+    protected void readSpecVersion(MutableDevice descriptor, XMLStreamReader reader) throws XMLStreamException {
+
+        while (nextChildElement(reader)) {
+            ELEMENT element = ELEMENT.valueOrNullOf(reader.getLocalName());
+
+            if (element == ELEMENT.major) {
+                String version = readText(reader).trim();
+                if (!version.equals("1")) {
+                    SpecificationViolationReporter.report("Unsupported UDA major version, ignoring: " + version);
+                    version = "1";
+                }
+                descriptor.udaVersion.major = Integer.parseInt(version);
+            } else if (element == ELEMENT.minor) {
+                String version = readText(reader).trim();
+                if (!version.equals("0")) {
+                    SpecificationViolationReporter.report("Unsupported UDA minor version, ignoring: " + version);
+                    version = "0";
+                }
+                descriptor.udaVersion.minor = Integer.parseInt(version);
+            } else {
+                skipElement(reader);
+            }
+        }
+    }
+
+    protected void readDevice(MutableDevice descriptor, XMLStreamReader reader) throws XMLStreamException {
+
+        while (nextChildElement(reader)) {
+            ELEMENT element = ELEMENT.valueOrNullOf(reader.getLocalName());
+            if (element == null) {
+                skipElement(reader);
+                continue;
+            }
+
+            switch (element) {
+                case deviceType:
+                    descriptor.deviceType = readText(reader);
+                    break;
+                case friendlyName:
+                    descriptor.friendlyName = readText(reader);
+                    break;
+                case manufacturer:
+                    descriptor.manufacturer = readText(reader);
+                    break;
+                case manufacturerURL:
+                    descriptor.manufacturerURI = parseURI(readText(reader));
+                    break;
+                case modelDescription:
+                    descriptor.modelDescription = readText(reader);
+                    break;
+                case modelName:
+                    descriptor.modelName = readText(reader);
+                    break;
+                case modelNumber:
+                    descriptor.modelNumber = readText(reader);
+                    break;
+                case modelURL:
+                    descriptor.modelURI = parseURI(readText(reader));
+                    break;
+                case presentationURL:
+                    descriptor.presentationURI = parseURI(readText(reader));
+                    break;
+                case UPC:
+                    descriptor.upc = readText(reader);
+                    break;
+                case serialNumber:
+                    descriptor.serialNumber = readText(reader);
+                    break;
+                case UDN:
+                    descriptor.udn = UDN.valueOf(readText(reader));
+                    break;
+                case iconList:
+                    readIconList(descriptor, reader);
+                    break;
+                case serviceList:
+                    readServiceList(descriptor, reader);
+                    break;
+                case deviceList:
+                    readDeviceList(descriptor, reader);
+                    break;
+                case X_DLNADOC:
+                    if (Descriptor.Device.DLNA_PREFIX.equals(reader.getPrefix())) {
+                        String txt = readText(reader);
+                        try {
+                            descriptor.dlnaDocs.add(DLNADoc.valueOf(txt));
+                        } catch (InvalidValueException e) {
+                            logger.info("Invalid X_DLNADOC value, ignoring value: {}", txt);
+                        }
+                    } else {
+                        skipElement(reader);
+                    }
+                    break;
+                case X_DLNACAP:
+                    if (Descriptor.Device.DLNA_PREFIX.equals(reader.getPrefix())) {
+                        descriptor.dlnaCaps = DLNACaps.valueOf(readText(reader));
+                    } else {
+                        skipElement(reader);
+                    }
+                    break;
+                default:
+                    skipElement(reader);
+            }
+        }
+    }
+
+    protected void readIconList(MutableDevice descriptor, XMLStreamReader reader) throws XMLStreamException {
+
+        while (nextChildElement(reader)) {
+            if (!ELEMENT.icon.name().equals(reader.getLocalName())) {
+                skipElement(reader);
+                continue;
+            }
+
+            MutableIcon icon = new MutableIcon();
+
+            while (nextChildElement(reader)) {
+                ELEMENT element = ELEMENT.valueOrNullOf(reader.getLocalName());
+
+                if (element == ELEMENT.width) {
+                    icon.width = Integer.parseInt(readText(reader));
+                } else if (element == ELEMENT.height) {
+                    icon.height = Integer.parseInt(readText(reader));
+                } else if (element == ELEMENT.depth) {
+                    String depth = readText(reader);
+                    try {
+                        icon.depth = Integer.parseInt(depth);
+                    } catch (NumberFormatException e) {
+                        SpecificationViolationReporter.report("Invalid icon depth '{}', using 16 as default: {}", depth,
+                                e);
+                        icon.depth = 16;
+                    }
+                } else if (element == ELEMENT.url) {
+                    icon.uri = parseURI(readText(reader));
+                } else if (element == ELEMENT.mimetype) {
+                    try {
+                        icon.mimeType = readText(reader);
+                        MimeType.valueOf(icon.mimeType);
+                    } catch (IllegalArgumentException e) {
+                        SpecificationViolationReporter.report("Ignoring invalid icon mime type: " + icon.mimeType);
+                        icon.mimeType = "";
+                    }
+                } else {
+                    skipElement(reader);
+                }
+            }
+
+            descriptor.icons.add(icon);
+        }
+    }
+
+    protected void readServiceList(MutableDevice descriptor, XMLStreamReader reader) throws XMLStreamException {
+
+        while (nextChildElement(reader)) {
+            if (!ELEMENT.service.name().equals(reader.getLocalName())) {
+                skipElement(reader);
+                continue;
+            }
+
+            try {
+                MutableService service = new MutableService();
+
+                while (nextChildElement(reader)) {
+                    ELEMENT element = ELEMENT.valueOrNullOf(reader.getLocalName());
+
+                    if (element == ELEMENT.serviceType) {
+                        service.serviceType = ServiceType.valueOf(readText(reader));
+                    } else if (element == ELEMENT.serviceId) {
+                        service.serviceId = ServiceId.valueOf(readText(reader));
+                    } else if (element == ELEMENT.SCPDURL) {
+                        service.descriptorURI = parseURI(readText(reader));
+                    } else if (element == ELEMENT.controlURL) {
+                        service.controlURI = parseURI(readText(reader));
+                    } else if (element == ELEMENT.eventSubURL) {
+                        service.eventSubscriptionURI = parseURI(readText(reader));
+                    } else {
+                        skipElement(reader);
+                    }
+                }
+
+                descriptor.services.add(service);
+            } catch (InvalidValueException e) {
+                SpecificationViolationReporter.report("Skipping invalid service declaration. " + e.getMessage());
+                // Skip the rest of the <service> element
+                skipElement(reader);
+            }
+        }
+    }
+
+    protected void readDeviceList(MutableDevice descriptor, XMLStreamReader reader) throws XMLStreamException {
+
+        while (nextChildElement(reader)) {
+            if (!ELEMENT.device.name().equals(reader.getLocalName())) {
+                skipElement(reader);
+                continue;
+            }
+
+            MutableDevice embeddedDevice = new MutableDevice();
+            embeddedDevice.parentDevice = descriptor;
+            descriptor.embeddedDevices.add(embeddedDevice);
+            readDevice(embeddedDevice, reader);
+        }
+    }
+}
@@ -66,6 +66,16 @@ public class UDA10ServiceDescriptorBinderImpl implements ServiceDescriptorBinder
 
     private final Logger logger = LoggerFactory.getLogger(ServiceDescriptorBinder.class);
 
+    private final ServiceModelCache serviceModelCache = new ServiceModelCache();
+
+    public ServiceModelCache getServiceModelCache() {
+        return serviceModelCache;
+    }
+
+    /**
+     * Remote services described by a descriptor which has been parsed before share the parsed model, see
+     * {@link ServiceModelCache}.
+     */
     @Override
     public <S extends Service> S describe(S undescribedService, String descriptorXml)
             throws DescriptorBindingException, ValidationException {
@@ -73,6 +83,28 @@ public class UDA10ServiceDescriptorBinderImpl implements ServiceDescriptorBinder
             throw new DescriptorBindingException("Null or empty descriptor");
         }
 
+        if (!(undescribedService instanceof RemoteService)) {
+            return parse(undescribedService, descriptorXml);
+        }
+
+        String key = serviceModelCache.getKey(descriptorXml);
+        ServiceModelCache.ServiceModel model = serviceModelCache.get(key);
+        if (model != null) {
+            return buildInstance(undescribedService, model);
+        }
+
+        S service = parse(undescribedService, descriptorXml);
+        if (service != null) {
+            serviceModelCache.put(key, service);
+        }
+        return service;
+    }
+
+    /**
+     * Parses the descriptor and builds the service.
+     */
+    protected <S extends Service> S parse(S undescribedService, String descriptorXml)
+            throws DescriptorBindingException, ValidationException {
         try {
             logger.trace("Populating service from XML descriptor: {}", undescribedService);
 
@@ -124,6 +156,19 @@ public class UDA10ServiceDescriptorBinderImpl implements ServiceDescriptorBinder
         return (S) descriptor.build(undescribedService.getDevice());
     }
 
+    /**
+     * Builds the service with copies of the actions and state variables of a cached model.
+     */
+    protected <S extends Service> S buildInstance(S undescribedService, ServiceModelCache.ServiceModel model)
+            throws ValidationException {
+        logger.trace("Populating service from cached model: {}", undescribedService);
+        MutableService descriptor = new MutableService();
+        hydrateBasic(descriptor, undescribedService);
+        return (S) undescribedService.getDevice().newInstance(descriptor.serviceType, descriptor.serviceId,
+                descriptor.descriptorURI, descriptor.controlURI, descriptor.eventSubscriptionURI,
+                model.createActions(), model.createStateVariables());
+    }
+
     protected void hydrateBasic(MutableService descriptor, Service undescribedService) {
         descriptor.serviceId = undescribedService.getServiceId();
         descriptor.serviceType = undescribedService.getServiceType();
@@ -53,13 +53,9 @@ public class UDA10ServiceDescriptorBinderSAXImpl extends UDA10ServiceDescriptorB
     private final Logger logger = LoggerFactory.getLogger(ServiceDescriptorBinder.class);
 
     @Override
-    public <S extends Service> S describe(S undescribedService, String descriptorXml)
+    protected <S extends Service> S parse(S undescribedService, String descriptorXml)
             throws DescriptorBindingException, ValidationException {
 
-        if (descriptorXml == null || descriptorXml.isEmpty()) {
-            throw new DescriptorBindingException("Null or empty descriptor");
-        }
-
         try {
             logger.trace("Reading service from XML descriptor");
 
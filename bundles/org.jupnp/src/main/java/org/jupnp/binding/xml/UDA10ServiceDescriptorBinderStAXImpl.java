@@ -0,0 +1,298 @@
+/*
+ * Copyright (C) 2011-2026 4th Line GmbH, Switzerland and others
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License Version 1 or later
+ * ("CDDL") (collectively, the "License"). You may not use this file
+ * except in compliance with the License. See LICENSE.txt for more
+ * information.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * SPDX-License-Identifier: CDDL-1.0
+ */
+package org.jupnp.binding.xml;
+
+import static org.jupnp.xml.StAXParser.close;
+import static org.jupnp.xml.StAXParser.nextChildElement;
+import static org.jupnp.xml.StAXParser.readDocumentEnd;
+import static org.jupnp.xml.StAXParser.readText;
+import static org.jupnp.xml.StAXParser.skipElement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.jupnp.binding.staging.MutableAction;
+import org.jupnp.binding.staging.MutableActionArgument;
+import org.jupnp.binding.staging.MutableAllowedValueRange;
+import org.jupnp.binding.staging.MutableService;
+import org.jupnp.binding.staging.MutableStateVariable;
+import org.jupnp.binding.xml.Descriptor.Service.ATTRIBUTE;
+import org.jupnp.binding.xml.Descriptor.Service.ELEMENT;
+import org.jupnp.model.ValidationException;
+import org.jupnp.model.meta.ActionArgument;
+import org.jupnp.model.meta.RemoteService;
+import org.jupnp.model.meta.Service;
+import org.jupnp.model.meta.StateVariableEventDetails;
+import org.jupnp.model.types.CustomDatatype;
+import org.jupnp.model.types.Datatype;
+import org.jupnp.util.SpecificationViolationReporter;
+import org.jupnp.xml.StAXParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Implementation based on the <em>StAX</em> streaming XML API.
+ * <p>
+ * Descriptors are read in a single pass into a {@link MutableService}, without building a DOM, and can be read
+ * directly from the received bytes. The parser factory is created once and shared by all calls. Remote services
+ * share parsed models like with {@link UDA10ServiceDescriptorBinderImpl}.
+ * </p>
+ */
+public class UDA10ServiceDescriptorBinderStAXImpl extends UDA10ServiceDescriptorBinderImpl {
+
+    private final Logger logger = LoggerFactory.getLogger(ServiceDescriptorBinder.class);
+
+    private final StAXParser parser = new StAXParser();
+
+    @Override
+    protected <S extends Service> S parse(S undescribedService, String descriptorXml)
+            throws DescriptorBindingException, ValidationException {
+        try {
+            logger.trace("Populating service from XML descriptor: {}", undescribedService);
+            // Some devices send whitespace after the root element
+            return parse(undescribedService, parser.createReader(descriptorXml.trim()));
+        } catch (XMLStreamException e) {
+            throw new DescriptorBindingException("Could not parse service descriptor", e);
+        }
+    }
+
+    /**
+     * Reads the descriptor directly from the received bytes, the encoding is detected from the byte order mark or
+     * XML declaration.
+     */
+    public <S extends Service> S describe(S undescribedService, byte[] descriptor)
+            throws DescriptorBindingException, ValidationException {
+        if (descriptor == null || descriptor.length == 0) {
+            throw new DescriptorBindingException("Null or empty descriptor");
+        }
+
+        if (!(undescribedService instanceof RemoteService)) {
+            return parse(undescribedService, descriptor);
+        }
+
+        ServiceModelCache serviceModelCache = getServiceModelCache();
+        String key = serviceModelCache.getKey(descriptor);
+        ServiceModelCache.ServiceModel model = serviceModelCache.get(key);
+        if (model != null) {
+            return buildInstance(undescribedService, model);
+        }
+
+        S service = parse(undescribedService, descriptor);
+        if (service != null) {
+            serviceModelCache.put(key, service);
+        }
+        return service;
+    }
+
+    protected <S extends Service> S parse(S undescribedService, byte[] descriptor)
+            throws DescriptorBindingException, ValidationException {
+        try {
+            logger.trace("Populating service from XML descriptor bytes: {}", undescribedService);
+            return parse(undescribedService, parser.createReader(descriptor));
+        } catch (XMLStreamException e) {
+            throw new DescriptorBindingException("Could not parse service descriptor", e);
+        }
+    }
+
+    protected <S extends Service> S parse(S undescribedService, XMLStreamReader reader)
+            throws DescriptorBindingException, ValidationException {
+        try {
+            // Read the XML into a mutable descriptor graph
+            MutableService descriptor = new MutableService();
+
+            hydrateBasic(descriptor, undescribedService);
+
+            readRoot(descriptor, reader);
+            readDocumentEnd(reader);
+
+            // Build the immutable descriptor graph
+            return buildInstance(undescribedService, descriptor);
+
+        } catch (ValidationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DescriptorBindingException("Could not parse service descriptor", e);
+        } finally {
+            close(reader);
+        }
+    }
+
+    protected void readRoot(MutableService descriptor, XMLStreamReader reader)
+            throws XMLStreamException, DescriptorBindingException {
+
+        // We don't check the XMLNS, nobody bothers anyway...
+
+        if (!nextChildElement(reader) || !ELEMENT.scpd.name().equals(reader.getLocalName())) {
+            throw new DescriptorBindingException(
+                    "Root element name is not <scpd>: " + (reader.isStartElement() ? reader.getLocalName() : null));
+        }
+
+        while (nextChildElement(reader)) {
+            ELEMENT element = ELEMENT.valueOrNullOf(reader.getLocalName());
+
+            if (element == ELEMENT.specVersion) {
+                logger.trace("Ignoring UDA major/minor specVersion");
+                skipElement(reader);
+            } else if (element == ELEMENT.actionList) {
+                readActionList(descriptor, reader);
+            } else if (element == ELEMENT.serviceStateTable) {
+                readServiceStateTable(descriptor, reader);
+            } else {
+                logger.trace("Ignoring unknown element: {}", reader.getLocalName());
+                skipElement(reader);
+            }
+        }
+    }
+
+    protected void readActionList(MutableService descriptor, XMLStreamReader reader) throws XMLStreamException {
+
+        while (nextChildElement(reader)) {
+            if (!ELEMENT.action.name().equals(reader.getLocalName())) {
+                skipElement(reader);
+                continue;
+            }
+
+            MutableAction action = new MutableAction();
+            readAction(action, reader);
+            descriptor.actions.add(action);
+        }
+    }
+
+    protected void readAction(MutableAction action, XMLStreamReader reader) throws XMLStreamException {
+
+        while (nextChildElement(reader)) {
+            ELEMENT element = ELEMENT.valueOrNullOf(reader.getLocalName());
+
+            if (element == ELEMENT.name) {
+                action.name = readText(reader);
+            } else if (element == ELEMENT.argumentList) {
+                while (nextChildElement(reader)) {
+                    MutableActionArgument actionArgument = new MutableActionArgument();
+                    readActionArgument(actionArgument, reader);
+                    action.arguments.add(actionArgument);
+                }
+            } else {
+                skipElement(reader);
+            }
+        }
+    }
+
+    protected void readActionArgument(MutableActionArgument actionArgument, XMLStreamReader reader)
+            throws XMLStreamException {
+
+        while (nextChildElement(reader)) {
+            ELEMENT element = ELEMENT.valueOrNullOf(reader.getLocalName());
+
+            if (element == ELEMENT.name) {
+                actionArgument.name = readText(reader);
+            } else if (element == ELEMENT.direction) {
+                String directionString = readText(reader);
+                try {
+                    actionArgument.direction = ActionArgument.Direction
+                            .valueOf(directionString.toUpperCase(Locale.ENGLISH));
+                } catch (IllegalArgumentException e) {
+                    // Some devices send illegal values such as INOUT
+                    SpecificationViolationReporter.report("Invalid action argument direction, assuming 'IN': {}",
+                            directionString);
+                    actionArgument.direction = ActionArgument.Direction.IN;
+                }
+            } else if (element == ELEMENT.relatedStateVariable) {
+                actionArgument.relatedStateVariable = readText(reader);
+            } else if (element == ELEMENT.retval) {
+                actionArgument.retval = true;
+                skipElement(reader);
+            } else {
+                skipElement(reader);
+            }
+        }
+    }
+
+    protected void readServiceStateTable(MutableService descriptor, XMLStreamReader reader)
+            throws XMLStreamException {
+
+        while (nextChildElement(reader)) {
+            if (!ELEMENT.stateVariable.name().equals(reader.getLocalName())) {
+                skipElement(reader);
+                continue;
+            }
+
+            MutableStateVariable stateVariable = new MutableStateVariable();
+            readStateVariable(stateVariable, reader);
+            descriptor.stateVariables.add(stateVariable);
+        }
+    }
+
+    protected void readStateVariable(MutableStateVariable stateVariable, XMLStreamReader reader)
+            throws XMLStreamException {
+
+        String sendEvents = reader.getAttributeValue(null, ATTRIBUTE.sendEvents.toString());
+        stateVariable.eventDetails = new StateVariableEventDetails(
+                sendEvents != null && sendEvents.toUpperCase(Locale.ENGLISH).equals("YES"));
+
+        while (nextChildElement(reader)) {
+            ELEMENT element = ELEMENT.valueOrNullOf(reader.getLocalName());
+
+            if (element == ELEMENT.name) {
+                stateVariable.name = readText(reader);
+            } else if (element == ELEMENT.dataType) {
+                String dtName = readText(reader);
+                Datatype.Builtin builtin = Datatype.Builtin.getByDescriptorName(dtName);
+                stateVariable.dataType = builtin != null ? builtin.getDatatype() : new CustomDatatype(dtName);
+            } else if (element == ELEMENT.defaultValue) {
+                stateVariable.defaultValue = readText(reader);
+            } else if (element == ELEMENT.allowedValueList) {
+                List<String> allowedValues = new ArrayList<>();
+                while (nextChildElement(reader)) {
+                    if (ELEMENT.allowedValue.name().equals(reader.getLocalName())) {
+                        allowedValues.add(readText(reader));
+                    } else {
+                        skipElement(reader);
+                    }
+                }
+                stateVariable.allowedValues = allowedValues;
+            } else if (element == ELEMENT.allowedValueRange) {
+                MutableAllowedValueRange range = new MutableAllowedValueRange();
+                while (nextChildElement(reader)) {
+                    ELEMENT rangeElement = ELEMENT.valueOrNullOf(reader.getLocalName());
+                    if (rangeElement != ELEMENT.minimum && rangeElement != ELEMENT.maximum
+                            && rangeElement != ELEMENT.step) {
+                        skipElement(reader);
+                        continue;
+                    }
+                    String value = readText(reader);
+                    try {
+                        if (rangeElement == ELEMENT.minimum) {
+                            range.minimum = Long.valueOf(value);
+                        } else if (rangeElement == ELEMENT.maximum) {
+                            range.maximum = Long.valueOf(value);
+                        } else {
+                            range.step = Long.valueOf(value);
+                        }
+                    } catch (NumberFormatException e) {
+                        // Keep the default
+                    }
+                }
+                stateVariable.allowedValueRange = range;
+            } else {
+                skipElement(reader);
+            }
+        }
+    }
+}
@@ -95,8 +95,8 @@ public class ControlPointImpl implements ControlPoint {
     @Override
     public void search(UpnpHeader searchType, int mxSeconds) {
         logger.trace("Sending asynchronous search for: {}", searchType.getString());
-        getConfiguration().getAsyncProtocolExecutor()
-                .execute(getProtocolFactory().createSendingSearch(searchType, mxSeconds));
+        getProtocolFactory().createSendingSearch(searchType, mxSeconds).schedule(
+                getConfiguration().getScheduledExecutorService(), getConfiguration().getAsyncProtocolExecutor());
     }
 
     public void execute(ExecuteAction executeAction) {
@@ -144,6 +144,28 @@ public class XMLUtil {
         return s;
     }
 
+    /**
+     * Appends the text to the buffer encoded like {@link #encodeText(String, boolean)} without quotes.
+     */
+    public static void appendEncodedText(StringBuilder builder, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '&':
+                    builder.append("&amp;");
+                    break;
+                case '<':
+                    builder.append("&lt;");
+                    break;
+                case '>':
+                    builder.append("&gt;");
+                    break;
+                default:
+                    builder.append(c);
+            }
+        }
+    }
+
     public static Element appendNewElement(Document document, Element parent, Enum el) {
         return appendNewElement(document, parent, el.toString());
     }
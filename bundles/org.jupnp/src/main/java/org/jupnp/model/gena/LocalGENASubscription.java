@@ -16,6 +16,7 @@
 package org.jupnp.model.gena;
 
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
@@ -49,6 +50,12 @@ import org.slf4j.LoggerFactory;
  * Delivery of the event message to the subscriber is not part of this class, but the
  * implementor of {@link #eventReceived()}.
  * </p>
+ * <p>
+ * Values of state variables changing faster than their maximum rate are not dropped, the latest
+ * value is held back and added to the first event after the rate allows it. Implementors can
+ * override {@link #scheduleModeratedValues(long)} to send these values as soon as possible, instead
+ * of waiting for the next change of the service state.
+ * </p>
  *
  * @author Christian Bauer
  * @author Jochen Hiller - Changed to use Compact2 compliant Java Beans
@@ -63,6 +70,10 @@ public abstract class LocalGENASubscription extends GENASubscription<LocalServic
     final Map<String, Long> lastSentTimestamp = new HashMap<>();
     final Map<String, Long> lastSentNumericValue = new HashMap<>();
 
+    // Latest values held back by the maximum rate of their state variable
+    final Map<String, StateVariableValue> moderatedValues = new HashMap<>();
+    long moderatedValuesTimestamp;
+
     protected LocalGENASubscription(LocalService service, List<URL> callbackURLs) throws Exception {
         super(service);
         this.callbackURLs = callbackURLs;
@@ -118,6 +129,7 @@ public abstract class LocalGENASubscription extends GENASubscription<LocalServic
      * Removes a property change listener on the {@link org.jupnp.model.ServiceManager}.
      */
     public synchronized void end(CancelReason reason) {
+        moderatedValues.clear();
         try {
             getService().getManager().getPropertyChangeSupport().removePropertyChangeListener(this);
         } catch (Exception e) {
@@ -149,16 +161,20 @@ public abstract class LocalGENASubscription extends GENASubscription<LocalServic
             if (!excludedVariables.contains(name)) {
                 logger.trace("Adding state variable value to current values of event: {} = {}",
                         newValue.getStateVariable(), newValue);
-                currentValues.put(newValue.getStateVariable().getName(), newValue);
-
-                // Preserve "last sent" state for future moderation
-                lastSentTimestamp.put(name, currentTime);
-                if (newValue.getStateVariable().isModeratedNumericType()) {
-                    lastSentNumericValue.put(name, Long.valueOf(newValue.toString()));
-                }
+                addCurrentValue(currentTime, newValue);
+            } else if (currentTime <= getNextEventTimestamp(newValue.getStateVariable())) {
+                logger.trace("Holding back state variable value until maximum rate allows it: {} = {}",
+                        newValue.getStateVariable(), newValue);
+                moderatedValues.put(name, newValue);
+            } else {
+                // Within minimum delta of the last sent value, nothing to catch up on
+                moderatedValues.remove(name);
             }
         }
 
+        // Catch up on held back values in the same event
+        addModeratedValues(currentTime, getDueModeratedValues(currentTime));
+
         if (!currentValues.isEmpty()) {
             logger.trace("Propagating new state variable values to subscription: {}", this);
             // TODO: I'm not happy with this design, this dispatches to a separate thread which _then_
@@ -168,6 +184,100 @@ public abstract class LocalGENASubscription extends GENASubscription<LocalServic
         } else {
             logger.trace("No state variable values for event (all moderated out?), not triggering event");
         }
+
+        rescheduleModeratedValues(currentTime);
+    }
+
+    /**
+     * Sends the held back values of moderated state variables, if their maximum rate allows it, in one event
+     * through {@link #eventReceived()}.
+     */
+    public synchronized void moderatedValuesDue() {
+        long currentTime = new Date().getTime();
+        moderatedValuesTimestamp = 0;
+
+        List<StateVariableValue> dueValues = getDueModeratedValues(currentTime);
+        if (!dueValues.isEmpty()) {
+            currentValues.clear();
+            addModeratedValues(currentTime, dueValues);
+            if (!currentValues.isEmpty()) {
+                logger.trace("Propagating held back state variable values to subscription: {}", this);
+                eventReceived();
+            }
+        }
+
+        rescheduleModeratedValues(currentTime);
+    }
+
+    /**
+     * Called when values are held back by the maximum rate of their state variables, by default does nothing and
+     * the values are sent with the next event.
+     *
+     * @param delayMillis The time after which {@link #moderatedValuesDue()} should be called.
+     */
+    protected void scheduleModeratedValues(long delayMillis) {
+    }
+
+    /**
+     * @return The earliest time the state variable can be sent again, or <code>0</code> if it has no maximum rate.
+     */
+    protected synchronized long getNextEventTimestamp(StateVariable stateVariable) {
+        long maximumRate = stateVariable.getEventDetails().getEventMaximumRateMilliseconds();
+        Long timestampLastSent = lastSentTimestamp.get(stateVariable.getName());
+        return maximumRate > 0 && timestampLastSent != null ? timestampLastSent + maximumRate : 0;
+    }
+
+    protected synchronized List<StateVariableValue> getDueModeratedValues(long currentTime) {
+        List<StateVariableValue> dueValues = new ArrayList<>();
+        for (StateVariableValue value : moderatedValues.values()) {
+            if (currentTime > getNextEventTimestamp(value.getStateVariable())) {
+                dueValues.add(value);
+            }
+        }
+        return dueValues;
+    }
+
+    protected synchronized void addModeratedValues(long currentTime, List<StateVariableValue> dueValues) {
+        // The minimum delta still applies, compared to the last sent value
+        Set<String> excludedVariables = moderateStateVariables(currentTime, dueValues);
+        for (StateVariableValue dueValue : dueValues) {
+            String name = dueValue.getStateVariable().getName();
+            moderatedValues.remove(name);
+            if (!excludedVariables.contains(name)) {
+                logger.trace("Adding held back state variable value to current values of event: {} = {}",
+                        dueValue.getStateVariable(), dueValue);
+                addCurrentValue(currentTime, dueValue);
+            }
+        }
+    }
+
+    protected synchronized void addCurrentValue(long currentTime, StateVariableValue value) {
+        String name = value.getStateVariable().getName();
+        currentValues.put(name, value);
+        moderatedValues.remove(name);
+
+        // Preserve "last sent" state for future moderation
+        lastSentTimestamp.put(name, currentTime);
+        if (value.getStateVariable().isModeratedNumericType()) {
+            lastSentNumericValue.put(name, Long.valueOf(value.toString()));
+        }
+    }
+
+    private void rescheduleModeratedValues(long currentTime) {
+        if (moderatedValues.isEmpty()) {
+            return;
+        }
+        long nextTimestamp = Long.MAX_VALUE;
+        for (StateVariableValue value : moderatedValues.values()) {
+            nextTimestamp = Math.min(nextTimestamp, getNextEventTimestamp(value.getStateVariable()));
+        }
+        // Already scheduled early enough
+        if (moderatedValuesTimestamp > currentTime && moderatedValuesTimestamp <= nextTimestamp) {
+            return;
+        }
+        moderatedValuesTimestamp = nextTimestamp;
+        // The maximum rate is exceeded until the timestamp has passed
+        scheduleModeratedValues(nextTimestamp - currentTime + 1);
     }
 
     /**
@@ -28,6 +28,7 @@ public abstract class OutgoingDatagramMessage<O extends UpnpOperation> extends U
     private int destinationPort;
     // For performance reasons, headers of this message are not normalized
     private UpnpHeaders headers = new UpnpHeaders(false);
+    private byte[] encodedData;
 
     protected OutgoingDatagramMessage(O operation, InetAddress destinationAddress, int destinationPort) {
         super(operation);
@@ -42,6 +43,19 @@ public abstract class OutgoingDatagramMessage<O extends UpnpOperation> extends U
         this.destinationPort = destinationPort;
     }
 
+    /**
+     * Creates a message with the same operation, headers, and encoded data as the given message, for another
+     * destination.
+     */
+    protected OutgoingDatagramMessage(OutgoingDatagramMessage<O> source, InetAddress destinationAddress,
+            int destinationPort) {
+        super(source);
+        this.headers = source.getHeaders();
+        this.encodedData = source.getEncodedData();
+        this.destinationAddress = destinationAddress;
+        this.destinationPort = destinationPort;
+    }
+
     public InetAddress getDestinationAddress() {
         return destinationAddress;
     }
@@ -54,4 +68,20 @@ public abstract class OutgoingDatagramMessage<O extends UpnpOperation> extends U
     public UpnpHeaders getHeaders() {
         return this.headers;
     }
+
+    /**
+     * @return The already encoded start line and headers of this message, or <code>null</code> if the message
+     *         has not been encoded.
+     */
+    public byte[] getEncodedData() {
+        return encodedData;
+    }
+
+    /**
+     * Stores the encoded start line and headers, the message is then sent without encoding it again. Headers of
+     * this message must not be modified afterwards.
+     */
+    public void setEncodedData(byte[] encodedData) {
+        this.encodedData = encodedData;
+    }
 }
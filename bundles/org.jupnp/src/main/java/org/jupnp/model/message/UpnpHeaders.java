@@ -49,6 +49,17 @@ public class UpnpHeaders extends Headers {
         super(inputStream);
     }
 
+    /**
+     * Reads the header lines up to the first empty line, known UPnP headers are parsed right away.
+     *
+     * @param data The buffer with the header lines.
+     * @param offset The position of the first header line.
+     * @param length The number of bytes that can be read.
+     */
+    public UpnpHeaders(byte[] data, int offset, int length) {
+        new UpnpHeadersReader(data, offset, length).addTo(this);
+    }
+
     public UpnpHeaders(boolean normalizeHeaders) {
         super(normalizeHeaders);
     }
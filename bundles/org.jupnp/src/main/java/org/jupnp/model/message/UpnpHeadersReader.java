@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2011-2026 4th Line GmbH, Switzerland and others
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License Version 1 or later
+ * ("CDDL") (collectively, the "License"). You may not use this file
+ * except in compliance with the License. See LICENSE.txt for more
+ * information.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * SPDX-License-Identifier: CDDL-1.0
+ */
+package org.jupnp.model.message;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import org.jupnp.model.message.header.UpnpHeader;
+
+/**
+ * Reads HTTP headers directly from the bytes of a datagram, used by {@link UpnpHeaders}.
+ * <p>
+ * The names of known {@link UpnpHeader.Type}s are matched on the bytes without creating strings, and their values
+ * are parsed right away. Any other header is only added as a plain HTTP header.
+ * </p>
+ */
+class UpnpHeadersReader {
+
+    // Known header types, indexed by the length of their HTTP name
+    private static final UpnpHeader.Type[][] TYPES_BY_NAME_LENGTH;
+
+    static {
+        int maxLength = 0;
+        for (UpnpHeader.Type type : UpnpHeader.Type.values()) {
+            maxLength = Math.max(maxLength, type.getHttpName().length());
+        }
+        List<List<UpnpHeader.Type>> types = new ArrayList<>();
+        for (int i = 0; i <= maxLength; i++) {
+            types.add(new ArrayList<>());
+        }
+        for (UpnpHeader.Type type : UpnpHeader.Type.values()) {
+            types.get(type.getHttpName().length()).add(type);
+        }
+        TYPES_BY_NAME_LENGTH = new UpnpHeader.Type[maxLength + 1][];
+        for (int i = 0; i <= maxLength; i++) {
+            TYPES_BY_NAME_LENGTH[i] = types.get(i).toArray(new UpnpHeader.Type[0]);
+        }
+    }
+
+    private final byte[] data;
+    private final int end;
+
+    // Header lines in order of appearance, the type is null for unknown headers
+    private final List<UpnpHeader.Type> types = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+    private final List<String> values = new ArrayList<>();
+
+    UpnpHeadersReader(byte[] data, int offset, int length) {
+        this.data = data;
+        this.end = offset + length;
+        read(offset);
+    }
+
+    /**
+     * Adds the headers that have been read, with the values of known headers already parsed.
+     */
+    void addTo(UpnpHeaders headers) {
+        for (int i = 0; i < types.size(); i++) {
+            UpnpHeader.Type type = types.get(i);
+            headers.add(type != null ? type.getHttpName() : names.get(i), values.get(i));
+        }
+
+        // Adding raw headers resets the parsed headers, so they are set last
+        headers.parsedHeaders = new LinkedHashMap<>();
+        for (int i = 0; i < types.size(); i++) {
+            UpnpHeader.Type type = types.get(i);
+            if (type == null) {
+                continue;
+            }
+            UpnpHeader upnpHeader = UpnpHeader.newInstance(type, values.get(i));
+            if (upnpHeader != null && upnpHeader.getValue() != null) {
+                headers.addParsedValue(type, upnpHeader);
+            }
+        }
+    }
+
+    private void read(int pos) {
+        while (pos < end) {
+            int lineEnd = pos;
+            while (lineEnd < end && data[lineEnd] != '\r' && data[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            if (lineEnd == pos) {
+                // Empty line, end of headers
+                return;
+            }
+
+            if ((data[pos] == ' ' || data[pos] == '\t') && !types.isEmpty()) {
+                // Folded header line, continues the value of the last header
+                int last = values.size() - 1;
+                String continuation = string(skipWhitespace(pos, lineEnd), trimEnd(pos, lineEnd));
+                values.set(last, values.get(last) != null ? values.get(last) + continuation : continuation);
+            } else {
+                readHeader(pos, lineEnd);
+            }
+
+            pos = lineEnd;
+            if (pos < end && data[pos] == '\r') {
+                pos++;
+            }
+            if (pos < end && data[pos] == '\n') {
+                pos++;
+            }
+        }
+    }
+
+    private void readHeader(int lineStart, int lineEnd) {
+        int nameStart = skipWhitespace(lineStart, lineEnd);
+        int nameEnd = nameStart;
+        while (nameEnd < lineEnd && data[nameEnd] != ':' && !isWhitespace(data[nameEnd])) {
+            nameEnd++;
+        }
+        int colonEnd = nameEnd;
+        while (colonEnd < lineEnd) {
+            if (data[colonEnd++] == ':') {
+                break;
+            }
+        }
+        int valueStart = skipWhitespace(colonEnd, lineEnd);
+        int valueEnd = trimEnd(valueStart, lineEnd);
+
+        UpnpHeader.Type type = getType(nameStart, nameEnd);
+        types.add(type);
+        names.add(type == null ? string(nameStart, nameEnd) : null);
+        // There are really HTTP headers without values
+        values.add(valueStart < valueEnd ? string(valueStart, valueEnd) : null);
+    }
+
+    private UpnpHeader.Type getType(int nameStart, int nameEnd) {
+        int length = nameEnd - nameStart;
+        if (length >= TYPES_BY_NAME_LENGTH.length) {
+            return null;
+        }
+        for (UpnpHeader.Type type : TYPES_BY_NAME_LENGTH[length]) {
+            if (equalsIgnoreCase(type.getHttpName(), nameStart)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    private boolean equalsIgnoreCase(String httpName, int nameStart) {
+        for (int i = 0; i < httpName.length(); i++) {
+            int b = data[nameStart + i];
+            if (b >= 'a' && b <= 'z') {
+                b -= 'a' - 'A';
+            }
+            // The known names are upper case ASCII
+            if (b != httpName.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int skipWhitespace(int pos, int limit) {
+        while (pos < limit && isWhitespace(data[pos])) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private int trimEnd(int start, int limit) {
+        while (limit > start && isWhitespace(data[limit - 1])) {
+            limit--;
+        }
+        return limit;
+    }
+
+    private String string(int start, int limit) {
+        // A byte is a character, as when reading lines from a stream
+        return new String(data, start, limit - start, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Same as {@link Character#isWhitespace(char)} for a single byte character.
+     */
+    static boolean isWhitespace(byte b) {
+        return b == ' ' || (b >= 0x09 && b <= 0x0D) || (b >= 0x1C && b <= 0x1F);
+    }
+}
@@ -31,6 +31,11 @@ import org.slf4j.LoggerFactory;
  * it is always read into memory and transported as a string or bytes message body.
  * </p>
  * <p>
+ * A string body received as bytes, see {@link #setBodyCharacters(byte[])}, is only decoded when
+ * the string is accessed. Its bytes are sent and parsed as they are, without a round-trip through
+ * a string.
+ * </p>
+ * <p>
  * Subtypes of this class typically implement the integrity rules for individual UPnP
  * messages, for example, what headers a particular message requires.
  * </p>
@@ -55,12 +60,15 @@ public abstract class UpnpMessage<O extends UpnpOperation> {
     private O operation;
     private UpnpHeaders headers = new UpnpHeaders();
     private Object body;
+    // The encoded characters of a string body, decoded on demand
+    private byte[] bodyCharacters;
     private BodyType bodyType = BodyType.STRING;
 
     protected UpnpMessage(UpnpMessage<O> source) {
         this.operation = source.getOperation();
         this.headers = source.getHeaders();
-        this.body = source.getBody();
+        this.body = source.body;
+        this.bodyCharacters = source.bodyCharacters;
         this.bodyType = source.getBodyType();
         this.udaMajorVersion = source.getUdaMajorVersion();
         this.udaMinorVersion = source.getUdaMinorVersion();
@@ -101,25 +109,47 @@ public abstract class UpnpMessage<O extends UpnpOperation> {
     }
 
     public Object getBody() {
+        if (body == null && bodyCharacters != null) {
+            if (bodyType == BodyType.BYTES) {
+                return bodyCharacters;
+            }
+            body = new String(bodyCharacters, getContentTypeCharset());
+        }
         return body;
     }
 
     public void setBody(String string) {
         this.bodyType = BodyType.STRING;
         this.body = string;
+        this.bodyCharacters = null;
     }
 
     public void setBody(BodyType bodyType, Object body) {
         this.bodyType = bodyType;
         this.body = body;
+        this.bodyCharacters = null;
     }
 
+    /**
+     * Sets a string body, encoded with the charset of the content type. The characters are decoded when the body
+     * is accessed as a string for the first time.
+     */
     public void setBodyCharacters(byte[] characterData) {
-        setBody(UpnpMessage.BodyType.STRING, new String(characterData, getContentTypeCharset()));
+        this.bodyType = BodyType.STRING;
+        this.body = null;
+        this.bodyCharacters = characterData;
+    }
+
+    /**
+     * @return The encoded characters of a string body set with {@link #setBodyCharacters(byte[])}, or
+     *         <code>null</code> if the body was set as a string.
+     */
+    public byte[] getBodyCharacters() {
+        return bodyType == BodyType.STRING ? bodyCharacters : null;
     }
 
     public boolean hasBody() {
-        return getBody() != null;
+        return body != null || bodyCharacters != null;
     }
 
     public BodyType getBodyType() {
@@ -155,6 +185,9 @@ public abstract class UpnpMessage<O extends UpnpOperation> {
                 return null;
             }
             if (getBodyType().equals(BodyType.STRING)) {
+                if (bodyCharacters != null) {
+                    return bodyCharacters;
+                }
                 return getBodyString().getBytes(getContentTypeCharset());
             } else {
                 return (byte[]) getBody();
@@ -222,7 +255,10 @@ public abstract class UpnpMessage<O extends UpnpOperation> {
     }
 
     public boolean isBodyNonEmptyString() {
-        return hasBody() && getBodyType().equals(UpnpMessage.BodyType.STRING) && !getBodyString().isEmpty();
+        if (!hasBody() || !getBodyType().equals(UpnpMessage.BodyType.STRING)) {
+            return false;
+        }
+        return body == null ? bodyCharacters.length > 0 : !getBodyString().isEmpty();
     }
 
     @Override
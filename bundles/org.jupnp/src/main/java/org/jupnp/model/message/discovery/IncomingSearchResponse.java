@@ -19,6 +19,8 @@ import java.net.URL;
 
 import org.jupnp.model.message.IncomingDatagramMessage;
 import org.jupnp.model.message.UpnpResponse;
+import org.jupnp.model.message.header.BootIdHeader;
+import org.jupnp.model.message.header.ConfigIdHeader;
 import org.jupnp.model.message.header.DeviceUSNHeader;
 import org.jupnp.model.message.header.InterfaceMacHeader;
 import org.jupnp.model.message.header.LocationHeader;
@@ -99,4 +101,20 @@ public class IncomingSearchResponse extends IncomingDatagramMessage<UpnpResponse
         }
         return null;
     }
+
+    public Integer getConfigId() {
+        ConfigIdHeader header = getHeaders().getFirstHeader(UpnpHeader.Type.CONFIGID, ConfigIdHeader.class);
+        if (header != null) {
+            return header.getValue();
+        }
+        return null;
+    }
+
+    public Integer getBootId() {
+        BootIdHeader header = getHeaders().getFirstHeader(UpnpHeader.Type.BOOTID, BootIdHeader.class);
+        if (header != null) {
+            return header.getValue();
+        }
+        return null;
+    }
 }
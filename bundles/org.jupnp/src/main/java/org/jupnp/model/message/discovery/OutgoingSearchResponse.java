@@ -48,4 +48,11 @@ public class OutgoingSearchResponse extends OutgoingDatagramMessage<UpnpResponse
                     new InterfaceMacHeader(location.getNetworkAddress().getHardwareAddress()));
         }
     }
+
+    /**
+     * Creates a response to the given request with the headers and encoded data of an earlier response.
+     */
+    public OutgoingSearchResponse(OutgoingSearchResponse response, IncomingDatagramMessage request) {
+        super(response, request.getSourceAddress(), request.getSourcePort());
+    }
 }
@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2011-2026 4th Line GmbH, Switzerland and others
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License Version 1 or later
+ * ("CDDL") (collectively, the "License"). You may not use this file
+ * except in compliance with the License. See LICENSE.txt for more
+ * information.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * SPDX-License-Identifier: CDDL-1.0
+ */
+package org.jupnp.model.message.header;
+
+/**
+ * The UDA 1.1 <code>BOOTID.UPNP.ORG</code> header of advertisements and search responses, the boot instance of a
+ * device. Changes each time the device rejoins the network.
+ */
+public class BootIdHeader extends UpnpHeader<Integer> {
+
+    public BootIdHeader() {
+    }
+
+    public BootIdHeader(Integer value) {
+        setValue(value);
+    }
+
+    @Override
+    public void setString(String s) throws InvalidHeaderException {
+        int value;
+        try {
+            value = Integer.parseInt(s.trim());
+        } catch (Exception e) {
+            throw new InvalidHeaderException("Can't parse BOOTID.UPNP.ORG integer from: " + s, e);
+        }
+        if (value < 0) {
+            throw new InvalidHeaderException("Invalid BOOTID.UPNP.ORG value: " + s);
+        }
+        setValue(value);
+    }
+
+    @Override
+    public String getString() {
+        return getValue().toString();
+    }
+}
@@ -19,9 +19,6 @@ import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
 /**
  * Transforms known and standardized UPnP/HTTP headers from/to string representation.
  * <p>
@@ -61,6 +58,8 @@ public abstract class UpnpHeader<T> {
         RANGE("RANGE", RangeHeader.class),
         CONTENT_RANGE("CONTENT-RANGE", ContentRangeHeader.class),
         PRAGMA("PRAGMA", PragmaHeader.class),
+        BOOTID("BOOTID.UPNP.ORG", BootIdHeader.class),
+        CONFIGID("CONFIGID.UPNP.ORG", ConfigIdHeader.class),
 
         EXT_IFACE_MAC("X-CLING-IFACE-MAC", InterfaceMacHeader.class),
         EXT_AV_CLIENT_INFO("X-AV-CLIENT-INFO", AVClientInfoHeader.class);
@@ -133,39 +132,19 @@ public abstract class UpnpHeader<T> {
     /**
      * Create a new instance of a {@link UpnpHeader} subtype that matches the given type and value.
      * <p>
-     * This method iterates through all potential header subtype classes as declared in {@link Type}.
-     * It creates a new instance of the subtype class and calls its {@link #setString(String)} method.
-     * If no {@link org.jupnp.model.message.header.InvalidHeaderException} is thrown, the subtype
-     * instance is returned.
+     * This method tries the potential header subtype classes as declared in {@link Type}, skipping any subtype
+     * which can certainly not parse the value. It creates a new instance of the subtype class and calls its
+     * {@link #setString(String)} method. If no {@link org.jupnp.model.message.header.InvalidHeaderException} is
+     * thrown, the subtype instance is returned.
      * </p>
      *
      * @param type The type (or name) of the header.
      * @param headerValue The value of the header.
      * @return The best matching header subtype instance, or <code>null</code> if no subtype can be found.
+     * @see UpnpHeaderFactory
      */
     public static UpnpHeader newInstance(UpnpHeader.Type type, String headerValue) {
-        final Logger logger = LoggerFactory.getLogger(UpnpHeader.class);
-
-        // Try all the UPnP headers and see if one matches our value parsers
-        UpnpHeader upnpHeader = null;
-        for (int i = 0; i < type.getHeaderTypes().length && upnpHeader == null; i++) {
-            Class<? extends UpnpHeader> headerClass = type.getHeaderTypes()[i];
-            try {
-                logger.trace("Trying to parse '{}' with class: {}", type, headerClass.getSimpleName());
-                upnpHeader = headerClass.getDeclaredConstructor().newInstance();
-                if (headerValue != null) {
-                    upnpHeader.setString(headerValue);
-                }
-            } catch (InvalidHeaderException e) {
-                logger.trace("Invalid header value for tested type: {} - {}", headerClass.getSimpleName(),
-                        e.getMessage());
-                upnpHeader = null;
-            } catch (Exception e) {
-                logger.error("Error instantiating header of type '{}' with value: {}", type, headerValue, e);
-            }
-
-        }
-        return upnpHeader;
+        return UpnpHeaderFactory.create(type, headerValue);
     }
 
     @Override
@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2011-2026 4th Line GmbH, Switzerland and others
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License Version 1 or later
+ * ("CDDL") (collectively, the "License"). You may not use this file
+ * except in compliance with the License. See LICENSE.txt for more
+ * information.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * SPDX-License-Identifier: CDDL-1.0
+ */
+package org.jupnp.model.message.header;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.jupnp.model.types.NotificationSubtype;
+import org.jupnp.model.types.UDADeviceType;
+import org.jupnp.model.types.UDAServiceType;
+import org.jupnp.model.types.UDN;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates {@link UpnpHeader} subtype instances for a header type and value, without reflection.
+ * <p>
+ * The subtypes of each {@link UpnpHeader.Type} are tried in their declared order, but a subtype is only
+ * instantiated when a quick check of the value shows that it might be able to parse it. An <code>ST</code> value
+ * like <code>urn:schemas-upnp-org:service:ContentDirectory:1</code> goes straight to its subtype, instead of
+ * failing in all the device and UDN subtypes first.
+ * </p>
+ * <p>
+ * Additional subtypes can be {@link #register(UpnpHeader.Type, Supplier, Predicate) registered}, they are tried
+ * before the built-in subtypes.
+ * </p>
+ */
+public final class UpnpHeaderFactory {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UpnpHeader.class);
+
+    private static final String ROOT_DEVICE = new RootDeviceHeader().getValue();
+    private static final String EVENT = new NTEventHeader().getValue();
+    private static final String UDA_DEVICE_TYPE_PREFIX = "urn:" + UDADeviceType.DEFAULT_NAMESPACE + ":device:";
+    private static final String UDA_SERVICE_TYPE_PREFIX = "urn:" + UDAServiceType.DEFAULT_NAMESPACE + ":service:";
+
+    /**
+     * A header subtype, and a check which rejects values this subtype can certainly not parse.
+     */
+    static class Candidate {
+
+        final Supplier<? extends UpnpHeader> constructor;
+        final Predicate<String> accepts;
+
+        Candidate(Supplier<? extends UpnpHeader> constructor, Predicate<String> accepts) {
+            this.constructor = constructor;
+            this.accepts = accepts;
+        }
+    }
+
+    private static final Map<UpnpHeader.Type, List<Candidate>> BUILT_IN = createCandidates();
+
+    // Replaced on registration, never modified
+    private static volatile Map<UpnpHeader.Type, List<Candidate>> candidates = BUILT_IN;
+
+    private UpnpHeaderFactory() {
+    }
+
+    /**
+     * Registers an additional header subtype, it is tried before all previously known subtypes of the type.
+     *
+     * @param type The type (or name) of the header.
+     * @param constructor Creates a new instance of the subtype.
+     * @param accepts Returns <code>false</code> for a value the subtype can certainly not parse, the subtype might
+     *            still throw an {@link InvalidHeaderException} for an accepted value.
+     */
+    public static synchronized void register(UpnpHeader.Type type, Supplier<? extends UpnpHeader> constructor,
+            Predicate<String> accepts) {
+        Map<UpnpHeader.Type, List<Candidate>> registered = new EnumMap<>(candidates);
+        List<Candidate> typeCandidates = new ArrayList<>();
+        typeCandidates.add(new Candidate(constructor, accepts));
+        typeCandidates.addAll(registered.get(type));
+        registered.put(type, Collections.unmodifiableList(typeCandidates));
+        candidates = registered;
+    }
+
+    /**
+     * Creates the first header subtype of the given type which can parse the value.
+     *
+     * @param type The type (or name) of the header.
+     * @param headerValue The value of the header.
+     * @return The best matching header subtype instance, or <code>null</code> if no subtype can parse the value.
+     */
+    public static UpnpHeader create(UpnpHeader.Type type, String headerValue) {
+        if (headerValue == null) {
+            // Nothing to parse, the first declared subtype has its default value
+            return BUILT_IN.get(type).get(0).constructor.get();
+        }
+
+        for (Candidate candidate : candidates.get(type)) {
+            if (!candidate.accepts.test(headerValue)) {
+                continue;
+            }
+            UpnpHeader upnpHeader = candidate.constructor.get();
+            try {
+                upnpHeader.setString(headerValue);
+                return upnpHeader;
+            } catch (InvalidHeaderException e) {
+                LOGGER.trace("Invalid header value for tested type: {} - {}", upnpHeader.getClass().getSimpleName(),
+                        e.getMessage());
+            } catch (Exception e) {
+                LOGGER.error("Error instantiating header of type '{}' with value: {}", type, headerValue, e);
+                // The subtype keeps its default value
+                return upnpHeader;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The subtypes of each type are the subtypes declared by {@link UpnpHeader.Type#getHeaderTypes()}, in the same
+     * order.
+     */
+    private static Map<UpnpHeader.Type, List<Candidate>> createCandidates() {
+        Map<Class<? extends UpnpHeader>, Candidate> subtypes = createSubtypes();
+
+        Map<UpnpHeader.Type, List<Candidate>> map = new EnumMap<>(UpnpHeader.Type.class);
+        for (UpnpHeader.Type type : UpnpHeader.Type.values()) {
+            List<Candidate> typeCandidates = new ArrayList<>();
+            for (Class<? extends UpnpHeader> headerType : type.getHeaderTypes()) {
+                Candidate candidate = subtypes.get(headerType);
+                if (candidate == null) {
+                    throw new IllegalStateException("No constructor for header subtype: " + headerType.getName());
+                }
+                typeCandidates.add(candidate);
+            }
+            map.put(type, Collections.unmodifiableList(typeCandidates));
+        }
+        return map;
+    }
+
+    private static Map<Class<? extends UpnpHeader>, Candidate> createSubtypes() {
+        Map<Class<? extends UpnpHeader>, Candidate> map = new HashMap<>();
+
+        Predicate<String> any = value -> true;
+        // The type parsers remove any whitespace first
+        Predicate<String> deviceType = value -> {
+            String compact = removeWhitespace(value);
+            return compact.startsWith("urn:") && compact.contains(":device:");
+        };
+        Predicate<String> serviceType = value -> {
+            String compact = removeWhitespace(value);
+            return compact.startsWith("urn:") && compact.contains(":service");
+        };
+
+        map.put(USNRootDeviceHeader.class, new Candidate(USNRootDeviceHeader::new,
+                value -> value.startsWith(UDN.PREFIX) && value.endsWith(USNRootDeviceHeader.ROOT_DEVICE_SUFFIX)));
+        map.put(DeviceUSNHeader.class, new Candidate(DeviceUSNHeader::new,
+                value -> value.contains("::") && removeWhitespace(value).contains(":device:")));
+        map.put(ServiceUSNHeader.class, new Candidate(ServiceUSNHeader::new,
+                value -> value.contains("::") && removeWhitespace(value).contains(":service")));
+        map.put(UDNHeader.class,
+                new Candidate(UDNHeader::new, value -> value.startsWith(UDN.PREFIX) && !value.contains("::urn")));
+        map.put(RootDeviceHeader.class,
+                new Candidate(RootDeviceHeader::new, value -> value.equalsIgnoreCase(ROOT_DEVICE)));
+        map.put(UDADeviceTypeHeader.class,
+                new Candidate(UDADeviceTypeHeader::new, value -> value.startsWith(UDA_DEVICE_TYPE_PREFIX)));
+        map.put(UDAServiceTypeHeader.class,
+                new Candidate(UDAServiceTypeHeader::new, value -> value.startsWith(UDA_SERVICE_TYPE_PREFIX)));
+        map.put(DeviceTypeHeader.class, new Candidate(DeviceTypeHeader::new, deviceType));
+        map.put(ServiceTypeHeader.class, new Candidate(ServiceTypeHeader::new, serviceType));
+        map.put(NTEventHeader.class, new Candidate(NTEventHeader::new, value -> value.equalsIgnoreCase(EVENT)));
+        map.put(STAllHeader.class,
+                new Candidate(STAllHeader::new, value -> value.equals(NotificationSubtype.ALL.getHeaderString())));
+        map.put(NTSHeader.class, new Candidate(NTSHeader::new, any));
+        map.put(HostHeader.class, new Candidate(HostHeader::new, any));
+        map.put(ServerHeader.class, new Candidate(ServerHeader::new, any));
+        map.put(LocationHeader.class, new Candidate(LocationHeader::new, any));
+        map.put(MaxAgeHeader.class, new Candidate(MaxAgeHeader::new, any));
+        map.put(UserAgentHeader.class, new Candidate(UserAgentHeader::new, any));
+        map.put(ContentTypeHeader.class, new Candidate(ContentTypeHeader::new, any));
+        map.put(MANHeader.class, new Candidate(MANHeader::new, any));
+        map.put(MXHeader.class, new Candidate(MXHeader::new, any));
+        map.put(EXTHeader.class, new Candidate(EXTHeader::new, any));
+        map.put(SoapActionHeader.class, new Candidate(SoapActionHeader::new, any));
+        map.put(TimeoutHeader.class, new Candidate(TimeoutHeader::new, any));
+        map.put(CallbackHeader.class, new Candidate(CallbackHeader::new, any));
+        map.put(SubscriptionIdHeader.class, new Candidate(SubscriptionIdHeader::new, any));
+        map.put(EventSequenceHeader.class, new Candidate(EventSequenceHeader::new, any));
+        map.put(RangeHeader.class, new Candidate(RangeHeader::new, any));
+        map.put(ContentRangeHeader.class, new Candidate(ContentRangeHeader::new, any));
+        map.put(PragmaHeader.class, new Candidate(PragmaHeader::new, any));
+        map.put(BootIdHeader.class, new Candidate(BootIdHeader::new, any));
+        map.put(ConfigIdHeader.class, new Candidate(ConfigIdHeader::new, any));
+        map.put(InterfaceMacHeader.class, new Candidate(InterfaceMacHeader::new, any));
+        map.put(AVClientInfoHeader.class, new Candidate(AVClientInfoHeader::new, any));
+
+        return map;
+    }
+
+    private static String removeWhitespace(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.isWhitespace(value.charAt(i))) {
+                StringBuilder sb = new StringBuilder(value.length());
+                for (int j = 0; j < value.length(); j++) {
+                    if (!Character.isWhitespace(value.charAt(j))) {
+                        sb.append(value.charAt(j));
+                    }
+                }
+                return sb.toString();
+            }
+        }
+        return value;
+    }
+}
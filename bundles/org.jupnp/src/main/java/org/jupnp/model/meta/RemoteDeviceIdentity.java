@@ -45,28 +45,39 @@ public class RemoteDeviceIdentity extends DeviceIdentity {
     private final URL descriptorURL;
     private final byte[] interfaceMacAddress;
     private final InetAddress discoveredOnLocalAddress;
+    private final Integer configId;
+    private final Integer bootId;
 
     public RemoteDeviceIdentity(UDN udn, RemoteDeviceIdentity template) {
         this(udn, template.getMaxAgeSeconds(), template.getDescriptorURL(), template.getInterfaceMacAddress(),
-                template.getDiscoveredOnLocalAddress());
+                template.getDiscoveredOnLocalAddress(), template.getConfigId(), template.getBootId());
     }
 
     public RemoteDeviceIdentity(UDN udn, Integer maxAgeSeconds, URL descriptorURL, byte[] interfaceMacAddress,
             InetAddress discoveredOnLocalAddress) {
+        this(udn, maxAgeSeconds, descriptorURL, interfaceMacAddress, discoveredOnLocalAddress, null, null);
+    }
+
+    public RemoteDeviceIdentity(UDN udn, Integer maxAgeSeconds, URL descriptorURL, byte[] interfaceMacAddress,
+            InetAddress discoveredOnLocalAddress, Integer configId, Integer bootId) {
         super(udn, maxAgeSeconds);
         this.descriptorURL = descriptorURL;
         this.interfaceMacAddress = interfaceMacAddress;
         this.discoveredOnLocalAddress = discoveredOnLocalAddress;
+        this.configId = configId;
+        this.bootId = bootId;
     }
 
     public RemoteDeviceIdentity(IncomingNotificationRequest notificationRequest) {
         this(notificationRequest.getUDN(), notificationRequest.getMaxAge(), notificationRequest.getLocationURL(),
-                notificationRequest.getInterfaceMacHeader(), notificationRequest.getLocalAddress());
+                notificationRequest.getInterfaceMacHeader(), notificationRequest.getLocalAddress(),
+                notificationRequest.getConfigId(), notificationRequest.getBootId());
     }
 
     public RemoteDeviceIdentity(IncomingSearchResponse searchResponse) {
         this(searchResponse.getRootDeviceUDN(), searchResponse.getMaxAge(), searchResponse.getLocationURL(),
-                searchResponse.getInterfaceMacHeader(), searchResponse.getLocalAddress());
+                searchResponse.getInterfaceMacHeader(), searchResponse.getLocalAddress(), searchResponse.getConfigId(),
+                searchResponse.getBootId());
     }
 
     public URL getDescriptorURL() {
@@ -81,6 +92,22 @@ public class RemoteDeviceIdentity extends DeviceIdentity {
         return discoveredOnLocalAddress;
     }
 
+    /**
+     * @return The <code>CONFIGID.UPNP.ORG</code> header value of the advertisement or search response,
+     *         <code>null</code> if the device didn't send it.
+     */
+    public Integer getConfigId() {
+        return configId;
+    }
+
+    /**
+     * @return The <code>BOOTID.UPNP.ORG</code> header value of the advertisement or search response,
+     *         <code>null</code> if the device didn't send it.
+     */
+    public Integer getBootId() {
+        return bootId;
+    }
+
     public byte[] getWakeOnLANBytes() {
         if (getInterfaceMacAddress() == null) {
             return null;
@@ -32,6 +32,11 @@ import org.jupnp.model.meta.DeviceDetails;
  * you still have to provide a minimal {@link DeviceDetails} instance for
  * generic control points.
  * </p>
+ * <p>
+ * Return the same instance for the same metadata, instead of creating new
+ * instances for each request. Generated device descriptors are cached per
+ * {@link DeviceDetails} instance.
+ * </p>
  *
  * @author Mario Franco
  * @author Christian Bauer
@@ -65,6 +65,17 @@ public class Resource<M> {
         return pathQuery.equals(getPathQuery());
     }
 
+    /**
+     * The registry looks up resources by their path and query and only checks {@link #matches(URI)} of all other
+     * resources if this returns <code>false</code>. Subclasses that override {@link #matches(URI)} to accept other
+     * URIs than their own path and query have to override this method as well.
+     *
+     * @return <code>true</code> if {@link #matches(URI)} only accepts the resource's own path and query.
+     */
+    public boolean matchesByPathQueryOnly() {
+        return true;
+    }
+
     /**
      * Called periodically by the registry to maintain the resource.
      * <p>
@@ -15,6 +15,9 @@
  */
 package org.jupnp.protocol;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+
 import org.jupnp.UpnpService;
 import org.jupnp.model.message.UpnpMessage;
 import org.jupnp.model.message.header.UpnpHeader;
@@ -30,6 +33,10 @@ import org.slf4j.LoggerFactory;
  * calls its own {@link #waitBeforeExecution()} method. By default, the protocol does not wait
  * before then proceeding with {@link #execute()}.
  * </p>
+ * <p>
+ * A protocol which waits should rather delay its execution when it is
+ * {@link #schedule(ScheduledExecutorService, Executor) scheduled}, no thread is then occupied while waiting.
+ * </p>
  *
  * @param <M> The type of UPnP message handled by this protocol.
  *
@@ -81,6 +88,20 @@ public abstract class ReceivingAsync<M extends UpnpMessage> implements Runnable
         }
     }
 
+    /**
+     * Executes this protocol without waiting on the calling thread or a thread of the executor.
+     * <p>
+     * By default the protocol is simply run by the executor. Protocols which wait before their execution
+     * override this and schedule the execution instead.
+     * </p>
+     *
+     * @param scheduler Triggers the delayed execution of the protocol.
+     * @param executor Runs the protocol.
+     */
+    public void schedule(ScheduledExecutorService scheduler, Executor executor) {
+        executor.execute(this);
+    }
+
     /**
      * Provides an opportunity to pause before executing the protocol.
      *
@@ -15,10 +15,17 @@
  */
 package org.jupnp.protocol;
 
+import java.net.URI;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.jupnp.UpnpService;
@@ -38,6 +45,10 @@ import org.jupnp.model.meta.RemoteService;
 import org.jupnp.model.types.ServiceType;
 import org.jupnp.model.types.UDN;
 import org.jupnp.registry.RegistrationException;
+import org.jupnp.registry.Registry;
+import org.jupnp.registry.RegistryImpl;
+import org.jupnp.registry.RemoteDescriptorStore;
+import org.jupnp.transport.Router;
 import org.jupnp.transport.RouterException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -73,6 +84,10 @@ public class RetrieveRemoteDescriptors implements Runnable {
     private static final ConcurrentHashMap<URL, Boolean> activeRetrievals = new ConcurrentHashMap<>();
     protected List<UDN> errorsAlreadyLogged = new ArrayList<>();
 
+    // Descriptors read from the store and descriptors retrieved from the device, by descriptor URL
+    protected Map<URL, String> storedDescriptors = Collections.emptyMap();
+    protected Map<URL, String> retrievedDescriptors = new HashMap<>();
+
     public RetrieveRemoteDescriptors(UpnpService upnpService, RemoteDevice rd) {
         this.upnpService = upnpService;
         this.rd = rd;
@@ -124,6 +139,17 @@ public class RetrieveRemoteDescriptors implements Runnable {
             return;
         }
 
+        RemoteDescriptorStore store = getRemoteDescriptorStore();
+        if (store != null) {
+            storedDescriptors = store.get(rd.getIdentity());
+        }
+        String storedDescriptor = storedDescriptors.get(rd.getIdentity().getDescriptorURL());
+        if (storedDescriptor != null) {
+            logger.debug("Using stored root device descriptor: {}", rd.getIdentity().getDescriptorURL());
+            describe(storedDescriptor);
+            return;
+        }
+
         StreamRequestMessage deviceDescRetrievalMsg;
         StreamResponseMessage deviceDescMsg;
 
@@ -144,7 +170,9 @@ public class RetrieveRemoteDescriptors implements Runnable {
             }
 
             logger.debug("Sending device descriptor retrieval message: {}", deviceDescRetrievalMsg);
-            deviceDescMsg = getUpnpService().getRouter().send(deviceDescRetrievalMsg);
+            Router router = getUpnpService().getRouter();
+            deviceDescMsg = SendingAsync.getResponse(router.sendAsync(deviceDescRetrievalMsg),
+                    router.getStreamTimeoutSeconds());
 
         } catch (IllegalArgumentException e) {
             // UpnpRequest constructor can throw IllegalArgumentException on invalid URI
@@ -178,6 +206,7 @@ public class RetrieveRemoteDescriptors implements Runnable {
         }
 
         logger.debug("Received root device descriptor: {}", deviceDescMsg);
+        retrievedDescriptors.put(rd.getIdentity().getDescriptorURL(), descriptorContent);
         describe(descriptorContent);
     }
 
@@ -204,6 +233,7 @@ public class RetrieveRemoteDescriptors implements Runnable {
             logger.debug("Hydrating described device's services: {}", describedDevice);
             RemoteDevice hydratedDevice = describeServices(describedDevice);
             if (hydratedDevice == null) {
+                removeStoredDescriptors();
                 if (!errorsAlreadyLogged.contains(rd.getIdentity().getUdn())) {
                     errorsAlreadyLogged.add(rd.getIdentity().getUdn());
                     logger.warn("Device service description failed: {}", rd);
@@ -218,6 +248,7 @@ public class RetrieveRemoteDescriptors implements Runnable {
                     return;
                 }
             } else {
+                storeDescriptors();
                 logger.debug("Adding fully hydrated remote device to registry: {}", hydratedDevice);
                 // The registry will do the right thing: A new root device is going to be added, if it's
                 // already present or we just received the descriptor again (because we got an embedded
@@ -226,6 +257,7 @@ public class RetrieveRemoteDescriptors implements Runnable {
                 getUpnpService().getRegistry().addDevice(hydratedDevice);
             }
         } catch (ValidationException e) {
+            removeStoredDescriptors();
             // Avoid error log spam each time device is discovered, errors are logged once per device.
             if (!errorsAlreadyLogged.contains(rd.getIdentity().getUdn())) {
                 errorsAlreadyLogged.add(rd.getIdentity().getUdn());
@@ -239,6 +271,7 @@ public class RetrieveRemoteDescriptors implements Runnable {
             }
 
         } catch (DescriptorBindingException e) {
+            removeStoredDescriptors();
             logger.warn("Could not hydrate device or its services from descriptor: {}", rd, e);
             if (describedDevice != null && notifiedStart) {
                 getUpnpService().getRegistry().notifyDiscoveryFailure(describedDevice, e);
@@ -252,14 +285,65 @@ public class RetrieveRemoteDescriptors implements Runnable {
         }
     }
 
+    /**
+     * @return The store of retrieved descriptors of the {@link RegistryImpl}, <code>null</code> with another
+     *         registry or if the configuration is not available.
+     */
+    protected RemoteDescriptorStore getRemoteDescriptorStore() {
+        Registry registry = getUpnpService().getRegistry();
+        if (getUpnpService().getConfiguration() == null || !(registry instanceof RegistryImpl)) {
+            return null;
+        }
+        return ((RegistryImpl) registry).getRemoteDescriptorStore();
+    }
+
+    /**
+     * Stores the descriptors of the fully hydrated device, if any of them had to be retrieved from the device.
+     */
+    protected void storeDescriptors() {
+        RemoteDescriptorStore store = getRemoteDescriptorStore();
+        if (store == null || !store.isEnabled() || retrievedDescriptors.isEmpty()) {
+            return;
+        }
+        Map<URL, String> descriptors = new HashMap<>(storedDescriptors);
+        descriptors.putAll(retrievedDescriptors);
+        store.put(rd.getIdentity(), descriptors);
+    }
+
+    /**
+     * Removes stored descriptors which didn't describe the device, they are retrieved again on the next discovery.
+     */
+    protected void removeStoredDescriptors() {
+        RemoteDescriptorStore store = getRemoteDescriptorStore();
+        if (store != null && !storedDescriptors.isEmpty()) {
+            logger.debug("Removing stored descriptors of device: {}", rd);
+            store.remove(rd.getIdentity().getUdn());
+        }
+    }
+
+    /**
+     * Retrieves the descriptors of all services of the device and its embedded devices concurrently, then hydrates
+     * the device graph.
+     */
     protected RemoteDevice describeServices(RemoteDevice currentDevice)
             throws RouterException, DescriptorBindingException, ValidationException {
 
+        List<RemoteService> services = new ArrayList<>();
+        collectServices(currentDevice, services);
+
+        Map<RemoteService, String> descriptors = retrieveServiceDescriptors(services);
+
+        return describeServices(currentDevice, descriptors);
+    }
+
+    protected RemoteDevice describeServices(RemoteDevice currentDevice, Map<RemoteService, String> descriptors)
+            throws DescriptorBindingException, ValidationException {
+
         List<RemoteService> describedServices = new ArrayList<>();
         if (currentDevice.hasServices()) {
             List<RemoteService> filteredServices = filterExclusiveServices(currentDevice.getServices());
             for (RemoteService service : filteredServices) {
-                RemoteService svc = describeService(service);
+                RemoteService svc = describeService(service, descriptors.get(service));
                 if (svc != null) {
                     describedServices.add(svc);
                 }
@@ -272,7 +356,7 @@ public class RetrieveRemoteDescriptors implements Runnable {
                 if (embeddedDevice == null) {
                     continue;
                 }
-                RemoteDevice describedEmbeddedDevice = describeServices(embeddedDevice);
+                RemoteDevice describedEmbeddedDevice = describeServices(embeddedDevice, descriptors);
                 if (describedEmbeddedDevice != null) {
                     describedEmbeddedDevices.add(describedEmbeddedDevice);
                 }
@@ -297,8 +381,108 @@ public class RetrieveRemoteDescriptors implements Runnable {
                 currentDevice.toServiceArray(describedServices), describedEmbeddedDevices);
     }
 
-    protected RemoteService describeService(RemoteService service)
-            throws RouterException, DescriptorBindingException, ValidationException {
+    protected void collectServices(RemoteDevice currentDevice, List<RemoteService> services) {
+        if (currentDevice.hasServices()) {
+            services.addAll(filterExclusiveServices(currentDevice.getServices()));
+        }
+        if (currentDevice.hasEmbeddedDevices()) {
+            for (RemoteDevice embeddedDevice : currentDevice.getEmbeddedDevices()) {
+                if (embeddedDevice != null) {
+                    collectServices(embeddedDevice, services);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return By default <code>4</code>, the maximum number of service descriptors retrieved concurrently from the
+     *         same host.
+     */
+    protected int getMaxConcurrentRetrievalsPerHost() {
+        return 4;
+    }
+
+    /**
+     * Sends the retrieval messages of all services without stored descriptor concurrently, at most
+     * {@link #getMaxConcurrentRetrievalsPerHost()} to the same host at a time, and waits for all responses.
+     *
+     * @return The descriptors by service, <code>null</code> if the descriptor of a service couldn't be retrieved.
+     */
+    protected Map<RemoteService, String> retrieveServiceDescriptors(List<RemoteService> services)
+            throws RouterException {
+
+        Map<RemoteService, String> descriptors = new IdentityHashMap<>();
+        // Waits in the order of sending, a retrieval queued behind an earlier one is awaited after that one
+        Map<RemoteService, CompletableFuture<StreamResponseMessage>> futures = new LinkedHashMap<>();
+        Map<String, List<CompletableFuture<StreamResponseMessage>>> futuresByHost = new HashMap<>();
+        int maxConcurrentRetrievals = Math.max(1, getMaxConcurrentRetrievalsPerHost());
+
+        for (RemoteService service : services) {
+            String storedDescriptor = getStoredServiceDescriptor(service);
+            if (storedDescriptor != null) {
+                logger.debug("Using stored service descriptor: {}", service);
+                descriptors.put(service, storedDescriptor);
+                continue;
+            }
+
+            StreamRequestMessage serviceDescRetrievalMsg = createServiceDescriptorRetrievalMessage(service);
+            if (serviceDescRetrievalMsg == null) {
+                descriptors.put(service, null);
+                continue;
+            }
+
+            // A retrieval waits for an earlier one to the same host to complete, once the limit is reached
+            URI uri = serviceDescRetrievalMsg.getUri();
+            List<CompletableFuture<StreamResponseMessage>> hostFutures = futuresByHost
+                    .computeIfAbsent(uri.getHost() + ":" + uri.getPort(), host -> new ArrayList<>());
+            CompletableFuture<StreamResponseMessage> future;
+            if (hostFutures.size() < maxConcurrentRetrievals) {
+                future = sendServiceDescriptorRetrievalMessage(serviceDescRetrievalMsg);
+            } else {
+                future = hostFutures.get(hostFutures.size() - maxConcurrentRetrievals)
+                        .handle((response, failure) -> null)
+                        .thenCompose(previous -> sendServiceDescriptorRetrievalMessage(serviceDescRetrievalMsg));
+            }
+            hostFutures.add(future);
+            futures.put(service, future);
+        }
+
+        try {
+            for (Map.Entry<RemoteService, CompletableFuture<StreamResponseMessage>> entry : futures.entrySet()) {
+                StreamResponseMessage serviceDescMsg = SendingAsync.getResponse(entry.getValue(),
+                        getUpnpService().getRouter().getStreamTimeoutSeconds());
+                descriptors.put(entry.getKey(), getServiceDescriptor(entry.getKey(), serviceDescMsg));
+            }
+        } catch (RouterException e) {
+            for (CompletableFuture<StreamResponseMessage> future : futures.values()) {
+                future.cancel(true);
+            }
+            throw e;
+        }
+        return descriptors;
+    }
+
+    protected String getStoredServiceDescriptor(RemoteService service) {
+        if (storedDescriptors.isEmpty()) {
+            return null;
+        }
+        try {
+            return storedDescriptors.get(service.getDevice().normalizeURI(service.getDescriptorURI()));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    protected CompletableFuture<StreamResponseMessage> sendServiceDescriptorRetrievalMessage(
+            StreamRequestMessage serviceDescRetrievalMsg) {
+        logger.debug("Sending service descriptor retrieval message: {}", serviceDescRetrievalMsg);
+        return getUpnpService().getRouter().sendAsync(serviceDescRetrievalMsg);
+    }
+
+    /**
+     * @return The retrieval message, or <code>null</code> if the descriptor can't be retrieved.
+     */
+    protected StreamRequestMessage createServiceDescriptorRetrievalMessage(RemoteService service) {
 
         URL descriptorURL;
         try {
@@ -321,15 +505,36 @@ public class RetrieveRemoteDescriptors implements Runnable {
         if (headers != null) {
             serviceDescRetrievalMsg.getHeaders().putAll(headers);
         }
+        return serviceDescRetrievalMsg;
+    }
 
-        logger.debug("Sending service descriptor retrieval message: {}", serviceDescRetrievalMsg);
-        StreamResponseMessage serviceDescMsg = getUpnpService().getRouter().send(serviceDescRetrievalMsg);
+    protected RemoteService describeService(RemoteService service)
+            throws RouterException, DescriptorBindingException, ValidationException {
+
+        StreamRequestMessage serviceDescRetrievalMsg = createServiceDescriptorRetrievalMessage(service);
+        if (serviceDescRetrievalMsg == null) {
+            return null;
+        }
+
+        StreamResponseMessage serviceDescMsg = SendingAsync.getResponse(
+                sendServiceDescriptorRetrievalMessage(serviceDescRetrievalMsg),
+                getUpnpService().getRouter().getStreamTimeoutSeconds());
+
+        return describeService(service, getServiceDescriptor(service, serviceDescMsg));
+    }
+
+    /**
+     * @return The descriptor of the service received in the response, <code>null</code> if the retrieval failed.
+     */
+    protected String getServiceDescriptor(RemoteService service, StreamResponseMessage serviceDescMsg) {
 
         if (serviceDescMsg == null) {
             logger.warn("Could not retrieve service descriptor, no response: {}", service);
             return null;
         }
 
+        URL descriptorURL = service.getDevice().normalizeURI(service.getDescriptorURI());
+
         if (serviceDescMsg.getOperation().isFailed()) {
             logger.warn("Service descriptor retrieval failed: {}, {}", descriptorURL,
                     serviceDescMsg.getOperation().getResponseDetails());
@@ -347,7 +552,25 @@ public class RetrieveRemoteDescriptors implements Runnable {
             return null;
         }
 
-        logger.debug("Received service descriptor, hydrating service model: {}", serviceDescMsg);
+        logger.debug("Received service descriptor: {}", serviceDescMsg);
+        retrievedDescriptors.put(descriptorURL, descriptorContent);
+        return descriptorContent;
+    }
+
+    protected RemoteService describeService(RemoteService service, String descriptorContent)
+            throws DescriptorBindingException, ValidationException {
+
+        if (descriptorContent == null) {
+            return null;
+        }
+
+        UpnpServiceConfiguration config = getUpnpService().getConfiguration();
+        if (config == null) {
+            logger.warn("Configuration not available, cannot parse service descriptor: {}", service);
+            return null;
+        }
+
+        logger.debug("Hydrating service model: {}", service);
         ServiceDescriptorBinder serviceDescriptorBinder = config.getServiceDescriptorBinderUDA10();
 
         return serviceDescriptorBinder.describe(service, descriptorContent);
@@ -15,7 +15,17 @@
  */
 package org.jupnp.protocol;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 import org.jupnp.UpnpService;
+import org.jupnp.model.message.StreamRequestMessage;
+import org.jupnp.model.message.StreamResponseMessage;
+import org.jupnp.transport.Router;
 import org.jupnp.transport.RouterException;
 import org.jupnp.util.Exceptions;
 import org.slf4j.Logger;
@@ -28,6 +38,10 @@ import org.slf4j.LoggerFactory;
  * calls its {@link #execute()} method.
  * </p>
  * <p>
+ * Instead of running it on a thread, a protocol can also be {@link #schedule(ScheduledExecutorService, Executor)
+ * scheduled}, it then doesn't occupy a thread while it waits between sending messages.
+ * </p>
+ * <p>
  * A {@link RouterException} during execution will be wrapped in a fatal <code>RuntimeException</code>,
  * unless its cause is an <code>InterruptedException</code>, in which case an INFO message will be logged.
  * </p>
@@ -36,6 +50,11 @@ import org.slf4j.LoggerFactory;
  */
 public abstract class SendingAsync implements Runnable {
 
+    /**
+     * The time waited for a response after the stream request timed out, the stream client should have completed it.
+     */
+    protected static final int RESPONSE_TIMEOUT_MARGIN_SECONDS = 5;
+
     private final Logger logger = LoggerFactory.getLogger(UpnpService.class);
 
     private final UpnpService upnpService;
@@ -50,8 +69,38 @@ public abstract class SendingAsync implements Runnable {
 
     @Override
     public void run() {
+        run(this::execute);
+    }
+
+    /**
+     * Executes this protocol without waiting on the calling thread or a thread of the executor.
+     * <p>
+     * By default the protocol is simply run by the executor. Protocols which wait between sending messages
+     * override this and schedule the sending instead.
+     * </p>
+     *
+     * @param scheduler Triggers delayed steps of the protocol.
+     * @param executor Runs the steps of the protocol.
+     */
+    public void schedule(ScheduledExecutorService scheduler, Executor executor) {
+        executor.execute(this);
+    }
+
+    /**
+     * Runs the step with the executor once the delay has passed, failures are handled as in {@link #run()}.
+     */
+    protected void schedule(ScheduledExecutorService scheduler, Executor executor, long delayMillis, Step step) {
+        Runnable task = () -> run(step);
+        if (delayMillis > 0) {
+            scheduler.schedule(() -> executor.execute(task), delayMillis, TimeUnit.MILLISECONDS);
+        } else {
+            executor.execute(task);
+        }
+    }
+
+    protected void run(Step step) {
         try {
-            execute();
+            step.execute();
         } catch (Exception e) {
             Throwable cause = Exceptions.unwrap(e);
             if (cause instanceof InterruptedException) {
@@ -65,6 +114,47 @@ public abstract class SendingAsync implements Runnable {
 
     protected abstract void execute() throws RouterException;
 
+    /**
+     * Sends the stream request with {@link Router#sendAsync(StreamRequestMessage)} and waits for the response, the
+     * transport executes the request without occupying another thread.
+     */
+    protected StreamResponseMessage sendStreamRequest(StreamRequestMessage requestMessage) throws RouterException {
+        Router router = getUpnpService().getRouter();
+        return getResponse(router.sendAsync(requestMessage), router.getStreamTimeoutSeconds());
+    }
+
+    /**
+     * Waits for the response of an asynchronously sent stream request, the request is aborted if the calling thread
+     * is interrupted or if there is no response a few seconds after the stream request timed out.
+     */
+    protected static StreamResponseMessage getResponse(CompletableFuture<StreamResponseMessage> response,
+            int timeoutSeconds) throws RouterException {
+        try {
+            return response.get(timeoutSeconds + RESPONSE_TIMEOUT_MARGIN_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            response.cancel(true);
+            throw new RouterException("No response " + RESPONSE_TIMEOUT_MARGIN_SECONDS
+                    + " seconds after the stream request timed out", e);
+        } catch (InterruptedException e) {
+            response.cancel(true);
+            throw new RouterException("Sending stream request was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RouterException) {
+                throw (RouterException) e.getCause();
+            }
+            throw new RouterException("Sending stream request failed", e.getCause());
+        }
+    }
+
+    /**
+     * A part of the protocol which can be executed on its own, e.g. one of several repeated sends.
+     */
+    @FunctionalInterface
+    protected interface Step {
+
+        void execute() throws RouterException;
+    }
+
     @Override
     public String toString() {
         return "(" + getClass().getSimpleName() + ")";
@@ -16,9 +16,15 @@
 package org.jupnp.protocol.async;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import org.jupnp.UpnpService;
 import org.jupnp.model.DiscoveryOptions;
@@ -45,6 +51,9 @@ import org.jupnp.model.types.DeviceType;
 import org.jupnp.model.types.ServiceType;
 import org.jupnp.model.types.UDN;
 import org.jupnp.protocol.ReceivingAsync;
+import org.jupnp.registry.AdvertisementCache;
+import org.jupnp.registry.Registry;
+import org.jupnp.registry.RegistryImpl;
 import org.jupnp.transport.RouterException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,7 +62,9 @@ import org.slf4j.LoggerFactory;
  * Handles reception of search requests, responds for local registered devices.
  * <p>
  * Waits a random time between 0 and the requested <em>MX</em> (maximum 120 seconds)
- * before executing. Only waits if there are actually any registered local devices.
+ * before executing. Only waits if there are actually any registered local devices. When
+ * {@link #schedule(ScheduledExecutorService, Executor) scheduled}, the execution is delayed
+ * instead of waiting on a thread.
  * </p>
  * <p>
  * Extracts the <em>search target</em>, builds and sends the dozens of messages
@@ -69,8 +80,19 @@ public class ReceivingSearch extends ReceivingAsync<IncomingSearchRequest> {
 
     private final boolean LOG_ENABLED = logger.isTraceEnabled();
 
+    protected enum ResponseKind {
+        DEVICE,
+        SERVICE_TYPES,
+        ROOT_DEVICE,
+        UDN,
+        DEVICE_TYPE,
+        SERVICE_TYPE
+    }
+
     protected final Random randomGenerator = new Random();
 
+    private volatile boolean scheduled;
+
     public ReceivingSearch(UpnpService upnpService, IncomingDatagramMessage<UpnpRequest> inputMessage) {
         super(upnpService, new IncomingSearchRequest(inputMessage));
     }
@@ -107,14 +129,55 @@ public class ReceivingSearch extends ReceivingAsync<IncomingSearchRequest> {
         }
     }
 
+    /**
+     * Delays the execution by the random response delay with the scheduler, no thread is occupied while waiting.
+     */
+    @Override
+    public void schedule(ScheduledExecutorService scheduler, Executor executor) {
+        Integer delayMillis = getResponseDelayMillis();
+        if (delayMillis == null) {
+            return;
+        }
+        scheduled = true;
+
+        if (delayMillis > 0) {
+            logger.trace("Delaying by {} milliseconds to avoid flooding with search responses", delayMillis);
+            scheduler.schedule(() -> executor.execute(this), delayMillis, TimeUnit.MILLISECONDS);
+        } else {
+            executor.execute(this);
+        }
+    }
+
     @Override
     protected boolean waitBeforeExecution() throws InterruptedException {
+        if (scheduled) {
+            // The scheduler already delayed the execution
+            return true;
+        }
+
+        Integer delayMillis = getResponseDelayMillis();
+        if (delayMillis == null) {
+            return false;
+        }
+
+        if (delayMillis > 0) {
+            logger.trace("Sleeping {} milliseconds to avoid flooding with search responses", delayMillis);
+            Thread.sleep(delayMillis);
+        }
 
+        return true;
+    }
+
+    /**
+     * @return A random delay between 0 and the requested <em>MX</em> seconds, <code>0</code> if there are no local
+     *         devices, or <code>null</code> if the request has no <em>MX</em> header.
+     */
+    protected Integer getResponseDelayMillis() {
         Integer mx = getInputMessage().getMX();
 
         if (mx == null) {
             logger.trace("Invalid search request, did not contain MX header: {}", getInputMessage());
-            return false;
+            return null;
         }
 
         // Spec says we should assume "less" if it's 120 or more
@@ -124,13 +187,10 @@ public class ReceivingSearch extends ReceivingAsync<IncomingSearchRequest> {
             mx = MXHeader.DEFAULT_VALUE;
 
         // Only wait if there is something to wait for
-        if (!getUpnpService().getRegistry().getLocalDevices().isEmpty()) {
-            int sleepTime = randomGenerator.nextInt(mx * 1000);
-            logger.trace("Sleeping {} milliseconds to avoid flooding with search responses", sleepTime);
-            Thread.sleep(sleepTime);
+        if (getUpnpService().getRegistry().getLocalDevices().isEmpty()) {
+            return 0;
         }
-
-        return true;
+        return randomGenerator.nextInt(mx * 1000);
     }
 
     protected void sendResponses(UpnpHeader searchTarget, NetworkAddress activeStreamServer) throws RouterException {
@@ -173,7 +233,8 @@ public class ReceivingSearch extends ReceivingAsync<IncomingSearchRequest> {
             if (LOG_ENABLED) {
                 logger.trace("Sending root device messages: {}", localDevice);
             }
-            List<OutgoingSearchResponse> rootDeviceMsgs = createDeviceMessages(localDevice, activeStreamServer);
+            List<OutgoingSearchResponse> rootDeviceMsgs = getResponses(localDevice, activeStreamServer,
+                    ResponseKind.DEVICE, () -> createDeviceMessages(localDevice, activeStreamServer));
             for (OutgoingSearchResponse upnpMessage : rootDeviceMsgs) {
                 getUpnpService().getRouter().send(upnpMessage);
             }
@@ -183,15 +244,17 @@ public class ReceivingSearch extends ReceivingAsync<IncomingSearchRequest> {
                     if (LOG_ENABLED) {
                         logger.trace("Sending embedded device messages: {}", embeddedDevice);
                     }
-                    List<OutgoingSearchResponse> embeddedDeviceMsgs = createDeviceMessages(embeddedDevice,
-                            activeStreamServer);
+                    List<OutgoingSearchResponse> embeddedDeviceMsgs = getResponses(embeddedDevice,
+                            activeStreamServer, ResponseKind.DEVICE,
+                            () -> createDeviceMessages(embeddedDevice, activeStreamServer));
                     for (OutgoingSearchResponse upnpMessage : embeddedDeviceMsgs) {
                         getUpnpService().getRouter().send(upnpMessage);
                     }
                 }
             }
 
-            List<OutgoingSearchResponse> serviceTypeMsgs = createServiceTypeMessages(localDevice, activeStreamServer);
+            List<OutgoingSearchResponse> serviceTypeMsgs = getResponses(localDevice, activeStreamServer,
+                    ResponseKind.SERVICE_TYPES, () -> createServiceTypeMessages(localDevice, activeStreamServer));
             if (!serviceTypeMsgs.isEmpty()) {
                 if (LOG_ENABLED) {
                     logger.trace("Sending service type messages");
@@ -247,26 +310,29 @@ public class ReceivingSearch extends ReceivingAsync<IncomingSearchRequest> {
                 continue;
             }
 
-            OutgoingSearchResponse message = new OutgoingSearchResponseRootDevice(getInputMessage(),
-                    getDescriptorLocation(activeStreamServer, device), device);
-            prepareOutgoingSearchResponse(message);
-            getUpnpService().getRouter().send(message);
+            for (OutgoingSearchResponse message : getResponses(device, activeStreamServer, ResponseKind.ROOT_DEVICE,
+                    () -> createResponse(new OutgoingSearchResponseRootDevice(getInputMessage(),
+                            getDescriptorLocation(activeStreamServer, device), device)))) {
+                getUpnpService().getRouter().send(message);
+            }
         }
     }
 
     protected void sendSearchResponseUDN(UDN udn, NetworkAddress activeStreamServer) throws RouterException {
         Device device = getUpnpService().getRegistry().getDevice(udn, false);
-        if (device != null && device instanceof LocalDevice) {
+        if (device instanceof LocalDevice) {
+            LocalDevice localDevice = (LocalDevice) device;
 
-            if (isAdvertisementDisabled((LocalDevice) device)) {
+            if (isAdvertisementDisabled(localDevice)) {
                 return;
             }
 
             logger.trace("Responding to UDN device search: {}", udn);
-            OutgoingSearchResponse message = new OutgoingSearchResponseUDN(getInputMessage(),
-                    getDescriptorLocation(activeStreamServer, (LocalDevice) device), (LocalDevice) device);
-            prepareOutgoingSearchResponse(message);
-            getUpnpService().getRouter().send(message);
+            for (OutgoingSearchResponse message : getResponses(localDevice, activeStreamServer, ResponseKind.UDN,
+                    () -> createResponse(new OutgoingSearchResponseUDN(getInputMessage(),
+                            getDescriptorLocation(activeStreamServer, localDevice), localDevice)))) {
+                getUpnpService().getRouter().send(message);
+            }
         }
     }
 
@@ -276,16 +342,19 @@ public class ReceivingSearch extends ReceivingAsync<IncomingSearchRequest> {
         Collection<Device> devices = getUpnpService().getRegistry().getDevices(deviceType);
         for (Device device : devices) {
             if (device instanceof LocalDevice) {
+                LocalDevice localDevice = (LocalDevice) device;
 
-                if (isAdvertisementDisabled((LocalDevice) device)) {
+                if (isAdvertisementDisabled(localDevice)) {
                     continue;
                 }
 
                 logger.trace("Sending matching device type search result for: {}", device);
-                OutgoingSearchResponse message = new OutgoingSearchResponseDeviceType(getInputMessage(),
-                        getDescriptorLocation(activeStreamServer, (LocalDevice) device), (LocalDevice) device);
-                prepareOutgoingSearchResponse(message);
-                getUpnpService().getRouter().send(message);
+                for (OutgoingSearchResponse message : getResponses(localDevice, activeStreamServer,
+                        ResponseKind.DEVICE_TYPE,
+                        () -> createResponse(new OutgoingSearchResponseDeviceType(getInputMessage(),
+                                getDescriptorLocation(activeStreamServer, localDevice), localDevice)))) {
+                    getUpnpService().getRouter().send(message);
+                }
             }
         }
     }
@@ -296,21 +365,54 @@ public class ReceivingSearch extends ReceivingAsync<IncomingSearchRequest> {
         Collection<Device> devices = getUpnpService().getRegistry().getDevices(serviceType);
         for (Device device : devices) {
             if (device instanceof LocalDevice) {
+                LocalDevice localDevice = (LocalDevice) device;
 
-                if (isAdvertisementDisabled((LocalDevice) device)) {
+                if (isAdvertisementDisabled(localDevice)) {
                     continue;
                 }
 
                 logger.trace("Sending matching service type search result: {}", device);
-                OutgoingSearchResponse message = new OutgoingSearchResponseServiceType(getInputMessage(),
-                        getDescriptorLocation(activeStreamServer, (LocalDevice) device), (LocalDevice) device,
-                        serviceType);
-                prepareOutgoingSearchResponse(message);
-                getUpnpService().getRouter().send(message);
+                for (OutgoingSearchResponse message : getResponses(localDevice, activeStreamServer,
+                        Arrays.asList(ResponseKind.SERVICE_TYPE, serviceType),
+                        () -> createResponse(new OutgoingSearchResponseServiceType(getInputMessage(),
+                                getDescriptorLocation(activeStreamServer, localDevice), localDevice, serviceType)))) {
+                    getUpnpService().getRouter().send(message);
+                }
             }
         }
     }
 
+    /**
+     * Responses which don't depend on the search request are encoded once and then taken from the registry's
+     * {@link AdvertisementCache}, this returns copies addressed to the sender of this search request.
+     * <p>
+     * Nothing is cached if {@link #isCacheableResponse()} returns <code>false</code> or if the registry isn't a
+     * {@link RegistryImpl}, the responses are then always created.
+     * </p>
+     *
+     * @param kind Identifies the responses of the device, for the given stream server.
+     * @param creator Creates the responses if they are not cached.
+     */
+    protected List<OutgoingSearchResponse> getResponses(LocalDevice device, NetworkAddress activeStreamServer,
+            Object kind, Supplier<List<OutgoingSearchResponse>> creator) {
+        Registry registry = getUpnpService().getRegistry();
+        if (!isCacheableResponse() || !(registry instanceof RegistryImpl)) {
+            return creator.get();
+        }
+        List<OutgoingSearchResponse> cached = ((RegistryImpl) registry).getAdvertisementCache().get(device,
+                Arrays.asList(getClass(), kind, device.getIdentity().getUdn(), activeStreamServer), creator);
+        List<OutgoingSearchResponse> responses = new ArrayList<>(cached.size());
+        for (OutgoingSearchResponse response : cached) {
+            responses.add(new OutgoingSearchResponse(response, getInputMessage()));
+        }
+        return responses;
+    }
+
+    protected List<OutgoingSearchResponse> createResponse(OutgoingSearchResponse message) {
+        prepareOutgoingSearchResponse(message);
+        return Collections.singletonList(message);
+    }
+
     protected Location getDescriptorLocation(NetworkAddress activeStreamServer, LocalDevice device) {
         return new Location(activeStreamServer,
                 getUpnpService().getConfiguration().getNamespace().getDescriptorPathString(device));
@@ -323,7 +425,22 @@ public class ReceivingSearch extends ReceivingAsync<IncomingSearchRequest> {
 
     /**
      * Override this to edit the outgoing message, e.g. by adding headers.
+     * <p>
+     * Responses of subclasses are not cached, override {@link #isCacheableResponse()} to cache them if the edits
+     * don't depend on the search request.
+     * </p>
      */
     protected void prepareOutgoingSearchResponse(OutgoingSearchResponse message) {
     }
+
+    /**
+     * Caching is opt-in for subclasses, they might edit the responses depending on the search request.
+     *
+     * @return <code>true</code> if the responses of a device don't depend on the search request, and can be taken
+     *         from the registry's {@link AdvertisementCache}. Defaults to <code>true</code> for this class and
+     *         <code>false</code> for subclasses.
+     */
+    protected boolean isCacheableResponse() {
+        return getClass() == ReceivingSearch.class;
+    }
 }
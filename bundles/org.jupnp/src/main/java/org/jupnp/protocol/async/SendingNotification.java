@@ -16,7 +16,11 @@
 package org.jupnp.protocol.async;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
 
 import org.jupnp.UpnpService;
 import org.jupnp.model.Location;
@@ -30,6 +34,9 @@ import org.jupnp.model.meta.LocalDevice;
 import org.jupnp.model.types.NotificationSubtype;
 import org.jupnp.model.types.ServiceType;
 import org.jupnp.protocol.SendingAsync;
+import org.jupnp.registry.AdvertisementCache;
+import org.jupnp.registry.Registry;
+import org.jupnp.registry.RegistryImpl;
 import org.jupnp.transport.RouterException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +47,10 @@ import org.slf4j.LoggerFactory;
  * Sends all required (dozens) of messages three times, waits between 0 and 150
  * milliseconds between each bulk sending procedure.
  * </p>
+ * <p>
+ * When {@link #schedule(ScheduledExecutorService, Executor) scheduled}, no thread waits between the
+ * repetitions, each is triggered by the scheduler.
+ * </p>
  *
  * @author Christian Bauer
  */
@@ -61,25 +72,16 @@ public abstract class SendingNotification extends SendingAsync {
     @Override
     protected void execute() throws RouterException {
 
-        List<NetworkAddress> activeStreamServers = getUpnpService().getRouter().getActiveStreamServers(null);
-        if (activeStreamServers.isEmpty()) {
-            logger.trace("Aborting notifications, no active stream servers found (network disabled?)");
-            return;
-        }
-
         // Prepare it once, it's the same for each repetition
-        List<Location> descriptorLocations = new ArrayList<>();
-        for (NetworkAddress activeStreamServer : activeStreamServers) {
-            descriptorLocations.add(new Location(activeStreamServer,
-                    getUpnpService().getConfiguration().getNamespace().getDescriptorPathString(getDevice())));
+        List<Location> descriptorLocations = getDescriptorLocations();
+        if (descriptorLocations.isEmpty()) {
+            return;
         }
 
         for (int i = 0; i < getBulkRepeat(); i++) {
             try {
 
-                for (Location descriptorLocation : descriptorLocations) {
-                    sendMessages(descriptorLocation);
-                }
+                sendMessages(descriptorLocations);
 
                 // UDA 1.0 is silent about this but UDA 1.1 recomments "a few hundred milliseconds"
                 logger.trace("Sleeping {} milliseconds", getBulkIntervalMilliseconds());
@@ -91,6 +93,49 @@ public abstract class SendingNotification extends SendingAsync {
         }
     }
 
+    /**
+     * Sends the repeated messages at the bulk interval, the scheduler triggers each repetition.
+     * <p>
+     * The descriptor locations are looked up in the first step on the executor, the calling thread doesn't wait
+     * for the router.
+     * </p>
+     */
+    @Override
+    public void schedule(ScheduledExecutorService scheduler, Executor executor) {
+        schedule(scheduler, executor, 0, () -> {
+            List<Location> descriptorLocations = getDescriptorLocations();
+            if (descriptorLocations.isEmpty()) {
+                return;
+            }
+            sendMessages(descriptorLocations);
+            for (int i = 1; i < getBulkRepeat(); i++) {
+                schedule(scheduler, executor, (long) i * getBulkIntervalMilliseconds(),
+                        () -> sendMessages(descriptorLocations));
+            }
+        });
+    }
+
+    protected List<Location> getDescriptorLocations() throws RouterException {
+        List<NetworkAddress> activeStreamServers = getUpnpService().getRouter().getActiveStreamServers(null);
+        if (activeStreamServers.isEmpty()) {
+            logger.trace("Aborting notifications, no active stream servers found (network disabled?)");
+            return Collections.emptyList();
+        }
+
+        List<Location> descriptorLocations = new ArrayList<>();
+        for (NetworkAddress activeStreamServer : activeStreamServers) {
+            descriptorLocations.add(new Location(activeStreamServer,
+                    getUpnpService().getConfiguration().getNamespace().getDescriptorPathString(getDevice())));
+        }
+        return descriptorLocations;
+    }
+
+    protected void sendMessages(List<Location> descriptorLocations) throws RouterException {
+        for (Location descriptorLocation : descriptorLocations) {
+            sendMessages(descriptorLocation);
+        }
+    }
+
     protected int getBulkRepeat() {
         return 3; // UDA 1.0 says maximum 3 times for alive messages, let's just do it for all
     }
@@ -100,30 +145,37 @@ public abstract class SendingNotification extends SendingAsync {
     }
 
     public void sendMessages(Location descriptorLocation) throws RouterException {
-        logger.trace("Sending root device messages: {}", getDevice());
-        List<OutgoingNotificationRequest> rootDeviceMsgs = createDeviceMessages(getDevice(), descriptorLocation);
-        for (OutgoingNotificationRequest upnpMessage : rootDeviceMsgs) {
+        logger.trace("Sending device and service type messages: {}", getDevice());
+        for (OutgoingNotificationRequest upnpMessage : getMessages(descriptorLocation)) {
             getUpnpService().getRouter().send(upnpMessage);
         }
+    }
+
+    /**
+     * Alive messages are encoded once and then taken from the {@link AdvertisementCache} of the
+     * {@link RegistryImpl}, other messages are only sent when a device is removed and therefore always created.
+     */
+    protected List<OutgoingNotificationRequest> getMessages(Location descriptorLocation) {
+        Registry registry = getUpnpService().getRegistry();
+        if (getNotificationSubtype() != NotificationSubtype.ALIVE || !(registry instanceof RegistryImpl)) {
+            return createMessages(descriptorLocation);
+        }
+        return ((RegistryImpl) registry).getAdvertisementCache().get(getDevice(),
+                Arrays.asList(getClass(), getNotificationSubtype(), descriptorLocation),
+                () -> createMessages(descriptorLocation));
+    }
+
+    protected List<OutgoingNotificationRequest> createMessages(Location descriptorLocation) {
+        List<OutgoingNotificationRequest> msgs = new ArrayList<>(createDeviceMessages(getDevice(), descriptorLocation));
 
         if (getDevice().hasEmbeddedDevices()) {
             for (LocalDevice embeddedDevice : getDevice().findEmbeddedDevices()) {
-                logger.trace("Sending embedded device messages: {}", embeddedDevice);
-                List<OutgoingNotificationRequest> embeddedDeviceMsgs = createDeviceMessages(embeddedDevice,
-                        descriptorLocation);
-                for (OutgoingNotificationRequest upnpMessage : embeddedDeviceMsgs) {
-                    getUpnpService().getRouter().send(upnpMessage);
-                }
+                msgs.addAll(createDeviceMessages(embeddedDevice, descriptorLocation));
             }
         }
 
-        List<OutgoingNotificationRequest> serviceTypeMsgs = createServiceTypeMessages(getDevice(), descriptorLocation);
-        if (!serviceTypeMsgs.isEmpty()) {
-            logger.trace("Sending service type messages");
-            for (OutgoingNotificationRequest upnpMessage : serviceTypeMsgs) {
-                getUpnpService().getRouter().send(upnpMessage);
-            }
-        }
+        msgs.addAll(createServiceTypeMessages(getDevice(), descriptorLocation));
+        return msgs;
     }
 
     protected List<OutgoingNotificationRequest> createDeviceMessages(LocalDevice device, Location descriptorLocation) {
@@ -15,6 +15,9 @@
  */
 package org.jupnp.protocol.async;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+
 import org.jupnp.UpnpService;
 import org.jupnp.model.message.discovery.OutgoingSearchRequest;
 import org.jupnp.model.message.header.MXHeader;
@@ -82,9 +85,7 @@ public class SendingSearch extends SendingAsync {
 
         logger.trace("Executing search for target: {} with MX seconds: {}", searchTarget.getString(), getMxSeconds());
 
-        OutgoingSearchRequest msg = new OutgoingSearchRequest(searchTarget, getMxSeconds());
-        prepareOutgoingSearchRequest(msg);
-
+        OutgoingSearchRequest msg = createOutgoingSearchRequest();
         for (int i = 0; i < getBulkRepeat(); i++) {
             try {
 
@@ -101,6 +102,30 @@ public class SendingSearch extends SendingAsync {
         }
     }
 
+    /**
+     * Sends the repeated search messages at the bulk interval, the scheduler triggers each repetition.
+     */
+    @Override
+    public void schedule(ScheduledExecutorService scheduler, Executor executor) {
+
+        logger.trace("Scheduling search for target: {} with MX seconds: {}", searchTarget.getString(), getMxSeconds());
+
+        OutgoingSearchRequest msg = createOutgoingSearchRequest();
+        for (int i = 0; i < getBulkRepeat(); i++) {
+            schedule(scheduler, executor, (long) i * getBulkIntervalMilliseconds(),
+                    () -> getUpnpService().getRouter().send(msg));
+        }
+    }
+
+    /**
+     * Creates the search message once, the same message is sent for each repetition.
+     */
+    protected OutgoingSearchRequest createOutgoingSearchRequest() {
+        OutgoingSearchRequest msg = new OutgoingSearchRequest(searchTarget, getMxSeconds());
+        prepareOutgoingSearchRequest(msg);
+        return msg;
+    }
+
     public int getBulkRepeat() {
         return 3; // UDA 1.0 says "repeat more than once"
     }
@@ -0,0 +1,233 @@
+/*
+ * Copyright (C) 2011-2026 4th Line GmbH, Switzerland and others
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License Version 1 or later
+ * ("CDDL") (collectively, the "License"). You may not use this file
+ * except in compliance with the License. See LICENSE.txt for more
+ * information.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * SPDX-License-Identifier: CDDL-1.0
+ */
+package org.jupnp.protocol.sync;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+import org.jupnp.UpnpService;
+import org.jupnp.UpnpServiceConfiguration;
+import org.jupnp.model.gena.CancelReason;
+import org.jupnp.model.gena.LocalGENASubscription;
+import org.jupnp.model.message.StreamResponseMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Delivers the event messages of subscriptions to local services.
+ * <p>
+ * The events of a subscription are sent one after another, in the order of their sequence numbers. Events of
+ * different subscriptions are sent concurrently, up to
+ * {@link UpnpServiceConfiguration#getMaxConcurrentEventDeliveries()} at a time, so a slow subscriber only holds
+ * back its own events.
+ * </p>
+ * <p>
+ * After a failed delivery, e.g. when the subscriber didn't respond, the next event of the subscription is delayed
+ * by a growing backoff. If {@link UpnpServiceConfiguration#getMaxFailedEventDeliveries()} is enabled, the
+ * subscription is removed from the registry and ended with {@link CancelReason#DELIVERY_FAILED} after that many
+ * consecutive failures.
+ * </p>
+ * <p>
+ * At most {@link #getMaxQueuedEvents()} events are queued for a subscription, the oldest are dropped when a
+ * subscriber doesn't keep up. The subscriber notices the gap in the sequence numbers and subscribes again.
+ * </p>
+ */
+public class GENAEventDelivery {
+
+    /**
+     * The default number of events queued for a subscription.
+     */
+    public static final int MAX_QUEUED_EVENTS = 16;
+
+    private final Logger logger = LoggerFactory.getLogger(GENAEventDelivery.class);
+
+    protected final UpnpService upnpService;
+
+    private final Map<String, SubscriptionQueue> queues = new HashMap<>();
+    private final Deque<SubscriptionQueue> readyQueues = new ArrayDeque<>();
+    private int deliveriesInFlight;
+
+    public GENAEventDelivery(UpnpService upnpService) {
+        this.upnpService = upnpService;
+    }
+
+    public UpnpServiceConfiguration getConfiguration() {
+        return upnpService.getConfiguration();
+    }
+
+    /**
+     * Prepares an event message with the current values and sequence number of the subscription and queues it.
+     */
+    public void deliver(LocalGENASubscription subscription) {
+        synchronized (subscription) {
+            // Sequence numbers are assigned in the order of the queue
+            SendingEvent event = upnpService.getProtocolFactory().createSendingEvent(subscription);
+            synchronized (this) {
+                SubscriptionQueue queue = queues.computeIfAbsent(subscription.getSubscriptionId(),
+                        id -> new SubscriptionQueue(subscription));
+                queue.events.add(event);
+                if (queue.events.size() > Math.max(1, getMaxQueuedEvents())) {
+                    queue.events.poll();
+                    logger.trace("Dropping oldest queued event of subscription: {}", subscription.getSubscriptionId());
+                } else if (queue.events.size() == 1 && queue.isReady()) {
+                    readyQueues.add(queue);
+                }
+            }
+        }
+        dispatch();
+    }
+
+    /**
+     * Drops the queued events and delivery state of an ended subscription.
+     */
+    public synchronized void remove(LocalGENASubscription subscription) {
+        SubscriptionQueue queue = queues.remove(subscription.getSubscriptionId());
+        if (queue != null) {
+            queue.events.clear();
+            readyQueues.remove(queue);
+        }
+    }
+
+    public synchronized void clear() {
+        queues.clear();
+        readyQueues.clear();
+    }
+
+    /**
+     * @return The number of events queued for a subscription, defaults to {@link #MAX_QUEUED_EVENTS}.
+     */
+    protected int getMaxQueuedEvents() {
+        return MAX_QUEUED_EVENTS;
+    }
+
+    /**
+     * @return The delay of the next delivery after the given number of consecutive failures.
+     */
+    protected long getBackoffMillis(int failures) {
+        return Math.min(1000L << Math.min(failures - 1, 6), 60000L);
+    }
+
+    /**
+     * @return <code>true</code> if the subscriber accepted the event.
+     */
+    protected boolean isDelivered(StreamResponseMessage response) {
+        return response != null && !response.getOperation().isFailed();
+    }
+
+    protected void dispatch() {
+        List<Runnable> deliveries = new ArrayList<>();
+        synchronized (this) {
+            int maxDeliveries = getConfiguration().getMaxConcurrentEventDeliveries();
+            while (!readyQueues.isEmpty() && (maxDeliveries <= 0 || deliveriesInFlight < maxDeliveries)) {
+                SubscriptionQueue queue = readyQueues.poll();
+                SendingEvent event = queue.events.poll();
+                queue.sending = true;
+                deliveriesInFlight++;
+                deliveries.add(() -> send(queue, event));
+            }
+        }
+        for (Runnable delivery : deliveries) {
+            getConfiguration().getSyncProtocolExecutorService().execute(delivery);
+        }
+    }
+
+    protected void send(SubscriptionQueue queue, SendingEvent event) {
+        boolean delivered = false;
+        try {
+            event.run();
+            delivered = isDelivered(event.getOutputMessage());
+        } catch (RuntimeException e) {
+            logger.debug("Sending event failed for subscription: {}", queue.subscription.getSubscriptionId(), e);
+        } finally {
+            completed(queue, delivered);
+        }
+    }
+
+    private void completed(SubscriptionQueue queue, boolean delivered) {
+        boolean evict = false;
+        long backoffMillis = 0;
+        synchronized (this) {
+            deliveriesInFlight--;
+            queue.sending = false;
+
+            int maxFailures = getConfiguration().getMaxFailedEventDeliveries();
+            if (delivered) {
+                queue.failures = 0;
+            } else if (++queue.failures >= maxFailures && maxFailures > 0) {
+                evict = queues.remove(queue.subscription.getSubscriptionId(), queue);
+                queue.events.clear();
+            } else {
+                backoffMillis = getBackoffMillis(queue.failures);
+                queue.backingOff = true;
+            }
+
+            if (!queue.events.isEmpty()) {
+                if (queue.isReady()) {
+                    readyQueues.add(queue);
+                }
+            } else if (queue.failures == 0) {
+                // Nothing to remember, a new queue is created for the next event
+                queues.remove(queue.subscription.getSubscriptionId(), queue);
+            }
+        }
+
+        if (evict) {
+            logger.debug("Removing subscription after {} failed event deliveries: {}", queue.failures,
+                    queue.subscription.getSubscriptionId());
+            upnpService.getRegistry().removeLocalSubscription(queue.subscription);
+            queue.subscription.end(CancelReason.DELIVERY_FAILED);
+        } else if (backoffMillis > 0) {
+            logger.trace("Delaying next event of subscription by {} milliseconds: {}", backoffMillis,
+                    queue.subscription.getSubscriptionId());
+            getConfiguration().getScheduledExecutorService().schedule(() -> resume(queue), backoffMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+        dispatch();
+    }
+
+    private void resume(SubscriptionQueue queue) {
+        synchronized (this) {
+            queue.backingOff = false;
+            if (!queue.events.isEmpty()) {
+                readyQueues.add(queue);
+            }
+        }
+        dispatch();
+    }
+
+    protected static class SubscriptionQueue {
+
+        final LocalGENASubscription subscription;
+        final Queue<SendingEvent> events = new ArrayDeque<>();
+        boolean sending;
+        boolean backingOff;
+        int failures;
+
+        SubscriptionQueue(LocalGENASubscription subscription) {
+            this.subscription = subscription;
+        }
+
+        boolean isReady() {
+            return !sending && !backingOff;
+        }
+    }
+}
@@ -35,6 +35,11 @@ import org.jupnp.model.resource.IconResource;
 import org.jupnp.model.resource.Resource;
 import org.jupnp.model.resource.ServiceDescriptorResource;
 import org.jupnp.protocol.ReceivingSync;
+import org.jupnp.registry.DescriptorCache;
+import org.jupnp.registry.DescriptorCache.Descriptor;
+import org.jupnp.registry.DescriptorCache.Generator;
+import org.jupnp.registry.Registry;
+import org.jupnp.registry.RegistryImpl;
 import org.jupnp.transport.RouterException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,7 +48,9 @@ import org.slf4j.LoggerFactory;
  * Handles reception of device/service descriptor and icon retrieval messages.
  *
  * <p>
- * Requested device and service XML descriptors are generated on-the-fly for every request.
+ * Requested device and service XML descriptors are generated on-the-fly and cached in the
+ * registry's {@link org.jupnp.registry.DescriptorCache}, a client which sends the entity tag
+ * of the cached descriptor gets a <code>304 Not Modified</code> response.
  * </p>
  * <p>
  * Descriptor XML is dynamically generated depending on the control point - some control
@@ -54,6 +61,9 @@ import org.slf4j.LoggerFactory;
  */
 public class ReceivingRetrieval extends ReceivingSync<StreamRequestMessage, StreamResponseMessage> {
 
+    public static final String ETAG_HEADER = "ETag";
+    public static final String IF_NONE_MATCH_HEADER = "If-None-Match";
+
     private final Logger logger = LoggerFactory.getLogger(ReceivingRetrieval.class);
 
     public ReceivingRetrieval(UpnpService upnpService, StreamRequestMessage inputMessage) {
@@ -96,10 +106,13 @@ public class ReceivingRetrieval extends ReceivingSync<StreamRequestMessage, Stre
 
                 DeviceDescriptorBinder deviceDescriptorBinder = getUpnpService().getConfiguration()
                         .getDeviceDescriptorBinderUDA10();
-                String deviceDescriptor = deviceDescriptorBinder.generate(device, getRemoteClientInfo(),
+                Generator generator = () -> deviceDescriptorBinder.generate(device, getRemoteClientInfo(),
                         getUpnpService().getConfiguration().getNamespace());
-                response = new StreamResponseMessage(deviceDescriptor,
-                        new ContentTypeHeader(ContentTypeHeader.DEFAULT_CONTENT_TYPE));
+                DescriptorCache cache = getDescriptorCache();
+                Descriptor deviceDescriptor = cache != null
+                        ? cache.getDeviceDescriptor(device, getRemoteClientInfo(), generator)
+                        : new Descriptor(generator.generate());
+                response = createDescriptorResponse(deviceDescriptor);
             } else if (ServiceDescriptorResource.class.isAssignableFrom(resource.getClass())) {
 
                 logger.trace("Found local service matching relative request URI: {}", requestedURI);
@@ -107,9 +120,11 @@ public class ReceivingRetrieval extends ReceivingSync<StreamRequestMessage, Stre
 
                 ServiceDescriptorBinder serviceDescriptorBinder = getUpnpService().getConfiguration()
                         .getServiceDescriptorBinderUDA10();
-                String serviceDescriptor = serviceDescriptorBinder.generate(service);
-                response = new StreamResponseMessage(serviceDescriptor,
-                        new ContentTypeHeader(ContentTypeHeader.DEFAULT_CONTENT_TYPE));
+                Generator generator = () -> serviceDescriptorBinder.generate(service);
+                DescriptorCache cache = getDescriptorCache();
+                Descriptor serviceDescriptor = cache != null ? cache.getServiceDescriptor(service, generator)
+                        : new Descriptor(generator.generate());
+                response = createDescriptorResponse(serviceDescriptor);
 
             } else if (IconResource.class.isAssignableFrom(resource.getClass())) {
 
@@ -133,6 +148,48 @@ public class ReceivingRetrieval extends ReceivingSync<StreamRequestMessage, Stre
         return response;
     }
 
+    /**
+     * The cached descriptor is sent as it was encoded, or not at all if the client sent its entity tag in an
+     * <code>If-None-Match</code> header.
+     */
+    protected StreamResponseMessage createDescriptorResponse(Descriptor descriptor) {
+        StreamResponseMessage response;
+        if (isNotModified(descriptor.getEntityTag())) {
+            logger.trace("Descriptor not modified, entity tag: {}", descriptor.getEntityTag());
+            response = new StreamResponseMessage(UpnpResponse.Status.NOT_MODIFIED);
+        } else {
+            response = new StreamResponseMessage(UpnpResponse.Status.OK);
+            response.getHeaders().add(UpnpHeader.Type.CONTENT_TYPE,
+                    new ContentTypeHeader(ContentTypeHeader.DEFAULT_CONTENT_TYPE));
+            response.setBodyCharacters(descriptor.getCharacters());
+        }
+        response.getHeaders().add(ETAG_HEADER, descriptor.getEntityTag());
+        return response;
+    }
+
+    /**
+     * @return The descriptor cache of the {@link RegistryImpl}, <code>null</code> with another registry, the
+     *         descriptors are then always generated.
+     */
+    protected DescriptorCache getDescriptorCache() {
+        Registry registry = getUpnpService().getRegistry();
+        return registry instanceof RegistryImpl ? ((RegistryImpl) registry).getDescriptorCache() : null;
+    }
+
+    protected boolean isNotModified(String entityTag) {
+        String ifNoneMatch = getInputMessage().getHeaders().getFirstHeader(IF_NONE_MATCH_HEADER);
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.equals("*") || tag.equals(entityTag) || tag.equals("W/" + entityTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Called if the {@link org.jupnp.registry.Registry} had no result.
      *
@@ -19,6 +19,7 @@ import java.net.InetAddress;
 import java.net.URL;
 import java.net.UnknownHostException;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.jupnp.UpnpService;
 import org.jupnp.model.gena.CancelReason;
@@ -31,6 +32,8 @@ import org.jupnp.model.message.gena.OutgoingSubscribeResponseMessage;
 import org.jupnp.model.meta.LocalService;
 import org.jupnp.model.resource.ServiceEventSubscriptionResource;
 import org.jupnp.protocol.ReceivingSync;
+import org.jupnp.registry.Registry;
+import org.jupnp.registry.RegistryImpl;
 import org.jupnp.transport.RouterException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -172,8 +175,13 @@ public class ReceivingSubscribe extends ReceivingSync<StreamRequestMessage, Outg
                 @Override
                 public void eventReceived() {
                     // The only thing we are interested in, sending an event when the state changes
-                    getUpnpService().getConfiguration().getSyncProtocolExecutorService()
-                            .execute(getUpnpService().getProtocolFactory().createSendingEvent(this));
+                    deliverEvent(this);
+                }
+
+                @Override
+                protected void scheduleModeratedValues(long delayMillis) {
+                    getUpnpService().getConfiguration().getScheduledExecutorService()
+                            .schedule(this::moderatedValuesDue, delayMillis, TimeUnit.MILLISECONDS);
                 }
             };
         } catch (Exception e) {
@@ -196,19 +204,15 @@ public class ReceivingSubscribe extends ReceivingSync<StreamRequestMessage, Outg
         if (responseMessage != null && !responseMessage.getOperation().isFailed()
                 && subscription.getCurrentSequence().getValue() == 0) { // Note that renewals should not have 0
 
-            // This is a minor concurrency issue: If we now register on the service and henceforth send a new
-            // event message whenever the state of the service changes, there is still a chance that the initial
-            // event message arrives later than the first on-change event message. Shouldn't be a problem as the
-            // subscriber is supposed to figure out what to do with out-of-sequence messages. I would be
-            // surprised though if actual implementations won't crash!
+            // Queue the initial event before registering on the service, the event delivery sends the events
+            // of a subscription in the order they were queued, so the initial event is always sent first
+            logger.trace("Response to subscription sent successfully, now sending initial event asynchronously");
+            deliverEvent(subscription);
+
             logger.trace("Establishing subscription");
             subscription.registerOnService();
             subscription.establish();
 
-            logger.trace("Response to subscription sent successfully, now sending initial event asynchronously");
-            getUpnpService().getConfiguration().getAsyncProtocolExecutor()
-                    .execute(getUpnpService().getProtocolFactory().createSendingEvent(subscription));
-
         } else if (subscription.getCurrentSequence().getValue() == 0) {
             logger.trace("Subscription request's response aborted, not sending initial event");
             if (responseMessage == null) {
@@ -229,4 +233,18 @@ public class ReceivingSubscribe extends ReceivingSync<StreamRequestMessage, Outg
         logger.trace("Response could not be send to subscriber, removing local GENA subscription: {}", subscription);
         getUpnpService().getRegistry().removeLocalSubscription(subscription);
     }
+
+    /**
+     * Queues the current event of the subscription on the event delivery of the {@link RegistryImpl}, with another
+     * registry the event is sent on a thread of the sync protocol executor.
+     */
+    protected void deliverEvent(LocalGENASubscription subscription) {
+        Registry registry = getUpnpService().getRegistry();
+        if (registry instanceof RegistryImpl) {
+            ((RegistryImpl) registry).getEventDelivery().deliver(subscription);
+        } else {
+            getUpnpService().getConfiguration().getSyncProtocolExecutorService()
+                    .execute(getUpnpService().getProtocolFactory().createSendingEvent(subscription));
+        }
+    }
 }
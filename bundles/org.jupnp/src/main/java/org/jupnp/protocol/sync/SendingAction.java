@@ -115,7 +115,7 @@ public class SendingAction extends SendingSync<OutgoingActionRequestMessage, Inc
             getUpnpService().getConfiguration().getSoapActionProcessor().writeBody(requestMessage, actionInvocation);
 
             logger.trace("Sending SOAP body of message as stream to remote device");
-            return getUpnpService().getRouter().send(requestMessage);
+            return sendStreamRequest(requestMessage);
         } catch (RouterException e) {
             Throwable cause = Exceptions.unwrap(e);
             if (cause instanceof InterruptedException) {
@@ -87,7 +87,7 @@ public class SendingEvent extends SendingSync<OutgoingEventRequestMessage, Strea
             }
 
             // Send request
-            lastResponse = getUpnpService().getRouter().send(requestMessage);
+            lastResponse = sendStreamRequest(requestMessage);
             logger.trace("Received event callback response: {}", lastResponse);
 
         }
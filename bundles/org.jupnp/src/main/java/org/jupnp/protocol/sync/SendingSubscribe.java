@@ -80,7 +80,7 @@ public class SendingSubscribe extends SendingSync<OutgoingSubscribeRequestMessag
 
             StreamResponseMessage response;
             try {
-                response = getUpnpService().getRouter().send(getInputMessage());
+                response = sendStreamRequest(getInputMessage());
             } catch (RouterException e) {
                 onSubscriptionFailure();
                 return null;
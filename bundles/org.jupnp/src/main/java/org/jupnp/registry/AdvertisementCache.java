@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2011-2026 4th Line GmbH, Switzerland and others
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License Version 1 or later
+ * ("CDDL") (collectively, the "License"). You may not use this file
+ * except in compliance with the License. See LICENSE.txt for more
+ * information.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * SPDX-License-Identifier: CDDL-1.0
+ */
+package org.jupnp.registry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.jupnp.model.UnsupportedDataException;
+import org.jupnp.model.message.OutgoingDatagramMessage;
+import org.jupnp.model.meta.LocalDevice;
+import org.jupnp.model.types.UDN;
+import org.jupnp.transport.spi.DatagramProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Encoded discovery messages of local devices, sent again without building and encoding them each time.
+ * <p>
+ * Messages are cached per root device, under a key chosen by the discovery protocol, e.g. the kind of
+ * messages and the descriptor location. All messages of a root device are dropped when the device is added,
+ * removed, or its {@link org.jupnp.model.DiscoveryOptions} change. A registered device instance which is not
+ * the cached instance also replaces the cached messages.
+ * </p>
+ */
+public class AdvertisementCache {
+
+    private final Logger logger = LoggerFactory.getLogger(AdvertisementCache.class);
+
+    private final DatagramProcessor datagramProcessor;
+    private final Map<UDN, Entry> entries = new ConcurrentHashMap<>();
+
+    public AdvertisementCache(DatagramProcessor datagramProcessor) {
+        this.datagramProcessor = datagramProcessor;
+    }
+
+    /**
+     * @param device The (embedded) device the messages are for.
+     * @param key Identifies the messages of the device.
+     * @param creator Called to create the messages if they are not cached.
+     * @return The cached, encoded messages; they must not be modified.
+     */
+    @SuppressWarnings("unchecked")
+    public <M extends OutgoingDatagramMessage<?>> List<M> get(LocalDevice device, Object key,
+            Supplier<List<M>> creator) {
+        LocalDevice root = device.getRoot();
+        Entry entry = entries.compute(root.getIdentity().getUdn(),
+                (udn, existing) -> existing != null && existing.root == root ? existing : new Entry(root));
+        return (List<M>) entry.messages.computeIfAbsent(key, k -> encode(creator.get()));
+    }
+
+    public void invalidate(UDN rootUdn) {
+        if (entries.remove(rootUdn) != null) {
+            logger.trace("Removed cached advertisement messages of: {}", rootUdn);
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    protected List<OutgoingDatagramMessage<?>> encode(List<? extends OutgoingDatagramMessage<?>> messages) {
+        List<OutgoingDatagramMessage<?>> encoded = new ArrayList<>(messages.size());
+        for (OutgoingDatagramMessage<?> message : messages) {
+            try {
+                message.setEncodedData(datagramProcessor.write(message).getData());
+            } catch (UnsupportedDataException e) {
+                logger.debug("Can't encode message, it will be encoded when sent: {}", message, e);
+            }
+            encoded.add(message);
+        }
+        return Collections.unmodifiableList(encoded);
+    }
+
+    private static class Entry {
+
+        private final LocalDevice root;
+        private final Map<Object, List<OutgoingDatagramMessage<?>>> messages = new ConcurrentHashMap<>();
+
+        private Entry(LocalDevice root) {
+            this.root = root;
+        }
+    }
+}
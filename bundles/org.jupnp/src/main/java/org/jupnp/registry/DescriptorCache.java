@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2011-2026 4th Line GmbH, Switzerland and others
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License Version 1 or later
+ * ("CDDL") (collectively, the "License"). You may not use this file
+ * except in compliance with the License. See LICENSE.txt for more
+ * information.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * SPDX-License-Identifier: CDDL-1.0
+ */
+package org.jupnp.registry;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jupnp.binding.xml.DescriptorBindingException;
+import org.jupnp.model.meta.LocalDevice;
+import org.jupnp.model.meta.LocalService;
+import org.jupnp.model.profile.RemoteClientInfo;
+import org.jupnp.model.types.UDN;
+import org.jupnp.util.io.HexBin;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Generated descriptors of local devices and services, returned again without generating them each time.
+ * <p>
+ * Descriptors are cached per root device. A device descriptor depends on the
+ * {@link org.jupnp.model.meta.DeviceDetails} a device provides for the requesting client, it is cached once for
+ * each variant of the details of the device and its embedded devices. Variants are told apart by instance, a
+ * {@link org.jupnp.model.profile.DeviceDetailsProvider} has to return the same instance for the same details or
+ * its device descriptors are generated for every request. All descriptors of a root device are dropped
+ * when the device is added or removed, a registered device instance which is not the cached instance also replaces
+ * the cached descriptors.
+ * </p>
+ */
+public class DescriptorCache {
+
+    /**
+     * The number of descriptors kept for a root device, the least recently used are dropped.
+     */
+    public static final int DESCRIPTORS_MAX_SIZE = 32;
+
+    private final Logger logger = LoggerFactory.getLogger(DescriptorCache.class);
+
+    private final Map<UDN, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * @param device The (embedded) device described by the descriptor.
+     * @param info The requesting client, selects the device details.
+     * @param generator Called to generate the descriptor if it is not cached.
+     */
+    public Descriptor getDeviceDescriptor(LocalDevice device, RemoteClientInfo info, Generator generator)
+            throws DescriptorBindingException {
+        List<Object> key = new ArrayList<>();
+        key.add(device.getIdentity().getUdn());
+        addDetails(key, device, info);
+        return get(device, key, generator);
+    }
+
+    /**
+     * @param service The service described by the descriptor.
+     * @param generator Called to generate the descriptor if it is not cached.
+     */
+    public Descriptor getServiceDescriptor(LocalService service, Generator generator)
+            throws DescriptorBindingException {
+        LocalDevice device = (LocalDevice) service.getDevice();
+        return get(device, List.of(device.getIdentity().getUdn(), service.getServiceId()), generator);
+    }
+
+    public void invalidate(UDN rootUdn) {
+        if (entries.remove(rootUdn) != null) {
+            logger.trace("Removed cached descriptors of: {}", rootUdn);
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    protected Descriptor get(LocalDevice device, Object key, Generator generator) throws DescriptorBindingException {
+        LocalDevice root = device.getRoot();
+        Entry entry = entries.compute(root.getIdentity().getUdn(),
+                (udn, existing) -> existing != null && existing.root == root ? existing : new Entry(root));
+
+        Descriptor descriptor = entry.descriptors.get(key);
+        if (descriptor == null) {
+            // Generated outside of the lock, concurrent requests might generate the same descriptor
+            descriptor = new Descriptor(generator.generate());
+            entry.descriptors.put(key, descriptor);
+        }
+        return descriptor;
+    }
+
+    // The details are the same instances for all clients, unless a provider selects one of its instances per client
+    protected void addDetails(List<Object> key, LocalDevice device, RemoteClientInfo info) {
+        key.add(new IdentityKey(device.getDetails(info)));
+        for (LocalDevice embeddedDevice : device.getEmbeddedDevices()) {
+            addDetails(key, embeddedDevice, info);
+        }
+    }
+
+    /**
+     * Generates the XML of a descriptor.
+     */
+    @FunctionalInterface
+    public interface Generator {
+
+        String generate() throws DescriptorBindingException;
+    }
+
+    /**
+     * A generated descriptor, with its UTF-8 encoded characters and an entity tag identifying its content.
+     */
+    public static class Descriptor {
+
+        private final String xml;
+        private final byte[] characters;
+        private final String entityTag;
+
+        public Descriptor(String xml) {
+            this.xml = xml;
+            this.characters = xml.getBytes(StandardCharsets.UTF_8);
+            this.entityTag = createEntityTag(characters);
+        }
+
+        public String getXml() {
+            return xml;
+        }
+
+        /**
+         * @return The encoded characters, they must not be modified.
+         */
+        public byte[] getCharacters() {
+            return characters;
+        }
+
+        /**
+         * @return The quoted entity tag, a digest of the content.
+         */
+        public String getEntityTag() {
+            return entityTag;
+        }
+
+        protected static String createEntityTag(byte[] characters) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(characters);
+                return "\"" + HexBin.bytesToString(digest).substring(0, 32) + "\"";
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static class IdentityKey {
+
+        private final Object object;
+
+        private IdentityKey(Object object) {
+            this.object = object;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof IdentityKey && ((IdentityKey) o).object == object;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(object);
+        }
+    }
+
+    private static class Entry {
+
+        private final LocalDevice root;
+        private final Map<Object, Descriptor> descriptors = Collections
+                .synchronizedMap(new LinkedHashMap<>(DESCRIPTORS_MAX_SIZE, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<Object, Descriptor> eldest) {
+                        return size() > DESCRIPTORS_MAX_SIZE;
+                    }
+                });
+
+        private Entry(LocalDevice root) {
+            this.root = root;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2011-2026 4th Line GmbH, Switzerland and others
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License Version 1 or later
+ * ("CDDL") (collectively, the "License"). You may not use this file
+ * except in compliance with the License. See LICENSE.txt for more
+ * information.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * SPDX-License-Identifier: CDDL-1.0
+ */
+package org.jupnp.registry;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.jupnp.model.meta.Device;
+import org.jupnp.model.meta.Service;
+import org.jupnp.model.types.DeviceType;
+import org.jupnp.model.types.ServiceType;
+import org.jupnp.model.types.UDN;
+
+/**
+ * Internal class, required by {@link RegistryImpl}.
+ * <p>
+ * An immutable snapshot of the registered root devices, with indexes over the root and embedded devices of their
+ * graphs. Writers derive a new snapshot and publish it, readers can use a snapshot without any locking. The type
+ * indexes are keyed without version, lookups then check version compatibility on the (few) candidates.
+ * </p>
+ *
+ * @param <D> The type of the registered devices.
+ */
+class DeviceIndex<D extends Device> {
+
+    private static final DeviceIndex<?> EMPTY = new DeviceIndex<>(Collections.emptyMap(), Collections.emptyMap(),
+            Collections.emptyMap(), Collections.emptyMap());
+
+    private final Map<UDN, D> rootDevices;
+    private final Map<UDN, D> devicesByUdn;
+    private final Map<String, Set<D>> devicesByType;
+    private final Map<String, Set<D>> devicesByServiceType;
+
+    private DeviceIndex(Map<UDN, D> rootDevices, Map<UDN, D> devicesByUdn, Map<String, Set<D>> devicesByType,
+            Map<String, Set<D>> devicesByServiceType) {
+        this.rootDevices = rootDevices;
+        this.devicesByUdn = devicesByUdn;
+        this.devicesByType = devicesByType;
+        this.devicesByServiceType = devicesByServiceType;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <D extends Device> DeviceIndex<D> empty() {
+        return (DeviceIndex<D>) EMPTY;
+    }
+
+    /**
+     * @return A new snapshot which also contains the graph of the given root device.
+     */
+    DeviceIndex<D> withDevice(D rootDevice) {
+        Builder builder = new Builder();
+        builder.rootDevices.put(rootDevice.getIdentity().getUdn(), rootDevice);
+        builder.index(rootDevice);
+        return builder.build();
+    }
+
+    /**
+     * @return A new snapshot without the graph of the given root device.
+     */
+    DeviceIndex<D> withoutDevice(D rootDevice) {
+        Builder builder = new Builder();
+        builder.rootDevices.remove(rootDevice.getIdentity().getUdn(), rootDevice);
+        builder.unindex(rootDevice);
+        return builder.build();
+    }
+
+    Collection<D> getRootDevices() {
+        return rootDevices.values();
+    }
+
+    boolean isEmpty() {
+        return rootDevices.isEmpty();
+    }
+
+    D get(UDN udn, boolean rootOnly) {
+        D device = devicesByUdn.get(udn);
+        if (device == null || (rootOnly && !device.isRoot())) {
+            return null;
+        }
+        return device;
+    }
+
+    Collection<D> get(DeviceType deviceType) {
+        Collection<D> devices = new HashSet<>();
+        Set<D> candidates = devicesByType.get(typeKey(deviceType.getNamespace(), deviceType.getType()));
+        if (candidates != null) {
+            for (D device : candidates) {
+                if (device.getType().implementsVersion(deviceType)) {
+                    devices.add(device);
+                }
+            }
+        }
+        return devices;
+    }
+
+    Collection<D> get(ServiceType serviceType) {
+        Collection<D> devices = new HashSet<>();
+        Set<D> candidates = devicesByServiceType.get(typeKey(serviceType.getNamespace(), serviceType.getType()));
+        if (candidates != null) {
+            for (D device : candidates) {
+                for (Service service : device.getServices()) {
+                    if (service.getServiceType().implementsVersion(serviceType)) {
+                        devices.add(device);
+                        break;
+                    }
+                }
+            }
+        }
+        return devices;
+    }
+
+    static String typeKey(String namespace, String type) {
+        return namespace + ":" + type;
+    }
+
+    /**
+     * Copies the maps of the current snapshot, the sets of the type indexes are only copied when modified.
+     */
+    private class Builder {
+
+        final Map<UDN, D> rootDevices = new HashMap<>(DeviceIndex.this.rootDevices);
+        final Map<UDN, D> devicesByUdn = new HashMap<>(DeviceIndex.this.devicesByUdn);
+        final Map<String, Set<D>> devicesByType = new HashMap<>(DeviceIndex.this.devicesByType);
+        final Map<String, Set<D>> devicesByServiceType = new HashMap<>(DeviceIndex.this.devicesByServiceType);
+        final Set<String> copiedTypes = new HashSet<>();
+        final Set<String> copiedServiceTypes = new HashSet<>();
+
+        void index(D device) {
+            UDN udn = device.getIdentity().getUdn();
+            if (device.isRoot()) {
+                devicesByUdn.put(udn, device);
+            } else {
+                devicesByUdn.putIfAbsent(udn, device);
+            }
+            // Type might be null if the device hasn't been hydrated
+            if (device.getType() != null) {
+                String key = typeKey(device.getType().getNamespace(), device.getType().getType());
+                mutableSet(devicesByType, copiedTypes, key).add(device);
+            }
+            if (device.hasServices()) {
+                for (Service service : device.getServices()) {
+                    String key = typeKey(service.getServiceType().getNamespace(), service.getServiceType().getType());
+                    mutableSet(devicesByServiceType, copiedServiceTypes, key).add(device);
+                }
+            }
+            if (device.hasEmbeddedDevices()) {
+                for (Device embeddedDevice : device.getEmbeddedDevices()) {
+                    index((D) embeddedDevice);
+                }
+            }
+        }
+
+        void unindex(D device) {
+            devicesByUdn.remove(device.getIdentity().getUdn(), device);
+            if (device.getType() != null) {
+                String key = typeKey(device.getType().getNamespace(), device.getType().getType());
+                if (devicesByType.containsKey(key)) {
+                    mutableSet(devicesByType, copiedTypes, key).remove(device);
+                }
+            }
+            if (device.hasServices()) {
+                for (Service service : device.getServices()) {
+                    String key = typeKey(service.getServiceType().getNamespace(), service.getServiceType().getType());
+                    if (devicesByServiceType.containsKey(key)) {
+                        mutableSet(devicesByServiceType, copiedServiceTypes, key).remove(device);
+                    }
+                }
+            }
+            if (device.hasEmbeddedDevices()) {
+                for (Device embeddedDevice : device.getEmbeddedDevices()) {
+                    unindex((D) embeddedDevice);
+                }
+            }
+        }
+
+        Set<D> mutableSet(Map<String, Set<D>> index, Set<String> copiedKeys, String key) {
+            if (copiedKeys.add(key)) {
+                Set<D> devices = index.get(key);
+                index.put(key, devices != null ? new HashSet<>(devices) : new HashSet<>());
+            }
+            return index.get(key);
+        }
+
+        DeviceIndex<D> build() {
+            devicesByType.values().removeIf(Set::isEmpty);
+            devicesByServiceType.values().removeIf(Set::isEmpty);
+            return new DeviceIndex<>(rootDevices, devicesByUdn, devicesByType, devicesByServiceType);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2011-2026 4th Line GmbH, Switzerland and others
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License Version 1 or later
+ * ("CDDL") (collectively, the "License"). You may not use this file
+ * except in compliance with the License. See LICENSE.txt for more
+ * information.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * SPDX-License-Identifier: CDDL-1.0
+ */
+package org.jupnp.registry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Internal class, required by {@link RegistryImpl}.
+ * <p>
+ * Orders keys by the timestamp (in seconds) at which they are due, so expired registry items can be found
+ * without checking every registered item.
+ * </p>
+ *
+ * @param <K> The type of the registry item keys.
+ */
+class ExpirationQueue<K> {
+
+    private final Map<K, Long> dueTimestamps = new HashMap<>();
+    private final TreeMap<Long, Set<K>> schedule = new TreeMap<>();
+
+    /**
+     * Schedules the key, replacing any previously scheduled timestamp.
+     *
+     * @param key The key of the registry item.
+     * @param dueTimestampSeconds The timestamp in seconds, <code>Long.MAX_VALUE</code> if the item is never due.
+     */
+    synchronized void schedule(K key, long dueTimestampSeconds) {
+        remove(key);
+        if (dueTimestampSeconds == Long.MAX_VALUE) {
+            return;
+        }
+        dueTimestamps.put(key, dueTimestampSeconds);
+        schedule.computeIfAbsent(dueTimestampSeconds, t -> new LinkedHashSet<>()).add(key);
+    }
+
+    synchronized boolean remove(K key) {
+        Long dueTimestampSeconds = dueTimestamps.remove(key);
+        if (dueTimestampSeconds == null) {
+            return false;
+        }
+        Set<K> keys = schedule.get(dueTimestampSeconds);
+        if (keys != null && keys.remove(key) && keys.isEmpty()) {
+            schedule.remove(dueTimestampSeconds);
+        }
+        return true;
+    }
+
+    /**
+     * Removes and returns all keys due at or before the given timestamp, in order of their due timestamp.
+     */
+    synchronized List<K> pollDue(long nowTimestampSeconds) {
+        if (schedule.isEmpty() || schedule.firstKey() > nowTimestampSeconds) {
+            return Collections.emptyList();
+        }
+        List<K> dueKeys = new ArrayList<>();
+        Iterator<Map.Entry<Long, Set<K>>> it = schedule.headMap(nowTimestampSeconds, true).entrySet().iterator();
+        while (it.hasNext()) {
+            for (K key : it.next().getValue()) {
+                dueKeys.add(key);
+                dueTimestamps.remove(key);
+            }
+            it.remove();
+        }
+        return dueKeys;
+    }
+
+    /**
+     * @return The earliest scheduled timestamp in seconds, <code>Long.MAX_VALUE</code> if nothing is scheduled.
+     */
+    synchronized long getNextDueTimestampSeconds() {
+        return schedule.isEmpty() ? Long.MAX_VALUE : schedule.firstKey();
+    }
+
+    synchronized boolean contains(K key) {
+        return dueTimestamps.containsKey(key);
+    }
+
+    synchronized int size() {
+        return dueTimestamps.size();
+    }
+
+    synchronized void clear() {
+        dueTimestamps.clear();
+        schedule.clear();
+    }
+}
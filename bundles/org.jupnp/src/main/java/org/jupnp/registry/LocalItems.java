@@ -15,14 +15,15 @@
  */
 package org.jupnp.registry;
 
-import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.jupnp.model.DiscoveryOptions;
 import org.jupnp.model.gena.CancelReason;
@@ -43,7 +44,7 @@ class LocalItems extends RegistryItems<LocalDevice, LocalGENASubscription> {
 
     private final Logger logger = LoggerFactory.getLogger(Registry.class);
 
-    protected Map<UDN, DiscoveryOptions> discoveryOptions = new HashMap<>();
+    protected Map<UDN, DiscoveryOptions> discoveryOptions = new ConcurrentHashMap<>();
     protected long lastAliveIntervalTimestamp = 0;
 
     LocalItems(RegistryImpl registry) {
@@ -56,6 +57,9 @@ class LocalItems extends RegistryItems<LocalDevice, LocalGENASubscription> {
         } else {
             this.discoveryOptions.remove(udn);
         }
+        // Also called when the device is added or removed
+        registry.getAdvertisementCache().invalidate(udn);
+        registry.getDescriptorCache().invalidate(udn);
     }
 
     protected DiscoveryOptions getDiscoveryOptions(UDN udn) {
@@ -107,14 +111,20 @@ class LocalItems extends RegistryItems<LocalDevice, LocalGENASubscription> {
         RegistryItem<UDN, LocalDevice> localItem = new RegistryItem<>(localDevice.getIdentity().getUdn(), localDevice,
                 localDevice.getIdentity().getMaxAgeSeconds());
 
-        getDeviceItems().add(localItem);
+        addDeviceItem(localItem);
         logger.trace("Registered local device: {}", localItem);
 
+        boolean advertised = isAdvertised(localItem.getKey());
         if (isByeByeBeforeFirstAlive(localItem.getKey())) {
-            advertiseByebye(localDevice, true);
-        }
-
-        if (isAdvertised(localItem.getKey())) {
+            // The alive messages are only scheduled once all byebye messages were sent
+            final SendingAsync byebye = registry.getProtocolFactory().createSendingNotificationByebye(localDevice);
+            registry.executeAsyncProtocol(() -> {
+                byebye.run();
+                if (advertised) {
+                    advertiseAlive(localDevice);
+                }
+            });
+        } else if (advertised) {
             advertiseAlive(localDevice);
         }
 
@@ -124,15 +134,6 @@ class LocalItems extends RegistryItems<LocalDevice, LocalGENASubscription> {
         }
     }
 
-    @Override
-    Collection<LocalDevice> get() {
-        Set<LocalDevice> c = new HashSet<>();
-        for (RegistryItem<UDN, LocalDevice> item : getDeviceItems()) {
-            c.add(item.getItem());
-        }
-        return Collections.unmodifiableCollection(c);
-    }
-
     @Override
     boolean remove(final LocalDevice localDevice) throws RegistrationException {
         return remove(localDevice, false);
@@ -146,7 +147,7 @@ class LocalItems extends RegistryItems<LocalDevice, LocalGENASubscription> {
             logger.trace("Removing local device from registry: {}", localDevice);
 
             setDiscoveryOptions(localDevice.getIdentity().getUdn(), null);
-            getDeviceItems().remove(new RegistryItem<>(localDevice.getIdentity().getUdn()));
+            removeDeviceItem(registeredDevice);
 
             for (Resource deviceResource : getResources(localDevice)) {
                 if (registry.removeResource(deviceResource)) {
@@ -155,19 +156,20 @@ class LocalItems extends RegistryItems<LocalDevice, LocalGENASubscription> {
             }
 
             // Active subscriptions
-            Iterator<RegistryItem<String, LocalGENASubscription>> it = getSubscriptionItems().iterator();
-            while (it.hasNext()) {
-                final RegistryItem<String, LocalGENASubscription> incomingSubscription = it.next();
-
+            List<RegistryItem<String, LocalGENASubscription>> removedSubscriptions = new ArrayList<>();
+            for (RegistryItem<String, LocalGENASubscription> incomingSubscription : getSubscriptionItems()) {
                 UDN subscriptionForUDN = incomingSubscription.getItem().getService().getDevice().getIdentity().getUdn();
-
                 if (subscriptionForUDN.equals(registeredDevice.getIdentity().getUdn())) {
-                    logger.trace("Removing incoming subscription: {}", incomingSubscription.getKey());
-                    it.remove();
-                    if (!shuttingDown) {
-                        registry.getConfiguration().getRegistryListenerExecutor()
-                                .execute(() -> incomingSubscription.getItem().end(CancelReason.DEVICE_WAS_REMOVED));
-                    }
+                    removedSubscriptions.add(incomingSubscription);
+                }
+            }
+            for (final RegistryItem<String, LocalGENASubscription> incomingSubscription : removedSubscriptions) {
+                logger.trace("Removing incoming subscription: {}", incomingSubscription.getKey());
+                removeSubscription(incomingSubscription.getKey());
+                registry.getEventDelivery().remove(incomingSubscription.getItem());
+                if (!shuttingDown) {
+                    registry.getConfiguration().getRegistryListenerExecutor()
+                            .execute(() -> incomingSubscription.getItem().end(CancelReason.DEVICE_WAS_REMOVED));
                 }
             }
 
@@ -203,7 +205,7 @@ class LocalItems extends RegistryItems<LocalDevice, LocalGENASubscription> {
     /* ############################################################################################################ */
 
     public void advertiseLocalDevices() {
-        for (RegistryItem<UDN, LocalDevice> localItem : deviceItems) {
+        for (RegistryItem<UDN, LocalDevice> localItem : getDeviceItems()) {
             if (isAdvertised(localItem.getKey())) {
                 advertiseAlive(localItem.getItem());
             }
@@ -238,11 +240,14 @@ class LocalItems extends RegistryItems<LocalDevice, LocalGENASubscription> {
             // Reset, the configuration might dynamically switch the alive interval
             lastAliveIntervalTimestamp = 0;
 
-            // Alive interval is not enabled, regular expiration check of all devices
-            for (RegistryItem<UDN, LocalDevice> localItem : getDeviceItems()) {
-                if (isAdvertised(localItem.getKey()) && localItem.getExpirationDetails().hasExpired(true)) {
+            // Alive interval is not enabled, regular expiration check of the devices which are due
+            for (RegistryItem<UDN, LocalDevice> localItem : pollDueDevices()) {
+                if (isAdvertised(localItem.getKey())) {
                     logger.trace("Local item has expired: {}", localItem);
                     expiredLocalItems.add(localItem);
+                } else {
+                    // Check again on the next run, the discovery options might change
+                    deviceExpirations.schedule(localItem.getKey(), getCurrentTimestampSeconds() + 1);
                 }
             }
         }
@@ -252,26 +257,32 @@ class LocalItems extends RegistryItems<LocalDevice, LocalGENASubscription> {
             logger.trace("Refreshing local device advertisement: {}", expiredLocalItem.getItem());
             advertiseAlive(expiredLocalItem.getItem());
             expiredLocalItem.getExpirationDetails().stampLastRefresh();
+            deviceExpirations.schedule(expiredLocalItem.getKey(), getDeviceDueTimestampSeconds(expiredLocalItem));
         }
 
         // Expire incoming subscriptions
-        Set<RegistryItem<String, LocalGENASubscription>> expiredIncomingSubscriptions = new HashSet<>();
-        for (RegistryItem<String, LocalGENASubscription> item : getSubscriptionItems()) {
-            if (item.getExpirationDetails().hasExpired(false)) {
-                expiredIncomingSubscriptions.add(item);
-            }
-        }
-        for (RegistryItem<String, LocalGENASubscription> subscription : expiredIncomingSubscriptions) {
+        for (RegistryItem<String, LocalGENASubscription> subscription : pollDueSubscriptions()) {
             logger.trace("Removing expired: {}", subscription);
             removeSubscription(subscription.getItem());
+            registry.getEventDelivery().remove(subscription.getItem());
             subscription.getItem().end(CancelReason.EXPIRED);
         }
     }
 
+    /**
+     * Local devices are due for a refreshing advertisement at half of their maximum age.
+     */
+    @Override
+    long getDeviceDueTimestampSeconds(RegistryItem<UDN, LocalDevice> deviceItem) {
+        return deviceItem.getExpirationDetails().getExpirationTimestampSeconds(true);
+    }
+
     @Override
     void shutdown() {
         logger.trace("Clearing all registered subscriptions to local devices during shutdown");
-        getSubscriptionItems().clear();
+        subscriptionItems.clear();
+        subscriptionExpirations.clear();
+        registry.getEventDelivery().clear();
 
         logger.trace("Removing all local devices from registry during shutdown");
         removeAll(true);
@@ -282,15 +293,12 @@ class LocalItems extends RegistryItems<LocalDevice, LocalGENASubscription> {
     protected Random randomGenerator = new Random();
 
     protected void advertiseAlive(final LocalDevice localDevice) {
-        registry.executeAsyncProtocol(() -> {
-            try {
-                logger.trace("Sleeping some milliseconds to avoid flooding the network with ALIVE msgs");
-                Thread.sleep(randomGenerator.nextInt(100));
-            } catch (InterruptedException e) {
-                logger.error("Background execution interrupted", e);
-            }
-            registry.getProtocolFactory().createSendingNotificationAlive(localDevice).run();
-        });
+        logger.trace("Delaying some milliseconds to avoid flooding the network with ALIVE msgs");
+        ScheduledExecutorService scheduler = registry.getConfiguration().getScheduledExecutorService();
+        scheduler.schedule(
+                () -> registry.getProtocolFactory().createSendingNotificationAlive(localDevice).schedule(scheduler,
+                        registry.getConfiguration().getAsyncProtocolExecutor()),
+                randomGenerator.nextInt(100), TimeUnit.MILLISECONDS);
     }
 
     protected void advertiseByebye(final LocalDevice localDevice, boolean asynchronous) {
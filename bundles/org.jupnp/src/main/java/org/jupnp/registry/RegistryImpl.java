@@ -22,10 +22,12 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 
 import org.jupnp.UpnpService;
 import org.jupnp.UpnpServiceConfiguration;
@@ -44,6 +46,7 @@ import org.jupnp.model.types.DeviceType;
 import org.jupnp.model.types.ServiceType;
 import org.jupnp.model.types.UDN;
 import org.jupnp.protocol.ProtocolFactory;
+import org.jupnp.protocol.sync.GENAEventDelivery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -60,6 +63,10 @@ public class RegistryImpl implements Registry {
     protected RegistryMaintainer registryMaintainer;
     protected final Set<RemoteGENASubscription> pendingSubscriptionsLock = new HashSet<>();
     protected Object lock = new Object();
+    private final Lazy<AdvertisementCache> advertisementCache = new Lazy<>(this::createAdvertisementCache);
+    private final Lazy<DescriptorCache> descriptorCache = new Lazy<>(this::createDescriptorCache);
+    private final Lazy<RemoteDescriptorStore> remoteDescriptorStore = new Lazy<>(this::createRemoteDescriptorStore);
+    private final Lazy<GENAEventDelivery> eventDelivery = new Lazy<>(this::createEventDelivery);
 
     public RegistryImpl() {
     }
@@ -76,7 +83,7 @@ public class RegistryImpl implements Registry {
         synchronized (lock) {
             registryMaintainer = createRegistryMaintainer();
             if (registryMaintainer != null) {
-                getConfiguration().getRegistryMaintainerExecutor().execute(registryMaintainer);
+                startRegistryMaintainer(registryMaintainer);
             }
         }
     }
@@ -100,14 +107,22 @@ public class RegistryImpl implements Registry {
         return new RegistryMaintainer(this, getConfiguration().getRegistryMaintenanceIntervalMillis());
     }
 
+    protected void startRegistryMaintainer(RegistryMaintainer registryMaintainer) {
+        registryMaintainer.start(getConfiguration().getScheduledExecutorService(),
+                getConfiguration().getRegistryMaintainerExecutor());
+    }
+
     // #################################################################################################
 
     protected final Set<RegistryListener> registryListeners = new CopyOnWriteArraySet<>();
-    protected final Set<RegistryItem<URI, Resource>> resourceItems = Collections
+    protected final Map<URI, RegistryItem<URI, Resource>> resourceItems = new ConcurrentHashMap<>();
+    // Resources that don't only match their own path and query, these can't be found through the map alone
+    protected final Set<RegistryItem<URI, Resource>> matchingResourceItems = Collections
             .newSetFromMap(new ConcurrentHashMap<>());
     protected final List<Runnable> pendingExecutions = new LinkedList<>();
 
-    // in the methods that acquire both locks at the same time always acquire remoteItemsLock first
+    // Only writers acquire these locks, readers use the immutable device snapshots and concurrent maps of the items.
+    // In the methods that acquire both locks at the same time always acquire remoteItemsLock first
     protected final ReentrantReadWriteLock remoteItemsLock = new ReentrantReadWriteLock(true);
     protected final ReentrantReadWriteLock localItemsLock = new ReentrantReadWriteLock(true);
     protected final RemoteItems remoteItems = new RemoteItems(this);
@@ -198,12 +213,60 @@ public class RegistryImpl implements Registry {
 
     @Override
     public DiscoveryOptions getDiscoveryOptions(UDN udn) {
-        localItemsLock.readLock().lock();
-        try {
-            return localItems.getDiscoveryOptions(udn);
-        } finally {
-            localItemsLock.readLock().unlock();
-        }
+        return localItems.getDiscoveryOptions(udn);
+    }
+
+    /**
+     * Called internally by the UPnP discovery protocol.
+     *
+     * @return The encoded advertisement and search response messages of the registered local devices.
+     */
+    public AdvertisementCache getAdvertisementCache() {
+        return advertisementCache.get();
+    }
+
+    protected AdvertisementCache createAdvertisementCache() {
+        return new AdvertisementCache(getConfiguration().getDatagramProcessor());
+    }
+
+    /**
+     * Called internally by the UPnP description protocol.
+     *
+     * @return The generated device and service descriptors of the registered local devices.
+     */
+    public DescriptorCache getDescriptorCache() {
+        return descriptorCache.get();
+    }
+
+    protected DescriptorCache createDescriptorCache() {
+        return new DescriptorCache();
+    }
+
+    /**
+     * Called internally by the UPnP description protocol.
+     *
+     * @return The retrieved descriptors of remote devices, kept across restarts if a directory is configured.
+     */
+    public RemoteDescriptorStore getRemoteDescriptorStore() {
+        return remoteDescriptorStore.get();
+    }
+
+    protected RemoteDescriptorStore createRemoteDescriptorStore() {
+        return new RemoteDescriptorStore(getConfiguration().getRemoteDescriptorStoreDirectory(),
+                getConfiguration().getRemoteDescriptorStoreMaxAgeSeconds());
+    }
+
+    /**
+     * Called internally by the GENA protocol.
+     *
+     * @return The queues of event messages to the subscribers of local services.
+     */
+    public GENAEventDelivery getEventDelivery() {
+        return eventDelivery.get();
+    }
+
+    protected GENAEventDelivery createEventDelivery() {
+        return new GENAEventDelivery(getUpnpService());
     }
 
     @Override
@@ -304,104 +367,45 @@ public class RegistryImpl implements Registry {
 
     @Override
     public LocalDevice getLocalDevice(UDN udn, boolean rootOnly) {
-        localItemsLock.readLock().lock();
-        try {
-            return localItems.get(udn, rootOnly);
-        } finally {
-            localItemsLock.readLock().unlock();
-        }
+        return localItems.get(udn, rootOnly);
     }
 
     @Override
     public RemoteDevice getRemoteDevice(UDN udn, boolean rootOnly) {
-        remoteItemsLock.readLock().lock();
-        try {
-            return remoteItems.get(udn, rootOnly);
-        } finally {
-            remoteItemsLock.readLock().unlock();
-        }
+        return remoteItems.get(udn, rootOnly);
     }
 
     @Override
     public Collection<LocalDevice> getLocalDevices() {
-        localItemsLock.readLock().lock();
-        try {
-            return Collections.unmodifiableCollection(localItems.get());
-        } finally {
-            localItemsLock.readLock().unlock();
-        }
+        return Collections.unmodifiableCollection(localItems.get());
     }
 
     @Override
     public Collection<RemoteDevice> getRemoteDevices() {
-        remoteItemsLock.readLock().lock();
-        try {
-            return Collections.unmodifiableCollection(remoteItems.get());
-        } finally {
-            remoteItemsLock.readLock().unlock();
-        }
+        return Collections.unmodifiableCollection(remoteItems.get());
     }
 
     @Override
     public Collection<Device> getDevices() {
         Set<Device> all = new HashSet<>();
-
-        remoteItemsLock.readLock().lock();
-        try {
-            all.addAll(remoteItems.get());
-        } finally {
-            remoteItemsLock.readLock().unlock();
-        }
-
-        localItemsLock.readLock().lock();
-        try {
-            all.addAll(localItems.get());
-        } finally {
-            localItemsLock.readLock().unlock();
-        }
-
+        all.addAll(remoteItems.get());
+        all.addAll(localItems.get());
         return Collections.unmodifiableCollection(all);
     }
 
     @Override
     public Collection<Device> getDevices(DeviceType deviceType) {
         Collection<Device> devices = new HashSet<>();
-
-        remoteItemsLock.readLock().lock();
-        try {
-            devices.addAll(remoteItems.get(deviceType));
-        } finally {
-            remoteItemsLock.readLock().unlock();
-        }
-
-        localItemsLock.readLock().lock();
-        try {
-            devices.addAll(localItems.get(deviceType));
-        } finally {
-            localItemsLock.readLock().unlock();
-        }
-
+        devices.addAll(remoteItems.get(deviceType));
+        devices.addAll(localItems.get(deviceType));
         return Collections.unmodifiableCollection(devices);
     }
 
     @Override
     public Collection<Device> getDevices(ServiceType serviceType) {
         Collection<Device> devices = new HashSet<>();
-
-        remoteItemsLock.readLock().lock();
-        try {
-            devices.addAll(remoteItems.get(serviceType));
-        } finally {
-            remoteItemsLock.readLock().unlock();
-        }
-
-        localItemsLock.readLock().lock();
-        try {
-            devices.addAll(localItems.get(serviceType));
-        } finally {
-            localItemsLock.readLock().unlock();
-        }
-
+        devices.addAll(remoteItems.get(serviceType));
+        devices.addAll(localItems.get(serviceType));
         return Collections.unmodifiableCollection(devices);
     }
 
@@ -422,13 +426,9 @@ public class RegistryImpl implements Registry {
             throw new IllegalArgumentException("Resource URI can not be absolute, only path and query:" + pathQuery);
         }
 
-        // Note: Uses field access on resourceItems for performance reasons
-
-        for (RegistryItem<URI, Resource> resourceItem : resourceItems) {
-            Resource resource = resourceItem.getItem();
-            if (resource.matches(pathQuery)) {
-                return resource;
-            }
+        Resource resource = findResource(pathQuery);
+        if (resource != null) {
+            return resource;
         }
 
         // TODO: UPNP VIOLATION: Fuppes on my ReadyNAS thinks it's a cool idea to add a slash at the end of the callback
@@ -437,15 +437,26 @@ public class RegistryImpl implements Registry {
         if (pathQuery.getPath().endsWith("/")) {
             URI pathQueryWithoutSlash = URI
                     .create(pathQuery.toString().substring(0, pathQuery.toString().length() - 1));
+            return findResource(pathQueryWithoutSlash);
+        }
 
-            for (RegistryItem<URI, Resource> resourceItem : resourceItems) {
-                Resource resource = resourceItem.getItem();
-                if (resource.matches(pathQueryWithoutSlash)) {
-                    return resource;
-                }
-            }
+        return null;
+    }
+
+    protected Resource findResource(URI pathQuery) {
+        // Note: Uses field access on resource items for performance reasons
+
+        RegistryItem<URI, Resource> resourceItem = resourceItems.get(pathQuery);
+        if (resourceItem != null && resourceItem.getItem().matches(pathQuery)) {
+            return resourceItem.getItem();
         }
 
+        for (RegistryItem<URI, Resource> matchingResourceItem : matchingResourceItems) {
+            Resource resource = matchingResourceItem.getItem();
+            if (resource.matches(pathQuery)) {
+                return resource;
+            }
+        }
         return null;
     }
 
@@ -462,7 +473,7 @@ public class RegistryImpl implements Registry {
     public Collection<Resource> getResources() {
         Collection<Resource> s = new HashSet<>(resourceItems.size());
 
-        for (RegistryItem<URI, Resource> resourceItem : resourceItems) {
+        for (RegistryItem<URI, Resource> resourceItem : resourceItems.values()) {
             s.add(resourceItem.getItem());
         }
         return s;
@@ -471,7 +482,7 @@ public class RegistryImpl implements Registry {
     @Override
     public <T extends Resource> Collection<T> getResources(Class<T> resourceType) {
         Collection<T> s = new HashSet<>(resourceItems.size());
-        for (RegistryItem<URI, Resource> resourceItem : resourceItems) {
+        for (RegistryItem<URI, Resource> resourceItem : resourceItems.values()) {
             if (resourceType.isAssignableFrom(resourceItem.getItem().getClass())) {
                 s.add((T) resourceItem.getItem());
             }
@@ -486,15 +497,26 @@ public class RegistryImpl implements Registry {
 
     @Override
     public void addResource(Resource resource, int maxAgeSeconds) {
-        RegistryItem resourceItem = new RegistryItem(resource.getPathQuery(), resource, maxAgeSeconds);
+        RegistryItem<URI, Resource> resourceItem = new RegistryItem<>(resource.getPathQuery(), resource,
+                maxAgeSeconds);
 
-        resourceItems.remove(resourceItem);
-        resourceItems.add(resourceItem);
+        RegistryItem<URI, Resource> replacedItem = resourceItems.put(resourceItem.getKey(), resourceItem);
+        if (replacedItem != null) {
+            matchingResourceItems.remove(replacedItem);
+        }
+        if (!resource.matchesByPathQueryOnly()) {
+            matchingResourceItems.add(resourceItem);
+        }
     }
 
     @Override
     public boolean removeResource(Resource resource) {
-        return resourceItems.remove(new RegistryItem<>(resource.getPathQuery()));
+        RegistryItem<URI, Resource> removedItem = resourceItems.remove(resource.getPathQuery());
+        if (removedItem != null) {
+            matchingResourceItems.remove(removedItem);
+            return true;
+        }
+        return false;
     }
 
     // #################################################################################################
@@ -511,12 +533,7 @@ public class RegistryImpl implements Registry {
 
     @Override
     public LocalGENASubscription getLocalSubscription(String subscriptionId) {
-        localItemsLock.readLock().lock();
-        try {
-            return localItems.getSubscription(subscriptionId);
-        } finally {
-            localItemsLock.readLock().unlock();
-        }
+        return localItems.getSubscription(subscriptionId);
     }
 
     @Override
@@ -533,6 +550,7 @@ public class RegistryImpl implements Registry {
     public boolean removeLocalSubscription(LocalGENASubscription subscription) {
         localItemsLock.writeLock().lock();
         try {
+            getEventDelivery().remove(subscription);
             return localItems.removeSubscription(subscription);
         } finally {
             localItemsLock.writeLock().unlock();
@@ -551,12 +569,7 @@ public class RegistryImpl implements Registry {
 
     @Override
     public RemoteGENASubscription getRemoteSubscription(String subscriptionId) {
-        remoteItemsLock.readLock().lock();
-        try {
-            return remoteItems.getSubscription(subscriptionId);
-        } finally {
-            remoteItemsLock.readLock().unlock();
-        }
+        return remoteItems.getSubscription(subscriptionId);
     }
 
     @Override
@@ -615,7 +628,7 @@ public class RegistryImpl implements Registry {
             listener.beforeShutdown(this);
         }
 
-        for (RegistryItem<URI, Resource> resourceItem : resourceItems) {
+        for (RegistryItem<URI, Resource> resourceItem : resourceItems.values()) {
             resourceItem.getItem().shutdown();
         }
 
@@ -669,7 +682,7 @@ public class RegistryImpl implements Registry {
 
                 registryMaintainer = createRegistryMaintainer();
                 if (registryMaintainer != null) {
-                    getConfiguration().getRegistryMaintainerExecutor().execute(registryMaintainer);
+                    startRegistryMaintainer(registryMaintainer);
                 }
             }
         }
@@ -689,18 +702,19 @@ public class RegistryImpl implements Registry {
         logger.trace("Maintaining registry...");
 
         // Remove expired resources
-        Iterator<RegistryItem<URI, Resource>> it = resourceItems.iterator();
+        Iterator<RegistryItem<URI, Resource>> it = resourceItems.values().iterator();
         while (it.hasNext()) {
             RegistryItem<URI, Resource> item = it.next();
             if (item.getExpirationDetails().hasExpired()) {
                 logger.trace("Removing expired resource: {}", item);
                 it.remove();
+                matchingResourceItems.remove(item);
             }
         }
 
         // Let each resource do its own maintenance
         synchronized (pendingExecutions) {
-            for (RegistryItem<URI, Resource> resourceItem : resourceItems) {
+            for (RegistryItem<URI, Resource> resourceItem : resourceItems.values()) {
                 resourceItem.getItem().maintain(pendingExecutions, resourceItem.getExpirationDetails());
             }
         }
@@ -777,7 +791,7 @@ public class RegistryImpl implements Registry {
             logger.trace(
                     "====================================  RESOURCES  ================================================");
 
-            for (RegistryItem<URI, Resource> resourceItem : resourceItems) {
+            for (RegistryItem<URI, Resource> resourceItem : resourceItems.values()) {
                 logger.trace(resourceItem.toString());
             }
 
@@ -823,4 +837,30 @@ public class RegistryImpl implements Registry {
         }
         return null;
     }
+
+    /**
+     * Creates its value on first use, the configuration might not be available when the registry is constructed.
+     */
+    private static class Lazy<T> {
+
+        private final Supplier<T> creator;
+        private volatile T value;
+
+        Lazy(Supplier<T> creator) {
+            this.creator = creator;
+        }
+
+        T get() {
+            T result = value;
+            if (result == null) {
+                synchronized (this) {
+                    result = value;
+                    if (result == null) {
+                        value = result = creator.get();
+                    }
+                }
+            }
+            return result;
+        }
+    }
 }
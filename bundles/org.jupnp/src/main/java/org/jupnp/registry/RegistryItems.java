@@ -15,10 +15,14 @@
  */
 package org.jupnp.registry;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.jupnp.UpnpServiceConfiguration;
 import org.jupnp.model.ValidationException;
@@ -38,19 +42,82 @@ abstract class RegistryItems<D extends Device, S extends GENASubscription> {
 
     protected final RegistryImpl registry;
 
-    protected final Set<RegistryItem<UDN, D>> deviceItems = new HashSet<>();
-    protected final Set<RegistryItem<String, S>> subscriptionItems = new HashSet<>();
+    protected final Map<UDN, RegistryItem<UDN, D>> deviceItems = new HashMap<>();
+    protected final ExpirationQueue<UDN> deviceExpirations = new ExpirationQueue<>();
+    protected final Map<String, RegistryItem<String, S>> subscriptionItems = new ConcurrentHashMap<>();
+    protected final ExpirationQueue<String> subscriptionExpirations = new ExpirationQueue<>();
+
+    // Replaced by addDeviceItem() and removeDeviceItem(), read without holding the registry locks
+    protected volatile DeviceIndex<D> deviceIndex = DeviceIndex.empty();
 
     RegistryItems(RegistryImpl registry) {
         this.registry = registry;
     }
 
-    Set<RegistryItem<UDN, D>> getDeviceItems() {
-        return deviceItems;
+    Collection<RegistryItem<UDN, D>> getDeviceItems() {
+        return deviceItems.values();
+    }
+
+    Collection<RegistryItem<String, S>> getSubscriptionItems() {
+        return subscriptionItems.values();
+    }
+
+    /**
+     * Adds the item to the registered device items and indexes its device graph.
+     */
+    void addDeviceItem(RegistryItem<UDN, D> item) {
+        deviceItems.put(item.getKey(), item);
+        deviceExpirations.schedule(item.getKey(), getDeviceDueTimestampSeconds(item));
+        deviceIndex = deviceIndex.withDevice(item.getItem());
+    }
+
+    /**
+     * Removes the item of the given root device from the registered device items and drops its device
+     * graph from the indexes.
+     */
+    boolean removeDeviceItem(D rootDevice) {
+        boolean removed = deviceItems.remove(rootDevice.getIdentity().getUdn()) != null;
+        deviceExpirations.remove(rootDevice.getIdentity().getUdn());
+        if (removed) {
+            deviceIndex = deviceIndex.withoutDevice(rootDevice);
+        }
+        return removed;
     }
 
-    Set<RegistryItem<String, S>> getSubscriptionItems() {
-        return subscriptionItems;
+    /**
+     * Replaces the item of an already registered root device, e.g. to reset its expiration, the device
+     * graph (and therefore the indexes) must be the same.
+     */
+    void replaceDeviceItem(RegistryItem<UDN, D> item) {
+        deviceItems.put(item.getKey(), item);
+        deviceExpirations.schedule(item.getKey(), getDeviceDueTimestampSeconds(item));
+    }
+
+    /**
+     * Removes the devices which are due for maintenance from the expiration queue.
+     *
+     * @return The items of the due root devices, still registered.
+     */
+    Collection<RegistryItem<UDN, D>> pollDueDevices() {
+        List<UDN> dueUdns = deviceExpirations.pollDue(getCurrentTimestampSeconds());
+        if (dueUdns.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<RegistryItem<UDN, D>> dueItems = new ArrayList<>();
+        for (UDN udn : dueUdns) {
+            RegistryItem<UDN, D> item = deviceItems.get(udn);
+            if (item != null) {
+                dueItems.add(item);
+            }
+        }
+        return dueItems;
+    }
+
+    /**
+     * @return The timestamp in seconds at which the root device needs maintenance, by default when it expires.
+     */
+    long getDeviceDueTimestampSeconds(RegistryItem<UDN, D> deviceItem) {
+        return deviceItem.getExpirationDetails().getExpirationTimestampSeconds(false);
     }
 
     abstract void add(D device);
@@ -72,19 +139,7 @@ abstract class RegistryItems<D extends Device, S extends GENASubscription> {
      *         no device with the given UDN has been registered.
      */
     D get(UDN udn, boolean rootOnly) {
-        for (RegistryItem<UDN, D> item : deviceItems) {
-            D device = item.getItem();
-            if (device.getIdentity().getUdn().equals(udn)) {
-                return device;
-            }
-            if (!rootOnly) {
-                D foundDevice = (D) item.getItem().findDevice(udn);
-                if (foundDevice != null) {
-                    return foundDevice;
-                }
-            }
-        }
-        return null;
+        return deviceIndex.get(udn, rootOnly);
     }
 
     /**
@@ -97,14 +152,7 @@ abstract class RegistryItems<D extends Device, S extends GENASubscription> {
      * @return Any registered root or embedded device with a compatible type.
      */
     Collection<D> get(DeviceType deviceType) {
-        Collection<D> devices = new HashSet<>();
-        for (RegistryItem<UDN, D> item : deviceItems) {
-            D[] d = (D[]) item.getItem().findDevices(deviceType);
-            if (d != null) {
-                devices.addAll(Arrays.asList(d));
-            }
-        }
-        return devices;
+        return deviceIndex.get(deviceType);
     }
 
     /**
@@ -114,23 +162,14 @@ abstract class RegistryItems<D extends Device, S extends GENASubscription> {
      * @return Any registered root or embedded device with at least one matching service.
      */
     Collection<D> get(ServiceType serviceType) {
-        Collection<D> devices = new HashSet<>();
-        for (RegistryItem<UDN, D> item : deviceItems) {
-
-            D[] d = (D[]) item.getItem().findDevices(serviceType);
-            if (d != null) {
-                devices.addAll(Arrays.asList(d));
-            }
-        }
-        return devices;
+        return deviceIndex.get(serviceType);
     }
 
+    /**
+     * @return The registered root devices.
+     */
     Collection<D> get() {
-        Collection<D> devices = new HashSet<>();
-        for (RegistryItem<UDN, D> item : deviceItems) {
-            devices.add(item.getItem());
-        }
-        return devices;
+        return new HashSet<>(deviceIndex.getRootDevices());
     }
 
     boolean contains(D device) {
@@ -138,7 +177,7 @@ abstract class RegistryItems<D extends Device, S extends GENASubscription> {
     }
 
     boolean contains(UDN udn) {
-        return deviceItems.contains(new RegistryItem<UDN, D>(udn));
+        return deviceItems.containsKey(udn);
     }
 
     void addSubscription(S subscription) {
@@ -146,28 +185,63 @@ abstract class RegistryItems<D extends Device, S extends GENASubscription> {
         RegistryItem<String, S> subscriptionItem = new RegistryItem<>(subscription.getSubscriptionId(), subscription,
                 subscription.getActualDurationSeconds());
 
-        subscriptionItems.add(subscriptionItem);
+        subscriptionItems.put(subscriptionItem.getKey(), subscriptionItem);
+        subscriptionExpirations.schedule(subscriptionItem.getKey(),
+                getSubscriptionDueTimestampSeconds(subscriptionItem));
     }
 
     boolean updateSubscription(S subscription) {
-        if (removeSubscription(subscription)) {
-            addSubscription(subscription);
-            return true;
+        RegistryItem<String, S> subscriptionItem = new RegistryItem<>(subscription.getSubscriptionId(), subscription,
+                subscription.getActualDurationSeconds());
+
+        // Replaced in one step, lookups without lock always find the subscription
+        if (subscriptionItems.replace(subscriptionItem.getKey(), subscriptionItem) == null) {
+            return false;
         }
-        return false;
+        subscriptionExpirations.schedule(subscriptionItem.getKey(),
+                getSubscriptionDueTimestampSeconds(subscriptionItem));
+        return true;
     }
 
     boolean removeSubscription(S subscription) {
-        return subscriptionItems.remove(new RegistryItem<String, S>(subscription.getSubscriptionId()));
+        return removeSubscription(subscription.getSubscriptionId());
+    }
+
+    boolean removeSubscription(String subscriptionId) {
+        subscriptionExpirations.remove(subscriptionId);
+        return subscriptionItems.remove(subscriptionId) != null;
     }
 
     S getSubscription(String subscriptionId) {
-        for (RegistryItem<String, S> registryItem : subscriptionItems) {
-            if (registryItem.getKey().equals(subscriptionId)) {
-                return registryItem.getItem();
+        RegistryItem<String, S> registryItem = subscriptionItems.get(subscriptionId);
+        return registryItem != null ? registryItem.getItem() : null;
+    }
+
+    /**
+     * Removes the subscriptions which are due for maintenance from the expiration queue.
+     *
+     * @return The items of the due subscriptions, still registered.
+     */
+    Collection<RegistryItem<String, S>> pollDueSubscriptions() {
+        List<RegistryItem<String, S>> dueItems = new ArrayList<>();
+        for (String subscriptionId : subscriptionExpirations.pollDue(getCurrentTimestampSeconds())) {
+            RegistryItem<String, S> item = subscriptionItems.get(subscriptionId);
+            if (item != null) {
+                dueItems.add(item);
             }
         }
-        return null;
+        return dueItems;
+    }
+
+    /**
+     * @return The timestamp in seconds at which the subscription needs maintenance, by default when it expires.
+     */
+    long getSubscriptionDueTimestampSeconds(RegistryItem<String, S> subscriptionItem) {
+        return subscriptionItem.getExpirationDetails().getExpirationTimestampSeconds(false);
+    }
+
+    long getCurrentTimestampSeconds() {
+        return System.currentTimeMillis() / 1000;
     }
 
     Resource[] getResources(Device device) throws RegistrationException {
@@ -15,11 +15,22 @@
  */
 package org.jupnp.registry;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Runs periodically and calls {@link org.jupnp.registry.RegistryImpl#maintain()}.
+ * <p>
+ * A scheduler triggers the maintenance passes, each pass is then executed by the registry maintainer executor. No
+ * thread is occupied in between passes, and a pass is skipped if the previous one is still running.
+ * </p>
  *
  * @author Christian Bauer
  */
@@ -30,32 +41,54 @@ public class RegistryMaintainer implements Runnable {
     private final RegistryImpl registry;
     private final int sleepIntervalMillis;
 
+    private final AtomicBoolean running = new AtomicBoolean(false);
     private volatile boolean stopped = false;
+    private ScheduledFuture<?> scheduledFuture;
 
     public RegistryMaintainer(RegistryImpl registry, int sleepIntervalMillis) {
         this.registry = registry;
         this.sleepIntervalMillis = sleepIntervalMillis;
     }
 
-    public void stop() {
-        logger.trace("Setting stopped status on thread");
+    /**
+     * Schedules a maintenance pass every interval, starting immediately.
+     *
+     * @param scheduler The scheduler which triggers the maintenance passes.
+     * @param executor The executor which runs the maintenance passes.
+     */
+    public synchronized void start(ScheduledExecutorService scheduler, final Executor executor) {
+        stopped = false;
+        logger.trace("Scheduling registry maintenance every milliseconds: {}", sleepIntervalMillis);
+        scheduledFuture = scheduler.scheduleWithFixedDelay(() -> {
+            if (stopped || !running.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                running.set(false);
+                logger.debug("Registry maintenance pass rejected by executor: {}", e.toString());
+            }
+        }, 0, sleepIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        logger.trace("Setting stopped status and cancelling scheduled maintenance");
         stopped = true;
+        if (scheduledFuture != null) {
+            scheduledFuture.cancel(false);
+            scheduledFuture = null;
+        }
     }
 
     @Override
     public void run() {
-        stopped = false;
-        logger.trace("Running registry maintenance loop every milliseconds: {}", sleepIntervalMillis);
-        while (!stopped) {
-
-            try {
+        try {
+            if (!stopped) {
                 registry.maintain();
-                Thread.sleep(sleepIntervalMillis);
-            } catch (InterruptedException e) {
-                stopped = true;
             }
-
+        } finally {
+            running.set(false);
         }
-        logger.trace("Stopped status on thread received, ending maintenance loop");
     }
 }
@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2011-2026 4th Line GmbH, Switzerland and others
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License Version 1 or later
+ * ("CDDL") (collectively, the "License"). You may not use this file
+ * except in compliance with the License. See LICENSE.txt for more
+ * information.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * SPDX-License-Identifier: CDDL-1.0
+ */
+package org.jupnp.registry;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.jupnp.model.meta.RemoteDeviceIdentity;
+import org.jupnp.model.types.UDN;
+import org.jupnp.util.io.HexBin;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Retrieved descriptors of remote devices, stored in a directory so they don't have to be retrieved again after
+ * a restart.
+ * <p>
+ * The device descriptor and the service descriptors of a root device are stored together in one compressed file,
+ * by descriptor URL. The file is named after the UDN of the root device and records the
+ * <code>CONFIGID.UPNP.ORG</code> and <code>BOOTID.UPNP.ORG</code> values the device announced when its descriptors
+ * were retrieved. Stored descriptors are valid as long as the device announces the same configuration number.
+ * Without a configuration number, they are valid until the device announces a new boot instance or the maximum
+ * age is reached. Invalid and unreadable files are deleted.
+ * </p>
+ */
+public class RemoteDescriptorStore {
+
+    private static final int MAGIC = 0x4A55444E;
+    private static final int VERSION = 1;
+    private static final int NONE = -1;
+
+    private final Logger logger = LoggerFactory.getLogger(RemoteDescriptorStore.class);
+
+    private final Path directory;
+    private final long maxAgeMillis;
+
+    /**
+     * @param directory The directory of the stored files, <code>null</code> disables the store.
+     * @param maxAgeSeconds The maximum age of stored descriptors of devices without configuration number,
+     *            <code>0</code> for no limit.
+     */
+    public RemoteDescriptorStore(Path directory, int maxAgeSeconds) {
+        this.directory = directory;
+        this.maxAgeMillis = maxAgeSeconds * 1000L;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * @param identity The discovered identity of the root device.
+     * @return The valid stored descriptors of the root device by descriptor URL, an empty map if there are none.
+     */
+    public Map<URL, String> get(RemoteDeviceIdentity identity) {
+        if (!isEnabled()) {
+            return Collections.emptyMap();
+        }
+        Path file = getFile(identity.getUdn());
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unknown file format");
+            }
+            String udn = in.readUTF();
+            long storedTimestamp = in.readLong();
+            int configId = in.readInt();
+            int bootId = in.readInt();
+
+            if (!udn.equals(identity.getUdn().toString())) {
+                logger.trace("Ignoring stored descriptors of other device {}: {}", udn, file);
+                return Collections.emptyMap();
+            }
+            if (!isValid(identity, storedTimestamp, configId, bootId)) {
+                logger.trace("Stored descriptors are outdated: {}", identity);
+                delete(file);
+                return Collections.emptyMap();
+            }
+
+            int count = in.readInt();
+            Map<URL, String> descriptors = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                URL descriptorURL = new URL(in.readUTF());
+                byte[] descriptor = new byte[in.readInt()];
+                in.readFully(descriptor);
+                descriptors.put(descriptorURL, new String(descriptor, StandardCharsets.UTF_8));
+            }
+            logger.trace("Read {} stored descriptors: {}", descriptors.size(), identity);
+            return descriptors;
+
+        } catch (NoSuchFileException e) {
+            return Collections.emptyMap();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not read stored descriptors, deleting: {}", file, e);
+            delete(file);
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Replaces the stored descriptors of the root device.
+     *
+     * @param identity The discovered identity of the root device.
+     * @param descriptors The descriptors of the root device by descriptor URL.
+     */
+    public void put(RemoteDeviceIdentity identity, Map<URL, String> descriptors) {
+        if (!isEnabled()) {
+            return;
+        }
+        Path file = getFile(identity.getUdn());
+        Path tempFile = null;
+        try {
+            Files.createDirectories(directory);
+            tempFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(tempFile))))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(identity.getUdn().toString());
+                out.writeLong(getCurrentTimeMillis());
+                out.writeInt(Objects.requireNonNullElse(identity.getConfigId(), NONE));
+                out.writeInt(Objects.requireNonNullElse(identity.getBootId(), NONE));
+                out.writeInt(descriptors.size());
+                for (Map.Entry<URL, String> entry : descriptors.entrySet()) {
+                    byte[] descriptor = entry.getValue().getBytes(StandardCharsets.UTF_8);
+                    out.writeUTF(entry.getKey().toString());
+                    out.writeInt(descriptor.length);
+                    out.write(descriptor);
+                }
+            }
+            // Readers never see a partially written file
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.trace("Stored {} descriptors: {}", descriptors.size(), identity);
+        } catch (IOException e) {
+            logger.warn("Could not store descriptors: {}", file, e);
+            if (tempFile != null) {
+                delete(tempFile);
+            }
+        }
+    }
+
+    /**
+     * Deletes the stored descriptors of the root device.
+     */
+    public void remove(UDN udn) {
+        if (isEnabled()) {
+            delete(getFile(udn));
+        }
+    }
+
+    protected boolean isValid(RemoteDeviceIdentity identity, long storedTimestamp, int configId, int bootId) {
+        if (identity.getConfigId() != null) {
+            // The device changes its configuration number whenever its descriptors change
+            return identity.getConfigId() == configId;
+        }
+        if (identity.getBootId() != null && bootId != NONE && identity.getBootId() != bootId) {
+            return false;
+        }
+        return maxAgeMillis <= 0 || getCurrentTimeMillis() - storedTimestamp <= maxAgeMillis;
+    }
+
+    protected long getCurrentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    protected Path getFile(UDN udn) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(udn.toString().getBytes(StandardCharsets.UTF_8));
+            return directory.resolve(HexBin.bytesToString(hash).toLowerCase(Locale.ENGLISH) + ".dsc");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    protected void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.debug("Could not delete stored descriptors: {}", file, e);
+        }
+    }
+}
@@ -17,17 +17,13 @@ package org.jupnp.registry;
 
 import java.net.URL;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import org.jupnp.model.ExpirationDetails;
 import org.jupnp.model.gena.CancelReason;
 import org.jupnp.model.gena.RemoteGENASubscription;
-import org.jupnp.model.meta.LocalDevice;
 import org.jupnp.model.meta.RemoteDevice;
 import org.jupnp.model.meta.RemoteDeviceIdentity;
 import org.jupnp.model.resource.Resource;
@@ -95,7 +91,7 @@ class RemoteItems extends RegistryItems<RemoteDevice, RemoteGENASubscription> {
         RegistryItem item = new RegistryItem(device.getIdentity().getUdn(), device, maxAgeSeconds);
         logger.trace("Adding hydrated remote device to registry with {} seconds expiration: {}",
                 item.getExpirationDetails().getMaxAgeSeconds(), device);
-        getDeviceItems().add(item);
+        addDeviceItem(item);
 
         if (logger.isTraceEnabled()) {
             StringBuilder sb = new StringBuilder();
@@ -118,11 +114,9 @@ class RemoteItems extends RegistryItems<RemoteDevice, RemoteGENASubscription> {
 
     boolean update(RemoteDeviceIdentity rdIdentity) {
 
-        for (LocalDevice localDevice : registry.getLocalDevices()) {
-            if (localDevice.findDevice(rdIdentity.getUdn()) != null) {
-                logger.trace("Ignoring update, a local device graph contains UDN");
-                return true;
-            }
+        if (registry.getLocalDevice(rdIdentity.getUdn(), false) != null) {
+            logger.trace("Ignoring update, a local device graph contains UDN");
+            return true;
         }
 
         RemoteDevice registeredRemoteDevice = get(rdIdentity.getUdn(), false);
@@ -155,8 +149,7 @@ class RemoteItems extends RegistryItems<RemoteDevice, RemoteGENASubscription> {
                             : rdIdentity.getMaxAgeSeconds());
 
             logger.trace("Updating expiration of: {}", registeredRemoteDevice);
-            getDeviceItems().remove(item);
-            getDeviceItems().add(item);
+            replaceDeviceItem(item);
 
             logger.trace("Remote device updated, calling listeners: {}", registeredRemoteDevice);
             for (final RegistryListener listener : registry.getListeners()) {
@@ -195,19 +188,19 @@ class RemoteItems extends RegistryItems<RemoteDevice, RemoteGENASubscription> {
             }
 
             // Active subscriptions
-            Iterator<RegistryItem<String, RemoteGENASubscription>> it = getSubscriptionItems().iterator();
-            while (it.hasNext()) {
-                final RegistryItem<String, RemoteGENASubscription> outgoingSubscription = it.next();
-
+            List<RegistryItem<String, RemoteGENASubscription>> removedSubscriptions = new ArrayList<>();
+            for (RegistryItem<String, RemoteGENASubscription> outgoingSubscription : getSubscriptionItems()) {
                 UDN subscriptionForUDN = outgoingSubscription.getItem().getService().getDevice().getIdentity().getUdn();
-
                 if (subscriptionForUDN.equals(registeredDevice.getIdentity().getUdn())) {
-                    logger.trace("Removing outgoing subscription: {}", outgoingSubscription.getKey());
-                    it.remove();
-                    if (!shuttingDown) {
-                        registry.getConfiguration().getRemoteListenerExecutor().execute(
-                                () -> outgoingSubscription.getItem().end(CancelReason.DEVICE_WAS_REMOVED, null));
-                    }
+                    removedSubscriptions.add(outgoingSubscription);
+                }
+            }
+            for (final RegistryItem<String, RemoteGENASubscription> outgoingSubscription : removedSubscriptions) {
+                logger.trace("Removing outgoing subscription: {}", outgoingSubscription.getKey());
+                removeSubscription(outgoingSubscription.getKey());
+                if (!shuttingDown) {
+                    registry.getConfiguration().getRemoteListenerExecutor()
+                            .execute(() -> outgoingSubscription.getItem().end(CancelReason.DEVICE_WAS_REMOVED, null));
                 }
             }
 
@@ -220,7 +213,7 @@ class RemoteItems extends RegistryItems<RemoteDevice, RemoteGENASubscription> {
             }
 
             // Finally, remove the device from the registry
-            getDeviceItems().remove(new RegistryItem<>(registeredDevice.getIdentity().getUdn()));
+            removeDeviceItem(registeredDevice);
 
             return true;
         }
@@ -249,27 +242,15 @@ class RemoteItems extends RegistryItems<RemoteDevice, RemoteGENASubscription> {
     @Override
     void maintain() {
 
-        if (getDeviceItems().isEmpty()) {
-            return;
-        }
-
         // Remove expired remote devices
-        Map<UDN, RemoteDevice> expiredRemoteDevices = new HashMap<>();
-        for (RegistryItem<UDN, RemoteDevice> remoteItem : getDeviceItems()) {
-            logger.trace("Device '{}' expires in seconds: {}", remoteItem.getItem(),
-                    remoteItem.getExpirationDetails().getSecondsUntilExpiration());
-            if (remoteItem.getExpirationDetails().hasExpired(false)) {
-                expiredRemoteDevices.put(remoteItem.getKey(), remoteItem.getItem());
-            }
-        }
-        for (RemoteDevice remoteDevice : expiredRemoteDevices.values()) {
-            logger.trace("Removing expired: {}", remoteDevice);
-            remove(remoteDevice);
+        for (RegistryItem<UDN, RemoteDevice> remoteItem : pollDueDevices()) {
+            logger.trace("Removing expired: {}", remoteItem.getItem());
+            remove(remoteItem.getItem());
         }
 
         // Renew outgoing subscriptions
         Set<RemoteGENASubscription> expiredOutgoingSubscriptions = new HashSet<>();
-        for (RegistryItem<String, RemoteGENASubscription> item : getSubscriptionItems()) {
+        for (RegistryItem<String, RemoteGENASubscription> item : pollDueSubscriptions()) {
             ExpirationDetails expirationDetails = item.getExpirationDetails();
             if (expirationDetails.getRenewAttempts() < 1 && expirationDetails.hasExpired(true)) {
                 expiredOutgoingSubscriptions.add(item.getItem());
@@ -309,6 +290,14 @@ class RemoteItems extends RegistryItems<RemoteDevice, RemoteGENASubscription> {
         removeAll(true);
     }
 
+    /**
+     * Outgoing subscriptions are due for renewal at half of their duration.
+     */
+    @Override
+    long getSubscriptionDueTimestampSeconds(RegistryItem<String, RemoteGENASubscription> subscriptionItem) {
+        return subscriptionItem.getExpirationDetails().getExpirationTimestampSeconds(true);
+    }
+
     /* ############################################################################################################ */
 
     protected void renewOutgoingSubscription(final RemoteGENASubscription subscription) {
@@ -17,6 +17,7 @@ package org.jupnp.transport;
 
 import java.net.InetAddress;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.jupnp.UpnpServiceConfiguration;
 import org.jupnp.model.NetworkAddress;
@@ -153,6 +154,35 @@ public interface Router {
      */
     StreamResponseMessage send(StreamRequestMessage msg) throws RouterException;
 
+    /**
+     * <p>
+     * Call this method to send a TCP (HTTP) stream message without blocking the calling thread
+     * while the request is executed.
+     * </p>
+     * <p>
+     * The default implementation calls {@link #send(StreamRequestMessage)}.
+     * </p>
+     *
+     * @param msg The TCP (HTTP) stream message to send.
+     * @return The future response received from the server, completed exceptionally with a
+     *         {@link RouterException} if a recoverable error occurs.
+     */
+    default CompletableFuture<StreamResponseMessage> sendAsync(StreamRequestMessage msg) {
+        try {
+            return CompletableFuture.completedFuture(send(msg));
+        } catch (RouterException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * @return The timeout in seconds of a stream request sent with {@link #sendAsync(StreamRequestMessage)}, the
+     *         default implementation returns the default of the stream client configuration, 10 seconds.
+     */
+    default int getStreamTimeoutSeconds() {
+        return 10;
+    }
+
     /**
      * <p>
      * Call this method to broadcast a UDP message to all hosts on the network.
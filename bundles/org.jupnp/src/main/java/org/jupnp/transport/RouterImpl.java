@@ -24,6 +24,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -238,7 +239,7 @@ public class RouterImpl implements Router {
     }
 
     /**
-     * Obtains the asynchronous protocol {@code Executor} and runs the protocol created
+     * Obtains the asynchronous protocol {@code Executor} and schedules the protocol created
      * by the {@link org.jupnp.protocol.ProtocolFactory} for the given message.
      * <p>
      * If the factory doesn't create a protocol, the message is dropped immediately without
@@ -262,7 +263,8 @@ public class RouterImpl implements Router {
                 return;
             }
             logger.debug("Received asynchronous message: {}", msg);
-            getConfiguration().getRemoteListenerExecutor().execute(protocol);
+            protocol.schedule(getConfiguration().getScheduledExecutorService(),
+                    getConfiguration().getRemoteListenerExecutor());
         } catch (ProtocolCreationException e) {
             logger.warn("Handling received datagram failed", e);
         }
@@ -336,6 +338,36 @@ public class RouterImpl implements Router {
         }
     }
 
+    @Override
+    public CompletableFuture<StreamResponseMessage> sendAsync(StreamRequestMessage msg) {
+        try {
+            lock(readLock);
+        } catch (RouterException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        try {
+            if (enabled) {
+                if (streamClient == null) {
+                    logger.debug("No StreamClient available, not sending: {}", msg);
+                    return CompletableFuture.completedFuture(null);
+                }
+                logger.debug("Sending asynchronously via TCP unicast stream: {}", msg);
+                return streamClient.sendRequestAsync(msg);
+            } else {
+                logger.debug("Router disabled, not sending stream request: {}", msg);
+                return CompletableFuture.completedFuture(null);
+            }
+        } finally {
+            unlock(readLock);
+        }
+    }
+
+    @Override
+    public int getStreamTimeoutSeconds() {
+        StreamClient client = streamClient;
+        return client != null ? client.getConfiguration().getTimeoutSeconds() : Router.super.getStreamTimeoutSeconds();
+    }
+
     /**
      * Sends the given bytes as a broadcast on all bound {@link org.jupnp.transport.spi.DatagramIO}s,
      * using source port 9.
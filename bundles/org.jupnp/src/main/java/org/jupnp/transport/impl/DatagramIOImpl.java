@@ -110,11 +110,14 @@ public class DatagramIOImpl implements DatagramIO<DatagramIOConfigurationImpl> {
         logger.debug("Entering blocking receiving loop, listening for UDP datagrams on: {}:{}",
                 socket.getLocalAddress(), socket.getPort());
 
+        // The buffer is reused for every datagram, the processor is done with it when the message has been read
+        byte[] buf = new byte[getConfiguration().getMaxDatagramBytes()];
+        DatagramPacket datagram = new DatagramPacket(buf, buf.length);
+
         while (true) {
 
             try {
-                byte[] buf = new byte[getConfiguration().getMaxDatagramBytes()];
-                DatagramPacket datagram = new DatagramPacket(buf, buf.length);
+                datagram.setData(buf);
 
                 socket.receive(datagram);
 
@@ -15,13 +15,12 @@
  */
 package org.jupnp.transport.impl;
 
-import java.io.ByteArrayInputStream;
 import java.net.DatagramPacket;
 import java.net.InetAddress;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Locale;
 
-import org.jupnp.http.Headers;
 import org.jupnp.model.UnsupportedDataException;
 import org.jupnp.model.message.IncomingDatagramMessage;
 import org.jupnp.model.message.OutgoingDatagramMessage;
@@ -51,29 +50,57 @@ public class DatagramProcessorImpl implements DatagramProcessor {
             if (logger.isTraceEnabled()) {
                 logger.trace(
                         "===================================== DATAGRAM BEGIN ============================================");
-                logger.trace(new String(datagram.getData()));
+                logger.trace(new String(datagram.getData(), datagram.getOffset(), datagram.getLength()));
                 logger.trace(
                         "-===================================== DATAGRAM END =============================================");
             }
 
-            ByteArrayInputStream is = new ByteArrayInputStream(datagram.getData());
+            byte[] data = datagram.getData();
+            int end = datagram.getOffset() + datagram.getLength();
+
+            // Start line, three tokens separated by spaces
+            int lineEnd = datagram.getOffset();
+            while (lineEnd < end && data[lineEnd] != '\r' && data[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            int firstSpace = indexOfSpace(data, datagram.getOffset(), lineEnd);
+            int secondSpace = indexOfSpace(data, firstSpace + 1, lineEnd);
+            if (secondSpace == lineEnd) {
+                throw new IllegalArgumentException("Invalid start line");
+            }
+            String[] startLine = new String[] { ascii(data, datagram.getOffset(), firstSpace),
+                    ascii(data, firstSpace + 1, secondSpace),
+                    ascii(data, secondSpace + 1, indexOfSpace(data, secondSpace + 1, lineEnd)) };
+
+            // Headers, directly from the bytes of the datagram
+            int headersStart = lineEnd < end && data[lineEnd] == '\r' ? lineEnd + 1 : lineEnd;
+            headersStart = headersStart < end && data[headersStart] == '\n' ? headersStart + 1 : headersStart;
+            UpnpHeaders headers = new UpnpHeaders(data, headersStart, end - headersStart);
 
-            String[] startLine = Headers.readLine(is).split(" ");
             if (startLine[0].startsWith("HTTP/1.")) {
-                return readResponseMessage(receivedOnAddress, datagram, is, Integer.parseInt(startLine[1]),
+                return readResponseMessage(receivedOnAddress, datagram, headers, Integer.parseInt(startLine[1]),
                         startLine[2], startLine[0]);
             } else {
-                return readRequestMessage(receivedOnAddress, datagram, is, startLine[0], startLine[2]);
+                return readRequestMessage(receivedOnAddress, datagram, headers, startLine[0], startLine[2]);
             }
 
         } catch (Exception e) {
-            throw new UnsupportedDataException("Could not parse headers", e, datagram.getData());
+            // Copy, the receiver reuses the datagram buffer
+            throw new UnsupportedDataException("Could not parse headers", e, Arrays.copyOfRange(datagram.getData(),
+                    datagram.getOffset(), datagram.getOffset() + datagram.getLength()));
         }
     }
 
     @Override
     public DatagramPacket write(OutgoingDatagramMessage message) throws UnsupportedDataException {
 
+        byte[] encodedData = message.getEncodedData();
+        if (encodedData != null) {
+            logger.trace("Writing datagram packet with {} already encoded bytes for: {}", encodedData.length, message);
+            return new DatagramPacket(encodedData, encodedData.length, message.getDestinationAddress(),
+                    message.getDestinationPort());
+        }
+
         StringBuilder statusLine = new StringBuilder();
 
         UpnpOperation operation = message.getOperation();
@@ -117,10 +144,7 @@ public class DatagramProcessorImpl implements DatagramProcessor {
     }
 
     protected IncomingDatagramMessage readRequestMessage(InetAddress receivedOnAddress, DatagramPacket datagram,
-            ByteArrayInputStream is, String requestMethod, String httpProtocol) throws Exception {
-
-        // Headers
-        UpnpHeaders headers = new UpnpHeaders(is);
+            UpnpHeaders headers, String requestMethod, String httpProtocol) throws Exception {
 
         // Assemble message
         IncomingDatagramMessage requestMessage;
@@ -135,10 +159,7 @@ public class DatagramProcessorImpl implements DatagramProcessor {
     }
 
     protected IncomingDatagramMessage readResponseMessage(InetAddress receivedOnAddress, DatagramPacket datagram,
-            ByteArrayInputStream is, int statusCode, String statusMessage, String httpProtocol) throws Exception {
-
-        // Headers
-        UpnpHeaders headers = new UpnpHeaders(is);
+            UpnpHeaders headers, int statusCode, String statusMessage, String httpProtocol) throws Exception {
 
         // Assemble the message
         IncomingDatagramMessage responseMessage;
@@ -151,4 +172,16 @@ public class DatagramProcessorImpl implements DatagramProcessor {
 
         return responseMessage;
     }
+
+    protected static int indexOfSpace(byte[] data, int start, int limit) {
+        int i = start;
+        while (i < limit && data[i] != ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    protected static String ascii(byte[] data, int start, int limit) {
+        return new String(data, start, limit - start, StandardCharsets.US_ASCII);
+    }
 }
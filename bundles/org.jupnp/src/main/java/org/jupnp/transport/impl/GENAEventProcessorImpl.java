@@ -16,6 +16,11 @@
 package org.jupnp.transport.impl;
 
 import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.FactoryConfigurationError;
@@ -50,6 +55,28 @@ public class GENAEventProcessorImpl extends PooledXmlProcessor implements GENAEv
 
     private final Logger logger = LoggerFactory.getLogger(GENAEventProcessor.class);
 
+    /**
+     * The number of recently written bodies kept for reuse.
+     */
+    public static final int WRITTEN_BODIES_SIZE = 64;
+
+    // All subscriptions of a service are notified with the same values, mostly, so the body is written and encoded
+    // once
+    private final Map<List<String>, byte[]> writtenBodies = Collections
+            .synchronizedMap(new LinkedHashMap<>(WRITTEN_BODIES_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<List<String>, byte[]> eldest) {
+                    return size() > WRITTEN_BODIES_SIZE;
+                }
+            });
+
+    public GENAEventProcessorImpl() {
+    }
+
+    protected GENAEventProcessorImpl(int basePoolSize) {
+        super(basePoolSize);
+    }
+
     protected DocumentBuilderFactory createDocumentBuilderFactory() throws FactoryConfigurationError {
         return DocumentBuilderFactory.newInstance();
     }
@@ -60,12 +87,16 @@ public class GENAEventProcessorImpl extends PooledXmlProcessor implements GENAEv
 
         try {
 
-            Document d = newDocument();
-            Element propertysetElement = writePropertysetElement(d);
-
-            writeProperties(d, propertysetElement, requestMessage);
+            List<String> bodyKey = getBodyKey(requestMessage);
+            byte[] body = writtenBodies.get(bodyKey);
+            if (body != null) {
+                logger.trace("Reusing body written for the same state variable values");
+            } else {
+                body = createBody(requestMessage).getBytes(requestMessage.getContentTypeCharset());
+                writtenBodies.put(bodyKey, body);
+            }
 
-            requestMessage.setBody(UpnpMessage.BodyType.STRING, toString(d));
+            requestMessage.setBodyCharacters(body);
 
             if (logger.isTraceEnabled()) {
                 logger.trace(
@@ -107,6 +138,15 @@ public class GENAEventProcessorImpl extends PooledXmlProcessor implements GENAEv
 
     /* ##################################################################################################### */
 
+    protected String createBody(OutgoingEventRequestMessage requestMessage) throws Exception {
+        Document d = newDocument();
+        Element propertysetElement = writePropertysetElement(d);
+
+        writeProperties(d, propertysetElement, requestMessage);
+
+        return toString(d);
+    }
+
     protected Element writePropertysetElement(Document d) {
         Element propertysetElement = d.createElementNS(Constants.NS_UPNP_EVENT_10, "e:propertyset");
         d.appendChild(propertysetElement);
@@ -124,6 +164,22 @@ public class GENAEventProcessorImpl extends PooledXmlProcessor implements GENAEv
 
     /* ##################################################################################################### */
 
+    /**
+     * The written body only depends on the names and values of the state variables, messages with equal keys
+     * share the same body.
+     * <p>
+     * Override this if {@link #createBody(OutgoingEventRequestMessage)} writes anything else.
+     * </p>
+     */
+    protected List<String> getBodyKey(OutgoingEventRequestMessage message) {
+        List<String> key = new ArrayList<>(message.getStateVariableValues().size() * 2);
+        for (StateVariableValue stateVariableValue : message.getStateVariableValues()) {
+            key.add(stateVariableValue.getStateVariable().getName());
+            key.add(stateVariableValue.toString());
+        }
+        return key;
+    }
+
     protected void writeProperties(Document d, Element propertysetElement, OutgoingEventRequestMessage message) {
         for (StateVariableValue stateVariableValue : message.getStateVariableValues()) {
             Element propertyElement = d.createElementNS(Constants.NS_UPNP_EVENT_10, "e:property");
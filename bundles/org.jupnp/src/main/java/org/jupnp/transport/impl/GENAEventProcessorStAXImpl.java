@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2011-2026 4th Line GmbH, Switzerland and others
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License Version 1 or later
+ * ("CDDL") (collectively, the "License"). You may not use this file
+ * except in compliance with the License. See LICENSE.txt for more
+ * information.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * SPDX-License-Identifier: CDDL-1.0
+ */
+package org.jupnp.transport.impl;
+
+import static org.jupnp.xml.StAXParser.close;
+import static org.jupnp.xml.StAXParser.nextChildElement;
+import static org.jupnp.xml.StAXParser.readDocumentEnd;
+import static org.jupnp.xml.StAXParser.readText;
+import static org.jupnp.xml.StAXParser.skipElement;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.jupnp.model.Constants;
+import org.jupnp.model.UnsupportedDataException;
+import org.jupnp.model.XMLUtil;
+import org.jupnp.model.message.UpnpMessage;
+import org.jupnp.model.message.gena.IncomingEventRequestMessage;
+import org.jupnp.model.message.gena.OutgoingEventRequestMessage;
+import org.jupnp.model.meta.StateVariable;
+import org.jupnp.model.state.StateVariableValue;
+import org.jupnp.model.types.InvalidValueException;
+import org.jupnp.transport.spi.GENAEventProcessor;
+import org.jupnp.xml.StAXParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Implementation based on the <em>StAX</em> streaming XML API.
+ * <p>
+ * Event bodies are read in a single pass, without building a DOM, directly from the bytes of the message if
+ * the body wasn't decoded into a string. Bodies are written straight into a buffer, the output is identical to
+ * the output of {@link GENAEventProcessorImpl}.
+ * </p>
+ */
+public class GENAEventProcessorStAXImpl extends GENAEventProcessorImpl {
+
+    private final Logger logger = LoggerFactory.getLogger(GENAEventProcessor.class);
+
+    protected static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"utf-8\" standalone=\"yes\"?>";
+
+    private final StAXParser parser = new StAXParser();
+
+    public GENAEventProcessorStAXImpl() {
+        super(0);
+    }
+
+    @Override
+    public void readBody(IncomingEventRequestMessage requestMessage) throws UnsupportedDataException {
+
+        logger.trace("Reading body of: {}", requestMessage);
+        if (logger.isTraceEnabled()) {
+            logger.trace(
+                    "===================================== GENA BODY BEGIN ============================================");
+            logger.trace(requestMessage.getBody() != null ? requestMessage.getBodyString() : "null");
+            logger.trace(
+                    "-===================================== GENA BODY END ============================================");
+        }
+
+        XMLStreamReader reader = createReader(requestMessage);
+        try {
+            if (!nextChildElement(reader) || !reader.getLocalName().equals("propertyset")) {
+                throw new RuntimeException("Root element was not 'propertyset'");
+            }
+            readProperties(reader, requestMessage);
+            readDocumentEnd(reader);
+        } catch (Exception e) {
+            throw new UnsupportedDataException("Can't transform message payload: " + e.getMessage(), e,
+                    requestMessage.getBodyString());
+        } finally {
+            close(reader);
+        }
+    }
+
+    /**
+     * Reads the received characters or body bytes of the message directly if they weren't decoded into a string.
+     */
+    protected XMLStreamReader createReader(UpnpMessage<?> message) throws UnsupportedDataException {
+        try {
+            if (message.getBodyCharacters() != null) {
+                return parser.createReader(message.getBodyCharacters(), message.getContentTypeCharset());
+            }
+            if (message.hasBody() && message.getBodyType() == UpnpMessage.BodyType.BYTES) {
+                byte[] body = (byte[]) message.getBody();
+                if (body.length == 0) {
+                    throw new UnsupportedDataException("Can't transform zero-length body of: " + message);
+                }
+                return parser.createReader(body);
+            }
+            return parser.createReader(getMessageBody(message));
+        } catch (XMLStreamException e) {
+            throw new UnsupportedDataException("Can't transform message payload: " + e.getMessage(), e,
+                    message.getBodyString());
+        }
+    }
+
+    protected void readProperties(XMLStreamReader reader, IncomingEventRequestMessage message)
+            throws XMLStreamException {
+
+        StateVariable[] stateVariables = message.getService().getStateVariables();
+
+        while (nextChildElement(reader)) {
+            if (!reader.getLocalName().equals("property")) {
+                skipElement(reader);
+                continue;
+            }
+            while (nextChildElement(reader)) {
+                String stateVariableName = reader.getLocalName();
+                StateVariable stateVariable = null;
+                for (StateVariable candidate : stateVariables) {
+                    if (candidate.getName().equals(stateVariableName)) {
+                        stateVariable = candidate;
+                        break;
+                    }
+                }
+                if (stateVariable == null) {
+                    skipElement(reader);
+                    continue;
+                }
+                logger.trace("Reading state variable value: {}", stateVariableName);
+                String value = readText(reader);
+                try {
+                    message.getStateVariableValues().add(new StateVariableValue(stateVariable, value));
+                } catch (InvalidValueException e) {
+                    logger.debug("Value {} for the state variable {} ignored: {}", value, stateVariableName,
+                            e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Override
+    protected String createBody(OutgoingEventRequestMessage requestMessage) {
+        StringBuilder body = new StringBuilder(256);
+        body.append(XML_DECLARATION);
+        body.append("<e:propertyset xmlns:e=\"").append(Constants.NS_UPNP_EVENT_10).append("\"");
+        if (requestMessage.getStateVariableValues().isEmpty()) {
+            return body.append("/>").toString();
+        }
+        body.append('>');
+        for (StateVariableValue stateVariableValue : requestMessage.getStateVariableValues()) {
+            body.append("<e:property>");
+            writeElement(body, stateVariableValue.getStateVariable().getName(), stateVariableValue.toString());
+            body.append("</e:property>");
+        }
+        return body.append("</e:propertyset>").toString();
+    }
+
+    protected void writeElement(StringBuilder body, String name, String text) {
+        if (text == null) {
+            body.append('<').append(name).append("/>");
+            return;
+        }
+        body.append('<').append(name).append('>');
+        XMLUtil.appendEncodedText(body, text);
+        body.append("</").append(name).append('>');
+    }
+}
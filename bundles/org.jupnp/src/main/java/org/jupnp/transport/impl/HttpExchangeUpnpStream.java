@@ -98,7 +98,7 @@ public abstract class HttpExchangeUpnpStream extends UpnpStream {
             logger.trace("Reading request body bytes: {}", bodyBytes.length);
 
             if (bodyBytes.length > 0 && requestMessage.isContentTypeMissingOrText()) {
-                logger.trace("Request contains textual entity body, converting then setting string on message");
+                logger.trace("Request contains textual entity body, setting characters on message");
                 requestMessage.setBodyCharacters(bodyBytes);
             } else if (bodyBytes.length > 0) {
                 logger.trace("Request contains binary entity body, setting bytes on message");
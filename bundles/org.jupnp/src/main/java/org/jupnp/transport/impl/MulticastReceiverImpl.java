@@ -113,11 +113,15 @@ public class MulticastReceiverImpl implements MulticastReceiver<MulticastReceive
     public void run() {
 
         logger.debug("Entering blocking receiving loop, listening for UDP datagrams on: {}", socket.getLocalAddress());
+
+        // The buffer is reused for every datagram, the processor is done with it when the message has been read
+        byte[] buf = new byte[getConfiguration().getMaxDatagramBytes()];
+        DatagramPacket datagram = new DatagramPacket(buf, buf.length);
+
         while (true) {
 
             try {
-                byte[] buf = new byte[getConfiguration().getMaxDatagramBytes()];
-                DatagramPacket datagram = new DatagramPacket(buf, buf.length);
+                datagram.setData(buf);
 
                 socket.receive(datagram);
 
@@ -57,6 +57,10 @@ public class SOAPActionProcessorImpl extends PooledXmlProcessor implements SOAPA
     public SOAPActionProcessorImpl() {
     }
 
+    protected SOAPActionProcessorImpl(int basePoolSize) {
+        super(basePoolSize);
+    }
+
     @Override
     public void writeBody(ActionRequestMessage requestMessage, ActionInvocation actionInvocation)
             throws UnsupportedDataException {
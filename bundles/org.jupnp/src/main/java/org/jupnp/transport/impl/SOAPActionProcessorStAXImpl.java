@@ -0,0 +1,419 @@
+/*
+ * Copyright (C) 2011-2026 4th Line GmbH, Switzerland and others
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License Version 1 or later
+ * ("CDDL") (collectively, the "License"). You may not use this file
+ * except in compliance with the License. See LICENSE.txt for more
+ * information.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * SPDX-License-Identifier: CDDL-1.0
+ */
+package org.jupnp.transport.impl;
+
+import static org.jupnp.xml.StAXParser.close;
+import static org.jupnp.xml.StAXParser.nextChildElement;
+import static org.jupnp.xml.StAXParser.readDocumentEnd;
+import static org.jupnp.xml.StAXParser.readText;
+import static org.jupnp.xml.StAXParser.skipElement;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.jupnp.model.Constants;
+import org.jupnp.model.UnsupportedDataException;
+import org.jupnp.model.XMLUtil;
+import org.jupnp.model.action.ActionArgumentValue;
+import org.jupnp.model.action.ActionException;
+import org.jupnp.model.action.ActionInvocation;
+import org.jupnp.model.message.UpnpMessage;
+import org.jupnp.model.message.control.ActionMessage;
+import org.jupnp.model.message.control.ActionRequestMessage;
+import org.jupnp.model.message.control.ActionResponseMessage;
+import org.jupnp.model.meta.ActionArgument;
+import org.jupnp.model.types.ErrorCode;
+import org.jupnp.transport.spi.SOAPActionProcessor;
+import org.jupnp.xml.StAXParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Implementation based on the <em>StAX</em> streaming XML API.
+ * <p>
+ * Message bodies are read in a single pass, without building a DOM, directly from the bytes of the message if
+ * the body wasn't decoded into a string. Bodies are written straight into a buffer, the output is identical to
+ * the output of {@link SOAPActionProcessorImpl}.
+ * </p>
+ */
+public class SOAPActionProcessorStAXImpl extends SOAPActionProcessorImpl {
+
+    private final Logger logger = LoggerFactory.getLogger(SOAPActionProcessor.class);
+
+    protected static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"utf-8\" standalone=\"yes\"?>";
+
+    private final StAXParser parser = new StAXParser();
+
+    public SOAPActionProcessorStAXImpl() {
+        super(0);
+    }
+
+    @Override
+    public void writeBody(ActionRequestMessage requestMessage, ActionInvocation actionInvocation)
+            throws UnsupportedDataException {
+
+        logger.trace("Writing body of {} for: {}", requestMessage, actionInvocation);
+
+        StringBuilder body = new StringBuilder(512);
+        writeEnvelopeStart(body);
+        writeActionArguments(body, actionInvocation.getAction().getName(), requestMessage.getActionNamespace(),
+                actionInvocation.getAction().getInputArguments(), actionInvocation, true);
+        writeEnvelopeEnd(body);
+        requestMessage.setBody(body.toString());
+
+        if (logger.isTraceEnabled()) {
+            logger.trace(
+                    "===================================== SOAP BODY BEGIN ============================================");
+            logger.trace(requestMessage.getBodyString());
+            logger.trace(
+                    "-===================================== SOAP BODY END ============================================");
+        }
+    }
+
+    @Override
+    public void writeBody(ActionResponseMessage responseMessage, ActionInvocation actionInvocation)
+            throws UnsupportedDataException {
+
+        logger.trace("Writing body of {} for: {}", responseMessage, actionInvocation);
+
+        StringBuilder body = new StringBuilder(512);
+        writeEnvelopeStart(body);
+        if (actionInvocation.getFailure() != null) {
+            writeFault(body, actionInvocation);
+        } else {
+            writeActionArguments(body, actionInvocation.getAction().getName() + "Response",
+                    responseMessage.getActionNamespace(), actionInvocation.getAction().getOutputArguments(),
+                    actionInvocation, false);
+        }
+        writeEnvelopeEnd(body);
+        responseMessage.setBody(body.toString());
+
+        if (logger.isTraceEnabled()) {
+            logger.trace(
+                    "===================================== SOAP BODY BEGIN ============================================");
+            logger.trace(responseMessage.getBodyString());
+            logger.trace(
+                    "-===================================== SOAP BODY END ============================================");
+        }
+    }
+
+    @Override
+    public void readBody(ActionRequestMessage requestMessage, ActionInvocation actionInvocation)
+            throws UnsupportedDataException {
+
+        logger.trace("Reading body of {} for: {}", requestMessage, actionInvocation);
+        if (logger.isTraceEnabled()) {
+            logger.trace(
+                    "===================================== SOAP BODY BEGIN ============================================");
+            logger.trace(requestMessage.getBodyString());
+            logger.trace(
+                    "-===================================== SOAP BODY END ============================================");
+        }
+
+        XMLStreamReader reader = createReader(requestMessage);
+        try {
+            readBodyElement(reader);
+            readActionRequest(reader, requestMessage, actionInvocation);
+            readDocumentEnd(reader);
+        } catch (Exception e) {
+            throw new UnsupportedDataException("Can't transform message payload", e, requestMessage.getBodyString());
+        } finally {
+            close(reader);
+        }
+    }
+
+    @Override
+    public void readBody(ActionResponseMessage responseMsg, ActionInvocation actionInvocation)
+            throws UnsupportedDataException {
+
+        logger.trace("Reading body of {} for: {}", responseMsg, actionInvocation);
+        if (logger.isTraceEnabled()) {
+            logger.trace(
+                    "===================================== SOAP BODY BEGIN ============================================");
+            logger.trace(responseMsg.getBodyString());
+            logger.trace(
+                    "-===================================== SOAP BODY END ============================================");
+        }
+
+        XMLStreamReader reader = createReader(responseMsg);
+        try {
+            readBodyElement(reader);
+            readActionResponse(reader, actionInvocation);
+            readDocumentEnd(reader);
+        } catch (Exception e) {
+            throw new UnsupportedDataException("Can't transform message payload", e, responseMsg.getBodyString());
+        } finally {
+            close(reader);
+        }
+    }
+
+    /* ##################################################################################################### */
+
+    protected void writeEnvelopeStart(StringBuilder body) {
+        body.append(XML_DECLARATION);
+        body.append("<s:Envelope s:encodingStyle=\"").append(Constants.SOAP_URI_ENCODING_STYLE)
+                .append("\" xmlns:s=\"").append(Constants.SOAP_NS_ENVELOPE).append("\">");
+        body.append("<s:Body>");
+    }
+
+    protected void writeEnvelopeEnd(StringBuilder body) {
+        body.append("</s:Body></s:Envelope>");
+    }
+
+    protected void writeActionArguments(StringBuilder body, String elementName, String namespace,
+            ActionArgument[] arguments, ActionInvocation actionInvocation, boolean input) {
+
+        logger.trace("Writing action element: {}", elementName);
+
+        body.append("<u:").append(elementName).append(" xmlns:u=\"").append(namespace).append("\"");
+        if (arguments.length == 0) {
+            body.append("/>");
+            return;
+        }
+        body.append(">");
+        for (ActionArgument argument : arguments) {
+            logger.trace("Writing action argument: {}", argument.getName());
+            ActionArgumentValue value = input ? actionInvocation.getInput(argument)
+                    : actionInvocation.getOutput(argument);
+            writeElement(body, argument.getName(), value != null ? value.toString() : "");
+        }
+        body.append("</u:").append(elementName).append(">");
+    }
+
+    protected void writeFault(StringBuilder body, ActionInvocation actionInvocation) {
+        int errorCode = actionInvocation.getFailure().getErrorCode();
+        String errorDescription = actionInvocation.getFailure().getMessage();
+
+        logger.trace("Writing fault element: {} - {}", errorCode, errorDescription);
+
+        body.append("<s:Fault>");
+        writeElement(body, "faultcode", "s:Client");
+        writeElement(body, "faultstring", "UPnPError");
+        body.append("<detail><UPnPError xmlns=\"").append(Constants.NS_UPNP_CONTROL_10).append("\">");
+        writeElement(body, "errorCode", Integer.toString(errorCode));
+        writeElement(body, "errorDescription", errorDescription);
+        body.append("</UPnPError></detail></s:Fault>");
+    }
+
+    protected void writeElement(StringBuilder body, String name, String text) {
+        if (text == null) {
+            body.append('<').append(name).append("/>");
+            return;
+        }
+        body.append('<').append(name).append('>');
+        XMLUtil.appendEncodedText(body, text);
+        body.append("</").append(name).append('>');
+    }
+
+    /* ##################################################################################################### */
+
+    /**
+     * Reads the received characters or body bytes of the message directly if they weren't decoded into a string.
+     */
+    protected XMLStreamReader createReader(ActionMessage message) throws UnsupportedDataException {
+        try {
+            if (message instanceof UpnpMessage && ((UpnpMessage<?>) message).getBodyCharacters() != null) {
+                UpnpMessage<?> upnpMessage = (UpnpMessage<?>) message;
+                return parser.createReader(upnpMessage.getBodyCharacters(), upnpMessage.getContentTypeCharset());
+            }
+            if (message instanceof UpnpMessage && ((UpnpMessage<?>) message).hasBody()
+                    && ((UpnpMessage<?>) message).getBodyType() == UpnpMessage.BodyType.BYTES) {
+                byte[] body = (byte[]) ((UpnpMessage<?>) message).getBody();
+                if (body.length == 0) {
+                    throw new UnsupportedDataException("Can't transform zero-length body of: " + message);
+                }
+                return parser.createReader(body);
+            }
+            return parser.createReader(getMessageBody(message));
+        } catch (XMLStreamException e) {
+            throw new UnsupportedDataException("Can't transform message payload", e, message.getBodyString());
+        }
+    }
+
+    /**
+     * Moves the reader to the start of the <code>Body</code> element of the envelope.
+     */
+    protected void readBodyElement(XMLStreamReader reader) throws XMLStreamException {
+        if (!nextChildElement(reader) || !reader.getLocalName().equals("Envelope")) {
+            throw new RuntimeException("Response root element was not 'Envelope'");
+        }
+        while (nextChildElement(reader)) {
+            if (reader.getLocalName().equals("Body")) {
+                return;
+            }
+            skipElement(reader);
+        }
+        throw new RuntimeException("Response envelope did not contain 'Body' child element");
+    }
+
+    protected void readActionRequest(XMLStreamReader reader, ActionRequestMessage message,
+            ActionInvocation actionInvocation) throws XMLStreamException, ActionException {
+
+        logger.trace("Looking for action request element matching namespace: {}", message.getActionNamespace());
+
+        while (nextChildElement(reader)) {
+            if (reader.getLocalName().equals(actionInvocation.getAction().getName())) {
+                if (reader.getNamespaceURI() == null
+                        || !reader.getNamespaceURI().equals(message.getActionNamespace())) {
+                    throw new UnsupportedDataException(
+                            "Illegal or missing namespace on action request element: " + reader.getName());
+                }
+                logger.trace("Reading action request element: {}", reader.getLocalName());
+                actionInvocation.setInput(readArgumentValues(reader, actionInvocation.getAction().getInputArguments()));
+                return;
+            }
+            skipElement(reader);
+        }
+        throw new UnsupportedDataException(
+                "Could not read action request element matching namespace: " + message.getActionNamespace());
+    }
+
+    protected void readActionResponse(XMLStreamReader reader, ActionInvocation actionInvocation)
+            throws XMLStreamException, ActionException {
+
+        String responseName = actionInvocation.getAction().getName() + "Response";
+        ActionArgumentValue[] output = null;
+        boolean receivedFaultElement = false;
+        String[] error = new String[2];
+
+        while (nextChildElement(reader)) {
+            if (reader.getLocalName().equals("Fault")) {
+                receivedFaultElement = true;
+                readFault(reader, error);
+            } else if (output == null && reader.getLocalName().equals(responseName)) {
+                logger.trace("Reading action response element: {}", reader.getLocalName());
+                output = readArgumentValues(reader, actionInvocation.getAction().getOutputArguments());
+            } else {
+                skipElement(reader);
+            }
+        }
+
+        ActionException failure = createFailure(receivedFaultElement, error[0], error[1]);
+        if (failure != null) {
+            actionInvocation.setFailure(failure);
+        } else if (output != null) {
+            actionInvocation.setOutput(output);
+        } else {
+            throw new UnsupportedDataException("Could not read action response element: " + responseName);
+        }
+    }
+
+    /**
+     * Reads the <code>errorCode</code> and <code>errorDescription</code> of the <code>UPnPError</code> in the
+     * <code>detail</code> of a <code>Fault</code> element.
+     */
+    protected void readFault(XMLStreamReader reader, String[] error) throws XMLStreamException {
+        while (nextChildElement(reader)) {
+            if (!reader.getLocalName().equals("detail")) {
+                skipElement(reader);
+                continue;
+            }
+            while (nextChildElement(reader)) {
+                if (!reader.getLocalName().equals("UPnPError")) {
+                    skipElement(reader);
+                    continue;
+                }
+                while (nextChildElement(reader)) {
+                    if (reader.getLocalName().equals("errorCode")) {
+                        error[0] = readText(reader);
+                    } else if (reader.getLocalName().equals("errorDescription")) {
+                        error[1] = readText(reader);
+                    } else {
+                        skipElement(reader);
+                    }
+                }
+            }
+        }
+    }
+
+    protected ActionException createFailure(boolean receivedFaultElement, String errorCode,
+            String errorDescription) {
+        if (errorCode != null) {
+            try {
+                int numericCode = Integer.parseInt(errorCode);
+                ErrorCode standardErrorCode = ErrorCode.getByCode(numericCode);
+                if (standardErrorCode != null) {
+                    logger.trace("Reading fault element: {} - {}", standardErrorCode.getCode(), errorDescription);
+                    return new ActionException(standardErrorCode, errorDescription, false);
+                } else {
+                    logger.trace("Reading fault element: {} - {}", numericCode, errorDescription);
+                    return new ActionException(numericCode, errorDescription);
+                }
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("Error code was not a number", e);
+            }
+        } else if (receivedFaultElement) {
+            throw new RuntimeException("Received fault element but no error code");
+        }
+        return null;
+    }
+
+    /**
+     * Reads the child elements of the current element as argument values, lenient like
+     * {@link SOAPActionProcessorImpl#readArgumentValues(org.w3c.dom.NodeList, ActionArgument[])} about their order.
+     */
+    protected ActionArgumentValue[] readArgumentValues(XMLStreamReader reader, ActionArgument[] args)
+            throws XMLStreamException, ActionException {
+
+        Set<String> names = new HashSet<>();
+        for (ActionArgument argument : args) {
+            names.add(argument.getName());
+            names.addAll(Arrays.asList(argument.getAliases()));
+        }
+
+        List<Map.Entry<String, String>> matches = new ArrayList<>();
+        while (nextChildElement(reader)) {
+            if (names.contains(reader.getLocalName())) {
+                matches.add(new AbstractMap.SimpleImmutableEntry<>(reader.getLocalName(), readText(reader)));
+            } else {
+                skipElement(reader);
+            }
+        }
+
+        if (matches.size() < args.length) {
+            throw new ActionException(ErrorCode.ARGUMENT_VALUE_INVALID,
+                    "Invalid number of input or output arguments in XML message, expected " + args.length
+                            + " but found " + matches.size());
+        }
+
+        ActionArgumentValue[] values = new ActionArgumentValue[args.length];
+        for (int i = 0; i < args.length; i++) {
+            ActionArgument arg = args[i];
+            String value = null;
+            for (Map.Entry<String, String> match : matches) {
+                if (arg.isNameOrAlias(match.getKey())) {
+                    value = match.getValue();
+                    break;
+                }
+            }
+            if (value == null) {
+                throw new ActionException(ErrorCode.ARGUMENT_VALUE_INVALID,
+                        "Could not find argument '" + arg.getName() + "' node");
+            }
+            logger.trace("Reading action argument: {}", arg.getName());
+            values[i] = createValue(arg, value);
+        }
+        return values;
+    }
+}
@@ -18,15 +18,21 @@ package org.jupnp.transport.impl.jetty;
 import static org.eclipse.jetty.http.HttpHeader.CONNECTION;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.eclipse.jetty.client.HttpClient;
 import org.eclipse.jetty.client.api.ContentProvider;
 import org.eclipse.jetty.client.api.ContentResponse;
 import org.eclipse.jetty.client.api.Request;
+import org.eclipse.jetty.client.api.Response;
+import org.eclipse.jetty.client.api.Result;
+import org.eclipse.jetty.client.util.BufferingResponseListener;
 import org.eclipse.jetty.client.util.BytesContentProvider;
 import org.eclipse.jetty.client.util.StringContentProvider;
 import org.eclipse.jetty.http.HttpFields;
 import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.io.Connection;
 import org.eclipse.jetty.util.thread.QueuedThreadPool;
 import org.jupnp.model.message.StreamRequestMessage;
 import org.jupnp.model.message.StreamResponseMessage;
@@ -57,6 +63,9 @@ public class JettyStreamClientImpl extends AbstractStreamClient<StreamClientConf
     protected final HttpClient httpClient;
     protected final HttpFields defaultHttpFields = new HttpFields();
 
+    protected final LongAdder requestsSent = new LongAdder();
+    protected final LongAdder connectionsOpened = new LongAdder();
+
     public JettyStreamClientImpl(StreamClientConfigurationImpl configuration) throws InitializationException {
         this.configuration = configuration;
 
@@ -65,7 +74,23 @@ public class JettyStreamClientImpl extends AbstractStreamClient<StreamClientConf
         // These are some safety settings, we should never run into these timeouts as we
         // do our own expiration checking
         httpClient.setConnectTimeout((getConfiguration().getTimeoutSeconds() + 5) * 1000);
-        httpClient.setMaxConnectionsPerDestination(2);
+        httpClient.setMaxConnectionsPerDestination(getConfiguration().getMaxConnectionsPerDestination());
+
+        if (getConfiguration().getMaxRequestsQueuedPerDestination() != -1) {
+            httpClient.setMaxRequestsQueuedPerDestination(getConfiguration().getMaxRequestsQueuedPerDestination());
+        }
+
+        if (getConfiguration().isKeepAlive()) {
+            httpClient.setIdleTimeout(getConfiguration().getIdleTimeoutSeconds() * 1000L);
+        }
+
+        // Count the opened connections, every other request reused a pooled connection
+        httpClient.addBean(new Connection.Listener.Adapter() {
+            @Override
+            public void onOpened(Connection connection) {
+                connectionsOpened.increment();
+            }
+        });
 
         int cpus = Runtime.getRuntime().availableProcessors();
         int maxThreads = 5 * cpus;
@@ -92,6 +117,20 @@ public class JettyStreamClientImpl extends AbstractStreamClient<StreamClientConf
         return configuration;
     }
 
+    /**
+     * @return The number of sent requests which reused a pooled connection.
+     */
+    public long getPoolHits() {
+        return Math.max(0, requestsSent.sum() - connectionsOpened.sum());
+    }
+
+    /**
+     * @return The number of sent requests which had to open a new connection.
+     */
+    public long getPoolMisses() {
+        return connectionsOpened.sum();
+    }
+
     @Override
     protected Request createRequest(StreamRequestMessage requestMessage) {
         final UpnpRequest upnpRequest = requestMessage.getOperation();
@@ -130,14 +169,18 @@ public class JettyStreamClientImpl extends AbstractStreamClient<StreamClientConf
             request.version(HttpVersion.HTTP_1_0);
         } else {
             request.version(HttpVersion.HTTP_1_1);
-            // This closes the http connection immediately after the call.
-            //
-            // Even though jetty client is able to close connections properly,
-            // it still takes ~30 seconds to do so. This may cause too many
-            // connections for installations with many upnp devices.
-            request.header(CONNECTION, "close");
+            if (!getConfiguration().isKeepAlive()) {
+                // This closes the http connection immediately after the call.
+                //
+                // Even though jetty client is able to close connections properly,
+                // it still takes ~30 seconds to do so. This may cause too many
+                // connections for installations with many upnp devices.
+                request.header(CONNECTION, "close");
+            }
         }
 
+        request.onRequestBegin(r -> requestsSent.increment());
+
         // Add the default user agent if not already set on the message
         if (!requestMessage.getHeaders().containsKey(UpnpHeader.Type.USER_AGENT)) {
             request.agent(getConfiguration().getUserAgentValue(requestMessage.getUdaMajorVersion(),
@@ -158,40 +201,67 @@ public class JettyStreamClientImpl extends AbstractStreamClient<StreamClientConf
             try {
                 final ContentResponse httpResponse = request.send();
 
-                logger.trace("Received HTTP response: {}", httpResponse.getReason());
+                return createResponseMessage(httpResponse, httpResponse.getContent());
+            } catch (final RuntimeException e) {
+                logger.error("Request: {} failed", request, e);
+                throw e;
+            }
+        };
+    }
+
+    @Override
+    protected CompletableFuture<StreamResponseMessage> createFuture(final StreamRequestMessage requestMessage,
+            final Request request) {
+        final CompletableFuture<StreamResponseMessage> future = new CompletableFuture<>();
+
+        logger.trace("Sending HTTP request asynchronously: {}", requestMessage);
+        request.send(new BufferingResponseListener() {
+            @Override
+            public void onComplete(Result result) {
+                if (result.isFailed()) {
+                    future.completeExceptionally(result.getFailure());
+                    return;
+                }
+                try {
+                    future.complete(createResponseMessage(result.getResponse(), getContent()));
+                } catch (final RuntimeException e) {
+                    logger.error("Request: {} failed", request, e);
+                    future.completeExceptionally(e);
+                }
+            }
+        });
 
-                // Status
-                final UpnpResponse responseOperation = new UpnpResponse(httpResponse.getStatus(),
-                        httpResponse.getReason());
+        return future;
+    }
 
-                // Message
-                final StreamResponseMessage responseMessage = new StreamResponseMessage(responseOperation);
+    protected StreamResponseMessage createResponseMessage(final Response httpResponse, final byte[] bytes) {
+        logger.trace("Received HTTP response: {}", httpResponse.getReason());
 
-                // Headers
-                responseMessage.setHeaders(new UpnpHeaders(HeaderUtil.get(httpResponse)));
+        // Status
+        final UpnpResponse responseOperation = new UpnpResponse(httpResponse.getStatus(), httpResponse.getReason());
 
-                // Body
-                final byte[] bytes = httpResponse.getContent();
-                if (bytes == null || 0 == bytes.length) {
-                    logger.trace("HTTP response message has no entity");
+        // Message
+        final StreamResponseMessage responseMessage = new StreamResponseMessage(responseOperation);
 
-                    return responseMessage;
-                }
+        // Headers
+        responseMessage.setHeaders(new UpnpHeaders(HeaderUtil.get(httpResponse)));
 
-                if (responseMessage.isContentTypeMissingOrText()) {
-                    logger.trace("HTTP response message contains text entity");
-                } else {
-                    logger.trace("HTTP response message contains binary entity");
-                }
+        // Body
+        if (bytes == null || 0 == bytes.length) {
+            logger.trace("HTTP response message has no entity");
 
-                responseMessage.setBodyCharacters(bytes);
+            return responseMessage;
+        }
 
-                return responseMessage;
-            } catch (final RuntimeException e) {
-                logger.error("Request: {} failed", request, e);
-                throw e;
-            }
-        };
+        if (responseMessage.isContentTypeMissingOrText()) {
+            logger.trace("HTTP response message contains text entity");
+        } else {
+            logger.trace("HTTP response message contains binary entity");
+        }
+
+        responseMessage.setBodyCharacters(bytes);
+
+        return responseMessage;
     }
 
     @Override
@@ -223,7 +293,8 @@ public class JettyStreamClientImpl extends AbstractStreamClient<StreamClientConf
 
     @Override
     public void stop() {
-        logger.trace("Shutting down HTTP client connection manager/pool");
+        logger.trace("Shutting down HTTP client connection manager/pool, {} pool hits, {} pool misses",
+                getPoolHits(), getPoolMisses());
         try {
             httpClient.stop();
         } catch (Exception e) {
@@ -232,7 +303,11 @@ public class JettyStreamClientImpl extends AbstractStreamClient<StreamClientConf
     }
 
     protected <O extends UpnpOperation> ContentProvider.Typed createContentProvider(final UpnpMessage<O> upnpMessage) {
-        if (upnpMessage.getBodyType().equals(UpnpMessage.BodyType.STRING)) {
+        if (upnpMessage.getBodyCharacters() != null) {
+            logger.trace("Preparing HTTP request entity as encoded String");
+            return new BytesContentProvider("text/plain;charset=" + upnpMessage.getContentTypeCharset().name(),
+                    upnpMessage.getBodyCharacters());
+        } else if (upnpMessage.getBodyType().equals(UpnpMessage.BodyType.STRING)) {
             logger.trace("Preparing HTTP request entity as String");
             return new StringContentProvider(upnpMessage.getBodyString(), upnpMessage.getContentTypeCharset());
         } else {
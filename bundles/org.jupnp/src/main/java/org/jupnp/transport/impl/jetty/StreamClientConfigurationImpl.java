@@ -55,4 +55,42 @@ public class StreamClientConfigurationImpl extends AbstractStreamClientConfigura
     public int getSocketBufferSize() {
         return -1;
     }
+
+    /**
+     * @return By default <code>2</code>, the maximum number of connections to the same host and port.
+     */
+    public int getMaxConnectionsPerDestination() {
+        return 2;
+    }
+
+    /**
+     * Note: leaving this to the default value of {@code -1} will let the HTTP client use its defaults.
+     *
+     * @return By default <code>-1</code>, the maximum number of requests waiting for a connection to the same host
+     *         and port.
+     */
+    public int getMaxRequestsQueuedPerDestination() {
+        return -1;
+    }
+
+    /**
+     * HTTP/1.1 connections are closed after each request by default, the HTTP client would otherwise keep many idle
+     * connections to devices. Enable this to reuse pooled connections, e.g. when many requests are sent to the same
+     * devices.
+     *
+     * @return By default <code>false</code>.
+     */
+    public boolean isKeepAlive() {
+        return false;
+    }
+
+    /**
+     * Only applies if connections are kept alive. Connections without any traffic are closed after this time, it
+     * should be longer than the timeout of a request.
+     *
+     * @return By default <code>30</code> seconds.
+     */
+    public int getIdleTimeoutSeconds() {
+        return 30;
+    }
 }
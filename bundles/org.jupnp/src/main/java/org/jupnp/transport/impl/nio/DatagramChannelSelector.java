@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2011-2026 4th Line GmbH, Switzerland and others
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License Version 1 or later
+ * ("CDDL") (collectively, the "License"). You may not use this file
+ * except in compliance with the License. See LICENSE.txt for more
+ * information.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * SPDX-License-Identifier: CDDL-1.0
+ */
+package org.jupnp.transport.impl.nio;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Services the non-blocking datagram channels of all NIO receivers with a single thread.
+ * <p>
+ * The receivers register their channel and call {@link #run()} when they are started. The first call runs the
+ * select loop, any further call returns immediately while the loop is active. The loop ends when the last channel
+ * has been unregistered, the next registered receiver starts it again.
+ * </p>
+ * <p>
+ * Use one instance for all receivers of a service, by overriding the factory methods of the configuration:
+ * </p>
+ *
+ * <pre>{@code
+ * DatagramChannelSelector selector = new DatagramChannelSelector();
+ * UpnpServiceConfiguration configuration = new DefaultUpnpServiceConfiguration() {
+ *     public MulticastReceiver createMulticastReceiver(NetworkAddressFactory networkAddressFactory) {
+ *         return new NioMulticastReceiverImpl(new MulticastReceiverConfigurationImpl(
+ *                 networkAddressFactory.getMulticastGroup(), networkAddressFactory.getMulticastPort()), selector);
+ *     }
+ *
+ *     public DatagramIO createDatagramIO(NetworkAddressFactory networkAddressFactory) {
+ *         return new NioDatagramIOImpl(new DatagramIOConfigurationImpl(), selector);
+ *     }
+ * };
+ * }</pre>
+ *
+ * @see NioMulticastReceiverImpl
+ * @see NioDatagramIOImpl
+ */
+public class DatagramChannelSelector implements Runnable {
+
+    /**
+     * The maximum number of datagrams a handler reads from its channel per selection. Datagrams left in the channel
+     * are read after the next selection, a flood on one channel doesn't starve the other channels.
+     */
+    public static final int MAX_READS_PER_SELECTION = 16;
+
+    /**
+     * Reads up to {@link #MAX_READS_PER_SELECTION} datagrams available on a registered channel, called on the
+     * selector thread.
+     */
+    public interface ReadHandler {
+
+        void read(DatagramChannel channel);
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(DatagramChannelSelector.class);
+
+    protected final Map<DatagramChannel, ReadHandler> channels = new ConcurrentHashMap<>();
+    protected final Queue<DatagramChannel> pendingRegistrations = new ConcurrentLinkedQueue<>();
+
+    // Guarded by this
+    protected Selector selector;
+    protected boolean running;
+
+    /**
+     * Registers the channel, the handler is called whenever datagrams can be read from it.
+     *
+     * @param channel A non-blocking datagram channel.
+     * @param handler Reads the available datagrams.
+     * @throws IOException If the selector could not be opened.
+     */
+    public synchronized void register(DatagramChannel channel, ReadHandler handler) throws IOException {
+        if (selector == null) {
+            selector = Selector.open();
+            // Any channels left over from a failed selector have to be registered again
+            pendingRegistrations.addAll(channels.keySet());
+        }
+        channels.put(channel, handler);
+        // Registration blocks while the selector thread is in select(), so it happens on the selector thread
+        pendingRegistrations.add(channel);
+        selector.wakeup();
+    }
+
+    /**
+     * Unregisters the channel, it will no longer be selected. Closing the channel also unregisters it.
+     *
+     * @param channel A previously registered datagram channel.
+     */
+    public synchronized void unregister(DatagramChannel channel) {
+        if (channels.remove(channel) != null && selector != null) {
+            SelectionKey key = channel.keyFor(selector);
+            if (key != null) {
+                key.cancel();
+            }
+            selector.wakeup();
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void run() {
+        Selector selector;
+        synchronized (this) {
+            if (running || this.selector == null) {
+                return;
+            }
+            running = true;
+            selector = this.selector;
+        }
+
+        logger.debug("Entering selector loop, listening for UDP datagrams on {} channel(s)", channels.size());
+        try {
+            while (true) {
+                synchronized (this) {
+                    if (channels.isEmpty()) {
+                        closeSelector();
+                        break;
+                    }
+                }
+
+                registerPending(selector);
+                selector.select();
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (key.isValid() && key.isReadable()) {
+                            ((ReadHandler) key.attachment()).read((DatagramChannel) key.channel());
+                        }
+                    } catch (CancelledKeyException e) {
+                        logger.trace("Channel unregistered while selected: {}", key.channel());
+                    } catch (RuntimeException e) {
+                        // Don't stop receiving on all the other channels
+                        logger.warn("Could not read datagrams from: {}", key.channel(), e);
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Selector loop failed, no longer receiving datagrams", e);
+        } finally {
+            // Unless it was already closed, a later register() then opens a new selector for a new loop
+            synchronized (this) {
+                if (this.selector == selector) {
+                    closeSelector();
+                }
+            }
+        }
+        logger.debug("Selector loop ended");
+    }
+
+    protected void registerPending(Selector selector) {
+        List<DatagramChannel> retries = new ArrayList<>();
+        DatagramChannel channel;
+        while ((channel = pendingRegistrations.poll()) != null) {
+            ReadHandler handler = channels.get(channel);
+            if (handler == null) {
+                // Unregistered before the selector thread got to it
+                continue;
+            }
+            try {
+                channel.register(selector, SelectionKey.OP_READ, handler);
+            } catch (ClosedChannelException e) {
+                logger.debug("Channel closed before registration: {}", channel);
+                channels.remove(channel);
+            } catch (CancelledKeyException e) {
+                // Registered again before the key of the previous registration was removed by a select()
+                retries.add(channel);
+            } catch (RuntimeException e) {
+                logger.warn("Could not register channel: {}", channel, e);
+                channels.remove(channel);
+            }
+        }
+        if (!retries.isEmpty()) {
+            pendingRegistrations.addAll(retries);
+            selector.wakeup();
+        }
+    }
+
+    // Guarded by this
+    protected void closeSelector() {
+        running = false;
+        if (selector != null) {
+            try {
+                selector.close();
+            } catch (IOException e) {
+                logger.debug("Could not close selector", e);
+            }
+            selector = null;
+        }
+        pendingRegistrations.clear();
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2011-2026 4th Line GmbH, Switzerland and others
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License Version 1 or later
+ * ("CDDL") (collectively, the "License"). You may not use this file
+ * except in compliance with the License. See LICENSE.txt for more
+ * information.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * SPDX-License-Identifier: CDDL-1.0
+ */
+package org.jupnp.transport.impl.nio;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+
+import org.jupnp.model.UnsupportedDataException;
+import org.jupnp.model.message.OutgoingDatagramMessage;
+import org.jupnp.transport.Router;
+import org.jupnp.transport.impl.DatagramIOConfigurationImpl;
+import org.jupnp.transport.spi.DatagramIO;
+import org.jupnp.transport.spi.DatagramProcessor;
+import org.jupnp.transport.spi.InitializationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Implementation based on a single shared (receive/send) non-blocking <code>DatagramChannel</code>, serviced by a
+ * shared {@link DatagramChannelSelector}.
+ * <p>
+ * All instances created with the same selector receive datagrams on a single thread. Sending happens on the
+ * calling thread, a datagram is dropped if the socket send buffer is full.
+ * </p>
+ */
+public class NioDatagramIOImpl implements DatagramIO<DatagramIOConfigurationImpl> {
+
+    private final Logger logger = LoggerFactory.getLogger(NioDatagramIOImpl.class);
+
+    protected final DatagramIOConfigurationImpl configuration;
+    protected final DatagramChannelSelector selector;
+
+    protected Router router;
+    protected DatagramProcessor datagramProcessor;
+
+    protected InetSocketAddress localAddress;
+    protected DatagramChannel channel; // For sending unicast & multicast, and receiving unicast
+
+    // Only used on the selector thread
+    protected ByteBuffer buffer;
+    protected DatagramPacket datagram;
+
+    public NioDatagramIOImpl(DatagramIOConfigurationImpl configuration, DatagramChannelSelector selector) {
+        this.configuration = configuration;
+        this.selector = selector;
+    }
+
+    @Override
+    public DatagramIOConfigurationImpl getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * @return The address the channel is bound to, with the actual port if an ephemeral port was requested.
+     */
+    public synchronized InetSocketAddress getLocalAddress() {
+        return localAddress;
+    }
+
+    @Override
+    public synchronized void init(InetAddress bindAddress, int bindPort, Router router,
+            DatagramProcessor datagramProcessor) throws InitializationException {
+
+        this.router = router;
+        this.datagramProcessor = datagramProcessor;
+
+        buffer = ByteBuffer.allocate(configuration.getMaxDatagramBytes());
+        datagram = new DatagramPacket(buffer.array(), buffer.capacity());
+
+        try {
+
+            logger.debug("Creating bound channel (for datagram input/output) on: {}:{}", bindAddress, bindPort);
+            channel = DatagramChannel.open(
+                    bindAddress instanceof Inet6Address ? StandardProtocolFamily.INET6 : StandardProtocolFamily.INET);
+            channel.setOption(StandardSocketOptions.IP_MULTICAST_TTL, configuration.getTimeToLive());
+            channel.setOption(StandardSocketOptions.SO_RCVBUF, 262144); // Keep a backlog of incoming datagrams
+            channel.setOption(StandardSocketOptions.SO_BROADCAST, true); // Like a DatagramSocket
+            channel.bind(new InetSocketAddress(bindAddress, bindPort));
+            channel.configureBlocking(false);
+            localAddress = (InetSocketAddress) channel.getLocalAddress();
+
+            selector.register(channel, this::read);
+
+        } catch (Exception e) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ex) {
+                    logger.debug("Could not close channel", ex);
+                }
+            }
+            throw new InitializationException("Could not initialize " + getClass().getSimpleName(), e);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (channel != null && channel.isOpen()) {
+            selector.unregister(channel);
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.debug("Could not close channel", e);
+            }
+        }
+    }
+
+    /**
+     * Starts the shared selector loop on the calling thread, unless it is already running.
+     */
+    @Override
+    public void run() {
+        selector.run();
+    }
+
+    @Override
+    public synchronized void send(OutgoingDatagramMessage message) {
+        logger.debug("Sending message from address: {}", localAddress);
+
+        DatagramPacket packet = datagramProcessor.write(message);
+
+        logger.debug("Sending UDP datagram packet to: {}:{}", message.getDestinationAddress(),
+                message.getDestinationPort());
+
+        send(packet);
+    }
+
+    @Override
+    public synchronized void send(DatagramPacket datagram) {
+        logger.debug("Sending message from address: {}", localAddress);
+
+        try {
+            int sent = channel.send(ByteBuffer.wrap(datagram.getData(), datagram.getOffset(), datagram.getLength()),
+                    datagram.getSocketAddress());
+            if (sent == 0) {
+                logger.debug("Socket send buffer full, dropped datagram to: {}", datagram.getSocketAddress());
+            }
+        } catch (ClosedChannelException e) {
+            logger.debug("Channel closed, aborting datagram send to: {}", datagram.getAddress());
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Exception sending datagram to: {}", datagram.getAddress(), e);
+            logger.error("  Details: datagram.socketAddress={}, length={}, offset={}, data.bytes={}",
+                    datagram.getSocketAddress(), datagram.getLength(), datagram.getOffset(), datagram.getData().length);
+        }
+    }
+
+    protected void read(DatagramChannel channel) {
+        for (int i = 0; i < DatagramChannelSelector.MAX_READS_PER_SELECTION; i++) {
+            try {
+                buffer.clear();
+                SocketAddress source = channel.receive(buffer);
+                if (source == null) {
+                    // Nothing left to read
+                    return;
+                }
+
+                datagram.setData(buffer.array(), 0, buffer.position());
+                datagram.setSocketAddress(source);
+
+                logger.debug("UDP datagram received from: {}:{} on: {}", datagram.getAddress().getHostAddress(),
+                        datagram.getPort(), localAddress);
+
+                router.received(datagramProcessor.read(localAddress.getAddress(), datagram));
+
+            } catch (UnsupportedDataException e) {
+                logger.info("Could not read datagram: {}", e.getMessage());
+            } catch (IOException e) {
+                logger.debug("Could not receive datagram: {}", e.toString());
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2011-2026 4th Line GmbH, Switzerland and others
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License Version 1 or later
+ * ("CDDL") (collectively, the "License"). You may not use this file
+ * except in compliance with the License. See LICENSE.txt for more
+ * information.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * SPDX-License-Identifier: CDDL-1.0
+ */
+package org.jupnp.transport.impl.nio;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.MembershipKey;
+
+import org.jupnp.model.UnsupportedDataException;
+import org.jupnp.transport.Router;
+import org.jupnp.transport.impl.MulticastReceiverConfigurationImpl;
+import org.jupnp.transport.spi.DatagramProcessor;
+import org.jupnp.transport.spi.InitializationException;
+import org.jupnp.transport.spi.MulticastReceiver;
+import org.jupnp.transport.spi.NetworkAddressFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Implementation based on a non-blocking <code>DatagramChannel</code>, serviced by a shared
+ * {@link DatagramChannelSelector}.
+ * <p>
+ * All receivers created with the same selector are serviced by a single thread, instead of one blocked thread per
+ * network interface. Received datagrams are read on the selector thread.
+ * </p>
+ */
+public class NioMulticastReceiverImpl implements MulticastReceiver<MulticastReceiverConfigurationImpl> {
+
+    private final Logger logger = LoggerFactory.getLogger(MulticastReceiver.class);
+
+    protected final MulticastReceiverConfigurationImpl configuration;
+    protected final DatagramChannelSelector selector;
+
+    protected Router router;
+    protected NetworkAddressFactory networkAddressFactory;
+    protected DatagramProcessor datagramProcessor;
+
+    protected NetworkInterface multicastInterface;
+    protected InetSocketAddress multicastAddress;
+    protected DatagramChannel channel;
+    protected MembershipKey membership;
+
+    // Only used on the selector thread
+    protected ByteBuffer buffer;
+    protected DatagramPacket datagram;
+
+    public NioMulticastReceiverImpl(MulticastReceiverConfigurationImpl configuration,
+            DatagramChannelSelector selector) {
+        this.configuration = configuration;
+        this.selector = selector;
+    }
+
+    @Override
+    public MulticastReceiverConfigurationImpl getConfiguration() {
+        return configuration;
+    }
+
+    @Override
+    public synchronized void init(NetworkInterface networkInterface, Router router,
+            NetworkAddressFactory networkAddressFactory, DatagramProcessor datagramProcessor)
+            throws InitializationException {
+
+        this.router = router;
+        this.networkAddressFactory = networkAddressFactory;
+        this.datagramProcessor = datagramProcessor;
+        this.multicastInterface = networkInterface;
+
+        buffer = ByteBuffer.allocate(configuration.getMaxDatagramBytes());
+        datagram = new DatagramPacket(buffer.array(), buffer.capacity());
+
+        try {
+
+            logger.debug("Creating wildcard channel (for receiving multicast datagrams) on port: {}",
+                    configuration.getPort());
+            multicastAddress = new InetSocketAddress(configuration.getGroup(), configuration.getPort());
+
+            channel = DatagramChannel.open(configuration.getGroup() instanceof Inet6Address
+                    ? StandardProtocolFamily.INET6
+                    : StandardProtocolFamily.INET);
+            channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            channel.setOption(StandardSocketOptions.SO_RCVBUF, 32768); // Keep a backlog of incoming datagrams
+            channel.bind(new InetSocketAddress(configuration.getPort()));
+            channel.configureBlocking(false);
+
+            logger.debug("Joining multicast group: {} on network interface: {}", multicastAddress,
+                    multicastInterface.getDisplayName());
+            membership = channel.join(configuration.getGroup(), multicastInterface);
+
+            selector.register(channel, this::read);
+
+        } catch (Exception e) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ex) {
+                    logger.debug("Could not close channel", ex);
+                }
+            }
+            throw new InitializationException("Could not initialize " + getClass().getSimpleName() + ": " + e);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (channel != null && channel.isOpen()) {
+            logger.debug("Leaving multicast group");
+            if (membership != null) {
+                membership.drop();
+            }
+            selector.unregister(channel);
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.debug("Could not close channel", e);
+            }
+        }
+    }
+
+    /**
+     * Starts the shared selector loop on the calling thread, unless it is already running.
+     */
+    @Override
+    public void run() {
+        selector.run();
+    }
+
+    protected void read(DatagramChannel channel) {
+        for (int i = 0; i < DatagramChannelSelector.MAX_READS_PER_SELECTION; i++) {
+            try {
+                buffer.clear();
+                SocketAddress source = channel.receive(buffer);
+                if (source == null) {
+                    // Nothing left to read
+                    return;
+                }
+
+                datagram.setData(buffer.array(), 0, buffer.position());
+                datagram.setSocketAddress(source);
+
+                InetAddress receivedOnLocalAddress = networkAddressFactory.getLocalAddress(multicastInterface,
+                        multicastAddress.getAddress() instanceof Inet6Address, datagram.getAddress());
+
+                logger.debug("UDP datagram received from: {}:{} on local interface: {} and address: {}",
+                        datagram.getAddress().getHostAddress(), datagram.getPort(), multicastInterface.getDisplayName(),
+                        receivedOnLocalAddress.getHostAddress());
+
+                router.received(datagramProcessor.read(receivedOnLocalAddress, datagram));
+
+            } catch (UnsupportedDataException e) {
+                logger.info("Could not read datagram: {}", e.getMessage());
+            } catch (IOException e) {
+                logger.debug("Could not receive datagram: {}", e.toString());
+                return;
+            }
+        }
+    }
+}
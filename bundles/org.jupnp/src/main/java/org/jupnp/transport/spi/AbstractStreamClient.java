@@ -16,12 +16,15 @@
 package org.jupnp.transport.spi;
 
 import java.net.URI;
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -41,44 +44,28 @@ public abstract class AbstractStreamClient<C extends StreamClientConfiguration,
 
     private final Logger logger = LoggerFactory.getLogger(StreamClient.class);
 
-    private static final int FAILED_REQUESTS_MAX_SIZE = 100;
-    private Map<URI, Long> failedRequests = new ConcurrentHashMap<>();
-    private Map<URI, Long> failedTries = new ConcurrentHashMap<>();
+    /**
+     * The number of hosts with failed requests which are tracked, the least recently used are forgotten.
+     */
+    public static final int CIRCUIT_BREAKERS_MAX_SIZE = 100;
+
+    private final Map<String, CircuitBreaker> circuitBreakers = Collections
+            .synchronizedMap(new LinkedHashMap<>(CIRCUIT_BREAKERS_MAX_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CircuitBreaker> eldest) {
+                    return size() > CIRCUIT_BREAKERS_MAX_SIZE;
+                }
+            });
 
     @Override
     public StreamResponseMessage sendRequest(StreamRequestMessage requestMessage) throws InterruptedException {
         logger.trace("Preparing HTTP request: {}", requestMessage);
 
-        String[] split = requestMessage.getUri().toString().split(":");
-        String protocol = split[0];
-
-        if (protocol.equals("https")) {
-            SpecificationViolationReporter.report("HTTPS invalid.  Ignoring call " + requestMessage.getUri());
-            return null;
-        }
-
         // We want to track how long it takes
         long start = System.nanoTime();
 
-        failedTries.putIfAbsent(requestMessage.getUri(), (long) 0);
-
-        final Long previeousFailureTime = failedRequests.get(requestMessage.getUri());
-        final Long numberOfTries = failedTries.get(requestMessage.getUri());
-
-        if (getConfiguration().getRetryAfterSeconds() > 0 && previeousFailureTime != null) {
-            if (start - previeousFailureTime < TimeUnit.SECONDS.toNanos(getConfiguration().getRetryAfterSeconds())
-                    && numberOfTries >= getConfiguration().getRetryIterations()) {
-                logger.debug("Will not attempt request because it failed {} times in the last {} seconds: {}",
-                        numberOfTries, getConfiguration().getRetryAfterSeconds(), requestMessage);
-                return null;
-            } else if (start - previeousFailureTime < TimeUnit.SECONDS
-                    .toNanos(getConfiguration().getRetryAfterSeconds()) && numberOfTries > 0) {
-                logger.debug("Previous attempt failed {} times.  Will retry {}", numberOfTries, requestMessage);
-            } else {
-                logger.debug("Clearing failed attempt after {} tries", numberOfTries);
-                failedRequests.remove(requestMessage.getUri());
-                failedTries.put(requestMessage.getUri(), (long) 0);
-            }
+        if (!isRequestAllowed(requestMessage, start)) {
+            return null;
         }
 
         REQUEST request = createRequest(requestMessage);
@@ -98,13 +85,8 @@ public abstract class AbstractStreamClient<C extends StreamClientConfiguration,
                     requestMessage);
             StreamResponseMessage response = future.get(getConfiguration().getTimeoutSeconds(), TimeUnit.SECONDS);
 
-            // Log a warning if it took too long
-            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
-            logger.trace("Got HTTP response in {} ms: {}", elapsed, requestMessage);
-            if (getConfiguration().getLogWarningSeconds() > 0
-                    && elapsed > TimeUnit.SECONDS.toMillis(getConfiguration().getLogWarningSeconds())) {
-                logger.warn("HTTP request took a long time ({} ms): {}", elapsed, requestMessage);
-            }
+            logElapsedTime(requestMessage, start);
+            handleRequestSuccess(requestMessage);
 
             return response;
 
@@ -119,23 +101,11 @@ public abstract class AbstractStreamClient<C extends StreamClientConfiguration,
                     getConfiguration().getTimeoutSeconds(), requestMessage);
             abort(request);
 
-            handleRequestTimeout(requestMessage, requestWrapper);
+            handleRequestTimeout(requestMessage, requestWrapper.startTime);
             return null;
 
         } catch (ExecutionException e) {
-            Throwable cause = e.getCause();
-            if (!logExecutionException(cause)) {
-                String message = "HTTP request failed: " + requestMessage;
-
-                if (logger.isDebugEnabled()) {
-                    // if debug then the warning will additionally contain the stacktrace of the causing exception
-                    logger.warn(message, Exceptions.unwrap(cause));
-                } else {
-                    // compact logging
-                    logger.warn("{} ({})", message, Exceptions.unwrap(cause).getMessage());
-                }
-            }
-
+            logRequestFailure(requestMessage, e.getCause());
             handleRequestFailure(requestMessage);
             return null;
         } finally {
@@ -143,6 +113,124 @@ public abstract class AbstractStreamClient<C extends StreamClientConfiguration,
         }
     }
 
+    @Override
+    public CompletableFuture<StreamResponseMessage> sendRequestAsync(StreamRequestMessage requestMessage) {
+        logger.trace("Preparing asynchronous HTTP request: {}", requestMessage);
+
+        long start = System.nanoTime();
+
+        if (!isRequestAllowed(requestMessage, start)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        REQUEST request = createRequest(requestMessage);
+        if (request == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<StreamResponseMessage> response = new CompletableFuture<>();
+
+        CompletableFuture<StreamResponseMessage> future = createFuture(requestMessage, request);
+        future.orTimeout(getConfiguration().getTimeoutSeconds(), TimeUnit.SECONDS)
+                .whenComplete((result, failure) -> {
+                    try {
+                        if (response.isCancelled()) {
+                            logger.trace("HTTP request was cancelled: {}", requestMessage);
+                        } else if (failure == null) {
+                            logElapsedTime(requestMessage, start);
+                            handleRequestSuccess(requestMessage);
+                            response.complete(result);
+                        } else if (failure instanceof TimeoutException) {
+                            logger.info(
+                                    "Timeout of {} seconds while waiting for HTTP request to complete, aborting: {}",
+                                    getConfiguration().getTimeoutSeconds(), requestMessage);
+                            abort(request);
+                            if (future instanceof QueuedRequest) {
+                                QueuedRequest queuedRequest = (QueuedRequest) future;
+                                queuedRequest.cancelIfQueued();
+                                handleRequestTimeout(requestMessage, queuedRequest.startTime);
+                            } else {
+                                handleRequestTimeout(requestMessage, start);
+                            }
+                            response.complete(null);
+                        } else {
+                            logRequestFailure(requestMessage,
+                                    failure instanceof CompletionException ? failure.getCause() : failure);
+                            handleRequestFailure(requestMessage);
+                            response.complete(null);
+                        }
+                    } finally {
+                        onFinally(request);
+                    }
+                });
+
+        response.whenComplete((result, failure) -> {
+            if (response.isCancelled()) {
+                logger.trace("Cancellation, aborting request: {}", requestMessage);
+                abort(request);
+            }
+        });
+
+        return response;
+    }
+
+    /**
+     * Checks the protocol and the circuit breaker of the host, a request to a host which failed repeatedly fails
+     * fast.
+     *
+     * @return <code>false</code> if the request should not be attempted.
+     */
+    private boolean isRequestAllowed(StreamRequestMessage requestMessage, long start) {
+        String[] split = requestMessage.getUri().toString().split(":");
+        String protocol = split[0];
+
+        if (protocol.equals("https")) {
+            SpecificationViolationReporter.report("HTTPS invalid.  Ignoring call " + requestMessage.getUri());
+            return false;
+        }
+
+        CircuitBreaker circuitBreaker = getCircuitBreaker(requestMessage, false);
+        if (circuitBreaker == null) {
+            return true;
+        }
+
+        long openDurationNanos = TimeUnit.SECONDS.toNanos(getConfiguration().getRetryAfterSeconds());
+        if (!circuitBreaker.allowRequest(start, openDurationNanos)) {
+            logger.debug("Will not attempt request because it failed {} times in the last {} seconds: {}",
+                    circuitBreaker.getFailures(), getConfiguration().getRetryAfterSeconds(), requestMessage);
+            return false;
+        }
+        if (circuitBreaker.getState() == CircuitBreaker.State.HALF_OPEN) {
+            logger.debug("Previous attempts failed {} times.  Will retry {}", circuitBreaker.getFailures(),
+                    requestMessage);
+        }
+        return true;
+    }
+
+    private void logElapsedTime(StreamRequestMessage requestMessage, long start) {
+        // Log a warning if it took too long
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        logger.trace("Got HTTP response in {} ms: {}", elapsed, requestMessage);
+        if (getConfiguration().getLogWarningSeconds() > 0
+                && elapsed > TimeUnit.SECONDS.toMillis(getConfiguration().getLogWarningSeconds())) {
+            logger.warn("HTTP request took a long time ({} ms): {}", elapsed, requestMessage);
+        }
+    }
+
+    private void logRequestFailure(StreamRequestMessage requestMessage, Throwable cause) {
+        if (!logExecutionException(cause)) {
+            String message = "HTTP request failed: " + requestMessage;
+
+            if (logger.isDebugEnabled()) {
+                // if debug then the warning will additionally contain the stacktrace of the causing exception
+                logger.warn(message, Exceptions.unwrap(cause));
+            } else {
+                // compact logging
+                logger.warn("{} ({})", message, Exceptions.unwrap(cause).getMessage());
+            }
+        }
+    }
+
     /**
      * Create a proprietary representation of this request, log warnings and
      * return <code>null</code> if creation fails.
@@ -155,6 +243,30 @@ public abstract class AbstractStreamClient<C extends StreamClientConfiguration,
     protected abstract Callable<StreamResponseMessage> createCallable(StreamRequestMessage requestMessage,
             REQUEST request);
 
+    /**
+     * Execute the request without blocking the calling thread, the future completes with the response or the
+     * failure of the request. By default the callable procedure is executed on a thread of the request executor,
+     * override this method if the proprietary API can execute the request asynchronously.
+     */
+    protected CompletableFuture<StreamResponseMessage> createFuture(StreamRequestMessage requestMessage,
+            REQUEST request) {
+        Callable<StreamResponseMessage> callable = createCallable(requestMessage, request);
+        QueuedRequest future = new QueuedRequest();
+        try {
+            future.task = getConfiguration().getRequestExecutorService().submit(() -> {
+                future.startTime = System.nanoTime();
+                try {
+                    future.complete(callable.call());
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
     /**
      * Cancel and abort the request immediately, with the proprietary API.
      */
@@ -169,44 +281,94 @@ public abstract class AbstractStreamClient<C extends StreamClientConfiguration,
         // Do nothing
     }
 
-    private void handleRequestFailure(StreamRequestMessage requestMessage) {
+    /**
+     * @return A snapshot of the circuit breaker states of all hosts with recently failed requests.
+     */
+    public Map<String, CircuitBreaker.State> getCircuitBreakerStates() {
+        Map<String, CircuitBreaker.State> states = new LinkedHashMap<>();
+        synchronized (circuitBreakers) {
+            for (CircuitBreaker circuitBreaker : circuitBreakers.values()) {
+                states.put(circuitBreaker.getHost(), circuitBreaker.getState());
+            }
+        }
+        return states;
+    }
+
+    /**
+     * @return The circuit breaker of the request's host, <code>null</code> if the host has no recently failed
+     *         requests and <code>create</code> is <code>false</code>, or if failures aren't tracked.
+     */
+    private CircuitBreaker getCircuitBreaker(StreamRequestMessage requestMessage, boolean create) {
         if (getConfiguration().getRetryAfterSeconds() <= 0) {
-            return;
+            return null;
+        }
+        URI uri = requestMessage.getUri();
+        if (uri.getHost() == null) {
+            return null;
         }
+        String host = uri.getHost() + ":" + uri.getPort();
+        synchronized (circuitBreakers) {
+            CircuitBreaker circuitBreaker = circuitBreakers.get(host);
+            if (circuitBreaker == null && create) {
+                circuitBreaker = new CircuitBreaker(host);
+                circuitBreakers.put(host, circuitBreaker);
+            }
+            return circuitBreaker;
+        }
+    }
 
-        final long currentTime = System.nanoTime();
-        failedRequests.put(requestMessage.getUri(), currentTime);
-        failedTries.put(requestMessage.getUri(), failedTries.get(requestMessage.getUri()) + 1);
-        if (failedRequests.size() > FAILED_REQUESTS_MAX_SIZE) {
-            cleanOldFailedRequests(currentTime);
+    private void handleRequestSuccess(StreamRequestMessage requestMessage) {
+        CircuitBreaker circuitBreaker = getCircuitBreaker(requestMessage, false);
+        if (circuitBreaker != null) {
+            circuitBreaker.recordSuccess();
+            circuitBreakers.remove(circuitBreaker.getHost());
         }
     }
 
-    private void handleRequestTimeout(StreamRequestMessage requestMessage, RequestWrapper requestWrapper) {
-        if (getConfiguration().getRetryAfterSeconds() <= 0) {
+    private void handleRequestFailure(StreamRequestMessage requestMessage) {
+        CircuitBreaker circuitBreaker = getCircuitBreaker(requestMessage, true);
+        if (circuitBreaker == null) {
             return;
         }
 
         final long currentTime = System.nanoTime();
-        if (requestWrapper.startTime != null && currentTime - requestWrapper.startTime > TimeUnit.SECONDS
-                .toNanos(getConfiguration().getTimeoutSeconds())) {
-            failedRequests.put(requestMessage.getUri(), currentTime);
+        circuitBreaker.recordFailure(currentTime, getConfiguration().getRetryIterations());
+        if (circuitBreaker.getState() == CircuitBreaker.State.OPEN) {
+            logger.debug("Circuit breaker opened after {} failures: {}", circuitBreaker.getFailures(),
+                    circuitBreaker.getHost());
         }
+        removeExpiredCircuitBreakers(currentTime);
+    }
 
-        failedTries.put(requestMessage.getUri(), failedTries.get(requestMessage.getUri()) + 1);
-        cleanOldFailedRequests(currentTime);
+    private void handleRequestTimeout(StreamRequestMessage requestMessage, Long startTime) {
+        // The host isn't at fault if the request expired while it was waiting in the executor queue
+        if (startTime != null
+                && System.nanoTime() - startTime > TimeUnit.SECONDS.toNanos(getConfiguration().getTimeoutSeconds())) {
+            handleRequestFailure(requestMessage);
+        }
     }
 
-    private void cleanOldFailedRequests(long currentTime) {
-        if (failedRequests.size() <= FAILED_REQUESTS_MAX_SIZE) {
-            return;
+    private void removeExpiredCircuitBreakers(long currentTime) {
+        long openDurationNanos = TimeUnit.SECONDS.toNanos(getConfiguration().getRetryAfterSeconds());
+        synchronized (circuitBreakers) {
+            circuitBreakers.values()
+                    .removeIf(circuitBreaker -> circuitBreaker.isExpired(currentTime, openDurationNanos));
         }
+    }
+
+    /**
+     * The future of a request executed on the request executor, tracks when the execution started.
+     */
+    private static class QueuedRequest extends CompletableFuture<StreamResponseMessage> {
+
+        volatile Future<?> task;
+        volatile Long startTime = null;
 
-        Iterator<Map.Entry<URI, Long>> it = failedRequests.entrySet().iterator();
-        while (it.hasNext()) {
-            long elapsedTime = currentTime - it.next().getValue();
-            if (elapsedTime > TimeUnit.SECONDS.toNanos(getConfiguration().getRetryAfterSeconds())) {
-                it.remove();
+        void cancelIfQueued() {
+            // Doesn't interrupt a running request, that one is aborted with the proprietary API
+            Future<?> queuedTask = task;
+            if (queuedTask != null) {
+                queuedTask.cancel(false);
             }
         }
     }
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2011-2026 4th Line GmbH, Switzerland and others
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License Version 1 or later
+ * ("CDDL") (collectively, the "License"). You may not use this file
+ * except in compliance with the License. See LICENSE.txt for more
+ * information.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * SPDX-License-Identifier: CDDL-1.0
+ */
+package org.jupnp.transport.spi;
+
+/**
+ * Tracks the failed requests to a host and stops sending requests to it while it is unreachable.
+ * <p>
+ * The breaker opens once the failure threshold is reached and fails requests fast for the open duration, then a
+ * single trial request is allowed. The breaker closes again if the trial succeeds, otherwise it opens for another
+ * duration. Failures older than the open duration are forgotten.
+ * </p>
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String host;
+
+    private State state = State.CLOSED;
+    private int failures;
+    private long lastFailureNanos;
+    private long openedNanos;
+    private long trialNanos;
+
+    public CircuitBreaker(String host) {
+        this.host = host;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized int getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return <code>true</code> if a request may be sent, <code>false</code> if it should fail fast.
+     */
+    public synchronized boolean allowRequest(long currentNanos, long openDurationNanos) {
+        switch (state) {
+            case OPEN:
+                if (currentNanos - openedNanos < openDurationNanos) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                trialNanos = currentNanos;
+                return true;
+            case HALF_OPEN:
+                // Only one trial at a time, unless the trial never completed
+                if (currentNanos - trialNanos < openDurationNanos) {
+                    return false;
+                }
+                trialNanos = currentNanos;
+                return true;
+            default:
+                if (failures > 0 && currentNanos - lastFailureNanos >= openDurationNanos) {
+                    failures = 0;
+                }
+                return true;
+        }
+    }
+
+    public synchronized void recordSuccess() {
+        state = State.CLOSED;
+        failures = 0;
+    }
+
+    public synchronized void recordFailure(long currentNanos, int failureThreshold) {
+        failures++;
+        lastFailureNanos = currentNanos;
+        if (state == State.HALF_OPEN || failures >= failureThreshold) {
+            state = State.OPEN;
+            openedNanos = currentNanos;
+        }
+    }
+
+    /**
+     * @return <code>true</code> if the breaker is closed and all failures have been forgotten.
+     */
+    public synchronized boolean isExpired(long currentNanos, long openDurationNanos) {
+        return state == State.CLOSED && (failures == 0 || currentNanos - lastFailureNanos >= openDurationNanos);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "(" + getClass().getSimpleName() + ") " + host + " " + state + ", failures: " + failures;
+    }
+}
@@ -38,6 +38,10 @@ public interface DatagramProcessor {
      * The message is either a {@link org.jupnp.model.message.UpnpRequest} or
      * a {@link org.jupnp.model.message.UpnpResponse} operation type.
      * </p>
+     * <p>
+     * Only the received bytes, starting at the datagram's offset and up to its length, are read. Receivers reuse
+     * the datagram buffer once this method returns, implementations must not keep a reference to it.
+     * </p>
      *
      * @param receivedOnAddress The address of the socket on which this datagram was received.
      * @param datagram The received UDP datagram.
@@ -15,6 +15,8 @@
  */
 package org.jupnp.transport.spi;
 
+import java.util.concurrent.CompletableFuture;
+
 import org.jupnp.model.message.StreamRequestMessage;
 import org.jupnp.model.message.StreamResponseMessage;
 
@@ -69,6 +71,32 @@ public interface StreamClient<C extends StreamClientConfiguration> {
      */
     StreamResponseMessage sendRequest(StreamRequestMessage message) throws InterruptedException;
 
+    /**
+     * Sends the given request via TCP (HTTP) without blocking the calling thread.
+     *
+     * <p>
+     * The same rules as for {@link #sendRequest(StreamRequestMessage)} apply, the returned future
+     * completes with <code>null</code> if the request expires or an error occurs. Cancelling the
+     * future aborts the request.
+     * </p>
+     * <p>
+     * The default implementation calls {@link #sendRequest(StreamRequestMessage)} and blocks the
+     * calling thread, implementations should execute the request asynchronously if they can.
+     * </p>
+     *
+     * @param message The message to send.
+     * @return The future response, completed with <code>null</code> if no response has been received
+     *         or an error occurred.
+     */
+    default CompletableFuture<StreamResponseMessage> sendRequestAsync(StreamRequestMessage message) {
+        try {
+            return CompletableFuture.completedFuture(sendRequest(message));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
     /**
      * Stops the service, closes any connection pools etc.
      */
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2011-2026 4th Line GmbH, Switzerland and others
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License Version 1 or later
+ * ("CDDL") (collectively, the "License"). You may not use this file
+ * except in compliance with the License. See LICENSE.txt for more
+ * information.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * SPDX-License-Identifier: CDDL-1.0
+ */
+package org.jupnp.xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates namespace aware <em>StAX</em> readers and navigates the elements of a document while streaming it.
+ * <p>
+ * Instances can be shared by threads, a reader must only be used by one thread.
+ * </p>
+ */
+public class StAXParser {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StAXParser.class);
+
+    private final XMLInputFactory inputFactory;
+
+    public StAXParser() {
+        inputFactory = XMLInputFactory.newInstance();
+        inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        inputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    public XMLStreamReader createReader(String xml) throws XMLStreamException {
+        return inputFactory.createXMLStreamReader(new StringReader(xml));
+    }
+
+    /**
+     * The encoding is detected from the byte order mark or XML declaration, leading whitespace is skipped.
+     */
+    public XMLStreamReader createReader(byte[] xml) throws XMLStreamException {
+        int offset = 0;
+        while (offset < xml.length && Character.isWhitespace(xml[offset])) {
+            offset++;
+        }
+        return inputFactory.createXMLStreamReader(new ByteArrayInputStream(xml, offset, xml.length - offset));
+    }
+
+    /**
+     * The characters are decoded with the given charset, a UTF-8 byte order mark and leading whitespace are skipped.
+     */
+    public XMLStreamReader createReader(byte[] xml, Charset charset) throws XMLStreamException {
+        int offset = 0;
+        if (StandardCharsets.UTF_8.equals(charset) && xml.length >= 3 && (xml[0] & 0xFF) == 0xEF
+                && (xml[1] & 0xFF) == 0xBB && (xml[2] & 0xFF) == 0xBF) {
+            offset = 3;
+        }
+        while (offset < xml.length && Character.isWhitespace(xml[offset])) {
+            offset++;
+        }
+        return inputFactory.createXMLStreamReader(new ByteArrayInputStream(xml, offset, xml.length - offset),
+                charset.name());
+    }
+
+    /**
+     * Moves the reader to the start of the next child element of the current element.
+     *
+     * @return <code>false</code> if the reader is at the end of the current element instead.
+     */
+    public static boolean nextChildElement(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                return true;
+            }
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves the reader to the end of the current element.
+     */
+    public static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Reads the text of the current element, ignoring the text of nested elements, and moves the reader to the end
+     * of the current element.
+     */
+    public static String readText(XMLStreamReader reader) throws XMLStreamException {
+        StringBuilder text = null;
+        String firstText = null;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                    || event == XMLStreamConstants.SPACE) {
+                if (firstText == null) {
+                    firstText = reader.getText();
+                } else {
+                    if (text == null) {
+                        text = new StringBuilder(firstText);
+                    }
+                    text.append(reader.getText());
+                }
+            } else if (event == XMLStreamConstants.START_ELEMENT) {
+                skipElement(reader);
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                break;
+            }
+        }
+        return text != null ? text.toString() : firstText != null ? firstText : "";
+    }
+
+    /**
+     * Reads the rest of the document, like a DOM parser this fails if the document isn't well-formed.
+     */
+    public static void readDocumentEnd(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            reader.next();
+        }
+    }
+
+    public static void close(XMLStreamReader reader) {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (XMLStreamException e) {
+                LOGGER.trace("Closing XML stream reader failed", e);
+            }
+        }
+    }
+}
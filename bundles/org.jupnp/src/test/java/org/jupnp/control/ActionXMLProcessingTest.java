@@ -18,7 +18,9 @@ package org.jupnp.control;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.jupnp.data.SampleData;
@@ -44,6 +46,7 @@ import org.jupnp.model.meta.LocalService;
 import org.jupnp.model.types.ErrorCode;
 import org.jupnp.model.types.SoapActionType;
 import org.jupnp.transport.impl.SOAPActionProcessorImpl;
+import org.jupnp.transport.impl.SOAPActionProcessorStAXImpl;
 import org.jupnp.transport.spi.SOAPActionProcessor;
 
 class ActionXMLProcessingTest {
@@ -63,7 +66,7 @@ class ActionXMLProcessingTest {
             + " </s:Envelope>";
 
     static SOAPActionProcessor[][] getProcessors() {
-        return new SOAPActionProcessor[][] { { new SOAPActionProcessorImpl() } };
+        return new SOAPActionProcessor[][] { { new SOAPActionProcessorImpl() }, { new SOAPActionProcessorStAXImpl() } };
     }
 
     @ParameterizedTest
@@ -253,4 +256,77 @@ class ActionXMLProcessingTest {
         // Note that quotes are not encoded because this text is not an XML attribute value!
         assertTrue(response.getBodyString().contains("<SomeValue>This is decoded: &amp;&lt;&gt;'\"</SomeValue>"));
     }
+
+    @Test
+    void writeBodyStAXIdenticalToDOM() throws Exception {
+        SOAPActionProcessor dom = new SOAPActionProcessorImpl();
+        SOAPActionProcessor stax = new SOAPActionProcessorStAXImpl();
+
+        LocalDevice ld = ActionSampleData.createTestDevice(ActionSampleData.LocalTestServiceExtended.class);
+        LocalService svc = ld.getServices()[0];
+
+        // Requests with and without input arguments
+        for (String actionName : new String[] { "SetSomeValue", "GetTarget" }) {
+            ActionInvocation actionInvocation = new ActionInvocation(svc.getAction(actionName));
+            if (actionName.equals("SetSomeValue")) {
+                actionInvocation.setInput("SomeValue", "Encoded: &<>'\"\r\n");
+            }
+            OutgoingActionRequestMessage domRequest = new OutgoingActionRequestMessage(actionInvocation,
+                    SampleData.getLocalBaseURL());
+            OutgoingActionRequestMessage staxRequest = new OutgoingActionRequestMessage(actionInvocation,
+                    SampleData.getLocalBaseURL());
+            dom.writeBody(domRequest, actionInvocation);
+            stax.writeBody(staxRequest, actionInvocation);
+            assertEquals(domRequest.getBodyString(), staxRequest.getBodyString());
+        }
+
+        // Responses with and without output arguments, and an empty value
+        for (String actionName : new String[] { "GetSomeValue", "SetTarget", "GetTarget" }) {
+            Action action = svc.getAction(actionName);
+            ActionInvocation actionInvocation = new ActionInvocation(action);
+            if (actionName.equals("GetSomeValue")) {
+                actionInvocation.setOutput("SomeValue", "Decoded: &<>");
+            }
+            OutgoingActionResponseMessage domResponse = new OutgoingActionResponseMessage(action);
+            OutgoingActionResponseMessage staxResponse = new OutgoingActionResponseMessage(action);
+            dom.writeBody(domResponse, actionInvocation);
+            stax.writeBody(staxResponse, actionInvocation);
+            assertEquals(domResponse.getBodyString(), staxResponse.getBodyString());
+        }
+
+        // Failure
+        ActionInvocation actionInvocation = new ActionInvocation(svc.getAction("GetTarget"));
+        actionInvocation.setFailure(new ActionException(ErrorCode.ACTION_FAILED, "A <test> string"));
+        OutgoingActionResponseMessage domFailure = new OutgoingActionResponseMessage(
+                UpnpResponse.Status.INTERNAL_SERVER_ERROR);
+        OutgoingActionResponseMessage staxFailure = new OutgoingActionResponseMessage(
+                UpnpResponse.Status.INTERNAL_SERVER_ERROR);
+        dom.writeBody(domFailure, actionInvocation);
+        stax.writeBody(staxFailure, actionInvocation);
+        assertEquals(domFailure.getBodyString(), staxFailure.getBodyString());
+    }
+
+    @Test
+    void readEncodedRequestBytesStAX() throws Exception {
+        LocalDevice ld = ActionSampleData.createTestDevice(ActionSampleData.LocalTestServiceExtended.class);
+        LocalService svc = ld.getServices()[0];
+
+        Action action = svc.getAction("SetSomeValue");
+        ActionInvocation actionInvocation = new ActionInvocation(action);
+
+        StreamRequestMessage streamRequest = new StreamRequestMessage(UpnpRequest.Method.POST,
+                URI.create("http://some.uri"));
+        streamRequest.getHeaders().add(UpnpHeader.Type.CONTENT_TYPE,
+                new ContentTypeHeader(ContentTypeHeader.DEFAULT_CONTENT_TYPE_UTF8));
+        streamRequest.getHeaders().add(UpnpHeader.Type.SOAPACTION,
+                new SoapActionHeader(new SoapActionType(action.getService().getServiceType(), action.getName())));
+        streamRequest.setBody(UpnpMessage.BodyType.BYTES, ENCODED_REQUEST.getBytes(StandardCharsets.UTF_8));
+
+        IncomingActionRequestMessage request = new IncomingActionRequestMessage(streamRequest, svc);
+
+        // The body isn't decoded into a string first
+        new SOAPActionProcessorStAXImpl().readBody(request, actionInvocation);
+
+        assertEquals("This is encoded: <", actionInvocation.getInput()[0].toString());
+    }
 }
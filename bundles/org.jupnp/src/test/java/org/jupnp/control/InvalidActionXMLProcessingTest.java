@@ -23,6 +23,7 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.jupnp.UpnpService;
 import org.jupnp.mock.MockUpnpService;
+import org.jupnp.mock.MockUpnpServiceConfiguration;
 import org.jupnp.model.UnsupportedDataException;
 import org.jupnp.model.action.ActionInvocation;
 import org.jupnp.model.message.StreamRequestMessage;
@@ -35,6 +36,8 @@ import org.jupnp.model.meta.Action;
 import org.jupnp.model.meta.LocalDevice;
 import org.jupnp.model.meta.LocalService;
 import org.jupnp.model.types.SoapActionType;
+import org.jupnp.transport.impl.SOAPActionProcessorStAXImpl;
+import org.jupnp.transport.spi.SOAPActionProcessor;
 import org.jupnp.util.io.IO;
 
 /**
@@ -71,6 +74,18 @@ class InvalidActionXMLProcessingTest {
         assertThrows(UnsupportedDataException.class, () -> readRequest(invalidXMLFile, new MockUpnpService()));
     }
 
+    @ParameterizedTest
+    @MethodSource({ "getInvalidXMLFile", "getInvalidRecoverableXMLFile" })
+    void readRequestStAXFailure(String invalidXMLFile) {
+        MockUpnpService upnpService = new MockUpnpService(new MockUpnpServiceConfiguration() {
+            @Override
+            public SOAPActionProcessor getSoapActionProcessor() {
+                return new SOAPActionProcessorStAXImpl();
+            }
+        });
+        assertThrows(UnsupportedDataException.class, () -> readRequest(invalidXMLFile, upnpService));
+    }
+
     protected void readRequest(String invalidXMLFile, UpnpService upnpService) throws Exception {
         LocalDevice ld = ActionSampleData.createTestDevice(ActionSampleData.LocalTestServiceExtended.class);
         LocalService svc = ld.getServices()[0];
@@ -0,0 +1,263 @@
+/*
+ * Copyright (C) 2011-2026 4th Line GmbH, Switzerland and others
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License Version 1 or later
+ * ("CDDL") (collectively, the "License"). You may not use this file
+ * except in compliance with the License. See LICENSE.txt for more
+ * information.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * SPDX-License-Identifier: CDDL-1.0
+ */
+package org.jupnp.gena;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.jupnp.UpnpService;
+import org.jupnp.data.SampleData;
+import org.jupnp.mock.MockRouter;
+import org.jupnp.mock.MockUpnpService;
+import org.jupnp.mock.MockUpnpServiceConfiguration;
+import org.jupnp.model.Namespace;
+import org.jupnp.model.gena.LocalGENASubscription;
+import org.jupnp.model.message.StreamRequestMessage;
+import org.jupnp.model.message.StreamResponseMessage;
+import org.jupnp.model.message.UpnpRequest;
+import org.jupnp.model.message.UpnpResponse;
+import org.jupnp.model.message.header.CallbackHeader;
+import org.jupnp.model.message.header.EventSequenceHeader;
+import org.jupnp.model.message.header.NTEventHeader;
+import org.jupnp.model.message.header.SubscriptionIdHeader;
+import org.jupnp.model.message.header.UpnpHeader;
+import org.jupnp.model.meta.LocalDevice;
+import org.jupnp.model.meta.LocalService;
+import org.jupnp.protocol.sync.GENAEventDelivery;
+import org.jupnp.protocol.sync.ReceivingSubscribe;
+import org.jupnp.registry.RegistryImpl;
+import org.jupnp.transport.RouterException;
+import org.jupnp.util.URIUtil;
+
+class EventDeliveryTest {
+
+    @Test
+    void slowSubscriberDoesNotDelayOthers() throws Exception {
+        final CountDownLatch slowSubscriberBlocked = new CountDownLatch(1);
+        final CountDownLatch releaseSlowSubscriber = new CountDownLatch(1);
+        final CountDownLatch slowEvents = new CountDownLatch(3);
+        final CountDownLatch fastEvents = new CountDownLatch(3);
+        final List<StreamRequestMessage> slowMessages = Collections.synchronizedList(new ArrayList<>());
+
+        MockUpnpService upnpService = new MockUpnpService(new MockUpnpServiceConfiguration(false, true)) {
+            @Override
+            protected MockRouter createRouter() {
+                return new MockRouter(getConfiguration(), getProtocolFactory()) {
+                    @Override
+                    public StreamResponseMessage send(StreamRequestMessage request) throws RouterException {
+                        if (request.getUri().getPath().endsWith("/slow")) {
+                            slowSubscriberBlocked.countDown();
+                            try {
+                                releaseSlowSubscriber.await(5, TimeUnit.SECONDS);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                            slowMessages.add(request);
+                            slowEvents.countDown();
+                        } else {
+                            fastEvents.countDown();
+                        }
+                        return new StreamResponseMessage(UpnpResponse.Status.OK);
+                    }
+                };
+            }
+        };
+        upnpService.startup();
+
+        LocalDevice device = GenaSampleData.createTestDevice(GenaSampleData.LocalTestService.class);
+        upnpService.getRegistry().addDevice(device);
+        LocalService<?> service = SampleData.getFirstService(device);
+
+        LocalGENASubscription slowSubscription = subscribe(upnpService, service, "slow");
+        LocalGENASubscription fastSubscription = subscribe(upnpService, service, "fast");
+
+        GENAEventDelivery delivery = ((RegistryImpl) upnpService.getRegistry()).getEventDelivery();
+        for (int i = 0; i < 3; i++) {
+            delivery.deliver(slowSubscription);
+            delivery.deliver(fastSubscription);
+        }
+
+        // The other subscriber receives all of its events while the slow subscriber doesn't respond
+        assertTrue(slowSubscriberBlocked.await(5, TimeUnit.SECONDS));
+        assertTrue(fastEvents.await(5, TimeUnit.SECONDS));
+        assertEquals(3, slowEvents.getCount());
+
+        // The slow subscriber receives its events one after another, in order
+        releaseSlowSubscriber.countDown();
+        assertTrue(slowEvents.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i, slowMessages.get(i).getHeaders()
+                    .getFirstHeader(UpnpHeader.Type.SEQ, EventSequenceHeader.class).getValue().getValue());
+        }
+
+        upnpService.shutdown();
+    }
+
+    @Test
+    void failingSubscriberIsKept() throws Exception {
+        // The subscriber never responds
+        MockUpnpService upnpService = new MockUpnpService();
+        upnpService.startup();
+
+        LocalDevice device = GenaSampleData.createTestDevice(GenaSampleData.LocalTestService.class);
+        upnpService.getRegistry().addDevice(device);
+        LocalService<?> service = SampleData.getFirstService(device);
+
+        LocalGENASubscription subscription = subscribe(upnpService, service, "failing");
+
+        GENAEventDelivery delivery = new GENAEventDelivery(upnpService) {
+            @Override
+            protected long getBackoffMillis(int failures) {
+                return 1;
+            }
+        };
+        for (int i = 0; i < 5; i++) {
+            delivery.deliver(subscription);
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (upnpService.getRouter().getSentStreamRequestMessages().size() < 5
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // All events are sent, the subscription is kept until it expires
+        assertEquals(5, upnpService.getRouter().getSentStreamRequestMessages().size());
+        assertNotNull(upnpService.getRegistry().getLocalSubscription(subscription.getSubscriptionId()));
+
+        upnpService.shutdown();
+    }
+
+    @Test
+    void queuedEventsOfNonRespondingSubscriberAreBounded() throws Exception {
+        // The subscriber never responds
+        MockUpnpService upnpService = new MockUpnpService();
+        upnpService.startup();
+
+        LocalDevice device = GenaSampleData.createTestDevice(GenaSampleData.LocalTestService.class);
+        upnpService.getRegistry().addDevice(device);
+        LocalService<?> service = SampleData.getFirstService(device);
+
+        LocalGENASubscription subscription = subscribe(upnpService, service, "failing");
+
+        GENAEventDelivery delivery = new GENAEventDelivery(upnpService) {
+            @Override
+            protected int getMaxQueuedEvents() {
+                return 4;
+            }
+
+            @Override
+            protected long getBackoffMillis(int failures) {
+                return 100;
+            }
+        };
+        for (int i = 0; i < 20; i++) {
+            delivery.deliver(subscription);
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (upnpService.getRouter().getSentStreamRequestMessages().size() < 5
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(300);
+
+        // The first event was sent right away, only the newest of the others were kept while backing off
+        List<StreamRequestMessage> sent = upnpService.getRouter().getSentStreamRequestMessages();
+        assertEquals(5, sent.size());
+        assertEquals(0, getSequence(sent.get(0)));
+        for (int i = 1; i < 5; i++) {
+            assertEquals(15 + i, getSequence(sent.get(i)));
+        }
+
+        upnpService.shutdown();
+    }
+
+    @Test
+    void failingSubscriberIsRemoved() throws Exception {
+        // The subscriber never responds
+        MockUpnpService upnpService = new MockUpnpService(new MockUpnpServiceConfiguration() {
+            @Override
+            public int getMaxFailedEventDeliveries() {
+                return 3;
+            }
+        });
+        upnpService.startup();
+
+        LocalDevice device = GenaSampleData.createTestDevice(GenaSampleData.LocalTestService.class);
+        upnpService.getRegistry().addDevice(device);
+        LocalService<?> service = SampleData.getFirstService(device);
+
+        LocalGENASubscription subscription = subscribe(upnpService, service, "failing");
+        String subscriptionId = subscription.getSubscriptionId();
+
+        GENAEventDelivery delivery = new GENAEventDelivery(upnpService) {
+            @Override
+            protected long getBackoffMillis(int failures) {
+                return 1;
+            }
+        };
+        for (int i = 0; i < 5; i++) {
+            delivery.deliver(subscription);
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (upnpService.getRegistry().getLocalSubscription(subscriptionId) != null
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNull(upnpService.getRegistry().getLocalSubscription(subscriptionId));
+
+        // The remaining events were dropped
+        assertEquals(upnpService.getConfiguration().getMaxFailedEventDeliveries(),
+                upnpService.getRouter().getSentStreamRequestMessages().size());
+
+        upnpService.shutdown();
+    }
+
+    protected long getSequence(StreamRequestMessage message) {
+        return message.getHeaders().getFirstHeader(UpnpHeader.Type.SEQ, EventSequenceHeader.class).getValue()
+                .getValue();
+    }
+
+    protected LocalGENASubscription subscribe(UpnpService upnpService, LocalService<?> service, String callbackPath)
+            throws Exception {
+        Namespace ns = upnpService.getConfiguration().getNamespace();
+        URL callbackURL = URIUtil.createAbsoluteURL(SampleData.getLocalBaseURL(),
+                ns.getEventCallbackPath(service) + "/" + callbackPath);
+
+        StreamRequestMessage subscribeRequestMessage = new StreamRequestMessage(UpnpRequest.Method.SUBSCRIBE,
+                ns.getEventSubscriptionPath(service));
+        subscribeRequestMessage.getHeaders().add(UpnpHeader.Type.CALLBACK, new CallbackHeader(callbackURL));
+        subscribeRequestMessage.getHeaders().add(UpnpHeader.Type.NT, new NTEventHeader());
+
+        ReceivingSubscribe subscribeProt = new ReceivingSubscribe(upnpService, subscribeRequestMessage);
+        subscribeProt.run();
+        String subscriptionId = subscribeProt.getOutputMessage().getHeaders()
+                .getFirstHeader(UpnpHeader.Type.SID, SubscriptionIdHeader.class).getValue();
+        return upnpService.getRegistry().getLocalSubscription(subscriptionId);
+    }
+}
@@ -19,7 +19,10 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.io.IOException;
 import java.io.StringReader;
+import java.net.URI;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.xml.parsers.DocumentBuilder;
@@ -33,6 +36,8 @@ import org.jupnp.mock.MockUpnpServiceConfiguration;
 import org.jupnp.model.gena.CancelReason;
 import org.jupnp.model.gena.LocalGENASubscription;
 import org.jupnp.model.message.StreamRequestMessage;
+import org.jupnp.model.message.UpnpMessage;
+import org.jupnp.model.message.UpnpRequest;
 import org.jupnp.model.message.gena.IncomingEventRequestMessage;
 import org.jupnp.model.message.gena.OutgoingEventRequestMessage;
 import org.jupnp.model.meta.LocalDevice;
@@ -41,6 +46,7 @@ import org.jupnp.model.meta.RemoteDevice;
 import org.jupnp.model.meta.RemoteService;
 import org.jupnp.model.state.StateVariableValue;
 import org.jupnp.transport.impl.GENAEventProcessorImpl;
+import org.jupnp.transport.impl.GENAEventProcessorStAXImpl;
 import org.jupnp.transport.spi.GENAEventProcessor;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
@@ -65,30 +71,127 @@ class EventXMLProcessingTest {
         writeReadRequest(upnpService);
     }
 
-    void writeReadRequest(MockUpnpService upnpService) throws Exception {
+    @Test
+    void writeReadRequestStAX() throws Exception {
+        MockUpnpService upnpService = new MockUpnpService(new MockUpnpServiceConfiguration() {
+            @Override
+            public GENAEventProcessor getGenaEventProcessor() {
+                return new GENAEventProcessorStAXImpl();
+            }
+        });
+        writeReadRequest(upnpService);
+    }
 
+    @Test
+    void writeBodyStAXIdenticalToDOM() throws Exception {
         LocalDevice localDevice = GenaSampleData.createTestDevice(GenaSampleData.LocalTestService.class);
         LocalService localService = localDevice.getServices()[0];
+        LocalGENASubscription subscription = createSubscription(localService);
+
+        List<List<StateVariableValue>> valueSets = List.of(new ArrayList<>(subscription.getCurrentValues().values()),
+                List.of(new StateVariableValue(localService.getStateVariable("Status"), true),
+                        new StateVariableValue(localService.getStateVariable("SomeVar"), null)),
+                List.of());
+        for (List<StateVariableValue> values : valueSets) {
+            String[] bodies = new String[2];
+            GENAEventProcessor[] processors = { new GENAEventProcessorImpl(), new GENAEventProcessorStAXImpl() };
+            for (int i = 0; i < processors.length; i++) {
+                OutgoingEventRequestMessage outgoingCall = new OutgoingEventRequestMessage(subscription,
+                        subscription.getCallbackURLs().get(0), subscription.getCurrentSequence(), values);
+                processors[i].writeBody(outgoingCall);
+                bodies[i] = outgoingCall.getBodyString();
+            }
+            assertEquals(bodies[0], bodies[1]);
+        }
+    }
 
-        List<URL> urls = List.of(SampleData.getLocalBaseURL());
+    @Test
+    void readBodyBytesStAX() throws Exception {
+        RemoteDevice remoteDevice = SampleData.createRemoteDevice();
+        RemoteService remoteService = SampleData.getFirstService(remoteDevice);
 
-        LocalGENASubscription subscription = new LocalGENASubscription(localService, 1800, urls) {
-            void failed(Exception e) {
-                throw new RuntimeException("TEST SUBSCRIPTION FAILED: " + e);
-            }
+        String body = "<?xml version=\"1.0\" encoding=\"utf-8\"?>"
+                + "<e:propertyset xmlns:e=\"urn:schemas-upnp-org:event-1-0\">"
+                + "<e:property><LastChange>&lt;Event&gt;&lt;/Event&gt;</LastChange></e:property>"
+                + "<e:property><Status>1</Status></e:property></e:propertyset>";
 
-            @Override
-            public void ended(CancelReason reason) {
-            }
+        StreamRequestMessage incomingStream = new StreamRequestMessage(UpnpRequest.Method.NOTIFY,
+                URI.create("http://some.uri"));
+        incomingStream.setBody(UpnpMessage.BodyType.BYTES, body.getBytes(StandardCharsets.UTF_8));
+        IncomingEventRequestMessage incomingCall = new IncomingEventRequestMessage(incomingStream, remoteService);
 
-            @Override
-            public void established() {
-            }
+        // The body isn't decoded into a string first, unknown state variables are skipped
+        new GENAEventProcessorStAXImpl().readBody(incomingCall);
 
-            @Override
-            public void eventReceived() {
+        assertEquals(1, incomingCall.getStateVariableValues().size());
+        assertEquals("Status", incomingCall.getStateVariableValues().get(0).getStateVariable().getName());
+        assertEquals(true, incomingCall.getStateVariableValues().get(0).getValue());
+    }
+
+    @Test
+    void readBodyCharactersStAX() throws Exception {
+        RemoteDevice remoteDevice = SampleData.createRemoteDevice();
+        RemoteService remoteService = SampleData.getFirstService(remoteDevice);
+
+        String body = "\uFEFF<?xml version=\"1.0\" encoding=\"utf-8\"?>"
+                + "<e:propertyset xmlns:e=\"urn:schemas-upnp-org:event-1-0\">"
+                + "<e:property><Status>1</Status></e:property></e:propertyset>";
+        byte[] characters = body.getBytes(StandardCharsets.UTF_8);
+
+        StreamRequestMessage incomingStream = new StreamRequestMessage(UpnpRequest.Method.NOTIFY,
+                URI.create("http://some.uri"));
+        incomingStream.setBodyCharacters(characters);
+        IncomingEventRequestMessage incomingCall = new IncomingEventRequestMessage(incomingStream, remoteService);
+
+        // The received characters are parsed as they are, the byte order mark is skipped
+        assertSame(characters, incomingCall.getBodyCharacters());
+        new GENAEventProcessorStAXImpl().readBody(incomingCall);
+
+        assertEquals(1, incomingCall.getStateVariableValues().size());
+        assertEquals(true, incomingCall.getStateVariableValues().get(0).getValue());
+        assertSame(characters, incomingCall.getBodyBytes());
+    }
+
+    @Test
+    void writeBodyOncePerValues() throws Exception {
+        GENAEventProcessor processor = new GENAEventProcessorImpl();
+
+        LocalDevice localDevice = GenaSampleData.createTestDevice(GenaSampleData.LocalTestService.class);
+        LocalService localService = localDevice.getServices()[0];
+
+        // Subscribers of the same service get the same values, the body is written for the first only
+        byte[] body = null;
+        for (int i = 0; i < 40; i++) {
+            LocalGENASubscription subscription = createSubscription(localService);
+            OutgoingEventRequestMessage outgoingCall = new OutgoingEventRequestMessage(subscription,
+                    subscription.getCallbackURLs().get(0));
+            processor.writeBody(outgoingCall);
+            if (body == null) {
+                body = outgoingCall.getBodyBytes();
+                assertTrue(xmlDocumentsEqual(outgoingCall.getBodyString(), EVENT_MSG));
+            } else {
+                assertSame(body, outgoingCall.getBodyBytes());
             }
-        };
+        }
+
+        // Other values get their own body
+        LocalGENASubscription subscription = createSubscription(localService);
+        List<StateVariableValue> values = List.of(
+                new StateVariableValue(localService.getStateVariable("Status"), true),
+                new StateVariableValue(localService.getStateVariable("SomeVar"), null));
+        OutgoingEventRequestMessage outgoingCall = new OutgoingEventRequestMessage(subscription,
+                subscription.getCallbackURLs().get(0), subscription.getCurrentSequence(), values);
+        processor.writeBody(outgoingCall);
+        assertNotEquals(new String(body, StandardCharsets.UTF_8), outgoingCall.getBodyString());
+        assertTrue(outgoingCall.getBodyString().contains("<Status>1</Status>"));
+    }
+
+    void writeReadRequest(MockUpnpService upnpService) throws Exception {
+
+        LocalDevice localDevice = GenaSampleData.createTestDevice(GenaSampleData.LocalTestService.class);
+        LocalService localService = localDevice.getServices()[0];
+
+        LocalGENASubscription subscription = createSubscription(localService);
 
         OutgoingEventRequestMessage outgoingCall = new OutgoingEventRequestMessage(subscription,
                 subscription.getCallbackURLs().get(0));
@@ -122,6 +225,28 @@ class EventXMLProcessingTest {
         assertTrue(gotValueOne && gotValueTwo);
     }
 
+    protected LocalGENASubscription createSubscription(LocalService localService) throws Exception {
+        List<URL> urls = List.of(SampleData.getLocalBaseURL());
+
+        return new LocalGENASubscription(localService, 1800, urls) {
+            void failed(Exception e) {
+                throw new RuntimeException("TEST SUBSCRIPTION FAILED: " + e);
+            }
+
+            @Override
+            public void ended(CancelReason reason) {
+            }
+
+            @Override
+            public void established() {
+            }
+
+            @Override
+            public void eventReceived() {
+            }
+        };
+    }
+
     /**
      * Used to compare the two given xmls for equality regardless of property order.
      * 
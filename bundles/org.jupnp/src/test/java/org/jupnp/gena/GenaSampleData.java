@@ -79,6 +79,21 @@ public class GenaSampleData {
         }
     }
 
+    @org.jupnp.binding.annotations.UpnpService(serviceId = @UpnpServiceId("Position"), serviceType = @UpnpServiceType(value = "Position", version = 1))
+    public static class LocalModeratedTestService {
+
+        @UpnpStateVariable(eventMaximumRateMilliseconds = 200)
+        public String position = "0";
+
+        @UpnpStateVariable
+        public boolean status = false;
+
+        @UpnpAction(out = @UpnpOutputArgument(name = "RetPosition"))
+        public String getPosition() {
+            return position;
+        }
+    }
+
     public enum Foo {
         foo,
         bar
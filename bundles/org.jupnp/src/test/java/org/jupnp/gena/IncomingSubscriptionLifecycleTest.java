@@ -22,6 +22,7 @@ import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.jupnp.data.SampleData;
+import org.jupnp.mock.MockRouter;
 import org.jupnp.mock.MockUpnpService;
 import org.jupnp.model.Namespace;
 import org.jupnp.model.message.StreamRequestMessage;
@@ -45,7 +46,18 @@ class IncomingSubscriptionLifecycleTest {
 
     @Test
     void subscriptionLifecycle() throws Exception {
-        MockUpnpService upnpService = new MockUpnpService();
+        MockUpnpService upnpService = new MockUpnpService() {
+            @Override
+            protected MockRouter createRouter() {
+                return new MockRouter(getConfiguration(), getProtocolFactory()) {
+                    @Override
+                    public StreamResponseMessage getStreamResponseMessage(StreamRequestMessage request) {
+                        // The subscriber accepts all events
+                        return new StreamResponseMessage(UpnpResponse.Status.OK);
+                    }
+                };
+            }
+        };
         upnpService.startup();
 
         // Register local device and its service
@@ -141,4 +153,70 @@ class IncomingSubscriptionLifecycleTest {
         // The subscription should be removed from the registry!
         assertNull(upnpService.getRegistry().getLocalSubscription(subscriptionId));
     }
+
+    @Test
+    void subscriptionModeratedValuesCoalesced() throws Exception {
+        MockUpnpService upnpService = new MockUpnpService() {
+            @Override
+            protected MockRouter createRouter() {
+                return new MockRouter(getConfiguration(), getProtocolFactory()) {
+                    @Override
+                    public StreamResponseMessage getStreamResponseMessage(StreamRequestMessage request) {
+                        return new StreamResponseMessage(UpnpResponse.Status.OK);
+                    }
+                };
+            }
+        };
+        upnpService.startup();
+
+        LocalDevice device = GenaSampleData.createTestDevice(GenaSampleData.LocalModeratedTestService.class);
+        upnpService.getRegistry().addDevice(device);
+
+        Namespace ns = upnpService.getConfiguration().getNamespace();
+
+        LocalService<?> service = SampleData.getFirstService(device);
+        URL callbackURL = URIUtil.createAbsoluteURL(SampleData.getLocalBaseURL(), ns.getEventCallbackPath(service));
+
+        StreamRequestMessage subscribeRequestMessage = new StreamRequestMessage(UpnpRequest.Method.SUBSCRIBE,
+                ns.getEventSubscriptionPath(service));
+        subscribeRequestMessage.getHeaders().add(UpnpHeader.Type.CALLBACK, new CallbackHeader(callbackURL));
+        subscribeRequestMessage.getHeaders().add(UpnpHeader.Type.NT, new NTEventHeader());
+
+        ReceivingSubscribe subscribeProt = new ReceivingSubscribe(upnpService, subscribeRequestMessage);
+        subscribeProt.run();
+        subscribeProt.responseSent(subscribeProt.getOutputMessage());
+
+        // Changes within the maximum rate of the moderated variable are held back...
+        GenaSampleData.LocalModeratedTestService impl = (GenaSampleData.LocalModeratedTestService) service
+                .getManager().getImplementation();
+        for (int i = 1; i <= 3; i++) {
+            impl.position = Integer.toString(i);
+            service.getManager().getPropertyChangeSupport().firePropertyChange("Position", null, null);
+        }
+
+        // ... and don't delay other variables
+        impl.status = true;
+        service.getManager().getPropertyChangeSupport().firePropertyChange("Status", null, null);
+
+        // Only the latest value is sent when the maximum rate allows it
+        List<StreamRequestMessage> sentMessages = upnpService.getRouter().getSentStreamRequestMessages();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (sentMessages.size() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(300);
+        assertEquals(3, sentMessages.size());
+
+        String statusEvent = sentMessages.get(1).getBodyString();
+        assertTrue(statusEvent.contains("<Status>1</Status>"));
+        assertFalse(statusEvent.contains("<Position>"));
+
+        String positionEvent = sentMessages.get(2).getBodyString();
+        assertTrue(positionEvent.contains("<Position>3</Position>"));
+        assertFalse(positionEvent.contains("<Status>"));
+        assertEquals(2L, sentMessages.get(2).getHeaders()
+                .getFirstHeader(UpnpHeader.Type.SEQ, EventSequenceHeader.class).getValue().getValue());
+
+        upnpService.shutdown();
+    }
 }
@@ -15,6 +15,9 @@
  */
 package org.jupnp.mock;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+
 import org.jupnp.UpnpService;
 import org.jupnp.UpnpServiceConfiguration;
 import org.jupnp.controlpoint.ControlPoint;
@@ -118,6 +121,13 @@ public class MockUpnpService implements UpnpService {
                         super.execute();
                     }
                 }
+
+                @Override
+                public void schedule(ScheduledExecutorService scheduler, Executor executor) {
+                    if (sendsAlive) {
+                        super.schedule(scheduler, executor);
+                    }
+                }
             };
         }
 
@@ -17,15 +17,20 @@ package org.jupnp.model;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.ByteArrayInputStream;
 import java.net.DatagramPacket;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.jupnp.DefaultUpnpServiceConfiguration;
 import org.jupnp.data.SampleData;
 import org.jupnp.data.SampleDeviceRoot;
 import org.jupnp.model.message.OutgoingDatagramMessage;
+import org.jupnp.model.message.UpnpHeaders;
 import org.jupnp.model.message.UpnpMessage;
 import org.jupnp.model.message.UpnpRequest;
 import org.jupnp.model.message.discovery.OutgoingNotificationRequestRootDevice;
@@ -89,6 +94,70 @@ class DatagramParsingTest {
                 msg.getHeaders().getFirstHeader(UpnpHeader.Type.EXT_IFACE_MAC, InterfaceMacHeader.class).getString());
     }
 
+    @Test
+    void readReusedBuffer() throws Exception {
+        String first = "NOTIFY * HTTP/1.1\r\n" + "HOST: 239.255.255.250:1900\r\n" + "NT: upnp:rootdevice\r\n"
+                + "NTS: ssdp:alive\r\n" + "CACHE-CONTROL: max-age=2000\r\n"
+                + "LOCATION: http://localhost:0/some/path/123/desc.xml\r\n" + "USN: "
+                + SampleDeviceRoot.getRootUDN() + "::upnp:rootdevice\r\n\r\n";
+        // Shorter and without the empty line, the stale bytes of the first datagram follow in the buffer
+        String second = "NOTIFY * HTTP/1.1\r\n" + "HOST: 239.255.255.250:1900\r\n" + "NT: upnp:rootdevice\r\n"
+                + "NTS: ssdp:byebye\r\n";
+
+        DatagramProcessor processor = new DefaultUpnpServiceConfiguration().getDatagramProcessor();
+        byte[] buf = new byte[640];
+        DatagramPacket packet = new DatagramPacket(buf, buf.length, new InetSocketAddress("123.123.123.123", 1234));
+
+        byte[] firstBytes = first.getBytes();
+        System.arraycopy(firstBytes, 0, buf, 0, firstBytes.length);
+        packet.setLength(firstBytes.length);
+        UpnpMessage<UpnpRequest> msg = processor.read(InetAddress.getByName("127.0.0.1"), packet);
+        assertEquals("ssdp:alive", msg.getHeaders().getFirstHeader(UpnpHeader.Type.NTS).getString());
+        assertNotNull(msg.getHeaders().getFirstHeader(UpnpHeader.Type.USN));
+
+        byte[] secondBytes = second.getBytes();
+        System.arraycopy(secondBytes, 0, buf, 0, secondBytes.length);
+        packet.setData(buf, 0, secondBytes.length);
+        msg = processor.read(InetAddress.getByName("127.0.0.1"), packet);
+        assertEquals("ssdp:byebye", msg.getHeaders().getFirstHeader(UpnpHeader.Type.NTS).getString());
+        assertNull(msg.getHeaders().getFirstHeader(UpnpHeader.Type.MAX_AGE));
+        assertNull(msg.getHeaders().getFirstHeader(UpnpHeader.Type.LOCATION));
+        assertNull(msg.getHeaders().getFirstHeader(UpnpHeader.Type.USN));
+
+        // The datagram doesn't have to start at the beginning of the buffer
+        System.arraycopy(firstBytes, 0, buf, 100, firstBytes.length);
+        packet.setData(buf, 100, firstBytes.length);
+        msg = processor.read(InetAddress.getByName("127.0.0.1"), packet);
+        assertEquals(UpnpRequest.Method.NOTIFY, msg.getOperation().getMethod());
+        assertEquals("ssdp:alive", msg.getHeaders().getFirstHeader(UpnpHeader.Type.NTS).getString());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "HOST: 239.255.255.250:1900\r\nCACHE-CONTROL: max-age=1800\r\nNTS: ssdp:alive\r\n\r\n",
+            "host:239.255.255.250:1900\ncache-control:  max-age=1800  \nLocation: http://10.0.0.1:80/desc.xml\n\n",
+            "SERVER: foo/1 UPnP/1.0\r\n bar/2\r\nEXT:\r\nX-Unknown: some value\r\nST: ssdp:all\r\n",
+            "USN: uuid:abc::upnp:rootdevice\r\nNT: uuid:abc\r\nNT: urn:schemas-upnp-org:device:Basic:1\r\n\r\nX: body",
+            "MX: 3\r\nMAN: \"ssdp:discover\"\r\nX-CLING-IFACE-MAC: 00:17:ab:e9:65:a0\r\nNT S: foo\r\n" })
+    void readHeadersFromBytes(String source) {
+        byte[] data = ("xx" + source + "yy").getBytes(StandardCharsets.ISO_8859_1);
+        int length = data.length - 4;
+
+        UpnpHeaders expected = new UpnpHeaders(new ByteArrayInputStream(data, 2, length));
+        UpnpHeaders headers = new UpnpHeaders(data, 2, length);
+
+        assertEquals(expected, headers);
+        for (UpnpHeader.Type type : UpnpHeader.Type.values()) {
+            UpnpHeader[] expectedHeaders = expected.getAsArray(type);
+            UpnpHeader[] actualHeaders = headers.getAsArray(type);
+            assertEquals(expectedHeaders.length, actualHeaders.length, type.toString());
+            for (int i = 0; i < expectedHeaders.length; i++) {
+                assertEquals(expectedHeaders[i].getClass(), actualHeaders[i].getClass());
+                assertEquals(expectedHeaders[i].getString(), actualHeaders[i].getString());
+            }
+        }
+    }
+
     @Test
     void parseRoundtrip() throws Exception {
         Location location = new Location(new NetworkAddress(InetAddress.getByName("localhost"),
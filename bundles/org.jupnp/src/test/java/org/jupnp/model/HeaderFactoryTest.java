@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2011-2026 4th Line GmbH, Switzerland and others
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License Version 1 or later
+ * ("CDDL") (collectively, the "License"). You may not use this file
+ * except in compliance with the License. See LICENSE.txt for more
+ * information.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * SPDX-License-Identifier: CDDL-1.0
+ */
+package org.jupnp.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.jupnp.model.message.header.AVClientInfoHeader;
+import org.jupnp.model.message.header.InvalidHeaderException;
+import org.jupnp.model.message.header.UpnpHeader;
+import org.jupnp.model.message.header.UpnpHeaderFactory;
+
+/**
+ * Creating headers with {@link UpnpHeaderFactory} has to give the same results as trying all header subtypes of a
+ * type, in their declared order.
+ */
+class HeaderFactoryTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = { "upnp:rootdevice", "UPNP:RootDevice", "ssdp:all", "upnp:event", "uuid:abc",
+            "uuid:abc::upnp:rootdevice", "uuid:abc::urn:schemas-upnp-org:device:MediaRenderer:1",
+            "uuid:abc::urn:schemas-upnp-org:service:AVTransport:1", "abc::urn:foo-bar:device:X:1", "uuid:abc::urn:foo",
+            "uuid:abc::urn:foo-bar:service:My Service:1", "urn:schemas-upnp-org:device:MediaRenderer:1",
+            "urn:schemas-upnp-org:service:ContentDirectory:1", "urn:foo-bar:device:My Device:1",
+            "urn:foo-bar:device::1", "urn:foo-bar:serviceId:X:1", "urn:schemas-microsoft-com:service:pbda:tuner:1",
+            " urn:foo-bar:device:X:1", "ssdp:alive", "max-age=1800", "239.255.255.250:1900",
+            "http://10.0.0.1/desc.xml", "\"ssdp:discover\"", "3", "", "garbage", "<http://10.0.0.1/cb>",
+            "Second-1800", "bytes=0-100", "bytes 0-100/200", "foo/1 UPnP/1.0 bar/2", "text/xml; charset=\"utf-8\"",
+            "\"urn:schemas-upnp-org:service:AVTransport:1#Play\"", "00:17:ab:e9:65:a0", "no-cache", "1234" })
+    void createSameAsTryingAllSubtypes(String value) {
+        for (UpnpHeader.Type type : UpnpHeader.Type.values()) {
+            UpnpHeader expected = tryAllSubtypes(type, value);
+            UpnpHeader actual = UpnpHeader.newInstance(type, value);
+            if (expected == null || expected.getValue() == null) {
+                assertTrue(actual == null || actual.getValue() == null, type + ": " + value);
+            } else {
+                assertNotNull(actual, type + ": " + value);
+                assertEquals(expected.getClass(), actual.getClass(), type + ": " + value);
+                assertEquals(expected.getString(), actual.getString(), type + ": " + value);
+            }
+        }
+    }
+
+    @Test
+    void createWithoutValue() {
+        for (UpnpHeader.Type type : UpnpHeader.Type.values()) {
+            assertEquals(type.getHeaderTypes()[0], UpnpHeader.newInstance(type, null).getClass());
+        }
+    }
+
+    @Test
+    void registerSubtype() {
+        UpnpHeaderFactory.register(UpnpHeader.Type.EXT_AV_CLIENT_INFO, CustomAVClientInfoHeader::new,
+                value -> value.startsWith("Custom/"));
+
+        assertEquals(CustomAVClientInfoHeader.class,
+                UpnpHeader.newInstance(UpnpHeader.Type.EXT_AV_CLIENT_INFO, "Custom/1.0").getClass());
+        assertEquals(AVClientInfoHeader.class,
+                UpnpHeader.newInstance(UpnpHeader.Type.EXT_AV_CLIENT_INFO, "Other/1.0").getClass());
+    }
+
+    /**
+     * How headers were created before, instantiating all declared subtypes until one doesn't fail.
+     */
+    static UpnpHeader tryAllSubtypes(UpnpHeader.Type type, String value) {
+        UpnpHeader upnpHeader = null;
+        for (int i = 0; i < type.getHeaderTypes().length && upnpHeader == null; i++) {
+            try {
+                upnpHeader = type.getHeaderTypes()[i].getDeclaredConstructor().newInstance();
+                upnpHeader.setString(value);
+            } catch (InvalidHeaderException e) {
+                upnpHeader = null;
+            } catch (Exception e) {
+                // Keep the instance, as before
+            }
+        }
+        return upnpHeader;
+    }
+
+    public static class CustomAVClientInfoHeader extends AVClientInfoHeader {
+    }
+}
@@ -165,6 +165,21 @@ class HeaderParsingTest {
         assertEquals("\"foo.bar\"; ns=12", header.getString());
     }
 
+    @Test
+    void parseConfigIdAndBootIdHeaders() {
+        ConfigIdHeader configIdHeader = new ConfigIdHeader();
+        configIdHeader.setString(" 123");
+        assertEquals(123, configIdHeader.getValue());
+        assertThrows(InvalidHeaderException.class, () -> configIdHeader.setString("-1"));
+
+        BootIdHeader bootIdHeader = new BootIdHeader();
+        bootIdHeader.setString("1700000000");
+        assertEquals(1700000000, bootIdHeader.getValue());
+        assertThrows(InvalidHeaderException.class, () -> bootIdHeader.setString("abc"));
+
+        assertEquals(UpnpHeader.Type.CONFIGID, UpnpHeader.Type.getByHttpName("configid.upnp.org"));
+    }
+
     @Test
     void parseMaxAgeHeader() {
         MaxAgeHeader header = new MaxAgeHeader();
@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2011-2026 4th Line GmbH, Switzerland and others
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License Version 1 or later
+ * ("CDDL") (collectively, the "License"). You may not use this file
+ * except in compliance with the License. See LICENSE.txt for more
+ * information.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * SPDX-License-Identifier: CDDL-1.0
+ */
+package org.jupnp.protocol;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jupnp.data.SampleData;
+import org.jupnp.data.SampleDeviceRoot;
+import org.jupnp.mock.MockRouter;
+import org.jupnp.mock.MockUpnpService;
+import org.jupnp.model.message.StreamRequestMessage;
+import org.jupnp.model.message.StreamResponseMessage;
+import org.jupnp.model.message.UpnpResponse;
+import org.jupnp.model.message.header.ContentTypeHeader;
+import org.jupnp.model.meta.RemoteDevice;
+import org.jupnp.model.meta.RemoteService;
+import org.jupnp.model.profile.RemoteClientInfo;
+import org.jupnp.registry.DefaultRegistryListener;
+import org.jupnp.registry.Registry;
+
+/**
+ * Service descriptors are retrieved concurrently from a router which answers with latency.
+ */
+class RetrieveRemoteDescriptorsConcurrencyTest {
+
+    static final long LATENCY_MILLIS = 300;
+
+    final RemoteDevice hydratedDevice = SampleData.createRemoteDevice();
+    final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicInteger maxInFlight = new AtomicInteger();
+
+    ExecutorService executor;
+    String failingDescriptorPath;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void retrieveServiceDescriptorsConcurrently() throws Exception {
+        MockUpnpService upnpService = createUpnpService();
+
+        long start = System.nanoTime();
+        new RetrieveRemoteDescriptors(upnpService, new RemoteDevice(SampleData.createRemoteDeviceIdentity())).run();
+        long elapsedMillis = (System.nanoTime() - start) / 1000000;
+
+        RemoteDevice device = upnpService.getRegistry().getRemoteDevice(SampleDeviceRoot.getRootUDN(), true);
+        assertNotNull(device);
+        assertEquals(3, device.findServices().length);
+        assertTrue(SampleData.getFirstService(device).getStateVariables().length > 0);
+
+        // One device descriptor and three service descriptors, the services are retrieved at the same time
+        assertEquals(4, upnpService.getRouter().getSentStreamRequestMessages().size());
+        assertEquals(3, maxInFlight.get());
+        assertTrue(elapsedMillis < 4 * LATENCY_MILLIS, "Retrieval took " + elapsedMillis + "ms");
+    }
+
+    @Test
+    void limitConcurrentRetrievalsPerHost() throws Exception {
+        MockUpnpService upnpService = createUpnpService();
+
+        new RetrieveRemoteDescriptors(upnpService, new RemoteDevice(SampleData.createRemoteDeviceIdentity())) {
+            @Override
+            protected int getMaxConcurrentRetrievalsPerHost() {
+                return 2;
+            }
+        }.run();
+
+        assertNotNull(upnpService.getRegistry().getRemoteDevice(SampleDeviceRoot.getRootUDN(), true));
+        assertEquals(4, upnpService.getRouter().getSentStreamRequestMessages().size());
+        assertEquals(2, maxInFlight.get());
+    }
+
+    @Test
+    void failedServiceDescriptorRetrieval() throws Exception {
+        // The only service of the innermost embedded device fails, so the device graph can't be hydrated
+        RemoteDevice embeddedDevice = hydratedDevice.getEmbeddedDevices()[0].getEmbeddedDevices()[0];
+        failingDescriptorPath = embeddedDevice.getServices()[0].getDescriptorURI().toString();
+        MockUpnpService upnpService = createUpnpService();
+
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        upnpService.getRegistry().addListener(new DefaultRegistryListener() {
+            @Override
+            public void remoteDeviceDiscoveryFailed(Registry registry, RemoteDevice device, Exception e) {
+                failure.set(e);
+            }
+        });
+
+        new RetrieveRemoteDescriptors(upnpService, new RemoteDevice(SampleData.createRemoteDeviceIdentity())).run();
+
+        assertNotNull(failure.get());
+        // The described device is still added, but without hydrated services
+        RemoteDevice device = upnpService.getRegistry().getRemoteDevice(SampleDeviceRoot.getRootUDN(), true);
+        assertNotNull(device);
+        assertEquals(0, SampleData.getFirstService(device).getStateVariables().length);
+        // All other retrievals have been completed anyway
+        assertEquals(4, upnpService.getRouter().getSentStreamRequestMessages().size());
+    }
+
+    MockUpnpService createUpnpService() {
+        MockUpnpService upnpService = new MockUpnpService() {
+            @Override
+            protected MockRouter createRouter() {
+                return new MockRouter(getConfiguration(), getProtocolFactory()) {
+                    @Override
+                    public synchronized StreamResponseMessage getStreamResponseMessage(StreamRequestMessage request) {
+                        try {
+                            String path = request.getUri().getPath();
+                            if (path.equals(SampleDeviceRoot.getDeviceDescriptorURL().getPath())) {
+                                return new StreamResponseMessage(
+                                        getConfiguration().getDeviceDescriptorBinderUDA10().generate(hydratedDevice,
+                                                new RemoteClientInfo(), getConfiguration().getNamespace()),
+                                        ContentTypeHeader.DEFAULT_CONTENT_TYPE_UTF8);
+                            }
+                            if (failingDescriptorPath != null && path.endsWith(failingDescriptorPath)) {
+                                return new StreamResponseMessage(UpnpResponse.Status.NOT_FOUND);
+                            }
+                            for (RemoteService service : hydratedDevice.findServices()) {
+                                if (path.endsWith(service.getDescriptorURI().toString())) {
+                                    return new StreamResponseMessage(
+                                            getConfiguration().getServiceDescriptorBinderUDA10().generate(service),
+                                            ContentTypeHeader.DEFAULT_CONTENT_TYPE_UTF8);
+                                }
+                            }
+                            return new StreamResponseMessage(UpnpResponse.Status.NOT_FOUND);
+                        } catch (Exception e) {
+                            throw new RuntimeException(e);
+                        }
+                    }
+
+                    @Override
+                    public CompletableFuture<StreamResponseMessage> sendAsync(StreamRequestMessage msg) {
+                        synchronized (this) {
+                            sentStreamRequestMessages.add(msg);
+                        }
+                        return CompletableFuture.supplyAsync(() -> {
+                            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                            try {
+                                Thread.sleep(LATENCY_MILLIS);
+                                return getStreamResponseMessage(msg);
+                            } catch (InterruptedException e) {
+                                throw new RuntimeException(e);
+                            } finally {
+                                inFlight.decrementAndGet();
+                            }
+                        }, executor);
+                    }
+                };
+            }
+        };
+        upnpService.startup();
+        return upnpService;
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2011-2026 4th Line GmbH, Switzerland and others
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License Version 1 or later
+ * ("CDDL") (collectively, the "License"). You may not use this file
+ * except in compliance with the License. See LICENSE.txt for more
+ * information.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * SPDX-License-Identifier: CDDL-1.0
+ */
+package org.jupnp.protocol;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.jupnp.data.SampleData;
+import org.jupnp.data.SampleDeviceRoot;
+import org.jupnp.mock.MockRouter;
+import org.jupnp.mock.MockUpnpService;
+import org.jupnp.mock.MockUpnpServiceConfiguration;
+import org.jupnp.model.message.StreamRequestMessage;
+import org.jupnp.model.message.StreamResponseMessage;
+import org.jupnp.model.message.UpnpResponse;
+import org.jupnp.model.message.header.ContentTypeHeader;
+import org.jupnp.model.meta.RemoteDevice;
+import org.jupnp.model.meta.RemoteDeviceIdentity;
+import org.jupnp.model.meta.RemoteService;
+import org.jupnp.model.profile.RemoteClientInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stored descriptors are used instead of retrieving them again from a device which answers with latency.
+ */
+class RetrieveRemoteDescriptorsStoreTest {
+
+    static final long LATENCY_MILLIS = 200;
+
+    private final Logger logger = LoggerFactory.getLogger(RetrieveRemoteDescriptorsStoreTest.class);
+
+    final RemoteDevice hydratedDevice = SampleData.createRemoteDevice();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void warmStart() throws Exception {
+        MockUpnpService coldService = createUpnpService();
+        long coldMillis = retrieve(coldService, createIdentity(null));
+        assertEquals(4, coldService.getRouter().getSentStreamRequestMessages().size());
+        coldService.shutdown();
+
+        // After a restart, the device and its services are described without any request
+        MockUpnpService warmService = createUpnpService();
+        long warmMillis = retrieve(warmService, createIdentity(null));
+        assertEquals(0, warmService.getRouter().getSentStreamRequestMessages().size());
+        warmService.shutdown();
+
+        logger.info("Descriptor retrieval took {}ms on cold start, {}ms on warm start", coldMillis, warmMillis);
+        assertTrue(warmMillis < LATENCY_MILLIS, "Warm start took " + warmMillis + "ms");
+    }
+
+    @Test
+    void retrieveChangedConfiguration() throws Exception {
+        MockUpnpService upnpService = createUpnpService();
+        retrieve(upnpService, createIdentity(1));
+        upnpService.shutdown();
+
+        upnpService = createUpnpService();
+        retrieve(upnpService, createIdentity(1));
+        assertEquals(0, upnpService.getRouter().getSentStreamRequestMessages().size());
+        upnpService.shutdown();
+
+        // The device announces a new configuration, its descriptors are retrieved and stored again
+        upnpService = createUpnpService();
+        retrieve(upnpService, createIdentity(2));
+        assertEquals(4, upnpService.getRouter().getSentStreamRequestMessages().size());
+        upnpService.shutdown();
+
+        upnpService = createUpnpService();
+        retrieve(upnpService, createIdentity(2));
+        assertEquals(0, upnpService.getRouter().getSentStreamRequestMessages().size());
+        upnpService.shutdown();
+    }
+
+    long retrieve(MockUpnpService upnpService, RemoteDeviceIdentity identity) throws Exception {
+        long start = System.nanoTime();
+        new RetrieveRemoteDescriptors(upnpService, new RemoteDevice(identity)).run();
+        long elapsedMillis = (System.nanoTime() - start) / 1000000;
+
+        RemoteDevice device = upnpService.getRegistry().getRemoteDevice(SampleDeviceRoot.getRootUDN(), true);
+        assertNotNull(device);
+        assertEquals(3, device.findServices().length);
+        assertTrue(SampleData.getFirstService(device).getStateVariables().length > 0);
+        return elapsedMillis;
+    }
+
+    RemoteDeviceIdentity createIdentity(Integer configId) {
+        RemoteDeviceIdentity identity = SampleData.createRemoteDeviceIdentity();
+        return new RemoteDeviceIdentity(identity.getUdn(), identity.getMaxAgeSeconds(), identity.getDescriptorURL(),
+                null, identity.getDiscoveredOnLocalAddress(), configId, null);
+    }
+
+    MockUpnpService createUpnpService() {
+        MockUpnpService upnpService = new MockUpnpService(new MockUpnpServiceConfiguration() {
+            @Override
+            public Path getRemoteDescriptorStoreDirectory() {
+                return directory;
+            }
+        }) {
+            @Override
+            protected MockRouter createRouter() {
+                return new MockRouter(getConfiguration(), getProtocolFactory()) {
+                    @Override
+                    public StreamResponseMessage getStreamResponseMessage(StreamRequestMessage request) {
+                        try {
+                            Thread.sleep(LATENCY_MILLIS);
+                            String path = request.getUri().getPath();
+                            if (path.equals(SampleDeviceRoot.getDeviceDescriptorURL().getPath())) {
+                                return new StreamResponseMessage(
+                                        getConfiguration().getDeviceDescriptorBinderUDA10().generate(hydratedDevice,
+                                                new RemoteClientInfo(), getConfiguration().getNamespace()),
+                                        ContentTypeHeader.DEFAULT_CONTENT_TYPE_UTF8);
+                            }
+                            for (RemoteService service : hydratedDevice.findServices()) {
+                                if (path.endsWith(service.getDescriptorURI().toString())) {
+                                    return new StreamResponseMessage(
+                                            getConfiguration().getServiceDescriptorBinderUDA10().generate(service),
+                                            ContentTypeHeader.DEFAULT_CONTENT_TYPE_UTF8);
+                                }
+                            }
+                            return new StreamResponseMessage(UpnpResponse.Status.NOT_FOUND);
+                        } catch (Exception e) {
+                            throw new RuntimeException(e);
+                        }
+                    }
+                };
+            }
+        };
+        upnpService.startup();
+        return upnpService;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2011-2026 4th Line GmbH, Switzerland and others
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License Version 1 or later
+ * ("CDDL") (collectively, the "License"). You may not use this file
+ * except in compliance with the License. See LICENSE.txt for more
+ * information.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * SPDX-License-Identifier: CDDL-1.0
+ */
+package org.jupnp.registry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ExpirationQueueTest {
+
+    @Test
+    void pollInOrderOfDueTimestamp() {
+        ExpirationQueue<String> queue = new ExpirationQueue<>();
+        queue.schedule("c", 30);
+        queue.schedule("a", 10);
+        queue.schedule("b", 20);
+        queue.schedule("never", Long.MAX_VALUE);
+
+        assertEquals(3, queue.size());
+        assertFalse(queue.contains("never"));
+        assertEquals(10, queue.getNextDueTimestampSeconds());
+
+        assertTrue(queue.pollDue(9).isEmpty());
+        assertEquals(List.of("a", "b"), queue.pollDue(20));
+        assertEquals(30, queue.getNextDueTimestampSeconds());
+        assertEquals(List.of("c"), queue.pollDue(100));
+        assertEquals(Long.MAX_VALUE, queue.getNextDueTimestampSeconds());
+    }
+
+    @Test
+    void rescheduleAndRemove() {
+        ExpirationQueue<String> queue = new ExpirationQueue<>();
+        queue.schedule("a", 10);
+        queue.schedule("b", 10);
+        queue.schedule("a", 50);
+
+        assertEquals(List.of("b"), queue.pollDue(10));
+        assertTrue(queue.remove("a"));
+        assertFalse(queue.remove("a"));
+        assertTrue(queue.pollDue(100).isEmpty());
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2011-2026 4th Line GmbH, Switzerland and others
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License Version 1 or later
+ * ("CDDL") (collectively, the "License"). You may not use this file
+ * except in compliance with the License. See LICENSE.txt for more
+ * information.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * SPDX-License-Identifier: CDDL-1.0
+ */
+package org.jupnp.registry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.jupnp.data.SampleData;
+import org.jupnp.mock.MockUpnpService;
+import org.jupnp.model.gena.CancelReason;
+import org.jupnp.model.gena.LocalGENASubscription;
+import org.jupnp.model.meta.LocalService;
+import org.jupnp.model.meta.RemoteDevice;
+import org.jupnp.model.types.UDADeviceType;
+
+/**
+ * Mixed update and lookup workload: readers must always see the stable devices, while writers process ALIVE
+ * updates and add and remove other devices. Renewed subscriptions must always be found as well.
+ */
+class RegistryConcurrencyTest {
+
+    static final int STABLE_DEVICES = 100;
+    static final int CHURNING_DEVICES = 20;
+    static final int SUBSCRIPTIONS = 10;
+
+    @Test
+    void readersSeeConsistentSnapshots() throws Exception {
+        MockUpnpService upnpService = new MockUpnpService();
+        upnpService.startup();
+        Registry registry = upnpService.getRegistry();
+
+        List<RemoteDevice> stableDevices = new ArrayList<>();
+        for (int i = 0; i < STABLE_DEVICES; i++) {
+            RemoteDevice device = RegistryIndexTest.createRemoteDevice(i);
+            stableDevices.add(device);
+            registry.addDevice(device);
+        }
+
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicLong lookups = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int w = 0; w < 2; w++) {
+                final int writer = w;
+                futures.add(executor.submit(() -> {
+                    int n = 0;
+                    while (!stop.get()) {
+                        registry.update(stableDevices.get(n++ % STABLE_DEVICES).getIdentity());
+                        if (writer == 1) {
+                            RemoteDevice device = RegistryIndexTest
+                                    .createRemoteDevice(STABLE_DEVICES + n % CHURNING_DEVICES);
+                            registry.addDevice(device);
+                            registry.removeDevice(device);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (int r = 0; r < 4; r++) {
+                futures.add(executor.submit(() -> {
+                    int n = 0;
+                    while (!stop.get()) {
+                        int i = n++ % STABLE_DEVICES;
+                        assertNotNull(registry.getRemoteDevice(RegistryIndexTest.rootUDN(i), true));
+                        assertNotNull(registry.getDevice(RegistryIndexTest.embeddedUDN(i), false));
+                        assertTrue(registry.getRemoteDevices().size() >= STABLE_DEVICES);
+                        assertTrue(registry.getDevices(new UDADeviceType("Embedded", 1)).size() >= STABLE_DEVICES);
+                        lookups.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+
+            Thread.sleep(1000);
+            stop.set(true);
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(lookups.get() > 0);
+        assertEquals(STABLE_DEVICES, registry.getRemoteDevices().size());
+    }
+
+    @Test
+    void renewedSubscriptionsAreAlwaysFound() throws Exception {
+        MockUpnpService upnpService = new MockUpnpService();
+        upnpService.startup();
+        Registry registry = upnpService.getRegistry();
+
+        LocalService<?> service = SampleData.getFirstService(SampleData.createLocalDevice());
+        List<LocalGENASubscription> subscriptions = new ArrayList<>();
+        for (int i = 0; i < SUBSCRIPTIONS; i++) {
+            LocalGENASubscription subscription = createSubscription(service, "uuid:subscription-" + i);
+            subscriptions.add(subscription);
+            registry.addLocalSubscription(subscription);
+        }
+
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicLong lookups = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            futures.add(executor.submit(() -> {
+                int n = 0;
+                while (!stop.get()) {
+                    assertTrue(registry.updateLocalSubscription(subscriptions.get(n++ % SUBSCRIPTIONS)));
+                }
+                return null;
+            }));
+            for (int r = 0; r < 3; r++) {
+                futures.add(executor.submit(() -> {
+                    int n = 0;
+                    while (!stop.get()) {
+                        String subscriptionId = "uuid:subscription-" + n++ % SUBSCRIPTIONS;
+                        assertNotNull(registry.getLocalSubscription(subscriptionId), subscriptionId);
+                        lookups.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+
+            Thread.sleep(1000);
+            stop.set(true);
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(lookups.get() > 0);
+        for (LocalGENASubscription subscription : subscriptions) {
+            assertSame(subscription, registry.getLocalSubscription(subscription.getSubscriptionId()));
+        }
+    }
+
+    LocalGENASubscription createSubscription(LocalService<?> service, String subscriptionId) throws Exception {
+        LocalGENASubscription subscription = new LocalGENASubscription(service, Collections.emptyList()) {
+            @Override
+            public void established() {
+            }
+
+            @Override
+            public void ended(CancelReason reason) {
+            }
+
+            @Override
+            public void eventReceived() {
+            }
+        };
+        subscription.setSubscriptionId(subscriptionId);
+        subscription.setActualSubscriptionDurationSeconds(1800);
+        return subscription;
+    }
+}
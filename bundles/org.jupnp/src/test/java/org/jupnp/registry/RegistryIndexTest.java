@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2011-2026 4th Line GmbH, Switzerland and others
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License Version 1 or later
+ * ("CDDL") (collectively, the "License"). You may not use this file
+ * except in compliance with the License. See LICENSE.txt for more
+ * information.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * SPDX-License-Identifier: CDDL-1.0
+ */
+package org.jupnp.registry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.URL;
+import java.util.Collection;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jupnp.data.SampleData;
+import org.jupnp.mock.MockUpnpService;
+import org.jupnp.model.meta.Device;
+import org.jupnp.model.meta.DeviceDetails;
+import org.jupnp.model.meta.RemoteDevice;
+import org.jupnp.model.meta.RemoteDeviceIdentity;
+import org.jupnp.model.meta.RemoteService;
+import org.jupnp.model.types.UDADeviceType;
+import org.jupnp.model.types.UDAServiceId;
+import org.jupnp.model.types.UDAServiceType;
+import org.jupnp.model.types.UDN;
+
+/**
+ * Verifies the UDN and type indexes of the registry against a large number of device graphs.
+ */
+class RegistryIndexTest {
+
+    static final int DEVICES = 100;
+
+    MockUpnpService upnpService;
+    Registry registry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        upnpService = new MockUpnpService();
+        upnpService.startup();
+        registry = upnpService.getRegistry();
+        for (int i = 0; i < DEVICES; i++) {
+            registry.addDevice(createRemoteDevice(i));
+        }
+    }
+
+    @Test
+    void findByUDN() {
+        for (int i = 0; i < DEVICES; i++) {
+            Device root = registry.getDevice(rootUDN(i), true);
+            assertNotNull(root);
+            assertEquals(rootUDN(i), root.getIdentity().getUdn());
+
+            assertNull(registry.getDevice(embeddedUDN(i), true));
+            Device embedded = registry.getDevice(embeddedUDN(i), false);
+            assertNotNull(embedded);
+            assertSame(root, embedded.getParentDevice());
+        }
+        assertNull(registry.getDevice(new UDN("UNKNOWN"), false));
+    }
+
+    @Test
+    void findByDeviceType() {
+        assertEquals(DEVICES / 2, registry.getDevices(new UDADeviceType("MediaRenderer", 1)).size());
+        assertEquals(DEVICES / 2, registry.getDevices(new UDADeviceType("MediaServer", 1)).size());
+        assertEquals(DEVICES / 2, registry.getDevices(new UDADeviceType("MediaServer", 2)).size());
+        assertEquals(0, registry.getDevices(new UDADeviceType("MediaServer", 3)).size());
+        assertEquals(DEVICES, registry.getDevices(new UDADeviceType("Embedded", 1)).size());
+    }
+
+    @Test
+    void findByServiceType() {
+        Collection<Device> devices = registry.getDevices(new UDAServiceType("RenderingControl", 1));
+        assertEquals(DEVICES, devices.size());
+        for (Device device : devices) {
+            assertTrue(device.isRoot());
+        }
+        devices = registry.getDevices(new UDAServiceType("ConnectionManager", 1));
+        assertEquals(DEVICES, devices.size());
+        for (Device device : devices) {
+            assertFalse(device.isRoot());
+        }
+        assertEquals(0, registry.getDevices(new UDAServiceType("ConnectionManager", 2)).size());
+    }
+
+    @Test
+    void removeDropsIndexes() {
+        for (int i = 0; i < DEVICES; i += 2) {
+            assertTrue(registry.removeDevice(rootUDN(i)));
+        }
+        for (int i = 0; i < DEVICES; i++) {
+            assertEquals(i % 2 != 0, registry.getDevice(rootUDN(i), true) != null);
+            assertEquals(i % 2 != 0, registry.getDevice(embeddedUDN(i), false) != null);
+        }
+        assertEquals(0, registry.getDevices(new UDADeviceType("MediaRenderer", 1)).size());
+        assertEquals(DEVICES / 2, registry.getDevices(new UDADeviceType("MediaServer", 1)).size());
+        assertEquals(DEVICES / 2, registry.getDevices(new UDAServiceType("ConnectionManager", 1)).size());
+
+        registry.removeAllRemoteDevices();
+        assertEquals(0, registry.getDevices(new UDADeviceType("Embedded", 1)).size());
+        assertEquals(0, registry.getDevices(new UDAServiceType("RenderingControl", 1)).size());
+    }
+
+    static UDN rootUDN(int i) {
+        return new UDN("ROOT-" + i);
+    }
+
+    static UDN embeddedUDN(int i) {
+        return new UDN("EMBEDDED-" + i);
+    }
+
+    static RemoteDevice createRemoteDevice(int i) throws Exception {
+        return createRemoteDevice(i, 1800);
+    }
+
+    static RemoteDevice createRemoteDevice(int i, int maxAgeSeconds) throws Exception {
+        URL descriptorURL = new URL("http://127.0.0.1:" + (10000 + i) + "/desc.xml");
+        RemoteDeviceIdentity identity = new RemoteDeviceIdentity(rootUDN(i), maxAgeSeconds, descriptorURL, null,
+                SampleData.getLocalBaseAddress());
+
+        RemoteDevice embedded = new RemoteDevice(new RemoteDeviceIdentity(embeddedUDN(i), identity),
+                new UDADeviceType("Embedded", 1), new DeviceDetails("Embedded " + i),
+                createRemoteService("ConnectionManager"));
+
+        return new RemoteDevice(identity,
+                i % 2 == 0 ? new UDADeviceType("MediaRenderer", 1) : new UDADeviceType("MediaServer", 2),
+                new DeviceDetails("Device " + i), createRemoteService("RenderingControl"), embedded);
+    }
+
+    static RemoteService createRemoteService(String type) throws Exception {
+        return new RemoteService(new UDAServiceType(type, 1), new UDAServiceId(type), URI.create("/" + type + ".xml"),
+                URI.create("/" + type + "/control"), URI.create("/" + type + "/event"));
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2011-2026 4th Line GmbH, Switzerland and others
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License Version 1 or later
+ * ("CDDL") (collectively, the "License"). You may not use this file
+ * except in compliance with the License. See LICENSE.txt for more
+ * information.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * SPDX-License-Identifier: CDDL-1.0
+ */
+package org.jupnp.registry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.jupnp.mock.MockUpnpService;
+
+class RegistryMaintainerTest {
+
+    @Test
+    void onlyDueDevicesExpire() throws Exception {
+        MockUpnpService upnpService = new MockUpnpService();
+        upnpService.startup();
+        RegistryImpl registry = (RegistryImpl) upnpService.getRegistry();
+
+        registry.addDevice(RegistryIndexTest.createRemoteDevice(1, 1));
+        registry.addDevice(RegistryIndexTest.createRemoteDevice(2));
+
+        assertEquals(2, registry.remoteItems.deviceExpirations.size());
+        registry.maintain();
+        assertEquals(2, registry.getRemoteDevices().size());
+
+        Thread.sleep(2100);
+        registry.maintain();
+
+        assertEquals(1, registry.getRemoteDevices().size());
+        assertNotNull(registry.getRemoteDevice(RegistryIndexTest.rootUDN(2), true));
+        assertEquals(1, registry.remoteItems.deviceExpirations.size());
+    }
+
+    @Test
+    void maintenancePassesDoNotOccupyExecutor() throws Exception {
+        MockUpnpService upnpService = new MockUpnpService();
+        upnpService.startup();
+        RegistryImpl registry = (RegistryImpl) upnpService.getRegistry();
+
+        AtomicInteger passes = new AtomicInteger();
+        AtomicInteger running = new AtomicInteger();
+        Executor executor = runnable -> {
+            running.incrementAndGet();
+            runnable.run();
+            running.decrementAndGet();
+            passes.incrementAndGet();
+        };
+
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            RegistryMaintainer maintainer = new RegistryMaintainer(registry, 50);
+            maintainer.start(scheduler, executor);
+            Thread.sleep(500);
+            maintainer.stop();
+
+            int passesAfterStop = passes.get();
+            assertTrue(passesAfterStop > 1);
+            assertEquals(0, running.get());
+
+            Thread.sleep(200);
+            assertEquals(passesAfterStop, passes.get());
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2011-2026 4th Line GmbH, Switzerland and others
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License Version 1 or later
+ * ("CDDL") (collectively, the "License"). You may not use this file
+ * except in compliance with the License. See LICENSE.txt for more
+ * information.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * SPDX-License-Identifier: CDDL-1.0
+ */
+package org.jupnp.registry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jupnp.mock.MockUpnpService;
+import org.jupnp.model.resource.Resource;
+
+/**
+ * Verifies resource lookup by path and query, including resources with their own matching rules.
+ */
+class RegistryResourceTest {
+
+    static final int RESOURCES = 500;
+
+    MockUpnpService upnpService;
+    Registry registry;
+
+    @BeforeEach
+    void setUp() {
+        upnpService = new MockUpnpService();
+        upnpService.startup();
+        registry = upnpService.getRegistry();
+        for (int i = 0; i < RESOURCES; i++) {
+            registry.addResource(new Resource<>(URI.create("/dev/" + i + "/desc"), "resource " + i));
+        }
+    }
+
+    @Test
+    void findByPathQuery() {
+        for (int i = 0; i < RESOURCES; i++) {
+            Resource resource = registry.getResource(URI.create("/dev/" + i + "/desc"));
+            assertNotNull(resource);
+            assertEquals("resource " + i, resource.getModel());
+        }
+        assertNull(registry.getResource(URI.create("/dev/" + RESOURCES + "/desc")));
+        assertEquals(RESOURCES, registry.getResources().size());
+    }
+
+    @Test
+    void findWithTrailingSlash() {
+        Resource resource = registry.getResource(URI.create("/dev/1/desc/"));
+        assertNotNull(resource);
+        assertEquals("resource 1", resource.getModel());
+    }
+
+    @Test
+    void replaceAndRemove() {
+        registry.addResource(new Resource<>(URI.create("/dev/1/desc"), "replaced"));
+        assertEquals("replaced", registry.getResource(URI.create("/dev/1/desc")).getModel());
+        assertEquals(RESOURCES, registry.getResources().size());
+
+        assertTrue(registry.removeResource(new Resource<>(URI.create("/dev/1/desc"), "any")));
+        assertNull(registry.getResource(URI.create("/dev/1/desc")));
+        assertFalse(registry.removeResource(new Resource<>(URI.create("/dev/1/desc"), "any")));
+    }
+
+    @Test
+    void findCustomMatchingResource() {
+        Resource<String> prefixResource = new Resource<>(URI.create("/files"), "files") {
+            @Override
+            public boolean matches(URI pathQuery) {
+                return pathQuery.getPath().startsWith(getPathQuery().getPath());
+            }
+
+            @Override
+            public boolean matchesByPathQueryOnly() {
+                return false;
+            }
+        };
+        registry.addResource(prefixResource);
+
+        assertSame(prefixResource, registry.getResource(URI.create("/files")));
+        assertSame(prefixResource, registry.getResource(URI.create("/files/some/file.mp3")));
+        assertEquals("resource 2", registry.getResource(URI.create("/dev/2/desc")).getModel());
+
+        registry.removeResource(prefixResource);
+        assertNull(registry.getResource(URI.create("/files/some/file.mp3")));
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2011-2026 4th Line GmbH, Switzerland and others
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License Version 1 or later
+ * ("CDDL") (collectively, the "License"). You may not use this file
+ * except in compliance with the License. See LICENSE.txt for more
+ * information.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * SPDX-License-Identifier: CDDL-1.0
+ */
+package org.jupnp.registry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.jupnp.data.SampleData;
+import org.jupnp.data.SampleDeviceRoot;
+import org.jupnp.model.meta.RemoteDeviceIdentity;
+
+class RemoteDescriptorStoreTest {
+
+    static final URL DEVICE_DESCRIPTOR_URL = SampleDeviceRoot.getDeviceDescriptorURL();
+
+    @TempDir
+    Path directory;
+
+    long currentTimeMillis = 1000000;
+
+    @Test
+    void storeDescriptors() throws Exception {
+        RemoteDescriptorStore store = createStore(0);
+        URL serviceDescriptorURL = new URL(DEVICE_DESCRIPTOR_URL, "service/desc");
+        store.put(createIdentity(null, null),
+                Map.of(DEVICE_DESCRIPTOR_URL, "<root>ä</root>", serviceDescriptorURL, "<scpd/>"));
+
+        // A new store reads the same directory after a restart
+        Map<URL, String> descriptors = createStore(0).get(createIdentity(null, null));
+        assertEquals(2, descriptors.size());
+        assertEquals("<root>ä</root>", descriptors.get(DEVICE_DESCRIPTOR_URL));
+        assertEquals("<scpd/>", descriptors.get(serviceDescriptorURL));
+    }
+
+    @Test
+    void disabledStore() {
+        RemoteDescriptorStore store = new RemoteDescriptorStore(null, 0);
+        assertFalse(store.isEnabled());
+        store.put(createIdentity(null, null), Map.of(DEVICE_DESCRIPTOR_URL, "<root/>"));
+        assertTrue(store.get(createIdentity(null, null)).isEmpty());
+    }
+
+    @Test
+    void validUntilConfigIdChanges() {
+        RemoteDescriptorStore store = createStore(60);
+        store.put(createIdentity(1, 1), Map.of(DEVICE_DESCRIPTOR_URL, "<root/>"));
+
+        // A new boot instance and age don't matter if the device announces its configuration
+        currentTimeMillis += 3600000;
+        assertEquals(1, store.get(createIdentity(1, 2)).size());
+
+        assertTrue(store.get(createIdentity(2, 2)).isEmpty());
+        // Outdated descriptors are deleted
+        assertFalse(Files.exists(store.getFile(SampleDeviceRoot.getRootUDN())));
+    }
+
+    @Test
+    void validUntilBootIdChanges() {
+        RemoteDescriptorStore store = createStore(0);
+        store.put(createIdentity(null, 1), Map.of(DEVICE_DESCRIPTOR_URL, "<root/>"));
+
+        assertEquals(1, store.get(createIdentity(null, 1)).size());
+        assertEquals(1, store.get(createIdentity(null, null)).size());
+        assertTrue(store.get(createIdentity(null, 2)).isEmpty());
+    }
+
+    @Test
+    void validUntilMaxAge() {
+        RemoteDescriptorStore store = createStore(60);
+        store.put(createIdentity(null, null), Map.of(DEVICE_DESCRIPTOR_URL, "<root/>"));
+
+        currentTimeMillis += 60000;
+        assertEquals(1, store.get(createIdentity(null, null)).size());
+        currentTimeMillis += 1;
+        assertTrue(store.get(createIdentity(null, null)).isEmpty());
+    }
+
+    @Test
+    void deleteUnreadableFile() throws Exception {
+        RemoteDescriptorStore store = createStore(0);
+        store.put(createIdentity(null, null), Map.of(DEVICE_DESCRIPTOR_URL, "<root/>"));
+        Path file = store.getFile(SampleDeviceRoot.getRootUDN());
+        Files.write(file, new byte[] { 1, 2, 3 });
+
+        assertTrue(store.get(createIdentity(null, null)).isEmpty());
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void removeDescriptors() {
+        RemoteDescriptorStore store = createStore(0);
+        store.put(createIdentity(null, null), Map.of(DEVICE_DESCRIPTOR_URL, "<root/>"));
+        store.remove(SampleDeviceRoot.getRootUDN());
+        assertTrue(store.get(createIdentity(null, null)).isEmpty());
+    }
+
+    RemoteDescriptorStore createStore(int maxAgeSeconds) {
+        return new RemoteDescriptorStore(directory, maxAgeSeconds) {
+            @Override
+            protected long getCurrentTimeMillis() {
+                return currentTimeMillis;
+            }
+        };
+    }
+
+    RemoteDeviceIdentity createIdentity(Integer configId, Integer bootId) {
+        return new RemoteDeviceIdentity(SampleDeviceRoot.getRootUDN(), 1800, DEVICE_DESCRIPTOR_URL, null,
+                SampleData.getLocalBaseAddress(), configId, bootId);
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (C) 2011-2026 4th Line GmbH, Switzerland and others
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License Version 1 or later
+ * ("CDDL") (collectively, the "License"). You may not use this file
+ * except in compliance with the License. See LICENSE.txt for more
+ * information.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * SPDX-License-Identifier: CDDL-1.0
+ */
+package org.jupnp.resources;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.jupnp.binding.xml.DeviceDescriptorBinder;
+import org.jupnp.binding.xml.UDA10DeviceDescriptorBinderImpl;
+import org.jupnp.binding.xml.UDA10DeviceDescriptorBinderSAXImpl;
+import org.jupnp.binding.xml.UDA10DeviceDescriptorBinderStAXImpl;
+import org.jupnp.binding.xml.UDA10ServiceDescriptorBinderImpl;
+import org.jupnp.binding.xml.UDA10ServiceDescriptorBinderSAXImpl;
+import org.jupnp.binding.xml.UDA10ServiceDescriptorBinderStAXImpl;
+import org.jupnp.data.SampleData;
+import org.jupnp.mock.MockUpnpService;
+import org.jupnp.model.Namespace;
+import org.jupnp.model.meta.Action;
+import org.jupnp.model.meta.ActionArgument;
+import org.jupnp.model.meta.RemoteDevice;
+import org.jupnp.model.meta.RemoteService;
+import org.jupnp.model.meta.StateVariable;
+import org.jupnp.model.meta.StateVariableTypeDetails;
+import org.jupnp.model.profile.RemoteClientInfo;
+import org.jupnp.util.SpecificationViolationReporter;
+import org.jupnp.util.io.IO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the device and service descriptors of real devices with the DOM, SAX and StAX binders, the StAX binders must
+ * produce the same models as the DOM binders. Measuring the binders is only enabled with {@link #BENCHMARK_PROPERTY}.
+ */
+class DescriptorBindingBenchmarkTest {
+
+    private final Logger logger = LoggerFactory.getLogger(DescriptorBindingBenchmarkTest.class);
+
+    static final String[] DEVICE_DESCRIPTORS = { "/descriptors/device/uda10.xml",
+            "/descriptors/device/uda10_withbase.xml", "/descriptors/device/uda10_withbase2.xml",
+            "/invalidxml/device/atb_miviewtv.xml", "/invalidxml/device/doubletwist.xml",
+            "/invalidxml/device/eyetv_netstream_sat.xml", "/invalidxml/device/makemkv.xml",
+            "/invalidxml/device/tpg.xml", "/invalidxml/device/ceton_infinitv.xml",
+            "/invalidxml/device/zyxel_miviewtv.xml", "/invalidxml/device/perfectwave.xml",
+            "/invalidxml/device/escient.xml", "/invalidxml/device/eyecon.xml", "/invalidxml/device/kodak.xml",
+            "/invalidxml/device/plutinosoft.xml", "/invalidxml/device/samsung.xml",
+            "/invalidxml/device/philips_hue.xml" };
+
+    static final String[] SERVICE_DESCRIPTORS = { "/descriptors/service/uda10.xml",
+            "/descriptors/service/uda10_avtransport.xml", "/descriptors/service/uda10_connectionmanager.xml" };
+
+    /**
+     * The timing of the binders only runs if this system property is <code>true</code>, e.g.
+     * <code>mvn test -Djupnp.benchmark=true -Dtest=DescriptorBindingBenchmarkTest</code>.
+     */
+    static final String BENCHMARK_PROPERTY = "jupnp.benchmark";
+
+    static final int WARMUP_ITERATIONS = 50;
+    static final int MEASURED_ITERATIONS = 100;
+
+    @Test
+    void readDeviceDescriptors() throws Exception {
+        Namespace namespace = new MockUpnpService().getConfiguration().getNamespace();
+        UDA10DeviceDescriptorBinderImpl domBinder = new UDA10DeviceDescriptorBinderImpl();
+        UDA10DeviceDescriptorBinderStAXImpl staxBinder = new UDA10DeviceDescriptorBinderStAXImpl();
+
+        for (String resource : DEVICE_DESCRIPTORS) {
+            String descriptor = IO.readLines(getClass().getResourceAsStream(resource));
+            RemoteDevice expected = domBinder.describe(createUndescribedDevice(), descriptor);
+            String expectedXml = domBinder.generate(expected, new RemoteClientInfo(), namespace);
+            RemoteDevice device = staxBinder.describe(createUndescribedDevice(), descriptor);
+            assertEquals(expectedXml, domBinder.generate(device, new RemoteClientInfo(), namespace), resource);
+            device = staxBinder.describe(createUndescribedDevice(),
+                    IO.readAllBytes(getClass().getResourceAsStream(resource)));
+            assertEquals(expectedXml, domBinder.generate(device, new RemoteClientInfo(), namespace), resource);
+        }
+    }
+
+    @Test
+    void readServiceDescriptors() throws Exception {
+        UDA10ServiceDescriptorBinderImpl domBinder = new UDA10ServiceDescriptorBinderImpl();
+        UDA10ServiceDescriptorBinderStAXImpl staxBinder = new UDA10ServiceDescriptorBinderStAXImpl();
+
+        for (String resource : SERVICE_DESCRIPTORS) {
+            String descriptor = IO.readLines(getClass().getResourceAsStream(resource));
+            RemoteService expected = domBinder.describe(SampleData.createUndescribedRemoteService(), descriptor);
+            RemoteService service = staxBinder.describe(SampleData.createUndescribedRemoteService(), descriptor);
+            assertEquals(toString(expected), toString(service), resource);
+            service = staxBinder.describe(SampleData.createUndescribedRemoteService(),
+                    IO.readAllBytes(getClass().getResourceAsStream(resource)));
+            assertEquals(toString(expected), toString(service), resource);
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = BENCHMARK_PROPERTY, matches = "true")
+    void measureDeviceDescriptors() throws Exception {
+        UDA10DeviceDescriptorBinderImpl domBinder = new UDA10DeviceDescriptorBinderImpl();
+        UDA10DeviceDescriptorBinderSAXImpl saxBinder = new UDA10DeviceDescriptorBinderSAXImpl();
+        UDA10DeviceDescriptorBinderStAXImpl staxBinder = new UDA10DeviceDescriptorBinderStAXImpl();
+
+        List<String> descriptors = new ArrayList<>();
+        List<byte[]> descriptorBytes = new ArrayList<>();
+        for (String resource : DEVICE_DESCRIPTORS) {
+            descriptorBytes.add(IO.readAllBytes(getClass().getResourceAsStream(resource)));
+            descriptors.add(IO.readLines(getClass().getResourceAsStream(resource)));
+        }
+
+        long domNanos = measure(() -> describeDevices(domBinder, descriptors));
+        long saxNanos = measure(() -> describeDevices(saxBinder, descriptors));
+        long staxNanos = measure(() -> describeDevices(staxBinder, descriptors));
+        long staxBytesNanos = measure(() -> {
+            for (byte[] descriptor : descriptorBytes) {
+                staxBinder.describe(createUndescribedDevice(), descriptor);
+            }
+        });
+
+        logger.info("Microseconds per device descriptor: DOM {}, SAX {}, StAX {}, StAX from bytes {}",
+                domNanos / descriptors.size() / 1000, saxNanos / descriptors.size() / 1000,
+                staxNanos / descriptors.size() / 1000, staxBytesNanos / descriptors.size() / 1000);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = BENCHMARK_PROPERTY, matches = "true")
+    void measureServiceDescriptors() throws Exception {
+        UDA10ServiceDescriptorBinderImpl domBinder = new UDA10ServiceDescriptorBinderImpl();
+        UDA10ServiceDescriptorBinderSAXImpl saxBinder = new UDA10ServiceDescriptorBinderSAXImpl();
+        UDA10ServiceDescriptorBinderStAXImpl staxBinder = new UDA10ServiceDescriptorBinderStAXImpl();
+
+        List<String> descriptors = new ArrayList<>();
+        List<byte[]> descriptorBytes = new ArrayList<>();
+        for (String resource : SERVICE_DESCRIPTORS) {
+            descriptorBytes.add(IO.readAllBytes(getClass().getResourceAsStream(resource)));
+            descriptors.add(IO.readLines(getClass().getResourceAsStream(resource)));
+        }
+
+        // Parse every descriptor instead of sharing cached models
+        long domNanos = measure(() -> describeServices(domBinder, descriptors));
+        long saxNanos = measure(() -> describeServices(saxBinder, descriptors));
+        long staxNanos = measure(() -> describeServices(staxBinder, descriptors));
+        long staxBytesNanos = measure(() -> {
+            for (byte[] descriptor : descriptorBytes) {
+                staxBinder.getServiceModelCache().clear();
+                staxBinder.describe(SampleData.createUndescribedRemoteService(), descriptor);
+            }
+        });
+
+        logger.info("Microseconds per service descriptor: DOM {}, SAX {}, StAX {}, StAX from bytes {}",
+                domNanos / descriptors.size() / 1000, saxNanos / descriptors.size() / 1000,
+                staxNanos / descriptors.size() / 1000, staxBytesNanos / descriptors.size() / 1000);
+    }
+
+    void describeDevices(DeviceDescriptorBinder binder, List<String> descriptors) throws Exception {
+        for (String descriptor : descriptors) {
+            binder.describe(createUndescribedDevice(), descriptor);
+        }
+    }
+
+    void describeServices(UDA10ServiceDescriptorBinderImpl binder, List<String> descriptors) throws Exception {
+        for (String descriptor : descriptors) {
+            binder.getServiceModelCache().clear();
+            binder.describe(SampleData.createUndescribedRemoteService(), descriptor);
+        }
+    }
+
+    String toString(RemoteService service) {
+        StringBuilder sb = new StringBuilder();
+        for (Action<RemoteService> action : service.getActions()) {
+            sb.append(action.getName()).append('\n');
+            for (ActionArgument<RemoteService> argument : action.getArguments()) {
+                sb.append(' ').append(argument.getName()).append(' ').append(argument.getDirection()).append(' ')
+                        .append(argument.getRelatedStateVariableName()).append(' ').append(argument.isReturnValue())
+                        .append('\n');
+            }
+        }
+        for (StateVariable<RemoteService> stateVariable : service.getStateVariables()) {
+            StateVariableTypeDetails typeDetails = stateVariable.getTypeDetails();
+            sb.append(stateVariable.getName()).append(' ').append(typeDetails.getDatatype().getDisplayString())
+                    .append(' ').append(typeDetails.getDefaultValue()).append(' ')
+                    .append(Arrays.toString(typeDetails.getAllowedValues())).append(' ')
+                    .append(typeDetails.getAllowedValueRange()).append(' ')
+                    .append(stateVariable.getEventDetails().isSendEvents()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    RemoteDevice createUndescribedDevice() throws Exception {
+        return new RemoteDevice(SampleData.createRemoteDeviceIdentity());
+    }
+
+    /**
+     * @return The average time of one run in nanoseconds, after warming up.
+     */
+    long measure(Run run) throws Exception {
+        // Don't measure the logging of the violations in the descriptors
+        SpecificationViolationReporter.disableReporting();
+        try {
+            for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                run.run();
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+                run.run();
+            }
+            return (System.nanoTime() - start) / MEASURED_ITERATIONS;
+        } finally {
+            SpecificationViolationReporter.enableReporting();
+        }
+    }
+
+    interface Run {
+        void run() throws Exception;
+    }
+}
@@ -65,6 +65,37 @@ class DeviceDescriptorRetrievalTest {
                 .assertLocalResourcesMatch(upnpService.getConfiguration().getNamespace().getResources(returnedDevice));
     }
 
+    @Test
+    void retrieveCachedDescriptor() throws Exception {
+        MockUpnpService upnpService = new MockUpnpService();
+        upnpService.startup();
+
+        LocalDevice localDevice = SampleData.createLocalDevice();
+        upnpService.getRegistry().addDevice(localDevice);
+
+        // The descriptor is generated once and sent with its entity tag
+        StreamResponseMessage first = retrieveDescriptor(upnpService, null);
+        StreamResponseMessage second = retrieveDescriptor(upnpService, null);
+        assertEquals(200, first.getOperation().getStatusCode());
+        assertSame(first.getBodyBytes(), second.getBodyBytes());
+        String entityTag = first.getHeaders().getFirstHeader(ReceivingRetrieval.ETAG_HEADER);
+        assertNotNull(entityTag);
+        assertEquals(entityTag, second.getHeaders().getFirstHeader(ReceivingRetrieval.ETAG_HEADER));
+
+        // A client which has the descriptor doesn't get it again
+        StreamResponseMessage notModified = retrieveDescriptor(upnpService, entityTag);
+        assertEquals(304, notModified.getOperation().getStatusCode());
+        assertFalse(notModified.hasBody());
+
+        // A replaced device is described again, the entity tag only changes with the content
+        upnpService.getRegistry().removeDevice(localDevice);
+        upnpService.getRegistry().addDevice(SampleData.createLocalDevice());
+        StreamResponseMessage replaced = retrieveDescriptor(upnpService, null);
+        assertEquals(200, replaced.getOperation().getStatusCode());
+        assertNotSame(first.getBodyBytes(), replaced.getBodyBytes());
+        assertEquals(entityTag, replaced.getHeaders().getFirstHeader(ReceivingRetrieval.ETAG_HEADER));
+    }
+
     @Test
     void retrieveNonExistentDescriptor() {
         MockUpnpService upnpService = new MockUpnpService();
@@ -80,4 +111,16 @@ class DeviceDescriptorRetrievalTest {
 
         assertNull(descriptorMessage);
     }
+
+    protected StreamResponseMessage retrieveDescriptor(MockUpnpService upnpService, String entityTag) {
+        StreamRequestMessage descRetrievalMessage = new StreamRequestMessage(UpnpRequest.Method.GET,
+                SampleDeviceRoot.getDeviceDescriptorURI());
+        descRetrievalMessage.getHeaders().add(UpnpHeader.Type.HOST, new HostHeader("localhost", 1234));
+        if (entityTag != null) {
+            descRetrievalMessage.getHeaders().add(ReceivingRetrieval.IF_NONE_MATCH_HEADER, entityTag);
+        }
+        ReceivingRetrieval prot = new ReceivingRetrieval(upnpService, descRetrievalMessage);
+        prot.run();
+        return prot.getOutputMessage();
+    }
 }
@@ -24,6 +24,7 @@ import org.jupnp.binding.xml.DescriptorBindingException;
 import org.jupnp.binding.xml.DeviceDescriptorBinder;
 import org.jupnp.binding.xml.RecoveringUDA10DeviceDescriptorBinderImpl;
 import org.jupnp.binding.xml.UDA10DeviceDescriptorBinderSAXImpl;
+import org.jupnp.binding.xml.UDA10DeviceDescriptorBinderStAXImpl;
 import org.jupnp.data.SampleData;
 import org.jupnp.mock.MockUpnpService;
 import org.jupnp.mock.MockUpnpServiceConfiguration;
@@ -67,6 +68,18 @@ class InvalidUDA10DeviceDescriptorParsingTest {
         assertThrows(DescriptorBindingException.class, () -> readDevice(recoverable, new MockUpnpService()));
     }
 
+    @ParameterizedTest
+    @MethodSource("getRecoverable")
+    void readStAXFailure(String recoverable) {
+        assertThrows(DescriptorBindingException.class,
+                () -> readDevice(recoverable, new MockUpnpService(new MockUpnpServiceConfiguration() {
+                    @Override
+                    public DeviceDescriptorBinder getDeviceDescriptorBinderUDA10() {
+                        return new UDA10DeviceDescriptorBinderStAXImpl();
+                    }
+                })));
+    }
+
     @ParameterizedTest
     @MethodSource("getUnrecoverable")
     void readRecoveringFailure(String unrecoverable) {
@@ -98,6 +111,17 @@ class InvalidUDA10DeviceDescriptorParsingTest {
         }));
     }
 
+    @ParameterizedTest
+    @MethodSource("getStrict")
+    void readStAX(String strict) throws Exception {
+        readDevice(strict, new MockUpnpService(new MockUpnpServiceConfiguration() {
+            @Override
+            public DeviceDescriptorBinder getDeviceDescriptorBinderUDA10() {
+                return new UDA10DeviceDescriptorBinderStAXImpl();
+            }
+        }));
+    }
+
     @ParameterizedTest
     @MethodSource("getStrict")
     void readRecoveringStrict(String strict) throws Exception {
@@ -21,6 +21,7 @@ import org.junit.jupiter.api.Test;
 import org.jupnp.binding.xml.DeviceDescriptorBinder;
 import org.jupnp.binding.xml.UDA10DeviceDescriptorBinderImpl;
 import org.jupnp.binding.xml.UDA10DeviceDescriptorBinderSAXImpl;
+import org.jupnp.binding.xml.UDA10DeviceDescriptorBinderStAXImpl;
 import org.jupnp.data.SampleData;
 import org.jupnp.data.SampleDeviceRoot;
 import org.jupnp.mock.MockUpnpService;
@@ -55,6 +56,31 @@ class UDA10DeviceDescriptorParsingTest {
         SampleDeviceRoot.assertMatch(device, SampleData.createRemoteDevice());
     }
 
+    @Test
+    void readUDA10DescriptorStAX() throws Exception {
+        DeviceDescriptorBinder binder = new UDA10DeviceDescriptorBinderStAXImpl();
+
+        RemoteDevice device = new RemoteDevice(SampleData.createRemoteDeviceIdentity());
+        device = binder.describe(device, IO.readLines(getClass().getResourceAsStream("/descriptors/device/uda10.xml")));
+
+        SampleDeviceRoot.assertLocalResourcesMatch(
+                new MockUpnpService().getConfiguration().getNamespace().getResources(device));
+        SampleDeviceRoot.assertMatch(device, SampleData.createRemoteDevice());
+    }
+
+    @Test
+    void readUDA10DescriptorStAXBytes() throws Exception {
+        UDA10DeviceDescriptorBinderStAXImpl binder = new UDA10DeviceDescriptorBinderStAXImpl();
+
+        RemoteDevice device = new RemoteDevice(SampleData.createRemoteDeviceIdentity());
+        device = binder.describe(device,
+                IO.readAllBytes(getClass().getResourceAsStream("/descriptors/device/uda10.xml")));
+
+        SampleDeviceRoot.assertLocalResourcesMatch(
+                new MockUpnpService().getConfiguration().getNamespace().getResources(device));
+        SampleDeviceRoot.assertMatch(device, SampleData.createRemoteDevice());
+    }
+
     @Test
     void writeUDA10Descriptor() throws Exception {
         MockUpnpService upnpService = new MockUpnpService();
@@ -122,6 +148,21 @@ class UDA10DeviceDescriptorParsingTest {
         assertTrue(device.isRoot());
     }
 
+    @Test
+    void readUDA10DescriptorWithURLBaseStAX() throws Exception {
+        DeviceDescriptorBinder binder = new UDA10DeviceDescriptorBinderStAXImpl();
+
+        RemoteDevice device = new RemoteDevice(SampleData.createRemoteDeviceIdentity());
+        device = binder.describe(device,
+                IO.readLines(getClass().getResourceAsStream("/descriptors/device/uda10_withbase.xml")));
+
+        assertEquals(SampleData.getLocalBaseURL() + "someotherbase/MY-DEVICE-123/icon.png",
+                device.normalizeURI(device.getIcons()[0].getUri()).toString());
+        assertEquals(SampleData.getLocalBaseURL() + "someotherbase/MY-DEVICE-123/svc/upnp-org/MY-SERVICE-123/desc.xml",
+                device.normalizeURI(device.getServices()[0].getDescriptorURI()).toString());
+        assertTrue(device.isRoot());
+    }
+
     @Test
     void readUDA10DescriptorWithURLBase2() throws Exception {
         MockUpnpService upnpService = new MockUpnpService();
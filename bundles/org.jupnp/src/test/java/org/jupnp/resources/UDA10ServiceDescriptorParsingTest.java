@@ -15,18 +15,30 @@
  */
 package org.jupnp.resources;
 
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 import org.jupnp.binding.xml.ServiceDescriptorBinder;
 import org.jupnp.binding.xml.UDA10ServiceDescriptorBinderImpl;
 import org.jupnp.binding.xml.UDA10ServiceDescriptorBinderSAXImpl;
+import org.jupnp.binding.xml.UDA10ServiceDescriptorBinderStAXImpl;
 import org.jupnp.data.SampleData;
 import org.jupnp.data.SampleServiceOne;
+import org.jupnp.model.meta.Action;
 import org.jupnp.model.meta.RemoteDevice;
 import org.jupnp.model.meta.RemoteService;
+import org.jupnp.model.meta.StateVariable;
 import org.jupnp.util.io.IO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 class UDA10ServiceDescriptorParsingTest {
 
+    private final Logger logger = LoggerFactory.getLogger(UDA10ServiceDescriptorParsingTest.class);
+
     @Test
     void readUDA10DescriptorDOM() throws Exception {
         ServiceDescriptorBinder binder = new UDA10ServiceDescriptorBinderImpl();
@@ -45,6 +57,28 @@ class UDA10ServiceDescriptorParsingTest {
         SampleServiceOne.assertMatch(service, SampleData.getFirstService(SampleData.createRemoteDevice()));
     }
 
+    @Test
+    void readUDA10DescriptorStAX() throws Exception {
+        ServiceDescriptorBinder binder = new UDA10ServiceDescriptorBinderStAXImpl();
+        RemoteService service = SampleData.createUndescribedRemoteService();
+        service = binder.describe(service,
+                IO.readLines(getClass().getResourceAsStream("/descriptors/service/uda10.xml")));
+        SampleServiceOne.assertMatch(service, SampleData.getFirstService(SampleData.createRemoteDevice()));
+    }
+
+    @Test
+    void readUDA10DescriptorStAXBytes() throws Exception {
+        UDA10ServiceDescriptorBinderStAXImpl binder = new UDA10ServiceDescriptorBinderStAXImpl();
+        byte[] descriptor = IO.readAllBytes(getClass().getResourceAsStream("/descriptors/service/uda10.xml"));
+
+        RemoteService expected = SampleData.getFirstService(SampleData.createRemoteDevice());
+        SampleServiceOne.assertMatch(binder.describe(SampleData.createUndescribedRemoteService(), descriptor),
+                expected);
+        SampleServiceOne.assertMatch(binder.describe(SampleData.createUndescribedRemoteService(), descriptor),
+                expected);
+        assertEquals(1, binder.getServiceModelCache().size());
+    }
+
     @Test
     void writeUDA10Descriptor() throws Exception {
         ServiceDescriptorBinder binder = new UDA10ServiceDescriptorBinderImpl();
@@ -55,4 +89,79 @@ class UDA10ServiceDescriptorParsingTest {
         service = binder.describe(service, descriptorXml);
         SampleServiceOne.assertMatch(service, SampleData.getFirstService(rd));
     }
+
+    @Test
+    void readCachedServiceModel() throws Exception {
+        UDA10ServiceDescriptorBinderImpl binder = new UDA10ServiceDescriptorBinderSAXImpl();
+        String descriptorXml = IO.readLines(getClass().getResourceAsStream("/descriptors/service/uda10.xml"));
+
+        RemoteService first = binder.describe(SampleData.createUndescribedRemoteService(), descriptorXml);
+        RemoteService second = binder.describe(SampleData.createUndescribedRemoteService(), descriptorXml);
+        assertEquals(1, binder.getServiceModelCache().size());
+
+        RemoteService expected = SampleData.getFirstService(SampleData.createRemoteDevice());
+        SampleServiceOne.assertMatch(first, expected);
+        SampleServiceOne.assertMatch(second, expected);
+
+        // Each service has its own actions and state variables, sharing their definitions
+        for (Action action : second.getActions()) {
+            assertSame(second, action.getService());
+            assertNotSame(first.getAction(action.getName()), action);
+            assertSame(first.getAction(action.getName()).getName(), action.getName());
+        }
+        for (StateVariable stateVariable : second.getStateVariables()) {
+            StateVariable firstStateVariable = first.getStateVariable(stateVariable.getName());
+            assertSame(second, stateVariable.getService());
+            assertNotSame(firstStateVariable, stateVariable);
+            assertSame(firstStateVariable.getTypeDetails(), stateVariable.getTypeDetails());
+            assertSame(firstStateVariable.getEventDetails(), stateVariable.getEventDetails());
+        }
+    }
+
+    @Test
+    void measureHeapPerCachedServiceModel() throws Exception {
+        String descriptorXml = IO
+                .readLines(getClass().getResourceAsStream("/descriptors/service/uda10_avtransport.xml"));
+
+        UDA10ServiceDescriptorBinderImpl binder = new UDA10ServiceDescriptorBinderImpl();
+        long cachedBytes = measureHeapPerService(binder, descriptorXml, false);
+        long parsedBytes = measureHeapPerService(binder, descriptorXml, true);
+
+        // Heap measurements depend on the garbage collector, they are only logged
+        logger.info("Heap per identical service: {} bytes parsed, {} bytes from cached model", parsedBytes,
+                cachedBytes);
+    }
+
+    long measureHeapPerService(UDA10ServiceDescriptorBinderImpl binder, String descriptorXml, boolean parseEach)
+            throws Exception {
+        int count = 200;
+        List<RemoteService> undescribedServices = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            undescribedServices.add(SampleData.createUndescribedRemoteService());
+        }
+        binder.getServiceModelCache().clear();
+        binder.describe(SampleData.createUndescribedRemoteService(), descriptorXml);
+
+        long before = getUsedHeap();
+        List<RemoteService> services = new ArrayList<>();
+        for (RemoteService undescribedService : undescribedServices) {
+            if (parseEach) {
+                binder.getServiceModelCache().clear();
+            }
+            services.add(binder.describe(undescribedService, descriptorXml));
+        }
+        long after = getUsedHeap();
+
+        assertEquals(count, services.size());
+        return (after - before) / count;
+    }
+
+    static long getUsedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
 }
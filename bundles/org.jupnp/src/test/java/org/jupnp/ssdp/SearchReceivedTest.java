@@ -19,6 +19,11 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 import org.junit.jupiter.api.Test;
 import org.jupnp.UpnpService;
@@ -33,6 +38,7 @@ import org.jupnp.model.message.OutgoingDatagramMessage;
 import org.jupnp.model.message.UpnpMessage;
 import org.jupnp.model.message.UpnpRequest;
 import org.jupnp.model.message.discovery.IncomingSearchRequest;
+import org.jupnp.model.message.discovery.OutgoingSearchResponse;
 import org.jupnp.model.message.header.DeviceTypeHeader;
 import org.jupnp.model.message.header.DeviceUSNHeader;
 import org.jupnp.model.message.header.EXTHeader;
@@ -258,6 +264,128 @@ class SearchReceivedTest {
         assertEquals(10, upnpService.getRouter().getOutgoingDatagramMessages().size());
     }
 
+    @Test
+    void receivedSearchReusesEncodedResponses() throws Exception {
+        MockUpnpService upnpService = new MockUpnpService();
+        upnpService.startup();
+
+        LocalDevice localDevice = SampleData.createLocalDevice();
+        upnpService.getRegistry().addDevice(localDevice);
+
+        IncomingSearchRequest searchMsg = createRequestMessage();
+        searchMsg.getHeaders().add(UpnpHeader.Type.MAN, new MANHeader(NotificationSubtype.DISCOVER.getHeaderString()));
+        searchMsg.getHeaders().add(UpnpHeader.Type.MX, new MXHeader(1));
+        searchMsg.getHeaders().add(UpnpHeader.Type.ST, new STAllHeader());
+        searchMsg.getHeaders().add(UpnpHeader.Type.HOST, new HostHeader());
+
+        createProtocol(upnpService, searchMsg).run();
+        createProtocol(upnpService, searchMsg).run();
+
+        List<OutgoingDatagramMessage> messages = upnpService.getRouter().getOutgoingDatagramMessages();
+        assertEquals(20, messages.size());
+        for (int i = 0; i < 10; i++) {
+            byte[] encodedData = messages.get(i).getEncodedData();
+            assertNotNull(encodedData);
+            assertSame(encodedData, messages.get(i + 10).getEncodedData());
+            assertEquals(searchMsg.getSourceAddress(), messages.get(i).getDestinationAddress());
+
+            String data = new String(encodedData, StandardCharsets.US_ASCII);
+            assertTrue(data.startsWith("HTTP/1.1 200 OK\r\n"));
+            assertTrue(data.contains(messages.get(i).getHeaders().getFirstHeader(UpnpHeader.Type.USN).getString()));
+        }
+
+        // Registering the device again drops the cached responses
+        upnpService.getRegistry().removeDevice(localDevice);
+        upnpService.getRegistry().addDevice(localDevice);
+        createProtocol(upnpService, searchMsg).run();
+
+        assertEquals(30, messages.size());
+        for (int i = 0; i < 10; i++) {
+            assertNotSame(messages.get(i).getEncodedData(), messages.get(i + 20).getEncodedData());
+            assertArrayEquals(messages.get(i).getEncodedData(), messages.get(i + 20).getEncodedData());
+        }
+    }
+
+    @Test
+    void receivedSearchWithoutCachedResponses() throws Exception {
+        MockUpnpService upnpService = new MockUpnpService();
+        upnpService.startup();
+        upnpService.getRegistry().addDevice(SampleData.createLocalDevice());
+
+        IncomingSearchRequest searchMsg = createRequestMessage();
+        searchMsg.getHeaders().add(UpnpHeader.Type.MAN, new MANHeader(NotificationSubtype.DISCOVER.getHeaderString()));
+        searchMsg.getHeaders().add(UpnpHeader.Type.MX, new MXHeader(1));
+        searchMsg.getHeaders().add(UpnpHeader.Type.ST, new STAllHeader());
+        searchMsg.getHeaders().add(UpnpHeader.Type.HOST, new HostHeader());
+
+        // A subclass editing the responses doesn't reuse the edits made for another request
+        for (int i = 0; i < 2; i++) {
+            new ReceivingSearch(upnpService, searchMsg) {
+                @Override
+                protected void prepareOutgoingSearchResponse(OutgoingSearchResponse message) {
+                    message.getHeaders().add("X-REQUEST", getInputMessage().getSourceAddress().getHostAddress());
+                }
+            }.run();
+        }
+
+        List<OutgoingDatagramMessage> messages = upnpService.getRouter().getOutgoingDatagramMessages();
+        assertEquals(20, messages.size());
+        for (int i = 0; i < 10; i++) {
+            // Only cached responses are encoded in advance
+            assertNull(messages.get(i).getEncodedData());
+            assertNull(messages.get(i + 10).getEncodedData());
+        }
+
+        // Subclasses opt in to caching
+        new ReceivingSearch(upnpService, searchMsg) {
+            @Override
+            protected boolean isCacheableResponse() {
+                return true;
+            }
+        }.run();
+        assertEquals(30, messages.size());
+        for (int i = 20; i < 30; i++) {
+            assertNotNull(messages.get(i).getEncodedData());
+        }
+    }
+
+    @Test
+    void receivedSearchFloodOnConstantThreads() throws Exception {
+        MockUpnpService upnpService = new MockUpnpService();
+        upnpService.startup();
+
+        LocalDevice localDevice = SampleData.createLocalDevice();
+        upnpService.getRegistry().addDevice(localDevice);
+
+        IncomingSearchRequest searchMsg = createRequestMessage();
+        searchMsg.getHeaders().add(UpnpHeader.Type.MAN, new MANHeader(NotificationSubtype.DISCOVER.getHeaderString()));
+        searchMsg.getHeaders().add(UpnpHeader.Type.MX, new MXHeader(2));
+        searchMsg.getHeaders().add(UpnpHeader.Type.ST, new STAllHeader());
+        searchMsg.getHeaders().add(UpnpHeader.Type.HOST, new HostHeader());
+
+        // One thread delays the responses and one sends them, sleeping would take up to 50 * MX seconds
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            long start = System.currentTimeMillis();
+            for (int i = 0; i < 50; i++) {
+                createProtocol(upnpService, searchMsg).schedule(scheduler, executor);
+            }
+            assertTrue(System.currentTimeMillis() - start < 1000);
+
+            List<OutgoingDatagramMessage> messages = upnpService.getRouter().getOutgoingDatagramMessages();
+            long timeout = System.currentTimeMillis() + 10000;
+            while (executor.submit(messages::size).get() < 500 && System.currentTimeMillis() < timeout) {
+                Thread.sleep(100);
+            }
+            assertEquals(500, executor.submit(messages::size).get());
+            assertTrue(System.currentTimeMillis() - start < 5000);
+        } finally {
+            scheduler.shutdownNow();
+            executor.shutdownNow();
+        }
+    }
+
     protected ReceivingSearch createProtocol(UpnpService upnpService, IncomingSearchRequest searchMsg) {
         return new ReceivingSearch(upnpService, searchMsg);
     }
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2011-2026 4th Line GmbH, Switzerland and others
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License Version 1 or later
+ * ("CDDL") (collectively, the "License"). You may not use this file
+ * except in compliance with the License. See LICENSE.txt for more
+ * information.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * SPDX-License-Identifier: CDDL-1.0
+ */
+package org.jupnp.transport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.jupnp.UpnpServiceConfiguration;
+import org.jupnp.model.message.StreamResponseMessage;
+import org.jupnp.transport.impl.jetty.JettyStreamClientImpl;
+import org.jupnp.transport.impl.jetty.JettyTransportConfiguration;
+import org.jupnp.transport.impl.jetty.StreamClientConfigurationImpl;
+import org.jupnp.transport.spi.StreamClient;
+import org.jupnp.transport.spi.StreamServer;
+
+/**
+ * Runs the stream tests with pooled connections, which are kept alive between requests.
+ */
+class JettyServerJettyKeepAliveClientTest extends StreamServerClientTest {
+
+    @BeforeAll
+    static void start() throws Exception {
+        start(JettyServerJettyKeepAliveClientTest::createStreamServer,
+                JettyServerJettyKeepAliveClientTest::createStreamClient);
+    }
+
+    public static StreamServer createStreamServer(final int port) {
+        return JettyTransportConfiguration.INSTANCE.createStreamServer(port);
+    }
+
+    public static StreamClient createStreamClient(UpnpServiceConfiguration configuration) {
+        return new JettyStreamClientImpl(
+                new StreamClientConfigurationImpl(configuration.getSyncProtocolExecutorService(), 3, 0, 0, 0) {
+                    @Override
+                    public boolean isKeepAlive() {
+                        return true;
+                    }
+
+                    @Override
+                    public int getMaxConnectionsPerDestination() {
+                        return 1;
+                    }
+                });
+    }
+
+    @Test
+    void reusePooledConnection() throws Exception {
+        JettyStreamClientImpl jettyClient = (JettyStreamClientImpl) client;
+        long hits = jettyClient.getPoolHits();
+        long misses = jettyClient.getPoolMisses();
+
+        for (int i = 0; i < 5; i++) {
+            StreamResponseMessage responseMessage = client.sendRequest(createRequestMessage(OKBodyResponse.PATH));
+            assertNotNull(responseMessage, "responseMessage");
+            assertEquals("foo", responseMessage.getBodyString());
+        }
+
+        // At most the first request opens a connection, the others reuse it
+        assertTrue(jettyClient.getPoolMisses() - misses <= 1);
+        assertTrue(jettyClient.getPoolHits() - hits >= 4);
+    }
+}
@@ -0,0 +1,308 @@
+/*
+ * Copyright (C) 2011-2026 4th Line GmbH, Switzerland and others
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License Version 1 or later
+ * ("CDDL") (collectively, the "License"). You may not use this file
+ * except in compliance with the License. See LICENSE.txt for more
+ * information.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * SPDX-License-Identifier: CDDL-1.0
+ */
+package org.jupnp.transport;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.nio.channels.Selector;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jupnp.DefaultUpnpServiceConfiguration;
+import org.jupnp.mock.MockProtocolFactory;
+import org.jupnp.mock.MockRouter;
+import org.jupnp.mock.MockUpnpServiceConfiguration;
+import org.jupnp.model.Constants;
+import org.jupnp.model.message.IncomingDatagramMessage;
+import org.jupnp.model.message.header.UpnpHeader;
+import org.jupnp.transport.impl.DatagramIOConfigurationImpl;
+import org.jupnp.transport.impl.MulticastReceiverConfigurationImpl;
+import org.jupnp.transport.impl.NetworkAddressFactoryImpl;
+import org.jupnp.transport.impl.nio.DatagramChannelSelector;
+import org.jupnp.transport.impl.nio.NioDatagramIOImpl;
+import org.jupnp.transport.impl.nio.NioMulticastReceiverImpl;
+import org.jupnp.transport.spi.DatagramProcessor;
+import org.jupnp.transport.spi.InitializationException;
+import org.jupnp.transport.spi.NetworkAddressFactory;
+
+/**
+ * Receives datagrams over loopback with the NIO transport.
+ */
+class NioDatagramTransportTest {
+
+    static final InetAddress LOOPBACK = InetAddress.getLoopbackAddress();
+
+    DatagramProcessor datagramProcessor = new DefaultUpnpServiceConfiguration().getDatagramProcessor();
+    DatagramChannelSelector selector;
+    ExecutorService executor;
+    RecordingRouter router;
+
+    @BeforeEach
+    void setUp() {
+        selector = new DatagramChannelSelector();
+        executor = Executors.newCachedThreadPool();
+        router = new RecordingRouter();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void receiveOnSingleThread() throws Exception {
+        NioDatagramIOImpl first = new NioDatagramIOImpl(new DatagramIOConfigurationImpl(), selector);
+        NioDatagramIOImpl second = new NioDatagramIOImpl(new DatagramIOConfigurationImpl(), selector);
+        first.init(LOOPBACK, 0, router, datagramProcessor);
+        second.init(LOOPBACK, 0, router, datagramProcessor);
+
+        Future<?> firstRun = executor.submit(first);
+        waitForRunning();
+        // The second receiver doesn't need its own thread
+        executor.submit(second).get(5, TimeUnit.SECONDS);
+
+        router.expect(4);
+        try (DatagramSocket socket = new DatagramSocket(0, LOOPBACK)) {
+            for (int i = 0; i < 2; i++) {
+                socket.send(createNotify("first-" + i, first.getLocalAddress()));
+                socket.send(createNotify("second-" + i, second.getLocalAddress()));
+            }
+        }
+        assertTrue(router.await());
+
+        assertEquals(4, router.messages.size());
+        assertEquals(1, router.threads.stream().distinct().count());
+
+        first.stop();
+        second.stop();
+
+        // The loop ends with the last channel
+        firstRun.get(5, TimeUnit.SECONDS);
+        assertFalse(selector.isRunning());
+    }
+
+    @Test
+    void readLimitedDatagramsPerSelection() throws Exception {
+        NioDatagramIOImpl flooded = new NioDatagramIOImpl(new DatagramIOConfigurationImpl(), selector);
+        NioDatagramIOImpl quiet = new NioDatagramIOImpl(new DatagramIOConfigurationImpl(), selector);
+        flooded.init(LOOPBACK, 0, router, datagramProcessor);
+        quiet.init(LOOPBACK, 0, router, datagramProcessor);
+
+        // Queue the datagrams before the selector loop starts
+        int floodCount = DatagramChannelSelector.MAX_READS_PER_SELECTION * 3;
+        router.expect(floodCount + 1);
+        try (DatagramSocket socket = new DatagramSocket(0, LOOPBACK)) {
+            for (int i = 0; i < floodCount; i++) {
+                socket.send(createNotify("flooded-" + i, flooded.getLocalAddress()));
+            }
+            socket.send(createNotify("quiet", quiet.getLocalAddress()));
+        }
+        Thread.sleep(100);
+
+        executor.submit(flooded);
+        assertTrue(router.await());
+
+        int quietIndex = -1;
+        for (int i = 0; i < router.messages.size(); i++) {
+            if (router.messages.get(i).getHeaders().getFirstHeader(UpnpHeader.Type.USN).getString()
+                    .equals("uuid:quiet::upnp:rootdevice")) {
+                quietIndex = i;
+            }
+        }
+        // The quiet channel is read after at most one batch of the flooded channel
+        assertTrue(quietIndex >= 0 && quietIndex <= DatagramChannelSelector.MAX_READS_PER_SELECTION,
+                "Quiet datagram received at " + quietIndex);
+
+        flooded.stop();
+        quiet.stop();
+        waitForStopped();
+    }
+
+    @Test
+    void restartAfterStop() throws Exception {
+        NioDatagramIOImpl first = new NioDatagramIOImpl(new DatagramIOConfigurationImpl(), selector);
+        first.init(LOOPBACK, 0, router, datagramProcessor);
+        executor.submit(first);
+        waitForRunning();
+        first.stop();
+        waitForStopped();
+
+        NioDatagramIOImpl second = new NioDatagramIOImpl(new DatagramIOConfigurationImpl(), selector);
+        second.init(LOOPBACK, 0, router, datagramProcessor);
+        executor.submit(second);
+        waitForRunning();
+
+        router.expect(1);
+        first.send(createNotify("first", second.getLocalAddress()));
+        second.send(createNotify("second", second.getLocalAddress()));
+        assertTrue(router.await());
+        assertEquals(1, router.messages.size());
+        assertEquals("uuid:second::upnp:rootdevice",
+                router.messages.get(0).getHeaders().getFirstHeader(UpnpHeader.Type.USN).getString());
+
+        second.stop();
+        waitForStopped();
+    }
+
+    @Test
+    void restartAfterLoopFailure() throws Exception {
+        AtomicBoolean failed = new AtomicBoolean();
+        selector = new DatagramChannelSelector() {
+            @Override
+            protected void registerPending(Selector selector) {
+                if (failed.compareAndSet(false, true)) {
+                    throw new IllegalStateException("Selector loop failure");
+                }
+                super.registerPending(selector);
+            }
+        };
+        NioDatagramIOImpl first = new NioDatagramIOImpl(new DatagramIOConfigurationImpl(), selector);
+        first.init(LOOPBACK, 0, router, datagramProcessor);
+
+        // The unchecked exception ends the loop, the selector is closed
+        executor.submit(first).get(5, TimeUnit.SECONDS);
+        assertTrue(failed.get());
+        assertFalse(selector.isRunning());
+
+        // The next registration starts over, also receiving on the channel registered before the failure
+        NioDatagramIOImpl second = new NioDatagramIOImpl(new DatagramIOConfigurationImpl(), selector);
+        second.init(LOOPBACK, 0, router, datagramProcessor);
+        executor.submit(second);
+        waitForRunning();
+
+        router.expect(2);
+        try (DatagramSocket socket = new DatagramSocket(0, LOOPBACK)) {
+            socket.send(createNotify("first", first.getLocalAddress()));
+            socket.send(createNotify("second", second.getLocalAddress()));
+        }
+        assertTrue(router.await());
+
+        first.stop();
+        second.stop();
+        waitForStopped();
+    }
+
+    @Test
+    void receiveMulticast() throws Exception {
+        NetworkInterface loopbackInterface = NetworkInterface.getByInetAddress(LOOPBACK);
+        assumeTrue(loopbackInterface != null && loopbackInterface.isUp() && loopbackInterface.supportsMulticast(),
+                "Loopback interface doesn't support multicast");
+
+        int port;
+        try (DatagramSocket socket = new DatagramSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        NioMulticastReceiverImpl receiver = new NioMulticastReceiverImpl(
+                new MulticastReceiverConfigurationImpl(Constants.IPV4_UPNP_MULTICAST_GROUP, port),
+                selector);
+        receiver.init(loopbackInterface, router, createNetworkAddressFactory(), datagramProcessor);
+        executor.submit(receiver);
+        waitForRunning();
+
+        router.expect(1);
+        try (MulticastSocket socket = new MulticastSocket(0)) {
+            socket.setNetworkInterface(loopbackInterface);
+            socket.send(createNotify("multicast",
+                    new InetSocketAddress(InetAddress.getByName(Constants.IPV4_UPNP_MULTICAST_GROUP), port)));
+        }
+        assertTrue(router.await());
+        assertEquals("uuid:multicast::upnp:rootdevice",
+                router.messages.get(0).getHeaders().getFirstHeader(UpnpHeader.Type.USN).getString());
+
+        receiver.stop();
+        waitForStopped();
+    }
+
+    static NetworkAddressFactory createNetworkAddressFactory() {
+        try {
+            return new NetworkAddressFactoryImpl() {
+                @Override
+                public InetAddress getLocalAddress(NetworkInterface networkInterface, boolean isIPv6,
+                        InetAddress remoteAddress) {
+                    return LOOPBACK;
+                }
+            };
+        } catch (InitializationException e) {
+            assumeTrue(false, "No usable network interface: " + e.getMessage());
+            return null;
+        }
+    }
+
+    void waitForRunning() throws InterruptedException {
+        for (int i = 0; i < 100 && !selector.isRunning(); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(selector.isRunning());
+    }
+
+    void waitForStopped() throws InterruptedException {
+        for (int i = 0; i < 100 && selector.isRunning(); i++) {
+            Thread.sleep(50);
+        }
+        assertFalse(selector.isRunning());
+    }
+
+    static DatagramPacket createNotify(String udn, InetSocketAddress destination) {
+        byte[] data = ("NOTIFY * HTTP/1.1\r\n" + "HOST: 239.255.255.250:1900\r\n" + "NT: upnp:rootdevice\r\n"
+                + "NTS: ssdp:byebye\r\n" + "USN: uuid:" + udn + "::upnp:rootdevice\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII);
+        return new DatagramPacket(data, data.length, destination);
+    }
+
+    static class RecordingRouter extends MockRouter {
+
+        final List<IncomingDatagramMessage> messages = new CopyOnWriteArrayList<>();
+        final List<String> threads = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(0);
+
+        RecordingRouter() {
+            super(new MockUpnpServiceConfiguration(), new MockProtocolFactory());
+        }
+
+        void expect(int count) {
+            latch = new CountDownLatch(count);
+        }
+
+        boolean await() throws InterruptedException {
+            return latch.await(5, TimeUnit.SECONDS);
+        }
+
+        @Override
+        public void received(IncomingDatagramMessage msg) {
+            messages.add(msg);
+            threads.add(Thread.currentThread().getName());
+            latch.countDown();
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2011-2026 4th Line GmbH, Switzerland and others
+ *
+ * The contents of this file are subject to the terms of the
+ * Common Development and Distribution License Version 1 or later
+ * ("CDDL") (collectively, the "License"). You may not use this file
+ * except in compliance with the License. See LICENSE.txt for more
+ * information.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * SPDX-License-Identifier: CDDL-1.0
+ */
+package org.jupnp.transport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.jupnp.model.message.StreamRequestMessage;
+import org.jupnp.model.message.StreamResponseMessage;
+import org.jupnp.model.message.UpnpRequest;
+import org.jupnp.model.message.UpnpResponse;
+import org.jupnp.transport.impl.jetty.StreamClientConfigurationImpl;
+import org.jupnp.transport.spi.AbstractStreamClient;
+import org.jupnp.transport.spi.CircuitBreaker;
+
+class StreamClientCircuitBreakerTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void failingHostFailsFast() throws Exception {
+        TestStreamClient client = new TestStreamClient(new StreamClientConfigurationImpl(executor, 3, 0, 60, 2));
+        client.failing = true;
+
+        // The breaker opens after two failures, further requests aren't executed
+        for (int i = 0; i < 5; i++) {
+            assertNull(client.sendRequest(createRequestMessage("http://10.0.0.1:8080/desc" + i + ".xml")));
+        }
+        assertEquals(2, client.executed.get());
+        assertEquals(Map.of("10.0.0.1:8080", CircuitBreaker.State.OPEN), client.getCircuitBreakerStates());
+
+        // Other hosts aren't affected
+        client.failing = false;
+        assertNotNull(client.sendRequest(createRequestMessage("http://10.0.0.2:8080/desc.xml")));
+        assertNull(client.sendRequestAsync(createRequestMessage("http://10.0.0.1:8080/desc.xml")).get());
+        assertEquals(3, client.executed.get());
+    }
+
+    @Test
+    void successClosesBreaker() throws Exception {
+        TestStreamClient client = new TestStreamClient(new StreamClientConfigurationImpl(executor, 3, 0, 60, 2));
+        client.failing = true;
+
+        assertNull(client.sendRequest(createRequestMessage("http://10.0.0.1:8080/desc.xml")));
+        assertEquals(Map.of("10.0.0.1:8080", CircuitBreaker.State.CLOSED), client.getCircuitBreakerStates());
+
+        client.failing = false;
+        assertNotNull(client.sendRequest(createRequestMessage("http://10.0.0.1:8080/desc.xml")));
+        assertTrue(client.getCircuitBreakerStates().isEmpty());
+    }
+
+    @Test
+    void queuedRequestTimeoutIsNotCounted() throws Exception {
+        ExecutorService singleThread = Executors.newSingleThreadExecutor();
+        CountDownLatch blocked = new CountDownLatch(1);
+        try {
+            singleThread.execute(() -> {
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            TestStreamClient client = new TestStreamClient(
+                    new StreamClientConfigurationImpl(singleThread, 1, 0, 60, 1));
+
+            // The request expires while waiting in the executor queue, the host isn't at fault
+            assertNull(client.sendRequestAsync(createRequestMessage("http://10.0.0.1:8080/desc.xml")).get());
+            assertTrue(client.getCircuitBreakerStates().isEmpty());
+
+            // The queued task was cancelled, it isn't executed once the executor is available
+            blocked.countDown();
+            singleThread.submit(() -> {
+            }).get();
+            assertEquals(0, client.executed.get());
+        } finally {
+            blocked.countDown();
+            singleThread.shutdownNow();
+        }
+    }
+
+    @Test
+    void trialAfterOpenDuration() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker("10.0.0.1:8080");
+        circuitBreaker.recordFailure(0, 1);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.allowRequest(50, 100));
+
+        // A single trial is allowed once the breaker was open long enough
+        assertTrue(circuitBreaker.allowRequest(100, 100));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.allowRequest(110, 100));
+
+        // A failed trial opens the breaker again
+        circuitBreaker.recordFailure(120, 1);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.allowRequest(200, 100));
+        assertTrue(circuitBreaker.allowRequest(220, 100));
+
+        circuitBreaker.recordSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.isExpired(230, 100));
+    }
+
+    @Test
+    void breakersAreBounded() throws Exception {
+        TestStreamClient client = new TestStreamClient(new StreamClientConfigurationImpl(executor, 3, 0, 60, 2));
+        client.failing = true;
+
+        for (int i = 0; i < AbstractStreamClient.CIRCUIT_BREAKERS_MAX_SIZE + 50; i++) {
+            client.sendRequest(createRequestMessage("http://10.0.1." + i + ":8080/desc.xml"));
+        }
+        assertEquals(AbstractStreamClient.CIRCUIT_BREAKERS_MAX_SIZE, client.getCircuitBreakerStates().size());
+    }
+
+    protected StreamRequestMessage createRequestMessage(String uri) {
+        return new StreamRequestMessage(UpnpRequest.Method.GET, URI.create(uri));
+    }
+
+    static class TestStreamClient extends AbstractStreamClient<StreamClientConfigurationImpl, String> {
+
+        final StreamClientConfigurationImpl configuration;
+        final AtomicInteger executed = new AtomicInteger();
+        volatile boolean failing;
+
+        TestStreamClient(StreamClientConfigurationImpl configuration) {
+            this.configuration = configuration;
+        }
+
+        @Override
+        protected String createRequest(StreamRequestMessage requestMessage) {
+            return requestMessage.getUri().toString();
+        }
+
+        @Override
+        protected Callable<StreamResponseMessage> createCallable(StreamRequestMessage requestMessage,
+                String request) {
+            return () -> {
+                executed.incrementAndGet();
+                if (failing) {
+                    throw new IOException("Connection refused");
+                }
+                return new StreamResponseMessage(UpnpResponse.Status.OK);
+            };
+        }
+
+        @Override
+        protected void abort(String request) {
+        }
+
+        @Override
+        protected boolean logExecutionException(Throwable t) {
+            return true;
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public StreamClientConfigurationImpl getConfiguration() {
+            return configuration;
+        }
+    }
+}
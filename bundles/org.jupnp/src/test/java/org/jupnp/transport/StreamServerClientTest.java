@@ -22,6 +22,8 @@ import java.io.UncheckedIOException;
 import java.net.InetAddress;
 import java.net.ServerSocket;
 import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 
@@ -240,6 +242,33 @@ public abstract class StreamServerClientTest {
         assertNull(client.sendRequest(createRequestMessage(new URI(uri))));
     }
 
+    @Test
+    void basicAsync() throws Exception {
+        CompletableFuture<StreamResponseMessage> response = client
+                .sendRequestAsync(createRequestMessage(OKBodyResponse.PATH));
+        StreamResponseMessage responseMessage = response.get(clientTimeoutMillis + 1000, TimeUnit.MILLISECONDS);
+        assertNotNull(responseMessage, "responseMessage");
+        assertEquals(responseMessage.getOperation().getStatusCode(), 200);
+        assertEquals(responseMessage.getBodyString(), "foo");
+        assertTrue(lastExecutedServerProtocol.isComplete);
+    }
+
+    @Test
+    void expiredAsync() throws Exception {
+        CompletableFuture<StreamResponseMessage> response = client
+                .sendRequestAsync(createRequestMessage(TooLongResponse.PATH));
+        assertNull(response.get(clientTimeoutMillis + 1000, TimeUnit.MILLISECONDS));
+        assertFalse(lastExecutedServerProtocol.isComplete);
+        Thread.sleep(TooLongResponse.SLEEP_MS + 1000);
+        assertTrue(lastExecutedServerProtocol.isComplete);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "", "http:///", "http:///descriptor.xml", "http://:8081/descriptor.xml" })
+    void returnNullForInvalidURIAsync(String uri) throws Exception {
+        assertNull(client.sendRequestAsync(createRequestMessage(new URI(uri))).get());
+    }
+
     protected StreamRequestMessage createRequestMessage(String path) {
         return new StreamRequestMessage(UpnpRequest.Method.GET,
                 URI.create("http://" + TEST_HOST + ":" + TEST_PORT + path));